@@ -45,6 +45,9 @@ CREATE TABLE IF NOT EXISTS topics_stats (
   storage_size double precision	,
   time_stamp BIGINT
 );
+CREATE INDEX IF NOT EXISTS idx_topics_stats_time_stamp ON topics_stats (time_stamp);
+CREATE INDEX IF NOT EXISTS idx_topics_stats_namespace ON topics_stats (environment, time_stamp, tenant, namespace);
+CREATE INDEX IF NOT EXISTS idx_topics_stats_broker ON topics_stats (environment, time_stamp, cluster, broker);
 
 CREATE TABLE IF NOT EXISTS publishers_stats (
   publisher_stats_id BIGSERIAL PRIMARY KEY,
@@ -61,6 +64,8 @@ CREATE TABLE IF NOT EXISTS publishers_stats (
   time_stamp BIGINT,
   CONSTRAINT fk_publishers_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
 );
+CREATE INDEX IF NOT EXISTS idx_publishers_stats_topic ON publishers_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_publishers_stats_time_stamp ON publishers_stats (time_stamp);
 
 CREATE TABLE IF NOT EXISTS replications_stats (
   replication_stats_id BIGSERIAL PRIMARY KEY,
@@ -82,6 +87,8 @@ CREATE TABLE IF NOT EXISTS replications_stats (
   time_stamp BIGINT,
   CONSTRAINT FK_replications_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
 );
+CREATE INDEX IF NOT EXISTS idx_replications_stats_topic ON replications_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_replications_stats_time_stamp ON replications_stats (time_stamp);
 
 CREATE TABLE IF NOT EXISTS subscriptions_stats (
   subscription_stats_id BIGSERIAL PRIMARY KEY,
@@ -100,6 +107,8 @@ CREATE TABLE IF NOT EXISTS subscriptions_stats (
   UNIQUE (topic_stats_id, subscription),
   CONSTRAINT FK_subscriptions_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
 );
+CREATE INDEX IF NOT EXISTS idx_subscriptions_stats_topic ON subscriptions_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_subscriptions_stats_time_stamp ON subscriptions_stats (time_stamp);
 
 CREATE TABLE IF NOT EXISTS consumers_stats (
   consumer_stats_id BIGSERIAL PRIMARY KEY,
@@ -117,6 +126,146 @@ CREATE TABLE IF NOT EXISTS consumers_stats (
   time_stamp BIGINT,
   metadata text
 );
+CREATE INDEX IF NOT EXISTS idx_consumers_stats_topic ON consumers_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_consumers_stats_subscription ON consumers_stats (subscription_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_consumers_stats_time_stamp ON consumers_stats (time_stamp);
+
+CREATE TABLE IF NOT EXISTS bookies_stats (
+  bookie_stats_id BIGSERIAL PRIMARY KEY,
+  bookie varchar(255) NOT NULL,
+  status varchar(8),
+  free_disk_space BIGINT,
+  total_disk_space BIGINT,
+  journal_add_latency_p50 double precision,
+  journal_add_latency_p99 double precision,
+  ledger_count BIGINT,
+  time_stamp BIGINT
+);
+CREATE INDEX IF NOT EXISTS idx_bookies_stats_bookie ON bookies_stats (bookie, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_bookies_stats_time_stamp ON bookies_stats (time_stamp);
+
+CREATE TABLE IF NOT EXISTS stats_ids (
+  id_name varchar(255) PRIMARY KEY,
+  next_id BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS topics_dimension (
+  topic_id BIGINT PRIMARY KEY,
+  environment varchar(255) NOT NULL,
+  cluster varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  persistent varchar(36) NOT NULL,
+  topic varchar(255) NOT NULL,
+  UNIQUE (environment, cluster, tenant, namespace, persistent, topic)
+);
+
+CREATE TABLE IF NOT EXISTS topics_history (
+  topic_id BIGINT NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  broker varchar(255),
+  bundle varchar(255),
+  producer_count INT,
+  subscription_count INT,
+  msg_rate_in double precision,
+  msg_throughput_in double precision,
+  msg_rate_out double precision,
+  msg_throughput_out double precision,
+  average_msg_size double precision,
+  storage_size double precision,
+  PRIMARY KEY (topic_id, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_topics_history_time_stamp ON topics_history (time_stamp);
+
+CREATE TABLE IF NOT EXISTS topics_rollup (
+  resolution INT NOT NULL,
+  topic_id BIGINT NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double precision,
+  msg_rate_in_max double precision,
+  msg_rate_in_avg double precision,
+  msg_rate_in_last double precision,
+  msg_rate_out_min double precision,
+  msg_rate_out_max double precision,
+  msg_rate_out_avg double precision,
+  msg_rate_out_last double precision,
+  msg_throughput_in_min double precision,
+  msg_throughput_in_max double precision,
+  msg_throughput_in_avg double precision,
+  msg_throughput_in_last double precision,
+  msg_throughput_out_min double precision,
+  msg_throughput_out_max double precision,
+  msg_throughput_out_avg double precision,
+  msg_throughput_out_last double precision,
+  storage_size_min double precision,
+  storage_size_max double precision,
+  storage_size_avg double precision,
+  storage_size_last double precision,
+  PRIMARY KEY (resolution, topic_id, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_topics_rollup_time_stamp ON topics_rollup (resolution, time_stamp);
+
+CREATE TABLE IF NOT EXISTS namespaces_rollup (
+  resolution INT NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double precision,
+  msg_rate_in_max double precision,
+  msg_rate_in_avg double precision,
+  msg_rate_in_last double precision,
+  msg_rate_out_min double precision,
+  msg_rate_out_max double precision,
+  msg_rate_out_avg double precision,
+  msg_rate_out_last double precision,
+  msg_throughput_in_min double precision,
+  msg_throughput_in_max double precision,
+  msg_throughput_in_avg double precision,
+  msg_throughput_in_last double precision,
+  msg_throughput_out_min double precision,
+  msg_throughput_out_max double precision,
+  msg_throughput_out_avg double precision,
+  msg_throughput_out_last double precision,
+  storage_size_min double precision,
+  storage_size_max double precision,
+  storage_size_avg double precision,
+  storage_size_last double precision,
+  PRIMARY KEY (resolution, environment, tenant, namespace, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_namespaces_rollup_time_stamp ON namespaces_rollup (resolution, time_stamp);
+
+CREATE TABLE IF NOT EXISTS tenants_rollup (
+  resolution INT NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double precision,
+  msg_rate_in_max double precision,
+  msg_rate_in_avg double precision,
+  msg_rate_in_last double precision,
+  msg_rate_out_min double precision,
+  msg_rate_out_max double precision,
+  msg_rate_out_avg double precision,
+  msg_rate_out_last double precision,
+  msg_throughput_in_min double precision,
+  msg_throughput_in_max double precision,
+  msg_throughput_in_avg double precision,
+  msg_throughput_in_last double precision,
+  msg_throughput_out_min double precision,
+  msg_throughput_out_max double precision,
+  msg_throughput_out_avg double precision,
+  msg_throughput_out_last double precision,
+  storage_size_min double precision,
+  storage_size_max double precision,
+  storage_size_avg double precision,
+  storage_size_last double precision,
+  PRIMARY KEY (resolution, environment, tenant, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_tenants_rollup_time_stamp ON tenants_rollup (resolution, time_stamp);
 
 CREATE TABLE IF NOT EXISTS tokens (
   token_id BIGSERIAL PRIMARY KEY,
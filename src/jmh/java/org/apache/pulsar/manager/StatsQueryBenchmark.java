@@ -0,0 +1,244 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Latency of the dashboard queries on a stats table seeded with millions of rows, with and without
+ * the indexes of StatsIndexMigration. Runs against an in-process HerdDB by default, point jdbcUrl and
+ * schema at an empty database to measure another backend. The MySQL schema declares the indexes inline,
+ * so both cases are indexed there. Run with ./gradlew jmh -Pjmh.include=StatsQueryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+// Every fork starts from an empty in-process database
+@Fork(1)
+public class StatsQueryBenchmark {
+
+    private static final String ENVIRONMENT = "benchmark";
+    private static final int SNAPSHOTS = 20;
+    private static final int TENANTS = 10;
+    private static final int NAMESPACES_PER_TENANT = 10;
+
+    @Param({"jdbc:herddb:local"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String username;
+
+    @Param({"hdb"})
+    public String password;
+
+    /** One of herddb, mysql, postgresql or sqlite. */
+    @Param({"herddb"})
+    public String schema;
+
+    @Param({"2000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement findMaxTime;
+    private PreparedStatement findByNamespace;
+    private PreparedStatement findByMultiTenant;
+    private PreparedStatement findConsumersByTopicStatsId;
+    private long latestTimestamp;
+    private int topicsPerSnapshot;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        connection = DriverManager.getConnection(jdbcUrl, username, password);
+        createSchema();
+        seed();
+        if (indexed) {
+            StatsIndexMigration.createMissingIndexes(connection);
+        }
+        findMaxTime = connection.prepareStatement(
+            "SELECT topic_stats_id, time_stamp FROM topics_stats ORDER BY time_stamp DESC limit 1");
+        findByNamespace = connection.prepareStatement(
+            "SELECT topic_stats_id, topic, msg_rate_in, storage_size FROM topics_stats " +
+            "WHERE environment=? and tenant=? and namespace=? and time_stamp=?");
+        findByMultiTenant = connection.prepareStatement(
+            "SELECT tenant, sum(msg_rate_in) as msg_rate_in, sum(storage_size) as storage_size FROM topics_stats " +
+            "WHERE environment=? and time_stamp=? and tenant IN (?, ?) GROUP BY environment, tenant, time_stamp");
+        findConsumersByTopicStatsId = connection.prepareStatement(
+            "SELECT consumer_stats_id, consumer, msg_rate_out FROM consumers_stats " +
+            "WHERE topic_stats_id=? and time_stamp=?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void findMaxTime(Blackhole blackhole) throws SQLException {
+        consume(findMaxTime, blackhole);
+    }
+
+    @Benchmark
+    public void findByNamespace(Blackhole blackhole) throws SQLException {
+        int namespace = random.nextInt(TENANTS * NAMESPACES_PER_TENANT);
+        findByNamespace.setString(1, ENVIRONMENT);
+        findByNamespace.setString(2, "tenant-" + namespace / NAMESPACES_PER_TENANT);
+        findByNamespace.setString(3, "namespace-" + namespace);
+        findByNamespace.setLong(4, latestTimestamp);
+        consume(findByNamespace, blackhole);
+    }
+
+    @Benchmark
+    public void findByMultiTenant(Blackhole blackhole) throws SQLException {
+        findByMultiTenant.setString(1, ENVIRONMENT);
+        findByMultiTenant.setLong(2, latestTimestamp);
+        findByMultiTenant.setString(3, "tenant-" + random.nextInt(TENANTS));
+        findByMultiTenant.setString(4, "tenant-" + random.nextInt(TENANTS));
+        consume(findByMultiTenant, blackhole);
+    }
+
+    @Benchmark
+    public void findConsumersByTopicStatsId(Blackhole blackhole) throws SQLException {
+        // Ids of the latest snapshot
+        long topicStatsId = (long) (SNAPSHOTS - 1) * topicsPerSnapshot + random.nextInt(topicsPerSnapshot) + 1;
+        findConsumersByTopicStatsId.setLong(1, topicStatsId);
+        findConsumersByTopicStatsId.setLong(2, latestTimestamp);
+        consume(findConsumersByTopicStatsId, blackhole);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getObject(1));
+            }
+        }
+    }
+
+    private void createSchema() throws SQLException, IOException {
+        String script;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(
+                "/META-INF/sql/" + schema + "-schema.sql"), StandardCharsets.UTF_8))) {
+            script = reader.lines().filter((line) -> !line.trim().startsWith("--"))
+                .collect(Collectors.joining("\n"));
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                // The indexes are only created when measuring the indexed case
+                if (!sql.trim().isEmpty() && !sql.trim().startsWith("CREATE INDEX")) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    private void seed() throws SQLException {
+        topicsPerSnapshot = rows / SNAPSHOTS;
+        latestTimestamp = System.currentTimeMillis() / 1000L;
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement topics = connection.prepareStatement(
+                "INSERT INTO topics_stats(topic_stats_id,environment,cluster,broker,tenant,namespace,bundle," +
+                "persistent,topic,producer_count,subscription_count,msg_rate_in,msg_throughput_in,msg_rate_out," +
+                "msg_throughput_out,average_msg_size,storage_size,time_stamp) " +
+                "VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
+             PreparedStatement consumers = connection.prepareStatement(
+                "INSERT INTO consumers_stats(consumer,topic_stats_id,replication_stats_id,subscription_stats_id," +
+                "address,available_permits,connected_since,msg_rate_out,msg_throughput_out,msg_rate_redeliver," +
+                "client_version,time_stamp,metadata) VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?)")) {
+            long id = 0;
+            for (int snapshot = 0; snapshot < SNAPSHOTS; snapshot++) {
+                long timestamp = latestTimestamp - (SNAPSHOTS - 1 - snapshot) * 30L;
+                for (int topic = 0; topic < topicsPerSnapshot; topic++) {
+                    id++;
+                    int namespace = topic % (TENANTS * NAMESPACES_PER_TENANT);
+                    topics.setLong(1, id);
+                    topics.setString(2, ENVIRONMENT);
+                    topics.setString(3, "standalone");
+                    topics.setString(4, "broker-" + topic % 10 + ":8080");
+                    topics.setString(5, "tenant-" + namespace / NAMESPACES_PER_TENANT);
+                    topics.setString(6, "namespace-" + namespace);
+                    topics.setString(7, "0x00000000_0xffffffff");
+                    topics.setString(8, "persistent");
+                    topics.setString(9, "topic-" + topic);
+                    topics.setLong(10, 1);
+                    topics.setLong(11, 1);
+                    topics.setDouble(12, topic * 0.5);
+                    topics.setDouble(13, topic * 50.0);
+                    topics.setDouble(14, topic * 0.5);
+                    topics.setDouble(15, topic * 50.0);
+                    topics.setDouble(16, 100.0);
+                    topics.setDouble(17, topic * 1024.0);
+                    topics.setLong(18, timestamp);
+                    topics.addBatch();
+                    consumers.setString(1, "consumer-" + topic);
+                    consumers.setLong(2, id);
+                    consumers.setLong(3, -1);
+                    consumers.setLong(4, id);
+                    consumers.setString(5, "/127.0.0.1:59668");
+                    consumers.setLong(6, 1000);
+                    consumers.setString(7, "2019-08-10T11:37:24.306+08:00");
+                    consumers.setDouble(8, topic * 0.5);
+                    consumers.setDouble(9, topic * 50.0);
+                    consumers.setDouble(10, 0.0);
+                    consumers.setString(11, "2.7.0");
+                    consumers.setLong(12, timestamp);
+                    consumers.setString(13, "{}");
+                    consumers.addBatch();
+                    if (id % 1000 == 0) {
+                        topics.executeBatch();
+                        consumers.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            topics.executeBatch();
+            consumers.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
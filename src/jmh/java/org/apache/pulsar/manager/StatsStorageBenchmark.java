@@ -0,0 +1,269 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write throughput of one stats snapshot into the wide topics_stats table and into the dictionary encoded
+ * topics_dimension and topics_history tables. The score is in topic rows per second. The storage used is
+ * printed at the end of each trial: the bytes bound to the statements for every backend, and the size of
+ * the tables as reported by MySQL and PostgreSQL. Runs against an in-process HerdDB by default, point
+ * jdbcUrl and schema at an empty database to measure another backend.
+ * Run with ./gradlew jmh -Pjmh.include=StatsStorageBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+// Every fork starts from an empty in-process database
+@Fork(1)
+public class StatsStorageBenchmark {
+
+    private static final String ENVIRONMENT = "benchmark";
+    private static final int TOPICS = 10000;
+    private static final int TENANTS = 10;
+    private static final int NAMESPACES_PER_TENANT = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"jdbc:herddb:local"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String username;
+
+    @Param({"hdb"})
+    public String password;
+
+    /** One of herddb, mysql, postgresql or sqlite. */
+    @Param({"herddb"})
+    public String schema;
+
+    @Param({"wide", "dictionary"})
+    public String storage;
+
+    private Connection connection;
+    private PreparedStatement insertTopicStats;
+    private PreparedStatement insertDimension;
+    private PreparedStatement insertHistory;
+    private final Map<String, Long> dimensions = new HashMap<>();
+    private long timestamp;
+    private long topicStatsId;
+    private long rows;
+    private long boundBytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        connection = DriverManager.getConnection(jdbcUrl, username, password);
+        createSchema();
+        StatsIndexMigration.createMissingIndexes(connection);
+        connection.setAutoCommit(false);
+        insertTopicStats = connection.prepareStatement(
+            "INSERT INTO topics_stats(topic_stats_id,environment,cluster,broker,tenant,namespace,bundle," +
+            "persistent,topic,producer_count,subscription_count,msg_rate_in,msg_throughput_in,msg_rate_out," +
+            "msg_throughput_out,average_msg_size,storage_size,time_stamp) " +
+            "VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
+        insertDimension = connection.prepareStatement(
+            "INSERT INTO topics_dimension(topic_id,environment,cluster,tenant,namespace,persistent,topic) " +
+            "VALUES(?,?,?,?,?,?,?)");
+        insertHistory = connection.prepareStatement(
+            "INSERT INTO topics_history(topic_id,time_stamp,broker,bundle,producer_count,subscription_count," +
+            "msg_rate_in,msg_throughput_in,msg_rate_out,msg_throughput_out,average_msg_size,storage_size) " +
+            "VALUES(?,?,?,?,?,?,?,?,?,?,?,?)");
+        timestamp = System.currentTimeMillis() / 1000L;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        System.out.printf("%n%s storage: %d topic rows, %d bytes bound, %.1f bytes bound per row%n",
+            storage, rows, boundBytes, rows > 0 ? (double) boundBytes / rows : 0.0);
+        Long tableBytes = tableBytes();
+        if (tableBytes != null) {
+            System.out.printf("%s storage: %d bytes in %s tables, %.1f bytes per row%n",
+                storage, tableBytes, schema, rows > 0 ? (double) tableBytes / rows : 0.0);
+        }
+        connection.close();
+    }
+
+    /**
+     * One snapshot of every topic, written in a single transaction as the collector does.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TOPICS)
+    public void writeSnapshot() throws SQLException {
+        timestamp += 30;
+        for (int topic = 0; topic < TOPICS; topic++) {
+            if ("wide".equals(storage)) {
+                addTopicStats(topic);
+                if ((topic + 1) % BATCH_SIZE == 0) {
+                    insertTopicStats.executeBatch();
+                }
+            } else {
+                addHistory(topic);
+                if ((topic + 1) % BATCH_SIZE == 0) {
+                    insertDimension.executeBatch();
+                    insertHistory.executeBatch();
+                }
+            }
+        }
+        insertTopicStats.executeBatch();
+        insertDimension.executeBatch();
+        insertHistory.executeBatch();
+        connection.commit();
+        rows += TOPICS;
+    }
+
+    private void addTopicStats(int topic) throws SQLException {
+        String[] strings = topicStrings(topic);
+        insertTopicStats.setLong(1, ++topicStatsId);
+        for (int i = 0; i < strings.length; i++) {
+            insertTopicStats.setString(i + 2, strings[i]);
+            boundBytes += strings[i].getBytes(StandardCharsets.UTF_8).length;
+        }
+        setMetrics(insertTopicStats, 10, topic);
+        insertTopicStats.setLong(18, timestamp);
+        insertTopicStats.addBatch();
+        // id, counts, metrics and timestamp
+        boundBytes += 8 * 10;
+    }
+
+    private void addHistory(int topic) throws SQLException {
+        String[] strings = topicStrings(topic);
+        // The broker and the bundle are on the points
+        String[] dimension = {strings[0], strings[1], strings[3], strings[4], strings[6], strings[7]};
+        String key = String.join("/", dimension);
+        Long topicId = dimensions.get(key);
+        if (topicId == null) {
+            topicId = (long) dimensions.size() + 1;
+            dimensions.put(key, topicId);
+            insertDimension.setLong(1, topicId);
+            for (int i = 0; i < dimension.length; i++) {
+                insertDimension.setString(i + 2, dimension[i]);
+                boundBytes += dimension[i].getBytes(StandardCharsets.UTF_8).length;
+            }
+            insertDimension.addBatch();
+            boundBytes += 8;
+        }
+        insertHistory.setLong(1, topicId);
+        insertHistory.setLong(2, timestamp);
+        insertHistory.setString(3, strings[2]);
+        insertHistory.setString(4, strings[5]);
+        boundBytes += strings[2].getBytes(StandardCharsets.UTF_8).length
+            + strings[5].getBytes(StandardCharsets.UTF_8).length;
+        setMetrics(insertHistory, 5, topic);
+        insertHistory.addBatch();
+        // id, timestamp, counts and metrics
+        boundBytes += 8 * 2 + 4 * 2 + 8 * 6;
+    }
+
+    private static String[] topicStrings(int topic) {
+        int namespace = topic % (TENANTS * NAMESPACES_PER_TENANT);
+        return new String[] {
+            ENVIRONMENT,
+            "standalone",
+            "broker-" + topic % 10 + ".pulsar.svc.cluster.local:8080",
+            "tenant-" + namespace / NAMESPACES_PER_TENANT,
+            "namespace-" + namespace,
+            "0x40000000_0x80000000",
+            "persistent",
+            "topic-" + topic
+        };
+    }
+
+    private static void setMetrics(PreparedStatement statement, int first, int topic) throws SQLException {
+        statement.setLong(first, 1);
+        statement.setLong(first + 1, 2);
+        statement.setDouble(first + 2, topic * 0.5);
+        statement.setDouble(first + 3, topic * 50.0);
+        statement.setDouble(first + 4, topic * 0.5);
+        statement.setDouble(first + 5, topic * 50.0);
+        statement.setDouble(first + 6, 100.0);
+        statement.setDouble(first + 7, topic * 1024.0);
+    }
+
+    private Long tableBytes() throws SQLException {
+        String[] tables = "wide".equals(storage)
+            ? new String[] {"topics_stats"} : new String[] {"topics_dimension", "topics_history"};
+        String query;
+        if ("mysql".equals(schema)) {
+            try (Statement statement = connection.createStatement()) {
+                // Refresh the InnoDB statistics the sizes come from
+                statement.execute("ANALYZE TABLE " + String.join(", ", tables));
+            }
+            query = "SELECT data_length + index_length FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = ?";
+        } else if ("postgresql".equals(schema)) {
+            query = "SELECT pg_total_relation_size(?)";
+        } else {
+            return null;
+        }
+        long bytes = 0;
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (String table : tables) {
+                statement.setString(1, table);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        bytes += resultSet.getLong(1);
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private void createSchema() throws SQLException, IOException {
+        String script;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(
+                "/META-INF/sql/" + schema + "-schema.sql"), StandardCharsets.UTF_8))) {
+            script = reader.lines().filter((line) -> !line.trim().startsWith("--"))
+                .collect(Collectors.joining("\n"));
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                if (!sql.trim().isEmpty()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.proxy;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.cookie.Cookie;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.apache.pulsar.manager.PulsarManagerApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the /admin/** routes under more concurrent clients than servlet threads, for the zuul
+ * and the async proxy engines. Pulsar manager forwards to a stub broker answering after brokerDelayMs
+ * with a body of responseBytes. Run with ./gradlew jmh -Pjmh.include=ProxyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+// Every fork starts its own pulsar manager on an in-process database
+@Fork(1)
+public class ProxyBenchmark {
+
+    @Param({"zuul", "async"})
+    public String engine;
+
+    @Param({"1024", "1048576"})
+    public int responseBytes;
+
+    @Param({"50"})
+    public int brokerDelayMs;
+
+    @Param({"16"})
+    public int serverThreads;
+
+    private HttpServer broker;
+    private ExecutorService brokerExecutor;
+    private ConfigurableApplicationContext manager;
+    private CloseableHttpClient client;
+    private String url;
+    private String brokerAddress;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] body = new byte[responseBytes];
+        Arrays.fill(body, (byte) 'x');
+        broker = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        brokerExecutor = Executors.newCachedThreadPool();
+        broker.setExecutor(brokerExecutor);
+        broker.createContext("/admin/v2/", exchange -> {
+            try {
+                Thread.sleep(brokerDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        broker.start();
+        brokerAddress = "127.0.0.1:" + broker.getAddress().getPort();
+
+        manager = new SpringApplicationBuilder(PulsarManagerApplication.class).run(
+                "--server.port=0",
+                "--proxy.engine=" + engine,
+                "--server.tomcat.max-threads=" + serverThreads,
+                "--user.management.enable=false",
+                "--spring.datasource.url=jdbc:herddb:local",
+                "--logging.level.org.apache=WARN");
+        url = "http://127.0.0.1:" + manager.getEnvironment().getProperty("local.server.port");
+
+        BasicCookieStore cookies = new BasicCookieStore();
+        client = HttpClients.custom()
+                .setDefaultCookieStore(cookies)
+                .setMaxConnTotal(256)
+                .setMaxConnPerRoute(256)
+                .build();
+        EntityUtils.consume(client.execute(new HttpGet(url + "/pulsar-manager/csrf-token")).getEntity());
+        String csrfToken = cookies.getCookies().stream()
+                .filter(cookie -> cookie.getName().equals("XSRF-TOKEN"))
+                .map(Cookie::getValue)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No csrf token"));
+        HttpPost login = new HttpPost(url + "/pulsar-manager/login");
+        login.setHeader("X-XSRF-TOKEN", csrfToken);
+        login.setEntity(new StringEntity(
+                "{\"username\": \"pulsar\", \"password\": \"pulsar\"}", ContentType.APPLICATION_JSON));
+        HttpResponse response = client.execute(login);
+        EntityUtils.consume(response.getEntity());
+        token = response.getFirstHeader("token").getValue();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        manager.close();
+        broker.stop(0);
+        brokerExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public long forward() throws IOException {
+        HttpGet get = new HttpGet(url + "/admin/v2/persistent/public/default/benchmark/stats");
+        get.setHeader("token", token);
+        get.setHeader("x-pulsar-broker", brokerAddress);
+        HttpResponse response = client.execute(get);
+        long read = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream in = response.getEntity().getContent()) {
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                read += n;
+            }
+        }
+        if (response.getStatusLine().getStatusCode() != 200 || read != responseBytes) {
+            throw new IllegalStateException("Unexpected response " + response.getStatusLine() + ", " + read + " bytes");
+        }
+        return read;
+    }
+}
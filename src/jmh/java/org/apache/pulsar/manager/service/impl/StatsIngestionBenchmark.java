@@ -0,0 +1,159 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import org.apache.pulsar.manager.entity.ConsumerStatsEntity;
+import org.apache.pulsar.manager.entity.PublisherStatsEntity;
+import org.apache.pulsar.manager.entity.ReplicationStatsEntity;
+import org.apache.pulsar.manager.entity.StatsBatch;
+import org.apache.pulsar.manager.entity.SubscriptionStatsEntity;
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the stats ingestion loop, from the broker-stats/topics document to the rows handed
+ * to the database writer. The score is in rows per second, the database itself is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StatsIngestionBenchmark {
+
+    static final int TOPICS = 1000;
+    static final int SUBSCRIPTIONS_PER_TOPIC = 2;
+    static final int CONSUMERS_PER_SUBSCRIPTION = 2;
+    // topic + subscriptions + consumers + publisher + replication
+    static final int ROWS_PER_TOPIC =
+        1 + SUBSCRIPTIONS_PER_TOPIC + SUBSCRIPTIONS_PER_TOPIC * CONSUMERS_PER_SUBSCRIPTION + 1 + 1;
+
+    private final Gson gson = new Gson();
+    private byte[] document;
+
+    @Setup
+    public void setup() {
+        document = buildDocument(TOPICS).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOPICS * ROWS_PER_TOPIC)
+    public void ingest(Blackhole blackhole) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(document), StandardCharsets.UTF_8))) {
+            BrokerStatsServiceImpl.writeTopicsStats(new BlackholeStatsBatch(blackhole), reader, gson,
+                System.currentTimeMillis() / 1000L, "benchmark", "standalone", "localhost:8080");
+        }
+    }
+
+    static String buildDocument(int topics) {
+        StringBuilder builder = new StringBuilder("{\"public/default\":{\"0x00000000_0xffffffff\":{\"persistent\":{");
+        for (int i = 0; i < topics; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("\"persistent://public/default/topic-").append(i).append("\":{")
+                .append("\"msgRateIn\":").append(i * 1.2345).append(',')
+                .append("\"msgThroughputIn\":").append(i * 123.456).append(',')
+                .append("\"msgRateOut\":").append(i * 2.3456).append(',')
+                .append("\"msgThroughputOut\":").append(i * 234.567).append(',')
+                .append("\"averageMsgSize\":").append(100.123).append(',')
+                .append("\"storageSize\":").append(i * 1024L).append(',')
+                .append("\"publishers\":[{\"msgRateIn\":1.234,\"msgThroughputIn\":123.456,\"averageMsgSize\":100.1,")
+                .append("\"address\":\"/127.0.0.1:59668\",\"producerId\":1,\"producerName\":\"standalone-1-1\",")
+                .append("\"connectedSince\":\"2019-08-10T11:37:22.405+08:00\",\"clientVersion\":\"2.7.0\",")
+                .append("\"metadata\":{}}],")
+                .append("\"replication\":{\"remote\":{\"msgRateIn\":1.5,\"msgThroughputIn\":15.5,\"msgRateOut\":2.5,")
+                .append("\"msgThroughputOut\":25.5,\"msgRateExpired\":0.0,\"replicationBacklog\":10,")
+                .append("\"connected\":true,\"replicationDelayInSeconds\":1}},")
+                .append("\"subscriptions\":{");
+            for (int s = 0; s < SUBSCRIPTIONS_PER_TOPIC; s++) {
+                if (s > 0) {
+                    builder.append(',');
+                }
+                builder.append("\"sub-").append(s).append("\":{\"consumers\":[");
+                for (int c = 0; c < CONSUMERS_PER_SUBSCRIPTION; c++) {
+                    if (c > 0) {
+                        builder.append(',');
+                    }
+                    builder.append("{\"address\":\"/127.0.0.1:59668\",\"consumerName\":\"consumer-").append(c)
+                        .append("\",\"availablePermits\":1000,\"connectedSince\":\"2019-08-10T11:37:24.306+08:00\",")
+                        .append("\"msgRateOut\":3.14159,\"msgThroughputOut\":314.159,\"msgRateRedeliver\":0.001,")
+                        .append("\"clientVersion\":\"2.7.0\",\"metadata\":{}}");
+                }
+                builder.append("],\"msgBacklog\":42,\"msgRateExpired\":0.5,\"msgRateOut\":6.28318,")
+                    .append("\"msgThroughputOut\":628.318,\"msgRateRedeliver\":0.002,")
+                    .append("\"numberOfEntriesSinceFirstNotAckedMessage\":1,")
+                    .append("\"totalNonContiguousDeletedMessagesRange\":0,\"type\":\"Shared\"}");
+            }
+            builder.append("}}");
+        }
+        return builder.append("}}}}").toString();
+    }
+
+    /**
+     * Hands every row to the blackhole instead of the database.
+     */
+    static class BlackholeStatsBatch implements StatsBatch {
+
+        private final Blackhole blackhole;
+        private long id = 0;
+
+        BlackholeStatsBatch(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        public long addTopicStats(TopicStatsEntity topicStatsEntity) {
+            blackhole.consume(topicStatsEntity);
+            return ++id;
+        }
+
+        public long addSubscriptionStats(SubscriptionStatsEntity subscriptionStatsEntity) {
+            blackhole.consume(subscriptionStatsEntity);
+            return ++id;
+        }
+
+        public void addConsumerStats(ConsumerStatsEntity consumerStatsEntity) {
+            blackhole.consume(consumerStatsEntity);
+        }
+
+        public void addPublisherStats(PublisherStatsEntity publisherStatsEntity) {
+            blackhole.consume(publisherStatsEntity);
+        }
+
+        public void addReplicationStats(ReplicationStatsEntity replicationStatsEntity) {
+            blackhole.consume(replicationStatsEntity);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rounding of stats values as the ingestion loop did it before (a new DecimalFormat per topic and a
+ * String round trip per value) against NumberUtil.round2. The score is in values per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RoundingBenchmark {
+
+    // Values rounded for one topic with two subscriptions, two consumers each, a publisher and a replicator
+    private static final int VALUES_PER_TOPIC = 6 + 2 * 4 + 4 * 3 + 3 + 5;
+
+    private final double[] values = new double[VALUES_PER_TOPIC];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * Math.pow(10, random.nextInt(8));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES_PER_TOPIC)
+    public void decimalFormat(Blackhole blackhole) {
+        DecimalFormat df = new DecimalFormat("#.##");
+        for (double value : values) {
+            blackhole.consume(Double.parseDouble(df.format(value)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES_PER_TOPIC)
+    public void round2(Blackhole blackhole) {
+        for (double value : values) {
+            blackhole.consume(NumberUtil.round2(value));
+        }
+    }
+}
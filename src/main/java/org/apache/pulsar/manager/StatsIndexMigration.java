@@ -0,0 +1,142 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager;
+
+import com.google.common.collect.ImmutableList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Creates the secondary indexes of the stats tables when they are missing, so that deployments whose
+ * schema predates them are upgraded on the next start. The same indexes are declared in the schema
+ * files of every backend.
+ */
+@Component
+@Slf4j
+public class StatsIndexMigration implements ApplicationRunner {
+
+    static final List<StatsIndex> STATS_INDEXES = ImmutableList.of(
+        // findMaxTime, findByMultiEnvironment and the periodic cleanup
+        new StatsIndex("topics_stats", "idx_topics_stats_time_stamp", "time_stamp"),
+        // findByNamespace, findByMultiTopic, findByMultiTenant and findByMultiNamespace
+        new StatsIndex("topics_stats", "idx_topics_stats_namespace", "environment, time_stamp, tenant, namespace"),
+        // findByClusterBroker
+        new StatsIndex("topics_stats", "idx_topics_stats_broker", "environment, time_stamp, cluster, broker"),
+        new StatsIndex("publishers_stats", "idx_publishers_stats_topic", "topic_stats_id, time_stamp"),
+        new StatsIndex("publishers_stats", "idx_publishers_stats_time_stamp", "time_stamp"),
+        new StatsIndex("replications_stats", "idx_replications_stats_topic", "topic_stats_id, time_stamp"),
+        new StatsIndex("replications_stats", "idx_replications_stats_time_stamp", "time_stamp"),
+        new StatsIndex("subscriptions_stats", "idx_subscriptions_stats_topic", "topic_stats_id, time_stamp"),
+        new StatsIndex("subscriptions_stats", "idx_subscriptions_stats_time_stamp", "time_stamp"),
+        new StatsIndex("consumers_stats", "idx_consumers_stats_topic", "topic_stats_id, time_stamp"),
+        new StatsIndex("consumers_stats", "idx_consumers_stats_subscription", "subscription_stats_id, time_stamp"),
+        new StatsIndex("consumers_stats", "idx_consumers_stats_time_stamp", "time_stamp"),
+        // findByBookie and the periodic cleanup
+        new StatsIndex("bookies_stats", "idx_bookies_stats_bookie", "bookie, time_stamp"),
+        new StatsIndex("bookies_stats", "idx_bookies_stats_time_stamp", "time_stamp"),
+        // the periodic cleanup, lookups by topic use the primary key
+        new StatsIndex("topics_history", "idx_topics_history_time_stamp", "time_stamp"),
+        // the rollup of an hour and the periodic cleanup of each tier
+        new StatsIndex("topics_rollup", "idx_topics_rollup_time_stamp", "resolution, time_stamp"),
+        new StatsIndex("namespaces_rollup", "idx_namespaces_rollup_time_stamp", "resolution, time_stamp"),
+        new StatsIndex("tenants_rollup", "idx_tenants_rollup_time_stamp", "resolution, time_stamp"));
+
+    private final DataSource dataSource;
+
+    @Value("${stats.index.migration.enabled:true}")
+    private boolean migrationEnabled;
+
+    @Autowired
+    public StatsIndexMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrationEnabled) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            createMissingIndexes(connection);
+        } catch (SQLException e) {
+            log.warn("Failed to check the indexes of the stats tables", e);
+        }
+    }
+
+    static void createMissingIndexes(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (StatsIndex index : STATS_INDEXES) {
+            if (indexExists(connection, metaData, index)) {
+                continue;
+            }
+            log.info("Creating index {} on {}, this can take a while on a large table", index.name, index.table);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(index.createStatement());
+            } catch (SQLException e) {
+                // Also reached when the driver does not report indexes and the index already exists
+                log.warn("Failed to create index {} on {}: {}", index.name, index.table, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection connection, DatabaseMetaData metaData, StatsIndex index) {
+        Set<String> names = new HashSet<>();
+        // Drivers disagree on the case of unquoted identifiers
+        for (String table : new String[] { index.table, index.table.toUpperCase(Locale.ROOT) }) {
+            try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+                while (resultSet.next()) {
+                    String name = resultSet.getString("INDEX_NAME");
+                    if (name != null) {
+                        names.add(name.toLowerCase(Locale.ROOT));
+                    }
+                }
+            } catch (SQLException e) {
+                log.debug("Failed to read the indexes of {}", table, e);
+            }
+        }
+        return names.contains(index.name);
+    }
+
+    static class StatsIndex {
+
+        final String table;
+        final String name;
+        final String columns;
+
+        StatsIndex(String table, String name, String columns) {
+            this.table = table;
+            this.name = name;
+            this.columns = columns;
+        }
+
+        String createStatement() {
+            return "CREATE INDEX " + name + " ON " + table + " (" + columns + ")";
+        }
+    }
+}
@@ -14,6 +14,8 @@
 package org.apache.pulsar.manager.controller;
 
 import com.google.common.collect.Maps;
+import org.apache.pulsar.manager.entity.BookieStatsEntity;
+import org.apache.pulsar.manager.service.BookieStatsService;
 import org.apache.pulsar.manager.service.BookiesService;
 import io.swagger.annotations.*;
 import org.hibernate.validator.constraints.Range;
@@ -23,6 +25,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.constraints.Min;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,9 +39,12 @@ public class BookiesController {
 
     private final BookiesService bookiesService;
 
+    private final BookieStatsService bookieStatsService;
+
     @Autowired
-    public BookiesController(BookiesService bookiesService) {
+    public BookiesController(BookiesService bookiesService, BookieStatsService bookieStatsService) {
         this.bookiesService = bookiesService;
+        this.bookieStatsService = bookieStatsService;
     }
 
     @ApiOperation(value = "Get the list of existing bookies, support paging, the default is 10 per page")
@@ -61,6 +67,34 @@ public class BookiesController {
         return ResponseEntity.ok(result);
     }
 
+    @ApiOperation(value = "Get the disk usage, journal latency and ledger count collected from a bookie over time")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "ok"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @RequestMapping(value = "/bookies/stats", method =  RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getBookieStats(
+            @ApiParam(value = "bookie", example = "127.0.0.1:3181")
+            @RequestParam(name = "bookie")
+            String bookie,
+            @ApiParam(value = "start_time, unix time in seconds", example = "0")
+            @RequestParam(name = "start_time", defaultValue = "0")
+            @Min(value = 0, message = "start_time is incorrect, should be greater than or equal to 0.")
+            Long startTime,
+            @ApiParam(value = "end_time, unix time in seconds, now by default")
+            @RequestParam(name = "end_time", required = false)
+            Long endTime) {
+        if (endTime == null) {
+            endTime = System.currentTimeMillis() / 1000L;
+        }
+        List<BookieStatsEntity> stats = bookieStatsService.findByBookie(bookie, startTime, endTime);
+        Map<String, Object> result = Maps.newHashMap();
+        result.put("bookie", bookie);
+        result.put("total", stats.size());
+        result.put("data", stats);
+        return ResponseEntity.ok(result);
+    }
+
     @ApiOperation(value = "Forward heartbeat request")
     @ApiResponses({
             @ApiResponse(code = 200, message = "ok"),
@@ -0,0 +1,60 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.controller;
+
+import com.google.common.collect.Maps;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.apache.pulsar.manager.service.TopicsService;
+import org.apache.pulsar.manager.utils.HttpUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Metrics of the in-process caches and connection pools.
+ */
+@RequestMapping(value = "/pulsar-manager/admin/v2")
+@Api(description = "Expose hit and miss counters of the in-process caches and usage of the connection pools.")
+@Validated
+@RestController
+public class CachesController {
+
+    private final TopicsService topicsService;
+
+    @Autowired
+    public CachesController(TopicsService topicsService) {
+        this.topicsService = topicsService;
+    }
+
+    @ApiOperation(value = "Get the hit and miss counters of the caches and the usage of the connection pools")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "ok"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @RequestMapping(value = "/caches/stats", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getCachesStats() {
+        Map<String, Object> result = Maps.newHashMap();
+        result.putAll(topicsService.getCacheStats());
+        result.put("httpClientPool", HttpUtil.getPoolStats());
+        return ResponseEntity.ok(result);
+    }
+}
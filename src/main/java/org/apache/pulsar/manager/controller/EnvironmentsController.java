@@ -227,6 +227,10 @@ public class EnvironmentsController {
             return ResponseEntity.ok(result);
         }
         environmentsRepository.update(environmentEntity);
+        String oldBroker = environmentEntityOptional.get().getBroker();
+        if (!oldBroker.equals(environmentEntity.getBroker())) {
+            pulsarAdminService.closePulsarAdmin(oldBroker);
+        }
         environmentCacheService.reloadEnvironment(environmentEntity);
         result.put("message", "Update environment success");
         return ResponseEntity.ok(result);
@@ -252,6 +256,8 @@ public class EnvironmentsController {
             return ResponseEntity.ok(result);
         }
         environmentsRepository.remove(environmentEntity.getName());
+        environmentCacheService.invalidateEnvironment(environmentEntity.getName());
+        pulsarAdminService.closePulsarAdmin(environmentEntityOptional.get().getBroker());
         result.put("message", "Delete environment success");
         return ResponseEntity.ok(result);
     }
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.pulsar.manager.entity.*;
 import org.apache.pulsar.manager.service.JwtService;
+import org.apache.pulsar.manager.service.RolesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -76,6 +77,9 @@ public class LoginController {
     @Autowired
     private RoleBindingRepository roleBindingRepository;
 
+    @Autowired
+    private RolesService rolesService;
+
     @ApiOperation(value = "Login pulsar manager")
     @ApiResponses({
             @ApiResponse(code = 200, message = "ok"),
@@ -104,6 +108,7 @@ public class LoginController {
             String token = jwtService.toToken(userAccount + password + System.currentTimeMillis());
             userInfoEntity.setAccessToken(token);
             usersRepository.update(userInfoEntity);
+            rolesService.invalidatePermissions();
             result.put("login", "success");
             headers.add("token", token);
             headers.add("username", userAccount);
@@ -160,6 +165,7 @@ public class LoginController {
             UserInfoEntity userInfoEntity = userInfoEntityOptional.get();
             userInfoEntity.setAccessToken("");
             usersRepository.update(userInfoEntity);
+            rolesService.invalidatePermissions();
         }
         result.put("logout", "success");
         jwtService.removeToken(request.getSession().getId());
@@ -133,6 +133,7 @@ public class RoleBindingController {
         roleBindingEntity.setRoleId((Long) validateResult.get("roleId"));
         roleBindingEntity.setUserId((Long) validateResult.get("userId"));
         roleBindingRepository.save(roleBindingEntity);
+        rolesService.invalidatePermissions();
         result.put("message", "Role binding create success");
         return ResponseEntity.ok(result);
     }
@@ -182,6 +183,7 @@ public class RoleBindingController {
 
         roleBindingEntity.setUserId(checkUserInfoEntity.getUserId());
         roleBindingRepository.update(roleBindingEntity);
+        rolesService.invalidatePermissions();
         result.put("message", "Role binding update success");
         return ResponseEntity.ok(result);
     }
@@ -209,6 +211,7 @@ public class RoleBindingController {
             return ResponseEntity.ok(result);
         }
         roleBindingRepository.delete(roleBindingEntity.getRoleId(), roleBindingEntity.getUserId());
+        rolesService.invalidatePermissions();
         result.put("message", "Delete role binding success");
         return ResponseEntity.ok(result);
     }
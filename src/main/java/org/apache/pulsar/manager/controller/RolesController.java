@@ -145,6 +145,7 @@ public class RolesController {
         }
         roleInfoEntity.setRoleSource(tenant);
         rolesRepository.save(roleInfoEntity);
+        rolesService.invalidatePermissions();
         result.put("message", "Create a role success");
         return ResponseEntity.ok(result);
     }
@@ -183,6 +184,7 @@ public class RolesController {
             roleInfoEntity.setFlag(roleInfo.getFlag());
             roleInfoEntity.setRoleSource(tenant);
             rolesRepository.update(roleInfoEntity);
+            rolesService.invalidatePermissions();
             result.put("message", "Update a role success");
             return ResponseEntity.ok(result);
         }
@@ -214,6 +216,7 @@ public class RolesController {
         }
         // Cancel a permission
         rolesRepository.delete(roleInfoEntity.getRoleName(), tenant);
+        rolesService.invalidatePermissions();
         result.put("message", "Delete a role success");
         return ResponseEntity.ok(result);
     }
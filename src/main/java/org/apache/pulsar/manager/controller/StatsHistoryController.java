@@ -0,0 +1,150 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.controller;
+
+import com.google.common.collect.Maps;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.apache.pulsar.manager.entity.StatsRollupEntity;
+import org.apache.pulsar.manager.service.StatsHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trends of the topic stats read from the 5 minute and 1 hour rollups.
+ */
+@RequestMapping(value = "/pulsar-manager/admin/v2")
+@Api(description = "Support trend queries over the rolled up topic stats.")
+@Validated
+@RestController
+public class StatsHistoryController {
+
+    private final StatsHistoryService statsHistoryService;
+    private final HttpServletRequest request;
+
+    @Autowired
+    public StatsHistoryController(StatsHistoryService statsHistoryService, HttpServletRequest request) {
+        this.statsHistoryService = statsHistoryService;
+        this.request = request;
+    }
+
+    @ApiOperation(value = "Get the trend of the sum of the topics of a tenant")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "ok"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @RequestMapping(value = "/stats-history/{tenant}", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getTenantTrend(
+            @PathVariable String tenant,
+            @ApiParam(value = "start_time, unix time in seconds", example = "0")
+            @RequestParam(name = "start_time", defaultValue = "0")
+            @Min(value = 0, message = "start_time is incorrect, should be greater than or equal to 0.")
+            Long startTime,
+            @ApiParam(value = "end_time, unix time in seconds, now by default")
+            @RequestParam(name = "end_time", required = false)
+            Long endTime,
+            @ApiParam(value = "resolution, 5m or 1h, chosen from the time range by default")
+            @RequestParam(name = "resolution", required = false)
+            @Pattern(regexp = "5m|1h", message = "resolution is incorrect, should be 5m or 1h.")
+            String resolution) {
+        long end = endTime != null ? endTime : System.currentTimeMillis() / 1000L;
+        int seconds = resolve(resolution, startTime, end);
+        return ResponseEntity.ok(result(seconds, statsHistoryService.findByTenant(
+            seconds, request.getHeader("environment"), tenant, startTime, end)));
+    }
+
+    @ApiOperation(value = "Get the trend of the sum of the topics of a namespace")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "ok"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @RequestMapping(value = "/stats-history/{tenant}/{namespace}", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getNamespaceTrend(
+            @PathVariable String tenant,
+            @PathVariable String namespace,
+            @ApiParam(value = "start_time, unix time in seconds", example = "0")
+            @RequestParam(name = "start_time", defaultValue = "0")
+            @Min(value = 0, message = "start_time is incorrect, should be greater than or equal to 0.")
+            Long startTime,
+            @ApiParam(value = "end_time, unix time in seconds, now by default")
+            @RequestParam(name = "end_time", required = false)
+            Long endTime,
+            @ApiParam(value = "resolution, 5m or 1h, chosen from the time range by default")
+            @RequestParam(name = "resolution", required = false)
+            @Pattern(regexp = "5m|1h", message = "resolution is incorrect, should be 5m or 1h.")
+            String resolution) {
+        long end = endTime != null ? endTime : System.currentTimeMillis() / 1000L;
+        int seconds = resolve(resolution, startTime, end);
+        return ResponseEntity.ok(result(seconds, statsHistoryService.findByNamespace(
+            seconds, request.getHeader("environment"), tenant, namespace, startTime, end)));
+    }
+
+    @ApiOperation(value = "Get the trend of a topic")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "ok"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @RequestMapping(value = "/stats-history/{tenant}/{namespace}/{persistent}/{topic}", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getTopicTrend(
+            @PathVariable String tenant,
+            @PathVariable String namespace,
+            @PathVariable String persistent,
+            @PathVariable String topic,
+            @ApiParam(value = "start_time, unix time in seconds", example = "0")
+            @RequestParam(name = "start_time", defaultValue = "0")
+            @Min(value = 0, message = "start_time is incorrect, should be greater than or equal to 0.")
+            Long startTime,
+            @ApiParam(value = "end_time, unix time in seconds, now by default")
+            @RequestParam(name = "end_time", required = false)
+            Long endTime,
+            @ApiParam(value = "resolution, 5m or 1h, chosen from the time range by default")
+            @RequestParam(name = "resolution", required = false)
+            @Pattern(regexp = "5m|1h", message = "resolution is incorrect, should be 5m or 1h.")
+            String resolution) {
+        long end = endTime != null ? endTime : System.currentTimeMillis() / 1000L;
+        int seconds = resolve(resolution, startTime, end);
+        return ResponseEntity.ok(result(seconds, statsHistoryService.findByTopic(
+            seconds, request.getHeader("environment"), tenant, namespace, persistent, topic, startTime, end)));
+    }
+
+    private int resolve(String resolution, long startTime, long endTime) {
+        if (resolution == null) {
+            return statsHistoryService.selectResolution(startTime, endTime);
+        }
+        return "1h".equals(resolution) ? StatsHistoryService.ONE_HOUR : StatsHistoryService.FIVE_MINUTES;
+    }
+
+    private Map<String, Object> result(int resolution, List<StatsRollupEntity> rollups) {
+        Map<String, Object> result = Maps.newHashMap();
+        result.put("resolution", resolution);
+        result.put("total", rollups.size());
+        result.put("data", rollups);
+        return result;
+    }
+}
@@ -21,6 +21,7 @@ import io.swagger.annotations.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.manager.entity.*;
 import org.apache.pulsar.manager.service.JwtService;
+import org.apache.pulsar.manager.service.RolesService;
 import org.apache.pulsar.manager.service.ThirdPartyLoginService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -77,6 +78,9 @@ public class ThirdPartyLoginCallbackController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private RolesService rolesService;
+
     @Autowired
     public ThirdPartyLoginCallbackController(ThirdPartyLoginService thirdPartyLoginService) {
         this.thirdPartyLoginService = thirdPartyLoginService;
@@ -110,6 +114,7 @@ public class ThirdPartyLoginCallbackController {
         String token = jwtService.toToken(localUserInfoEntity.getAccessToken() + System.currentTimeMillis());
         localUserInfoEntity.setAccessToken(token);
         usersRepository.update(localUserInfoEntity);
+        rolesService.invalidatePermissions();
         jwtService.setToken(request.getSession().getId(), token);
         response.addHeader("Set-Cookie", "Admin-Token=" + token + "; Path=/");
         response.addHeader("Set-Cookie", "username=" + localUserInfoEntity.getName() + "; Path=/");
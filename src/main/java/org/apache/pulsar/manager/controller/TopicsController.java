@@ -34,6 +34,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import java.util.List;
 import java.util.Map;
@@ -75,8 +76,8 @@ public class TopicsController {
             @RequestParam(name = "page_num", defaultValue = "1")
             @Min(value = 1, message = "page_num is incorrect, should be greater than 0.")
                     Integer pageNum,
-            @ApiParam(value = "page_size", defaultValue = "10", example = "10")
-            @RequestParam(name="page_size", defaultValue = "10")
+            @ApiParam(value = "page_size, all topics are returned when it is not set", example = "10")
+            @RequestParam(name="page_size", required = false)
             @Range(min = 1, max = 1000, message = "page_size is incorrect, should be greater than 0 and less than 1000.")
                     Integer pageSize,
             @ApiParam(value = "The name of tenant")
@@ -86,7 +87,10 @@ public class TopicsController {
             @Size(min = 1, max = 255)
             @PathVariable String namespace) {
         String requestHost = environmentCacheService.getServiceUrl(request);
-        return topicsService.getTopicsList(pageNum, pageSize, tenant, namespace, requestHost);
+        if (pageSize == null) {
+            return topicsService.getTopicsList(pageNum, pageSize, tenant, namespace, requestHost);
+        }
+        return topicsService.getTopicsPage(pageNum, pageSize, tenant, namespace, requestHost);
     }
 
     @ApiOperation(value = "Query topic stats info by tenant and namespace")
@@ -100,8 +104,8 @@ public class TopicsController {
             @RequestParam(name = "page_num", defaultValue = "1")
             @Min(value = 1, message = "page_num is incorrect, should be greater than 0.")
                     Integer pageNum,
-            @ApiParam(value = "page_size", defaultValue = "10", example = "10")
-            @RequestParam(name="page_size", defaultValue = "10")
+            @ApiParam(value = "page_size, all topics are returned when it is not set", example = "10")
+            @RequestParam(name="page_size", required = false)
             @Range(min = 1, max = 1000, message = "page_size is incorrect, should be greater than 0 and less than 1000.")
                     Integer pageSize,
             @ApiParam(value = "The name of tenant")
@@ -109,11 +113,27 @@ public class TopicsController {
             @PathVariable String tenant,
             @ApiParam(value = "The name of namespace")
             @Size(min = 1, max = 255)
-            @PathVariable String namespace) {
+            @PathVariable String namespace,
+            @ApiParam(value = "sort, one of name, msgRateIn or storageSize", defaultValue = "name")
+            @RequestParam(name = "sort", defaultValue = "name")
+            @Pattern(regexp = "name|msgRateIn|storageSize",
+                    message = "sort is incorrect, should be one of name, msgRateIn or storageSize.")
+                    String sort,
+            @ApiParam(value = "order, asc or desc", defaultValue = "asc")
+            @RequestParam(name = "order", defaultValue = "asc")
+            @Pattern(regexp = "asc|desc", message = "order is incorrect, should be asc or desc.")
+                    String order) {
         String env = request.getHeader("environment");
         String serviceUrl = environmentCacheService.getServiceUrl(request);
-        return topicsService.getTopicStats(
+        if (pageSize == null) {
+            return topicsService.getTopicStats(
+                pageNum, pageSize,
+                tenant, namespace,
+                env, serviceUrl);
+        }
+        return topicsService.getTopicStatsPage(
             pageNum, pageSize,
+            sort, order,
             tenant, namespace,
             env, serviceUrl);
     }
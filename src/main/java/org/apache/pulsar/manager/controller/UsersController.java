@@ -142,6 +142,7 @@ public class UsersController {
         }
         userInfoEntity.setPassword(DigestUtils.sha256Hex(userInfoEntity.getPassword()));
         usersRepository.save(userInfoEntity);
+        rolesService.invalidatePermissions();
         // Create default role and tenant
 //         Map<String, String> defaultRoleCreate = rolesService.createDefaultRoleAndTenant(
 //                 userInfoEntity.getName(), request.getHeader("environment"));
@@ -179,6 +180,7 @@ public class UsersController {
         userInfoEntity.setPassword(existUserInfoEntity.getPassword());
         userInfoEntity.setAccessToken(existUserInfoEntity.getAccessToken());
         usersRepository.update(userInfoEntity);
+        rolesService.invalidatePermissions();
         result.put("message", "User update succeeded");
         return ResponseEntity.ok(result);
     }
@@ -198,6 +200,7 @@ public class UsersController {
             return ResponseEntity.ok(result);
         }
         usersRepository.delete(userInfoEntity.getName());
+        rolesService.invalidatePermissions();
         result.put("message", "Delete a user success");
         return ResponseEntity.ok(result);
     }
@@ -295,6 +298,7 @@ public class UsersController {
         roleBindingEntity.setRoleId(roleId);
         roleBindingEntity.setUserId(userId);
         roleBindingRepository.save(roleBindingEntity);
+        rolesService.invalidatePermissions();
         result.put("message", "Add super user success, please login");
         return ResponseEntity.ok(result);
     }
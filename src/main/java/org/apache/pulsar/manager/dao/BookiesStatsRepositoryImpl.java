@@ -0,0 +1,45 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.dao;
+
+import org.apache.pulsar.manager.entity.BookieStatsEntity;
+import org.apache.pulsar.manager.entity.BookiesStatsRepository;
+import org.apache.pulsar.manager.mapper.BookiesStatsMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class BookiesStatsRepositoryImpl implements BookiesStatsRepository {
+
+    private final BookiesStatsMapper bookiesStatsMapper;
+
+    @Autowired
+    public BookiesStatsRepositoryImpl(BookiesStatsMapper bookiesStatsMapper) {
+        this.bookiesStatsMapper = bookiesStatsMapper;
+    }
+
+    public void save(List<BookieStatsEntity> bookieStatsEntities) {
+        bookieStatsEntities.forEach(bookiesStatsMapper::save);
+    }
+
+    public List<BookieStatsEntity> findByBookie(String bookie, long startTime, long endTime) {
+        return bookiesStatsMapper.findByBookie(bookie, startTime, endTime);
+    }
+
+    public void remove(long timestamp, long timeInterval) {
+        bookiesStatsMapper.delete(timestamp - timeInterval);
+    }
+}
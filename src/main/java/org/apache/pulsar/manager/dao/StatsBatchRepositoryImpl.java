@@ -0,0 +1,220 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.pulsar.manager.entity.ConsumerStatsEntity;
+import org.apache.pulsar.manager.entity.PublisherStatsEntity;
+import org.apache.pulsar.manager.entity.ReplicationStatsEntity;
+import org.apache.pulsar.manager.entity.StatsBatch;
+import org.apache.pulsar.manager.entity.StatsBatchRepository;
+import org.apache.pulsar.manager.entity.StatsIdsRepository;
+import org.apache.pulsar.manager.entity.SubscriptionStatsEntity;
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicsHistoryRepository;
+import org.apache.pulsar.manager.mapper.ConsumerStatsMapper;
+import org.apache.pulsar.manager.mapper.PublishersStatsMapper;
+import org.apache.pulsar.manager.mapper.ReplicationsStatsMapper;
+import org.apache.pulsar.manager.mapper.SubscriptionsStatsMapper;
+import org.apache.pulsar.manager.mapper.TopicsStatsMapper;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@Slf4j
+public class StatsBatchRepositoryImpl implements StatsBatchRepository {
+
+    private final SqlSessionTemplate batchSqlSession;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final TopicsHistoryRepository topicsHistoryRepository;
+    private final boolean historyEnabled;
+    private final StatsIdsRepository statsIdsRepository;
+    private final int idBlockSize;
+
+    // Ids are allocated on the client, the generated keys of a JDBC batch are not portable across drivers.
+    // They come from blocks reserved in stats_ids, shared by the snapshots written concurrently.
+    private final IdBlock topicStatsIds = new IdBlock(StatsIdsRepository.TOPICS_STATS);
+    private final IdBlock subscriptionStatsIds = new IdBlock(StatsIdsRepository.SUBSCRIPTIONS_STATS);
+
+    @Autowired
+    public StatsBatchRepositoryImpl(SqlSessionFactory sqlSessionFactory,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${insert.stats.batch.size:1000}") int batchSize,
+                                    TopicsHistoryRepository topicsHistoryRepository,
+                                    @Value("${stats.history.enabled:true}") boolean historyEnabled,
+                                    StatsIdsRepository statsIdsRepository,
+                                    @Value("${insert.stats.id.block.size:10000}") int idBlockSize) {
+        this.batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.topicsHistoryRepository = topicsHistoryRepository;
+        this.historyEnabled = historyEnabled;
+        this.statsIdsRepository = statsIdsRepository;
+        this.idBlockSize = Math.max(1, idBlockSize);
+    }
+
+    public void write(Consumer<StatsBatch> writer) {
+        // Reserved in transactions of their own, before the snapshot holds a connection
+        topicStatsIds.ensureAvailable();
+        subscriptionStatsIds.ensureAvailable();
+        BatchImpl batch = transactionTemplate.execute((status) -> {
+            BatchImpl written = new BatchImpl();
+            writer.accept(written);
+            batchSqlSession.flushStatements();
+            return written;
+        });
+        if (historyEnabled && !batch.topics.isEmpty()) {
+            // The snapshot is committed, a failure of the history only loses its points
+            try {
+                topicsHistoryRepository.save(batch.topics);
+            } catch (RuntimeException e) {
+                log.error("Failed to write the history of {} topics", batch.topics.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Ranges of reserved ids handed out one at a time. The ranges are reserved in committed transactions of
+     * their own, without holding the monitor, a snapshot never locks the stats_ids row.
+     */
+    private final class IdBlock {
+
+        private final String idName;
+
+        // Each range is {next, end}
+        private final Deque<long[]> ranges = new ArrayDeque<>();
+
+        private long available = 0;
+
+        IdBlock(String idName) {
+            this.idName = idName;
+        }
+
+        void ensureAvailable() {
+            synchronized (this) {
+                if (available >= idBlockSize) {
+                    return;
+                }
+            }
+            reserve();
+        }
+
+        void reserve() {
+            long first = statsIdsRepository.reserve(idName, idBlockSize);
+            synchronized (this) {
+                ranges.add(new long[] {first, first + idBlockSize});
+                available += idBlockSize;
+            }
+        }
+
+        /**
+         * The next id, 0 once the reserved ranges are exhausted.
+         */
+        synchronized long take() {
+            while (!ranges.isEmpty()) {
+                long[] range = ranges.peek();
+                if (range[0] < range[1]) {
+                    available--;
+                    return range[0]++;
+                }
+                ranges.poll();
+            }
+            return 0;
+        }
+    }
+
+    private class BatchImpl implements StatsBatch {
+
+        private final TopicsStatsMapper topicsStatsMapper;
+        private final SubscriptionsStatsMapper subscriptionsStatsMapper;
+        private final ConsumerStatsMapper consumerStatsMapper;
+        private final PublishersStatsMapper publishersStatsMapper;
+        private final ReplicationsStatsMapper replicationsStatsMapper;
+
+        // Written to the history once the snapshot is committed
+        private final List<TopicStatsEntity> topics = new ArrayList<>();
+
+        private int pending = 0;
+
+        BatchImpl() {
+            this.topicsStatsMapper = batchSqlSession.getMapper(TopicsStatsMapper.class);
+            this.subscriptionsStatsMapper = batchSqlSession.getMapper(SubscriptionsStatsMapper.class);
+            this.consumerStatsMapper = batchSqlSession.getMapper(ConsumerStatsMapper.class);
+            this.publishersStatsMapper = batchSqlSession.getMapper(PublishersStatsMapper.class);
+            this.replicationsStatsMapper = batchSqlSession.getMapper(ReplicationsStatsMapper.class);
+        }
+
+        private long nextId(IdBlock ids) {
+            long id = ids.take();
+            while (id == 0) {
+                // The ranges ran out during this snapshot, more are reserved on a connection of their own
+                ids.reserve();
+                id = ids.take();
+            }
+            return id;
+        }
+
+        public long addTopicStats(TopicStatsEntity topicStatsEntity) {
+            topicStatsEntity.setTopicStatsId(nextId(topicStatsIds));
+            topicsStatsMapper.insertWithId(topicStatsEntity);
+            added();
+            if (historyEnabled) {
+                topics.add(topicStatsEntity);
+            }
+            return topicStatsEntity.getTopicStatsId();
+        }
+
+        public long addSubscriptionStats(SubscriptionStatsEntity subscriptionStatsEntity) {
+            subscriptionStatsEntity.setSubscriptionStatsId(nextId(subscriptionStatsIds));
+            subscriptionsStatsMapper.saveWithId(subscriptionStatsEntity);
+            added();
+            return subscriptionStatsEntity.getSubscriptionStatsId();
+        }
+
+        public void addConsumerStats(ConsumerStatsEntity consumerStatsEntity) {
+            consumerStatsMapper.batchSave(consumerStatsEntity);
+            added();
+        }
+
+        public void addPublisherStats(PublisherStatsEntity publisherStatsEntity) {
+            publishersStatsMapper.batchSave(publisherStatsEntity);
+            added();
+        }
+
+        public void addReplicationStats(ReplicationStatsEntity replicationStatsEntity) {
+            replicationsStatsMapper.batchSave(replicationStatsEntity);
+            added();
+        }
+
+        private void added() {
+            if (++pending >= batchSize) {
+                batchSqlSession.flushStatements();
+                pending = 0;
+            }
+        }
+    }
+}
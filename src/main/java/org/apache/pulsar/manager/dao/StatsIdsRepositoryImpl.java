@@ -0,0 +1,79 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.dao;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.pulsar.manager.entity.StatsIdsRepository;
+import org.apache.pulsar.manager.mapper.StatsIdsMapper;
+import org.apache.pulsar.manager.mapper.SubscriptionsStatsMapper;
+import org.apache.pulsar.manager.mapper.TopicsHistoryMapper;
+import org.apache.pulsar.manager.mapper.TopicsStatsMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Id counters kept in the stats_ids table. A block is reserved by incrementing the counter, the row lock
+ * taken by the update makes concurrent reservations, from this manager or another one, see distinct blocks.
+ */
+@Repository
+public class StatsIdsRepositoryImpl implements StatsIdsRepository {
+
+    private final StatsIdsMapper statsIdsMapper;
+
+    private final TransactionTemplate reserveTransaction;
+
+    // A counter missing from stats_ids starts after the rows written before it existed
+    private final Map<String, Supplier<Long>> maxIds;
+
+    @Autowired
+    public StatsIdsRepositoryImpl(StatsIdsMapper statsIdsMapper,
+                                  TopicsStatsMapper topicsStatsMapper,
+                                  SubscriptionsStatsMapper subscriptionsStatsMapper,
+                                  TopicsHistoryMapper topicsHistoryMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.statsIdsMapper = statsIdsMapper;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxIds = ImmutableMap.<String, Supplier<Long>>of(
+            TOPICS_STATS, topicsStatsMapper::findMaxId,
+            SUBSCRIPTIONS_STATS, subscriptionsStatsMapper::findMaxId,
+            TOPICS_DIMENSION, topicsHistoryMapper::findMaxTopicId);
+    }
+
+    public long reserve(String idName, int count) {
+        try {
+            return reserveOnce(idName, count);
+        } catch (DataIntegrityViolationException e) {
+            // Another manager created the counter concurrently, it is incremented this time
+            return reserveOnce(idName, count);
+        }
+    }
+
+    private long reserveOnce(String idName, int count) {
+        return reserveTransaction.execute((status) -> {
+            if (statsIdsMapper.increment(idName, count) == 0) {
+                Long maxId = maxIds.getOrDefault(idName, () -> null).get();
+                statsIdsMapper.insert(idName, (maxId == null ? 0 : maxId) + 1 + count);
+            }
+            return statsIdsMapper.findNextId(idName) - count;
+        });
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.dao;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.pulsar.manager.entity.StatsRollupEntity;
+import org.apache.pulsar.manager.entity.StatsRollupRepository;
+import org.apache.pulsar.manager.mapper.StatsRollupMapper;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+public class StatsRollupRepositoryImpl implements StatsRollupRepository {
+
+    private final StatsRollupMapper statsRollupMapper;
+    private final SqlSessionTemplate batchSqlSession;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public StatsRollupRepositoryImpl(StatsRollupMapper statsRollupMapper,
+                                     SqlSessionFactory sqlSessionFactory,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${insert.stats.batch.size:1000}") int batchSize) {
+        this.statsRollupMapper = statsRollupMapper;
+        this.batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void save(List<StatsRollupEntity> topics, List<StatsRollupEntity> namespaces,
+                     List<StatsRollupEntity> tenants) {
+        transactionTemplate.execute((status) -> {
+            StatsRollupMapper batchMapper = batchSqlSession.getMapper(StatsRollupMapper.class);
+            insert(topics, batchMapper::insertTopic);
+            insert(namespaces, batchMapper::insertNamespace);
+            insert(tenants, batchMapper::insertTenant);
+            batchSqlSession.flushStatements();
+            return null;
+        });
+    }
+
+    private void insert(List<StatsRollupEntity> rows, Consumer<StatsRollupEntity> inserter) {
+        int pending = 0;
+        for (StatsRollupEntity row : rows) {
+            inserter.accept(row);
+            if (++pending >= batchSize) {
+                batchSqlSession.flushStatements();
+                pending = 0;
+            }
+        }
+    }
+
+    public Optional<Long> findMaxTime(int resolution) {
+        return Optional.ofNullable(statsRollupMapper.findMaxTime(resolution));
+    }
+
+    public Optional<Long> findMinTime(int resolution, long startTime) {
+        return Optional.ofNullable(statsRollupMapper.findMinTime(resolution, startTime));
+    }
+
+    public List<StatsRollupEntity> findTopicsByTime(int resolution, long startTime, long endTime) {
+        return statsRollupMapper.findTopicsByTime(resolution, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findNamespacesByTime(int resolution, long startTime, long endTime) {
+        return statsRollupMapper.findNamespacesByTime(resolution, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findTenantsByTime(int resolution, long startTime, long endTime) {
+        return statsRollupMapper.findTenantsByTime(resolution, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findByTopic(int resolution, String environment, String tenant, String namespace,
+                                               String persistent, String topic, long startTime, long endTime) {
+        return statsRollupMapper.findByTopic(
+            resolution, environment, tenant, namespace, persistent, topic, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findByNamespace(int resolution, String environment, String tenant,
+                                                   String namespace, long startTime, long endTime) {
+        return statsRollupMapper.findByNamespace(resolution, environment, tenant, namespace, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findByTenant(int resolution, String environment, String tenant,
+                                                long startTime, long endTime) {
+        return statsRollupMapper.findByTenant(resolution, environment, tenant, startTime, endTime);
+    }
+
+    public void remove(int resolution, long timestamp, long timeInterval) {
+        long refTime = timestamp - timeInterval;
+        statsRollupMapper.deleteTopics(resolution, refTime);
+        statsRollupMapper.deleteNamespaces(resolution, refTime);
+        statsRollupMapper.deleteTenants(resolution, refTime);
+    }
+}
@@ -15,6 +15,7 @@ package org.apache.pulsar.manager.dao;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import org.apache.pulsar.manager.entity.StatsIdsRepository;
 import org.apache.pulsar.manager.entity.SubscriptionStatsEntity;
 import org.apache.pulsar.manager.entity.SubscriptionsStatsRepository;
 import org.apache.pulsar.manager.mapper.SubscriptionsStatsMapper;
@@ -26,13 +27,20 @@ public class SubscriptionsStatsRepositoryImpl implements SubscriptionsStatsRepos
 
     private final SubscriptionsStatsMapper subscriptionsStatsMapper;
 
+    private final StatsIdsRepository statsIdsRepository;
+
     @Autowired
-    public SubscriptionsStatsRepositoryImpl(SubscriptionsStatsMapper subscriptionsStatsMapper) {
+    public SubscriptionsStatsRepositoryImpl(SubscriptionsStatsMapper subscriptionsStatsMapper,
+                                            StatsIdsRepository statsIdsRepository) {
         this.subscriptionsStatsMapper = subscriptionsStatsMapper;
+        this.statsIdsRepository = statsIdsRepository;
     }
 
     public long save(SubscriptionStatsEntity subscriptionStatsEntity) {
-        subscriptionsStatsMapper.save(subscriptionStatsEntity);
+        // Same ids as the batched snapshots, the column default is never used
+        subscriptionStatsEntity.setSubscriptionStatsId(
+            statsIdsRepository.reserve(StatsIdsRepository.SUBSCRIPTIONS_STATS, 1));
+        subscriptionsStatsMapper.saveWithId(subscriptionStatsEntity);
         return subscriptionStatsEntity.getSubscriptionStatsId();
     }
 
@@ -0,0 +1,335 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.pulsar.manager.entity.StatsIdsRepository;
+import org.apache.pulsar.manager.entity.TopicDimensionEntity;
+import org.apache.pulsar.manager.entity.TopicHistoryEntity;
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicsHistoryRepository;
+import org.apache.pulsar.manager.mapper.TopicsHistoryMapper;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoded storage of the topic stats history. The environment, cluster, tenant, namespace,
+ * persistent and topic strings are stored once in topics_dimension, the points in topics_history carry the
+ * topic id and the broker and bundle serving the topic at that time. The whole dictionary is kept in memory.
+ */
+@Slf4j
+@Repository
+public class TopicsHistoryRepositoryImpl implements TopicsHistoryRepository {
+
+    private final TopicsHistoryMapper topicsHistoryMapper;
+
+    private final StatsIdsRepository statsIdsRepository;
+
+    private final SqlSessionTemplate batchSqlSession;
+
+    // The history is written in a transaction of its own, after the stats snapshot committed
+    private final TransactionTemplate writeTransaction;
+
+    // The dictionary is read on a connection of its own, the caller may be holding one with another
+    // executor type.
+    private final TransactionTemplate loadTransaction;
+
+    private final int batchSize;
+
+    private final Map<List<String>, Dimension> dimensions = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded = false;
+
+    @Autowired
+    public TopicsHistoryRepositoryImpl(TopicsHistoryMapper topicsHistoryMapper,
+                                       StatsIdsRepository statsIdsRepository,
+                                       SqlSessionFactory sqlSessionFactory,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${insert.stats.batch.size:1000}") int batchSize) {
+        this.topicsHistoryMapper = topicsHistoryMapper;
+        this.statsIdsRepository = statsIdsRepository;
+        this.batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void save(List<TopicStatsEntity> topicStatsEntities) {
+        addDimensions(topicStatsEntities);
+        List<TopicHistoryEntity> points = new ArrayList<>(topicStatsEntities.size());
+        topicStatsEntities.forEach((topicStatsEntity) -> encode(topicStatsEntity).ifPresent(points::add));
+        writeTransaction.execute((status) -> {
+            TopicsHistoryMapper batchMapper = batchSqlSession.getMapper(TopicsHistoryMapper.class);
+            int pending = 0;
+            for (TopicHistoryEntity point : points) {
+                batchMapper.insert(point);
+                if (++pending % batchSize == 0) {
+                    batchSqlSession.flushStatements();
+                }
+            }
+            batchSqlSession.flushStatements();
+            return null;
+        });
+    }
+
+    /**
+     * Replace the strings of a topic stats row by the id of its dimension, empty if the topic already has a
+     * point at this time.
+     */
+    private Optional<TopicHistoryEntity> encode(TopicStatsEntity topicStatsEntity) {
+        List<String> key = key(topicStatsEntity);
+        long topicId;
+        while (true) {
+            Dimension dimension = dimensions.get(key);
+            if (dimension == null) {
+                // Removed by a concurrent cleanup, the topic gets a new dimension
+                addDimensions(Collections.singletonList(topicStatsEntity));
+                continue;
+            }
+            synchronized (dimension) {
+                if (!dimension.live) {
+                    continue;
+                }
+                if (topicStatsEntity.getTimestamp() <= dimension.lastTimestamp) {
+                    return Optional.empty();
+                }
+                dimension.lastTimestamp = topicStatsEntity.getTimestamp();
+                topicId = dimension.topicId;
+                break;
+            }
+        }
+        TopicHistoryEntity topicHistoryEntity = new TopicHistoryEntity();
+        topicHistoryEntity.setTopicId(topicId);
+        topicHistoryEntity.setBroker(topicStatsEntity.getBroker());
+        topicHistoryEntity.setBundle(topicStatsEntity.getBundle());
+        topicHistoryEntity.setProducerCount(topicStatsEntity.getProducerCount());
+        topicHistoryEntity.setSubscriptionCount(topicStatsEntity.getSubscriptionCount());
+        topicHistoryEntity.setMsgRateIn(topicStatsEntity.getMsgRateIn());
+        topicHistoryEntity.setMsgThroughputIn(topicStatsEntity.getMsgThroughputIn());
+        topicHistoryEntity.setMsgRateOut(topicStatsEntity.getMsgRateOut());
+        topicHistoryEntity.setMsgThroughputOut(topicStatsEntity.getMsgThroughputOut());
+        topicHistoryEntity.setAverageMsgSize(topicStatsEntity.getAverageMsgSize());
+        topicHistoryEntity.setStorageSize(topicStatsEntity.getStorageSize());
+        topicHistoryEntity.setTime_stamp(topicStatsEntity.getTimestamp());
+        return Optional.of(topicHistoryEntity);
+    }
+
+    public List<TopicStatsEntity> findByTopic(String environment, String tenant, String namespace, String persistent,
+                                              String topic, long startTime, long endTime) {
+        return topicsHistoryMapper.findByTopic(environment, tenant, namespace, persistent, topic, startTime, endTime);
+    }
+
+    public List<TopicHistoryEntity> findByTime(long startTime, long endTime) {
+        return topicsHistoryMapper.findByTime(startTime, endTime);
+    }
+
+    public Optional<Long> findMinTime(long startTime) {
+        return Optional.ofNullable(topicsHistoryMapper.findMinTime(startTime));
+    }
+
+    public List<TopicDimensionEntity> findAllDimensions() {
+        return topicsHistoryMapper.findAllDimensions();
+    }
+
+    public void remove(long timestamp, long timeInterval) {
+        topicsHistoryMapper.delete(timestamp - timeInterval);
+    }
+
+    public synchronized void removeDimensions(long timestamp, long timeInterval) {
+        long refTime = timestamp - timeInterval;
+        load();
+        // The database decides, other managers may write points or rollups of the same dimensions
+        Set<Long> referenced = loadTransaction.execute((status) -> {
+            Set<Long> topicIds = new HashSet<>(topicsHistoryMapper.findRollupTopicIds());
+            topicsHistoryMapper.findLastTimestamps().forEach((point) -> topicIds.add(point.getTopicId()));
+            return topicIds;
+        });
+        Iterator<Dimension> iterator = dimensions.values().iterator();
+        while (iterator.hasNext()) {
+            Dimension dimension = iterator.next();
+            if (!referenced.contains(dimension.topicId) && dimension.retire(refTime)) {
+                topicsHistoryMapper.deleteDimension(dimension.topicId);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Insert the missing dimensions of the topics and add them to the dictionary. Their ids are reserved in
+     * stats_ids, shared by all the managers using the database.
+     */
+    private synchronized void addDimensions(List<TopicStatsEntity> topicStatsEntities) {
+        load();
+        Map<List<String>, TopicDimensionEntity> added = new LinkedHashMap<>();
+        for (TopicStatsEntity topicStatsEntity : topicStatsEntities) {
+            List<String> key = key(topicStatsEntity);
+            if (!dimensions.containsKey(key) && !added.containsKey(key)) {
+                TopicDimensionEntity topicDimensionEntity = new TopicDimensionEntity();
+                topicDimensionEntity.setEnvironment(topicStatsEntity.getEnvironment());
+                topicDimensionEntity.setCluster(topicStatsEntity.getCluster());
+                topicDimensionEntity.setTenant(topicStatsEntity.getTenant());
+                topicDimensionEntity.setNamespace(topicStatsEntity.getNamespace());
+                topicDimensionEntity.setPersistent(topicStatsEntity.getPersistent());
+                topicDimensionEntity.setTopic(topicStatsEntity.getTopic());
+                added.put(key, topicDimensionEntity);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        long topicId = statsIdsRepository.reserve(StatsIdsRepository.TOPICS_DIMENSION, added.size());
+        for (TopicDimensionEntity topicDimensionEntity : added.values()) {
+            topicDimensionEntity.setTopicId(topicId++);
+        }
+        Map<List<String>, Long> lastTimestamps = insertDimensions(added.values());
+        // Kept as if it had a point now until its first point is written
+        long addTime = System.currentTimeMillis() / 1000L;
+        for (Map.Entry<List<String>, TopicDimensionEntity> entry : added.entrySet()) {
+            dimensions.put(entry.getKey(), new Dimension(entry.getValue().getTopicId(),
+                lastTimestamps.getOrDefault(entry.getKey(), 0L), addTime));
+        }
+    }
+
+    /**
+     * Insert the dimensions in a batch. If another manager inserted some of them in the meantime, they are
+     * inserted one by one and those already there take the existing id. Returns the time of the latest point
+     * of the existing ones.
+     */
+    private Map<List<String>, Long> insertDimensions(Collection<TopicDimensionEntity> topicDimensionEntities) {
+        try {
+            writeTransaction.execute((status) -> {
+                TopicsHistoryMapper batchMapper = batchSqlSession.getMapper(TopicsHistoryMapper.class);
+                int pending = 0;
+                for (TopicDimensionEntity topicDimensionEntity : topicDimensionEntities) {
+                    batchMapper.insertDimension(topicDimensionEntity);
+                    if (++pending % batchSize == 0) {
+                        batchSqlSession.flushStatements();
+                    }
+                }
+                batchSqlSession.flushStatements();
+                return null;
+            });
+            return Collections.emptyMap();
+        } catch (DataAccessException e) {
+            log.info("Topic dimensions were inserted concurrently, inserting them one by one: {}", e.getMessage());
+        }
+        Map<List<String>, Long> lastTimestamps = new HashMap<>();
+        for (TopicDimensionEntity topicDimensionEntity : topicDimensionEntities) {
+            try {
+                writeTransaction.execute((status) -> {
+                    topicsHistoryMapper.insertDimension(topicDimensionEntity);
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                Long topicId = loadTransaction.execute((status) ->
+                    topicsHistoryMapper.findDimensionId(topicDimensionEntity));
+                if (topicId == null) {
+                    throw e;
+                }
+                topicDimensionEntity.setTopicId(topicId);
+                Long lastTimestamp = loadTransaction.execute((status) ->
+                    topicsHistoryMapper.findLastTimestamp(topicId));
+                lastTimestamps.put(key(topicDimensionEntity), lastTimestamp == null ? 0L : lastTimestamp);
+            }
+        }
+        return lastTimestamps;
+    }
+
+    private static List<String> key(TopicStatsEntity topicStatsEntity) {
+        // The broker and the bundle change when the topic moves, they are kept on the points
+        return Arrays.asList(topicStatsEntity.getEnvironment(), topicStatsEntity.getCluster(),
+            topicStatsEntity.getTenant(), topicStatsEntity.getNamespace(), topicStatsEntity.getPersistent(),
+            topicStatsEntity.getTopic());
+    }
+
+    private static List<String> key(TopicDimensionEntity topicDimensionEntity) {
+        return Arrays.asList(topicDimensionEntity.getEnvironment(), topicDimensionEntity.getCluster(),
+            topicDimensionEntity.getTenant(), topicDimensionEntity.getNamespace(),
+            topicDimensionEntity.getPersistent(), topicDimensionEntity.getTopic());
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        // The points of a dimension may be gone while rows of other tables still reference it, it is
+        // kept as if it had a point at load time.
+        long loadTime = System.currentTimeMillis() / 1000L;
+        loadTransaction.execute((status) -> {
+            Map<Long, Long> lastTimestamps = new HashMap<>();
+            topicsHistoryMapper.findLastTimestamps().forEach((point) ->
+                lastTimestamps.put(point.getTopicId(), point.getTimestamp()));
+            for (TopicDimensionEntity entity : topicsHistoryMapper.findAllDimensions()) {
+                dimensions.put(key(entity), new Dimension(entity.getTopicId(),
+                    lastTimestamps.getOrDefault(entity.getTopicId(), 0L), loadTime));
+            }
+            return null;
+        });
+        loaded = true;
+    }
+
+    /**
+     * A topic id and the time of its latest point, guarded by its own monitor.
+     */
+    private static final class Dimension {
+
+        private final long topicId;
+
+        // Time the dimension was loaded or added
+        private final long loadTime;
+
+        private long lastTimestamp;
+
+        private boolean live = true;
+
+        Dimension(long topicId, long lastTimestamp, long loadTime) {
+            this.topicId = topicId;
+            this.lastTimestamp = lastTimestamp;
+            this.loadTime = loadTime;
+        }
+
+        synchronized boolean retire(long refTime) {
+            if (Math.max(lastTimestamp, loadTime) >= refTime) {
+                return false;
+            }
+            live = false;
+            return true;
+        }
+    }
+}
@@ -15,6 +15,7 @@ package org.apache.pulsar.manager.dao;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import org.apache.pulsar.manager.entity.StatsIdsRepository;
 import org.apache.pulsar.manager.entity.TopicStatsEntity;
 import org.apache.pulsar.manager.entity.TopicsStatsRepository;
 import org.apache.pulsar.manager.mapper.TopicsStatsMapper;
@@ -29,11 +30,18 @@ public class TopicsStatsRepositoryImpl implements TopicsStatsRepository {
 
     private final TopicsStatsMapper topicsStatsMapper;
 
+    private final StatsIdsRepository statsIdsRepository;
+
     @Autowired
-    public TopicsStatsRepositoryImpl(TopicsStatsMapper topicsStatsMapper) { this.topicsStatsMapper = topicsStatsMapper; }
+    public TopicsStatsRepositoryImpl(TopicsStatsMapper topicsStatsMapper, StatsIdsRepository statsIdsRepository) {
+        this.topicsStatsMapper = topicsStatsMapper;
+        this.statsIdsRepository = statsIdsRepository;
+    }
 
     public long save(TopicStatsEntity topicStatsEntity) {
-        topicsStatsMapper.insert(topicStatsEntity);
+        // Same ids as the batched snapshots, the column default is never used
+        topicStatsEntity.setTopicStatsId(statsIdsRepository.reserve(StatsIdsRepository.TOPICS_STATS, 1));
+        topicsStatsMapper.insertWithId(topicStatsEntity);
         return topicStatsEntity.getTopicStatsId();
     }
 
@@ -91,6 +99,35 @@ public class TopicsStatsRepositoryImpl implements TopicsStatsRepository {
         return topicsStatsMapper.findByMultiNamespace(environment, tenant, namespaceList, timestamp);
     }
 
+    public List<TopicStatsEntity> findByNamespace(String environment,
+                                                  String tenant,
+                                                  String namespace,
+                                                  long timestamp) {
+        return topicsStatsMapper.findByNamespace(environment, tenant, namespace, timestamp);
+    }
+
+    public List<TopicStatsEntity> findByMultiTopic(String environment,
+                                                   String tenant,
+                                                   String namespace,
+                                                   String persistent,
+                                                   List<String> topicList,
+                                                   long timestamp) {
+        return topicsStatsMapper.findByMultiTopic(environment, tenant, namespace, persistent, topicList, timestamp);
+    }
+
+    public List<TopicStatsEntity> findByMultiTenant(String environment,
+                                                    List<String> tenantList,
+                                                    long timestamp) {
+        return topicsStatsMapper.findByMultiTenant(environment, tenantList, timestamp);
+    }
+
+    public List<TopicStatsEntity> findByMultiNamespace(String environment,
+                                                       String tenant,
+                                                       List<String> namespaceList,
+                                                       long timestamp) {
+        return topicsStatsMapper.findByMultiNamespace(environment, tenant, namespaceList, timestamp);
+    }
+
     public List<TopicStatsEntity> findByMultiEnvironment(List<String> environmentList,
                                                          long timestamp) {
         return topicsStatsMapper.findByMultiEnvironment(environmentList, timestamp);
@@ -0,0 +1,40 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bookie Stats entity, one row per bookie and collection cycle.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookieStatsEntity {
+    private long bookieStatsId;
+    private String bookie;
+    private String status;
+    private long freeDiskSpace;
+    private long totalDiskSpace;
+    private double journalAddLatencyP50;
+    private double journalAddLatencyP99;
+    private long ledgerCount;
+    private long time_stamp;
+
+    public long getTimestamp() {
+        return time_stamp;
+    }
+}
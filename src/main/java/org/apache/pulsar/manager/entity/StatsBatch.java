@@ -0,0 +1,32 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+/**
+ * Collects the rows of one broker stats snapshot so that they can be written as JDBC batches.
+ * The ids of topic and subscription rows are allocated before the rows reach the database,
+ * which lets child rows reference them without a round trip per insert.
+ */
+public interface StatsBatch {
+
+    long addTopicStats(TopicStatsEntity topicStatsEntity);
+
+    long addSubscriptionStats(SubscriptionStatsEntity subscriptionStatsEntity);
+
+    void addConsumerStats(ConsumerStatsEntity consumerStatsEntity);
+
+    void addPublisherStats(PublisherStatsEntity publisherStatsEntity);
+
+    void addReplicationStats(ReplicationStatsEntity replicationStatsEntity);
+}
@@ -0,0 +1,28 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.function.Consumer;
+
+@Repository
+public interface StatsBatchRepository {
+
+    /**
+     * Write all rows added to the batch by the writer in a single transaction.
+     * Statements are flushed every insert.stats.batch.size rows and once more on completion.
+     */
+    void write(Consumer<StatsBatch> writer);
+}
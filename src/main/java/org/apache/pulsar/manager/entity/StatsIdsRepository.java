@@ -0,0 +1,32 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatsIdsRepository {
+
+    String TOPICS_STATS = "topics_stats";
+
+    String SUBSCRIPTIONS_STATS = "subscriptions_stats";
+
+    String TOPICS_DIMENSION = "topics_dimension";
+
+    /**
+     * Reserve count ids of idName in a transaction of its own and return the first one. The counter is
+     * shared by all the managers using the database, a reserved id is never handed out again.
+     */
+    long reserve(String idName, int count);
+}
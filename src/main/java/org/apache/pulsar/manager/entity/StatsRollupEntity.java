@@ -0,0 +1,111 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Aggregate of the points of a topic, a namespace or a tenant over a bucket of resolution seconds starting
+ * at time_stamp. Namespaces and tenants aggregate the sum of their topics at each collection. The topic id
+ * is only set for topics, the environment, tenant and namespace are set for namespaces and tenants.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class StatsRollupEntity {
+
+    /**
+     * Number of metrics aggregated, in the order of the arrays of {@link #aggregate}.
+     */
+    public static final int METRICS = 5;
+
+    private int resolution;
+    private long topicId;
+    private String environment;
+    private String tenant;
+    private String namespace;
+    private int samples;
+    private double msgRateInMin;
+    private double msgRateInMax;
+    private double msgRateInAvg;
+    private double msgRateInLast;
+    private double msgRateOutMin;
+    private double msgRateOutMax;
+    private double msgRateOutAvg;
+    private double msgRateOutLast;
+    private double msgThroughputInMin;
+    private double msgThroughputInMax;
+    private double msgThroughputInAvg;
+    private double msgThroughputInLast;
+    private double msgThroughputOutMin;
+    private double msgThroughputOutMax;
+    private double msgThroughputOutAvg;
+    private double msgThroughputOutLast;
+    private double storageSizeMin;
+    private double storageSizeMax;
+    private double storageSizeAvg;
+    private double storageSizeLast;
+    private long time_stamp;
+
+    public long getTimestamp() {
+        return time_stamp;
+    }
+
+    /**
+     * Set the aggregates from arrays holding msgRateIn, msgRateOut, msgThroughputIn, msgThroughputOut
+     * and storageSize, in this order.
+     */
+    public void aggregate(int samples, double[] min, double[] max, double[] avg, double[] last) {
+        this.samples = samples;
+        msgRateInMin = min[0];
+        msgRateInMax = max[0];
+        msgRateInAvg = avg[0];
+        msgRateInLast = last[0];
+        msgRateOutMin = min[1];
+        msgRateOutMax = max[1];
+        msgRateOutAvg = avg[1];
+        msgRateOutLast = last[1];
+        msgThroughputInMin = min[2];
+        msgThroughputInMax = max[2];
+        msgThroughputInAvg = avg[2];
+        msgThroughputInLast = last[2];
+        msgThroughputOutMin = min[3];
+        msgThroughputOutMax = max[3];
+        msgThroughputOutAvg = avg[3];
+        msgThroughputOutLast = last[3];
+        storageSizeMin = min[4];
+        storageSizeMax = max[4];
+        storageSizeAvg = avg[4];
+        storageSizeLast = last[4];
+    }
+
+    public double[] mins() {
+        return new double[] {msgRateInMin, msgRateOutMin, msgThroughputInMin, msgThroughputOutMin, storageSizeMin};
+    }
+
+    public double[] maxs() {
+        return new double[] {msgRateInMax, msgRateOutMax, msgThroughputInMax, msgThroughputOutMax, storageSizeMax};
+    }
+
+    public double[] avgs() {
+        return new double[] {msgRateInAvg, msgRateOutAvg, msgThroughputInAvg, msgThroughputOutAvg, storageSizeAvg};
+    }
+
+    public double[] lasts() {
+        return new double[] {
+            msgRateInLast, msgRateOutLast, msgThroughputInLast, msgThroughputOutLast, storageSizeLast};
+    }
+}
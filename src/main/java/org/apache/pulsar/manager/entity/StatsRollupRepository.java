@@ -0,0 +1,66 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StatsRollupRepository {
+
+    /**
+     * Save the topic, namespace and tenant rows of one bucket in a single transaction.
+     */
+    void save(List<StatsRollupEntity> topics, List<StatsRollupEntity> namespaces, List<StatsRollupEntity> tenants);
+
+    /**
+     * Start of the latest bucket rolled up at this resolution, empty if there is none. The buckets before
+     * it are rolled up, it is the progress of the rollup.
+     */
+    Optional<Long> findMaxTime(int resolution);
+
+    /**
+     * Start of the oldest bucket of this resolution at or after startTime, empty if there is none.
+     */
+    Optional<Long> findMinTime(int resolution, long startTime);
+
+    /**
+     * Rows of all the topics between startTime included and endTime excluded.
+     */
+    List<StatsRollupEntity> findTopicsByTime(int resolution, long startTime, long endTime);
+
+    List<StatsRollupEntity> findNamespacesByTime(int resolution, long startTime, long endTime);
+
+    List<StatsRollupEntity> findTenantsByTime(int resolution, long startTime, long endTime);
+
+    /**
+     * Rows of a topic between startTime and endTime included, oldest first. A topic has one row per bucket,
+     * whichever brokers and bundles served it.
+     */
+    List<StatsRollupEntity> findByTopic(int resolution, String environment, String tenant, String namespace,
+                                        String persistent, String topic, long startTime, long endTime);
+
+    List<StatsRollupEntity> findByNamespace(int resolution, String environment, String tenant, String namespace,
+                                            long startTime, long endTime);
+
+    List<StatsRollupEntity> findByTenant(int resolution, String environment, String tenant,
+                                         long startTime, long endTime);
+
+    /**
+     * Remove the rows of this resolution older than timestamp - timeInterval.
+     */
+    void remove(int resolution, long timestamp, long timeInterval);
+}
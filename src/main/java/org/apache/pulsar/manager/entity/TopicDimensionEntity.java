@@ -0,0 +1,35 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The strings identifying where a topic was served, stored once and referenced by topic id
+ * from the topics_history rows.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TopicDimensionEntity {
+    private long topicId;
+    private String environment;
+    private String cluster;
+    private String tenant;
+    private String namespace;
+    private String persistent;
+    private String topic;
+}
@@ -0,0 +1,43 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Topic stats point of the historical series, the topic strings are replaced by a topic id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TopicHistoryEntity {
+    private long topicId;
+    private String broker;
+    private String bundle;
+    private int producerCount;
+    private int subscriptionCount;
+    private double msgRateIn;
+    private double msgThroughputIn;
+    private double msgRateOut;
+    private double msgThroughputOut;
+    private double averageMsgSize;
+    private double storageSize;
+    private long time_stamp;
+
+    public long getTimestamp() {
+        return time_stamp;
+    }
+}
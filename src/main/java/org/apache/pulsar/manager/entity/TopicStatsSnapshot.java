@@ -0,0 +1,345 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the topic stats of one collection cycle, indexed by environment, tenant, namespace,
+ * topic and cluster. The collector publishes it once the whole cycle has been written to the database,
+ * so that reads of the latest stats do not have to go back to the database.
+ *
+ * <p>Tenant, namespace and cluster rollups are computed once when the snapshot is built, the tenants
+ * and namespaces pages read one row per tenant or namespace instead of aggregating every topic.
+ *
+ * <p>The entities are copied when they are added to the builder and every finder returns copies, a
+ * caller changing a returned row can neither affect other readers nor the published snapshot.
+ */
+public final class TopicStatsSnapshot {
+
+    private final long timestamp;
+
+    // environment -> tenant -> namespaces of the tenant
+    private final Map<String, Map<String, TenantStats>> environments;
+
+    // environment -> cluster -> cluster rollup
+    private final Map<String, Map<String, ClusterRollup>> clusters;
+
+    // environment -> number of consumers
+    private final Map<String, Long> consumerCounts;
+
+    private TopicStatsSnapshot(long timestamp,
+                               Map<String, Map<String, TenantStats>> environments,
+                               Map<String, Map<String, ClusterRollup>> clusters,
+                               Map<String, Long> consumerCounts) {
+        this.timestamp = timestamp;
+        this.environments = environments;
+        this.clusters = clusters;
+        this.consumerCounts = consumerCounts;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Stats of every topic of a namespace, one entry per topic and cluster.
+     */
+    public List<TopicStatsEntity> findByNamespace(String environment, String tenant, String namespace) {
+        NamespaceTopics namespaceTopics = getNamespace(environment, tenant, namespace);
+        return namespaceTopics == null ? Collections.emptyList() : copyOf(namespaceTopics.topics);
+    }
+
+    /**
+     * Stats of a topic by cluster, null when the topic was not part of the snapshot.
+     */
+    public Map<String, TopicStatsEntity> findByTopic(String environment, String tenant, String namespace,
+                                                     String persistent, String topic) {
+        NamespaceTopics namespaceTopics = getNamespace(environment, tenant, namespace);
+        Map<String, TopicStatsEntity> clusters = namespaceTopics == null
+            ? null : namespaceTopics.byTopic.get(topicKey(persistent, topic));
+        if (clusters == null) {
+            return null;
+        }
+        Map<String, TopicStatsEntity> result = new HashMap<>();
+        clusters.forEach((cluster, topicStats) -> result.put(cluster, copyOf(topicStats)));
+        return result;
+    }
+
+    public long getConsumerCount(List<String> environmentList) {
+        long count = 0;
+        for (String environment : environmentList) {
+            count += consumerCounts.getOrDefault(environment, 0L);
+        }
+        return count;
+    }
+
+    /**
+     * Same rows as TopicsStatsRepository.findByMultiTenant, one rollup per tenant.
+     */
+    public List<TopicStatsEntity> findByMultiTenant(String environment, List<String> tenantList) {
+        Map<String, TenantStats> tenants = environments.getOrDefault(environment, Collections.emptyMap());
+        List<TopicStatsEntity> result = new ArrayList<>();
+        for (String tenant : tenantList) {
+            TenantStats tenantStats = tenants.get(tenant);
+            if (tenantStats != null) {
+                result.add(copyOf(tenantStats.rollup));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same rows as TopicsStatsRepository.findByMultiNamespace, one rollup per namespace.
+     */
+    public List<TopicStatsEntity> findByMultiNamespace(String environment, String tenant, List<String> namespaceList) {
+        List<TopicStatsEntity> result = new ArrayList<>();
+        for (String namespace : namespaceList) {
+            NamespaceTopics namespaceTopics = getNamespace(environment, tenant, namespace);
+            if (namespaceTopics != null) {
+                result.add(copyOf(namespaceTopics.rollup));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * One rollup per cluster of the given environments.
+     */
+    public List<ClusterRollup> findClusterRollups(List<String> environmentList) {
+        List<ClusterRollup> result = new ArrayList<>();
+        for (String environment : environmentList) {
+            result.addAll(clusters.getOrDefault(environment, Collections.emptyMap()).values());
+        }
+        return result;
+    }
+
+    private NamespaceTopics getNamespace(String environment, String tenant, String namespace) {
+        TenantStats tenantStats = environments.getOrDefault(environment, Collections.emptyMap()).get(tenant);
+        return tenantStats == null ? null : tenantStats.namespaces.get(namespace);
+    }
+
+    private static String topicKey(String persistent, String topic) {
+        return persistent + "://" + topic;
+    }
+
+    private static List<TopicStatsEntity> copyOf(List<TopicStatsEntity> topics) {
+        List<TopicStatsEntity> result = new ArrayList<>(topics.size());
+        for (TopicStatsEntity topic : topics) {
+            result.add(copyOf(topic));
+        }
+        return result;
+    }
+
+    private static TopicStatsEntity copyOf(TopicStatsEntity topic) {
+        TopicStatsEntity copy = new TopicStatsEntity();
+        copy.setTopicStatsId(topic.getTopicStatsId());
+        copy.setEnvironment(topic.getEnvironment());
+        copy.setCluster(topic.getCluster());
+        copy.setBroker(topic.getBroker());
+        copy.setTenant(topic.getTenant());
+        copy.setNamespace(topic.getNamespace());
+        copy.setBundle(topic.getBundle());
+        copy.setPersistent(topic.getPersistent());
+        copy.setTopic(topic.getTopic());
+        copy.setProducerCount(topic.getProducerCount());
+        copy.setSubscriptionCount(topic.getSubscriptionCount());
+        copy.setMsgRateIn(topic.getMsgRateIn());
+        copy.setMsgThroughputIn(topic.getMsgThroughputIn());
+        copy.setMsgRateOut(topic.getMsgRateOut());
+        copy.setMsgThroughputOut(topic.getMsgThroughputOut());
+        copy.setAverageMsgSize(topic.getAverageMsgSize());
+        copy.setStorageSize(topic.getStorageSize());
+        copy.setTime_stamp(topic.getTime_stamp());
+        return copy;
+    }
+
+    /**
+     * Stats of a cluster, summed over its topics.
+     */
+    public static final class ClusterRollup {
+
+        private final TopicStatsEntity stats;
+        private final int topicCount;
+        private final Set<String> brokers;
+
+        private ClusterRollup(TopicStatsEntity stats, int topicCount, Set<String> brokers) {
+            this.stats = stats;
+            this.topicCount = topicCount;
+            this.brokers = ImmutableSet.copyOf(brokers);
+        }
+
+        public TopicStatsEntity getStats() {
+            return copyOf(stats);
+        }
+
+        public int getTopicCount() {
+            return topicCount;
+        }
+
+        public int getBrokerCount() {
+            return brokers.size();
+        }
+
+        /**
+         * Brokers serving the topics of the cluster, to count distinct brokers across clusters.
+         */
+        public Set<String> getBrokers() {
+            return brokers;
+        }
+    }
+
+    private static final class TenantStats {
+
+        private final TopicStatsEntity rollup;
+        private final Map<String, NamespaceTopics> namespaces;
+
+        private TenantStats(TopicStatsEntity rollup, Map<String, NamespaceTopics> namespaces) {
+            this.rollup = rollup;
+            this.namespaces = namespaces;
+        }
+    }
+
+    private static final class NamespaceTopics {
+
+        private final TopicStatsEntity rollup;
+
+        private final List<TopicStatsEntity> topics;
+
+        // persistent://topic -> cluster -> stats
+        private final Map<String, Map<String, TopicStatsEntity>> byTopic;
+
+        private NamespaceTopics(TopicStatsEntity rollup, List<TopicStatsEntity> topics) {
+            this.rollup = rollup;
+            this.topics = ImmutableList.copyOf(topics);
+            Map<String, Map<String, TopicStatsEntity>> index = new HashMap<>();
+            for (TopicStatsEntity topic : topics) {
+                index.computeIfAbsent(topicKey(topic.getPersistent(), topic.getTopic()), (ignored) -> new HashMap<>())
+                    .put(topic.getCluster(), topic);
+            }
+            ImmutableMap.Builder<String, Map<String, TopicStatsEntity>> byTopic = ImmutableMap.builder();
+            index.forEach((topic, clusters) -> byTopic.put(topic, ImmutableMap.copyOf(clusters)));
+            this.byTopic = byTopic.build();
+        }
+    }
+
+    /**
+     * Sums the rows of a tenant, namespace or cluster the way the GROUP BY queries of TopicsStatsMapper do:
+     * every counter is summed and the average message size is averaged over the rows.
+     */
+    private static final class Rollup {
+
+        private final TopicStatsEntity total = new TopicStatsEntity();
+        private int rows;
+
+        private Rollup(String environment, String cluster, String tenant, String namespace, long timestamp) {
+            total.setEnvironment(environment);
+            total.setCluster(cluster);
+            total.setTenant(tenant);
+            total.setNamespace(namespace);
+            total.setTime_stamp(timestamp);
+        }
+
+        private void add(TopicStatsEntity topic) {
+            total.setProducerCount(total.getProducerCount() + topic.getProducerCount());
+            total.setSubscriptionCount(total.getSubscriptionCount() + topic.getSubscriptionCount());
+            total.setMsgRateIn(total.getMsgRateIn() + topic.getMsgRateIn());
+            total.setMsgThroughputIn(total.getMsgThroughputIn() + topic.getMsgThroughputIn());
+            total.setMsgRateOut(total.getMsgRateOut() + topic.getMsgRateOut());
+            total.setMsgThroughputOut(total.getMsgThroughputOut() + topic.getMsgThroughputOut());
+            total.setAverageMsgSize(total.getAverageMsgSize() + topic.getAverageMsgSize());
+            total.setStorageSize(total.getStorageSize() + topic.getStorageSize());
+            rows++;
+        }
+
+        private TopicStatsEntity build() {
+            if (rows > 0) {
+                total.setAverageMsgSize(total.getAverageMsgSize() / rows);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Collects the stats of the brokers of one cycle, brokers may be added concurrently.
+     */
+    public static class Builder {
+
+        private final long timestamp;
+        private final Map<String, Map<String, Map<String, List<TopicStatsEntity>>>> topics = new HashMap<>();
+        private final Map<String, Long> consumerCounts = new HashMap<>();
+
+        public Builder(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        public synchronized void add(String environment, List<TopicStatsEntity> topicStats, long consumerCount) {
+            for (TopicStatsEntity topic : topicStats) {
+                topics.computeIfAbsent(environment, (ignored) -> new HashMap<>())
+                    .computeIfAbsent(topic.getTenant(), (ignored) -> new HashMap<>())
+                    .computeIfAbsent(topic.getNamespace(), (ignored) -> new ArrayList<>())
+                    .add(copyOf(topic));
+            }
+            consumerCounts.merge(environment, consumerCount, Long::sum);
+        }
+
+        public synchronized boolean isEmpty() {
+            return topics.isEmpty();
+        }
+
+        public synchronized TopicStatsSnapshot build() {
+            ImmutableMap.Builder<String, Map<String, TenantStats>> environments = ImmutableMap.builder();
+            ImmutableMap.Builder<String, Map<String, ClusterRollup>> clusters = ImmutableMap.builder();
+            topics.forEach((environment, tenants) -> {
+                Map<String, Rollup> clusterRollups = new HashMap<>();
+                Map<String, Set<String>> clusterBrokers = new HashMap<>();
+                ImmutableMap.Builder<String, TenantStats> tenantsBuilder = ImmutableMap.builder();
+                tenants.forEach((tenant, namespaces) -> {
+                    Rollup tenantRollup = new Rollup(environment, null, tenant, null, timestamp);
+                    ImmutableMap.Builder<String, NamespaceTopics> namespacesBuilder = ImmutableMap.builder();
+                    namespaces.forEach((namespace, namespaceTopics) -> {
+                        Rollup namespaceRollup = new Rollup(environment, null, tenant, namespace, timestamp);
+                        for (TopicStatsEntity topic : namespaceTopics) {
+                            namespaceRollup.add(topic);
+                            tenantRollup.add(topic);
+                            clusterRollups.computeIfAbsent(topic.getCluster(),
+                                (cluster) -> new Rollup(environment, cluster, null, null, timestamp)).add(topic);
+                            clusterBrokers.computeIfAbsent(topic.getCluster(), (ignored) -> new HashSet<>())
+                                .add(topic.getBroker());
+                        }
+                        namespacesBuilder.put(namespace, new NamespaceTopics(namespaceRollup.build(), namespaceTopics));
+                    });
+                    tenantsBuilder.put(tenant, new TenantStats(tenantRollup.build(), namespacesBuilder.build()));
+                });
+                environments.put(environment, tenantsBuilder.build());
+                ImmutableMap.Builder<String, ClusterRollup> clustersBuilder = ImmutableMap.builder();
+                clusterRollups.forEach((cluster, rollup) -> clustersBuilder.put(cluster, new ClusterRollup(
+                    rollup.build(), rollup.rows, clusterBrokers.get(cluster))));
+                clusters.put(environment, clustersBuilder.build());
+            });
+            return new TopicStatsSnapshot(timestamp, environments.build(), clusters.build(),
+                ImmutableMap.copyOf(consumerCounts));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TopicsHistoryRepository {
+
+    /**
+     * Write the points of a stats snapshot, and the dimensions of the topics seen for the first time, in a
+     * transaction of its own. A topic gets at most one point per timestamp.
+     */
+    void save(List<TopicStatsEntity> topicStatsEntities);
+
+    /**
+     * Points of a topic between startTime and endTime included, oldest first. The topic stats id is not set.
+     */
+    List<TopicStatsEntity> findByTopic(String environment, String tenant, String namespace, String persistent,
+                                       String topic, long startTime, long endTime);
+
+    /**
+     * Points of all the topics between startTime included and endTime excluded, oldest first.
+     */
+    List<TopicHistoryEntity> findByTime(long startTime, long endTime);
+
+    /**
+     * Time of the oldest point at or after startTime, empty if there is none.
+     */
+    Optional<Long> findMinTime(long startTime);
+
+    List<TopicDimensionEntity> findAllDimensions();
+
+    /**
+     * Remove the points older than timestamp - timeInterval.
+     */
+    void remove(long timestamp, long timeInterval);
+
+    /**
+     * Remove the dimensions without a point since timestamp - timeInterval, as long as no row of
+     * topics_history or topics_rollup references them.
+     */
+    void removeDimensions(long timestamp, long timeInterval);
+}
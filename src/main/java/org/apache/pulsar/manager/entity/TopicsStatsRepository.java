@@ -61,6 +61,25 @@ public interface TopicsStatsRepository {
                                              List<String> namespaceList,
                                              long timestamp);
 
+    /**
+     * Unpaged variants return every row in a single query, without the count query PageHelper issues.
+     */
+    List<TopicStatsEntity> findByNamespace(String environment, String tenant, String namespace, long timestamp);
+
+    List<TopicStatsEntity> findByMultiTopic(String environment,
+                                            String tenant,
+                                            String namespace,
+                                            String persistent,
+                                            List<String> topicList,
+                                            long timestamp);
+
+    List<TopicStatsEntity> findByMultiTenant(String environment, List<String> tenantList, long timestamp);
+
+    List<TopicStatsEntity> findByMultiNamespace(String environment,
+                                                String tenant,
+                                                List<String> namespaceList,
+                                                long timestamp);
+
     List<TopicStatsEntity> findByMultiEnvironment(List<String> environmentList,
                                                      long timestamp);
 
@@ -16,9 +16,9 @@ package org.apache.pulsar.manager.interceptor;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import org.apache.pulsar.manager.entity.EnvironmentEntity;
-import org.apache.pulsar.manager.entity.EnvironmentsRepository;
 import org.apache.pulsar.manager.entity.UserInfoEntity;
 import org.apache.pulsar.manager.entity.UsersRepository;
+import org.apache.pulsar.manager.service.EnvironmentCacheService;
 import org.apache.pulsar.manager.service.JwtService;
 import org.apache.pulsar.manager.service.PulsarEvent;
 import org.apache.pulsar.manager.service.RolesService;
@@ -38,12 +38,12 @@ import java.util.Optional;
 public class AdminHandlerInterceptor extends HandlerInterceptorAdapter {
 
     private final JwtService jwtService;
-    private final EnvironmentsRepository environmentsRepository;
+    private final EnvironmentCacheService environmentCacheService;
 
     @Autowired
-    public AdminHandlerInterceptor(JwtService jwtService, EnvironmentsRepository environmentsRepository) {
+    public AdminHandlerInterceptor(JwtService jwtService, EnvironmentCacheService environmentCacheService) {
         this.jwtService = jwtService;
-        this.environmentsRepository = environmentsRepository;
+        this.environmentCacheService = environmentCacheService;
     }
 
     @Autowired
@@ -96,7 +96,7 @@ public class AdminHandlerInterceptor extends HandlerInterceptorAdapter {
         String requestUri = request.getServletPath();
         if (!requestUri.equals("/pulsar-manager/users/userInfo")) {
             String environment = request.getHeader("environment");
-            Optional<EnvironmentEntity> environmentEntityOptional = environmentsRepository.findByName(environment);
+            Optional<EnvironmentEntity> environmentEntityOptional = environmentCacheService.getEnvironment(environment);
             if (!request.getServletPath().startsWith("/pulsar-manager/environments") && !environmentEntityOptional.isPresent()) {
                 map.put("message", "Currently there is no active environment, please set one");
                 response.setStatus(400);
@@ -0,0 +1,45 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.pulsar.manager.entity.BookieStatsEntity;
+
+import java.util.List;
+
+@Mapper
+public interface BookiesStatsMapper {
+
+    @Insert("INSERT INTO bookies_stats(bookie,status,free_disk_space,total_disk_space,journal_add_latency_p50," +
+            "journal_add_latency_p99,ledger_count,time_stamp) " +
+            "VALUES(#{bookie},#{status},#{freeDiskSpace},#{totalDiskSpace},#{journalAddLatencyP50}," +
+            "#{journalAddLatencyP99},#{ledgerCount},#{timestamp})")
+    void save(BookieStatsEntity bookieStatsEntity);
+
+    @Select("SELECT bookie_stats_id as bookieStatsId,bookie as bookie,status as status," +
+            "free_disk_space as freeDiskSpace,total_disk_space as totalDiskSpace," +
+            "journal_add_latency_p50 as journalAddLatencyP50,journal_add_latency_p99 as journalAddLatencyP99," +
+            "ledger_count as ledgerCount,time_stamp From bookies_stats " +
+            "WHERE bookie=#{bookie} and time_stamp>=#{startTime} and time_stamp<=#{endTime} ORDER BY time_stamp")
+    List<BookieStatsEntity> findByBookie(@Param("bookie") String bookie,
+                                         @Param("startTime") long startTime,
+                                         @Param("endTime") long endTime);
+
+    @Delete("DELETE FROM bookies_stats WHERE time_stamp < #{refTime}")
+    void delete(@Param("refTime") long refTime);
+}
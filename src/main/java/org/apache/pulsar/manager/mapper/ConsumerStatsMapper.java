@@ -31,6 +31,14 @@ public interface ConsumerStatsMapper {
     @Options(useGeneratedKeys=true, keyProperty="consumerStatsId", keyColumn="consumer_stats_id")
     void save(ConsumerStatsEntity consumerStatsEntity);
 
+    @Insert("INSERT INTO consumers_stats(consumer,topic_stats_id,replication_stats_id,subscription_stats_id,address," +
+            "available_permits,connected_since,msg_rate_out,msg_throughput_out,msg_rate_redeliver," +
+            "client_version,time_stamp,metadata) " +
+            "VALUES(#{consumer},#{topicStatsId},#{replicationStatsId},#{subscriptionStatsId},#{address}," +
+            "#{availablePermits},#{connectedSince},#{msgRateOut},#{msgThroughputOut},#{msgRateRedeliver}," +
+            "#{clientVersion},#{timestamp},#{metadata})")
+    void batchSave(ConsumerStatsEntity consumerStatsEntity);
+
     @Select("SELECT consumer_stats_id as consumerStatsId,consumer as consumer,topic_stats_id as topicStatsId," +
             "replication_stats_id as replicationStatsId,subscription_stats_id as subscriptionStatsId,address as address," +
             "available_permits as availablePermits,connected_since as connectedSince,msg_rate_out as msgRateOut," +
@@ -27,6 +27,12 @@ public interface PublishersStatsMapper {
     @Options(useGeneratedKeys=true, keyProperty="publisherStatsId", keyColumn="publisher_stats_id")
     void save(PublisherStatsEntity publisherStatsEntity);
 
+    @Insert("INSERT INTO publishers_stats(producer_id,topic_stats_id,producer_name,msg_rate_in," +
+            "msg_throughput_in,average_msg_size,address,connected_since,client_version,metadata,time_stamp) " +
+            "VALUES(#{producerId},#{topicStatsId},#{producerName},#{msgRateIn},#{msgThroughputIn}," +
+            "#{averageMsgSize},#{address},#{connectedSince},#{clientVersion},#{metadata},#{timestamp})")
+    void batchSave(PublisherStatsEntity publisherStatsEntity);
+
     @Select("SELECT publisher_stats_id as publisherStatsId,producer_id as producerId,topic_stats_id as topicStatsId," +
             "producer_name as producerName,msg_rate_in as msgRateIn,msg_throughput_in as msgThroughputIn," +
             "average_msg_size as averageMsgSize,address as address,connected_since as connectedSince," +
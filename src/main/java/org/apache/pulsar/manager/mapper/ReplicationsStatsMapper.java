@@ -30,6 +30,15 @@ public interface ReplicationsStatsMapper {
     @Options(useGeneratedKeys=true, keyProperty="replicationStatsId", keyColumn="replication_stats_id")
     void save(ReplicationStatsEntity replicationStatsEntity);
 
+    @Insert("INSERT INTO replications_stats(topic_stats_id,cluster,connected,msg_rate_in,msg_rate_out,msg_throughput_in," +
+            "msg_throughput_out,replication_backlog,replication_delay_in_seconds,inbound_connection," +
+            "inbound_connected_since,outbound_connection,outbound_connected_since,time_stamp,msg_rate_expired) " +
+            "VALUES(#{topicStatsId},#{cluster},#{connected},#{msgRateIn},#{msgRateOut},#{msgThroughputIn}," +
+            "#{msgThroughputOut},#{replicationBacklog},#{replicationDelayInSeconds}," +
+            "#{inboundConnection},#{inboundConnectedSince},#{outboundConnection},#{outboundConnectedSince}," +
+            "#{timestamp},#{msgRateExpired})")
+    void batchSave(ReplicationStatsEntity replicationStatsEntity);
+
     @Select("SELECT replication_stats_id as replicationStatsId,topic_stats_id as topicStatsId,cluster as cluster," +
             "connected as connected,msg_rate_in as msgRateIn,msg_rate_out as msgRateOut," +
             "msg_throughput_in as msgThroughputIn,msg_throughput_out as msgThroughputOut," +
@@ -0,0 +1,33 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface StatsIdsMapper {
+
+    @Update("UPDATE stats_ids SET next_id = next_id + #{count} WHERE id_name = #{idName}")
+    int increment(@Param("idName") String idName, @Param("count") long count);
+
+    @Select("SELECT next_id FROM stats_ids WHERE id_name = #{idName}")
+    Long findNextId(@Param("idName") String idName);
+
+    @Insert("INSERT INTO stats_ids(id_name,next_id) VALUES(#{idName},#{nextId})")
+    void insert(@Param("idName") String idName, @Param("nextId") long nextId);
+}
@@ -0,0 +1,223 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.pulsar.manager.entity.StatsRollupEntity;
+
+import java.util.List;
+
+@Mapper
+public interface StatsRollupMapper {
+
+    @Insert("INSERT INTO topics_rollup(resolution,topic_id,time_stamp,samples,msg_rate_in_min," +
+            "msg_rate_in_max,msg_rate_in_avg,msg_rate_in_last,msg_rate_out_min,msg_rate_out_max," +
+            "msg_rate_out_avg,msg_rate_out_last,msg_throughput_in_min,msg_throughput_in_max," +
+            "msg_throughput_in_avg,msg_throughput_in_last,msg_throughput_out_min," +
+            "msg_throughput_out_max,msg_throughput_out_avg,msg_throughput_out_last,storage_size_min," +
+            "storage_size_max,storage_size_avg,storage_size_last) VALUES(#{resolution},#{topicId}," +
+            "#{timestamp},#{samples},#{msgRateInMin},#{msgRateInMax},#{msgRateInAvg}," +
+            "#{msgRateInLast},#{msgRateOutMin},#{msgRateOutMax},#{msgRateOutAvg},#{msgRateOutLast}," +
+            "#{msgThroughputInMin},#{msgThroughputInMax},#{msgThroughputInAvg}," +
+            "#{msgThroughputInLast},#{msgThroughputOutMin},#{msgThroughputOutMax}," +
+            "#{msgThroughputOutAvg},#{msgThroughputOutLast},#{storageSizeMin},#{storageSizeMax}," +
+            "#{storageSizeAvg},#{storageSizeLast})")
+    void insertTopic(StatsRollupEntity statsRollupEntity);
+
+    @Insert("INSERT INTO namespaces_rollup(resolution,environment,tenant,namespace,time_stamp," +
+            "samples,msg_rate_in_min,msg_rate_in_max,msg_rate_in_avg,msg_rate_in_last," +
+            "msg_rate_out_min,msg_rate_out_max,msg_rate_out_avg,msg_rate_out_last," +
+            "msg_throughput_in_min,msg_throughput_in_max,msg_throughput_in_avg," +
+            "msg_throughput_in_last,msg_throughput_out_min,msg_throughput_out_max," +
+            "msg_throughput_out_avg,msg_throughput_out_last,storage_size_min,storage_size_max," +
+            "storage_size_avg,storage_size_last) VALUES(#{resolution},#{environment},#{tenant}," +
+            "#{namespace},#{timestamp},#{samples},#{msgRateInMin},#{msgRateInMax},#{msgRateInAvg}," +
+            "#{msgRateInLast},#{msgRateOutMin},#{msgRateOutMax},#{msgRateOutAvg},#{msgRateOutLast}," +
+            "#{msgThroughputInMin},#{msgThroughputInMax},#{msgThroughputInAvg}," +
+            "#{msgThroughputInLast},#{msgThroughputOutMin},#{msgThroughputOutMax}," +
+            "#{msgThroughputOutAvg},#{msgThroughputOutLast},#{storageSizeMin},#{storageSizeMax}," +
+            "#{storageSizeAvg},#{storageSizeLast})")
+    void insertNamespace(StatsRollupEntity statsRollupEntity);
+
+    @Insert("INSERT INTO tenants_rollup(resolution,environment,tenant,time_stamp,samples," +
+            "msg_rate_in_min,msg_rate_in_max,msg_rate_in_avg,msg_rate_in_last,msg_rate_out_min," +
+            "msg_rate_out_max,msg_rate_out_avg,msg_rate_out_last,msg_throughput_in_min," +
+            "msg_throughput_in_max,msg_throughput_in_avg,msg_throughput_in_last," +
+            "msg_throughput_out_min,msg_throughput_out_max,msg_throughput_out_avg," +
+            "msg_throughput_out_last,storage_size_min,storage_size_max,storage_size_avg," +
+            "storage_size_last) VALUES(#{resolution},#{environment},#{tenant},#{timestamp}," +
+            "#{samples},#{msgRateInMin},#{msgRateInMax},#{msgRateInAvg},#{msgRateInLast}," +
+            "#{msgRateOutMin},#{msgRateOutMax},#{msgRateOutAvg},#{msgRateOutLast}," +
+            "#{msgThroughputInMin},#{msgThroughputInMax},#{msgThroughputInAvg}," +
+            "#{msgThroughputInLast},#{msgThroughputOutMin},#{msgThroughputOutMax}," +
+            "#{msgThroughputOutAvg},#{msgThroughputOutLast},#{storageSizeMin},#{storageSizeMax}," +
+            "#{storageSizeAvg},#{storageSizeLast})")
+    void insertTenant(StatsRollupEntity statsRollupEntity);
+
+    @Select("SELECT MAX(time_stamp) FROM topics_rollup WHERE resolution=#{resolution}")
+    Long findMaxTime(@Param("resolution") int resolution);
+
+    @Select("SELECT MIN(time_stamp) FROM topics_rollup WHERE resolution=#{resolution} " +
+            "and time_stamp>=#{startTime}")
+    Long findMinTime(@Param("resolution") int resolution, @Param("startTime") long startTime);
+
+    @Select("SELECT resolution as resolution,topic_id as topicId,samples as samples," +
+            "msg_rate_in_min as msgRateInMin,msg_rate_in_max as msgRateInMax," +
+            "msg_rate_in_avg as msgRateInAvg,msg_rate_in_last as msgRateInLast," +
+            "msg_rate_out_min as msgRateOutMin,msg_rate_out_max as msgRateOutMax," +
+            "msg_rate_out_avg as msgRateOutAvg,msg_rate_out_last as msgRateOutLast," +
+            "msg_throughput_in_min as msgThroughputInMin,msg_throughput_in_max as msgThroughputInMax," +
+            "msg_throughput_in_avg as msgThroughputInAvg," +
+            "msg_throughput_in_last as msgThroughputInLast," +
+            "msg_throughput_out_min as msgThroughputOutMin," +
+            "msg_throughput_out_max as msgThroughputOutMax," +
+            "msg_throughput_out_avg as msgThroughputOutAvg," +
+            "msg_throughput_out_last as msgThroughputOutLast,storage_size_min as storageSizeMin," +
+            "storage_size_max as storageSizeMax,storage_size_avg as storageSizeAvg," +
+            "storage_size_last as storageSizeLast,time_stamp as time_stamp " +
+            "FROM topics_rollup WHERE resolution=#{resolution} " +
+            "and time_stamp>=#{startTime} and time_stamp<#{endTime}")
+    List<StatsRollupEntity> findTopicsByTime(@Param("resolution") int resolution,
+                                             @Param("startTime") long startTime,
+                                             @Param("endTime") long endTime);
+
+    @Select("SELECT resolution as resolution,environment as environment,tenant as tenant," +
+            "namespace as namespace,samples as samples,msg_rate_in_min as msgRateInMin," +
+            "msg_rate_in_max as msgRateInMax,msg_rate_in_avg as msgRateInAvg," +
+            "msg_rate_in_last as msgRateInLast,msg_rate_out_min as msgRateOutMin," +
+            "msg_rate_out_max as msgRateOutMax,msg_rate_out_avg as msgRateOutAvg," +
+            "msg_rate_out_last as msgRateOutLast,msg_throughput_in_min as msgThroughputInMin," +
+            "msg_throughput_in_max as msgThroughputInMax,msg_throughput_in_avg as msgThroughputInAvg," +
+            "msg_throughput_in_last as msgThroughputInLast," +
+            "msg_throughput_out_min as msgThroughputOutMin," +
+            "msg_throughput_out_max as msgThroughputOutMax," +
+            "msg_throughput_out_avg as msgThroughputOutAvg," +
+            "msg_throughput_out_last as msgThroughputOutLast,storage_size_min as storageSizeMin," +
+            "storage_size_max as storageSizeMax,storage_size_avg as storageSizeAvg," +
+            "storage_size_last as storageSizeLast,time_stamp as time_stamp " +
+            "FROM namespaces_rollup WHERE resolution=#{resolution} " +
+            "and time_stamp>=#{startTime} and time_stamp<#{endTime}")
+    List<StatsRollupEntity> findNamespacesByTime(@Param("resolution") int resolution,
+                                                 @Param("startTime") long startTime,
+                                                 @Param("endTime") long endTime);
+
+    @Select("SELECT resolution as resolution,environment as environment,tenant as tenant," +
+            "samples as samples,msg_rate_in_min as msgRateInMin,msg_rate_in_max as msgRateInMax," +
+            "msg_rate_in_avg as msgRateInAvg,msg_rate_in_last as msgRateInLast," +
+            "msg_rate_out_min as msgRateOutMin,msg_rate_out_max as msgRateOutMax," +
+            "msg_rate_out_avg as msgRateOutAvg,msg_rate_out_last as msgRateOutLast," +
+            "msg_throughput_in_min as msgThroughputInMin,msg_throughput_in_max as msgThroughputInMax," +
+            "msg_throughput_in_avg as msgThroughputInAvg," +
+            "msg_throughput_in_last as msgThroughputInLast," +
+            "msg_throughput_out_min as msgThroughputOutMin," +
+            "msg_throughput_out_max as msgThroughputOutMax," +
+            "msg_throughput_out_avg as msgThroughputOutAvg," +
+            "msg_throughput_out_last as msgThroughputOutLast,storage_size_min as storageSizeMin," +
+            "storage_size_max as storageSizeMax,storage_size_avg as storageSizeAvg," +
+            "storage_size_last as storageSizeLast,time_stamp as time_stamp " +
+            "FROM tenants_rollup WHERE resolution=#{resolution} " +
+            "and time_stamp>=#{startTime} and time_stamp<#{endTime}")
+    List<StatsRollupEntity> findTenantsByTime(@Param("resolution") int resolution,
+                                              @Param("startTime") long startTime,
+                                              @Param("endTime") long endTime);
+
+    @Select("SELECT r.resolution as resolution,r.topic_id as topicId,d.environment as environment," +
+            "d.tenant as tenant,d.namespace as namespace,r.samples as samples," +
+            "r.msg_rate_in_min as msgRateInMin,r.msg_rate_in_max as msgRateInMax," +
+            "r.msg_rate_in_avg as msgRateInAvg,r.msg_rate_in_last as msgRateInLast," +
+            "r.msg_rate_out_min as msgRateOutMin,r.msg_rate_out_max as msgRateOutMax," +
+            "r.msg_rate_out_avg as msgRateOutAvg,r.msg_rate_out_last as msgRateOutLast," +
+            "r.msg_throughput_in_min as msgThroughputInMin," +
+            "r.msg_throughput_in_max as msgThroughputInMax," +
+            "r.msg_throughput_in_avg as msgThroughputInAvg," +
+            "r.msg_throughput_in_last as msgThroughputInLast," +
+            "r.msg_throughput_out_min as msgThroughputOutMin," +
+            "r.msg_throughput_out_max as msgThroughputOutMax," +
+            "r.msg_throughput_out_avg as msgThroughputOutAvg," +
+            "r.msg_throughput_out_last as msgThroughputOutLast,r.storage_size_min as storageSizeMin," +
+            "r.storage_size_max as storageSizeMax,r.storage_size_avg as storageSizeAvg," +
+            "r.storage_size_last as storageSizeLast,r.time_stamp as time_stamp " +
+            "FROM topics_rollup r JOIN topics_dimension d ON r.topic_id = d.topic_id " +
+            "WHERE r.resolution=#{resolution} and d.environment=#{environment} and d.tenant=#{tenant} " +
+            "and d.namespace=#{namespace} and d.persistent=#{persistent} and d.topic=#{topic} " +
+            "and r.time_stamp>=#{startTime} and r.time_stamp<=#{endTime} ORDER BY r.time_stamp")
+    List<StatsRollupEntity> findByTopic(@Param("resolution") int resolution,
+                                        @Param("environment") String environment,
+                                        @Param("tenant") String tenant,
+                                        @Param("namespace") String namespace,
+                                        @Param("persistent") String persistent,
+                                        @Param("topic") String topic,
+                                        @Param("startTime") long startTime,
+                                        @Param("endTime") long endTime);
+
+    @Select("SELECT resolution as resolution,environment as environment,tenant as tenant," +
+            "namespace as namespace,samples as samples,msg_rate_in_min as msgRateInMin," +
+            "msg_rate_in_max as msgRateInMax,msg_rate_in_avg as msgRateInAvg," +
+            "msg_rate_in_last as msgRateInLast,msg_rate_out_min as msgRateOutMin," +
+            "msg_rate_out_max as msgRateOutMax,msg_rate_out_avg as msgRateOutAvg," +
+            "msg_rate_out_last as msgRateOutLast,msg_throughput_in_min as msgThroughputInMin," +
+            "msg_throughput_in_max as msgThroughputInMax,msg_throughput_in_avg as msgThroughputInAvg," +
+            "msg_throughput_in_last as msgThroughputInLast," +
+            "msg_throughput_out_min as msgThroughputOutMin," +
+            "msg_throughput_out_max as msgThroughputOutMax," +
+            "msg_throughput_out_avg as msgThroughputOutAvg," +
+            "msg_throughput_out_last as msgThroughputOutLast,storage_size_min as storageSizeMin," +
+            "storage_size_max as storageSizeMax,storage_size_avg as storageSizeAvg," +
+            "storage_size_last as storageSizeLast,time_stamp as time_stamp " +
+            "FROM namespaces_rollup WHERE resolution=#{resolution} " +
+            "and environment=#{environment} and tenant=#{tenant} and namespace=#{namespace} " +
+            "and time_stamp>=#{startTime} and time_stamp<=#{endTime} ORDER BY time_stamp")
+    List<StatsRollupEntity> findByNamespace(@Param("resolution") int resolution,
+                                            @Param("environment") String environment,
+                                            @Param("tenant") String tenant,
+                                            @Param("namespace") String namespace,
+                                            @Param("startTime") long startTime,
+                                            @Param("endTime") long endTime);
+
+    @Select("SELECT resolution as resolution,environment as environment,tenant as tenant," +
+            "samples as samples,msg_rate_in_min as msgRateInMin,msg_rate_in_max as msgRateInMax," +
+            "msg_rate_in_avg as msgRateInAvg,msg_rate_in_last as msgRateInLast," +
+            "msg_rate_out_min as msgRateOutMin,msg_rate_out_max as msgRateOutMax," +
+            "msg_rate_out_avg as msgRateOutAvg,msg_rate_out_last as msgRateOutLast," +
+            "msg_throughput_in_min as msgThroughputInMin,msg_throughput_in_max as msgThroughputInMax," +
+            "msg_throughput_in_avg as msgThroughputInAvg," +
+            "msg_throughput_in_last as msgThroughputInLast," +
+            "msg_throughput_out_min as msgThroughputOutMin," +
+            "msg_throughput_out_max as msgThroughputOutMax," +
+            "msg_throughput_out_avg as msgThroughputOutAvg," +
+            "msg_throughput_out_last as msgThroughputOutLast,storage_size_min as storageSizeMin," +
+            "storage_size_max as storageSizeMax,storage_size_avg as storageSizeAvg," +
+            "storage_size_last as storageSizeLast,time_stamp as time_stamp " +
+            "FROM tenants_rollup WHERE resolution=#{resolution} " +
+            "and environment=#{environment} and tenant=#{tenant} " +
+            "and time_stamp>=#{startTime} and time_stamp<=#{endTime} ORDER BY time_stamp")
+    List<StatsRollupEntity> findByTenant(@Param("resolution") int resolution,
+                                         @Param("environment") String environment,
+                                         @Param("tenant") String tenant,
+                                         @Param("startTime") long startTime,
+                                         @Param("endTime") long endTime);
+
+    @Delete("DELETE FROM topics_rollup WHERE resolution=#{resolution} and time_stamp < #{refTime}")
+    void deleteTopics(@Param("resolution") int resolution, @Param("refTime") long refTime);
+
+    @Delete("DELETE FROM namespaces_rollup WHERE resolution=#{resolution} and time_stamp < #{refTime}")
+    void deleteNamespaces(@Param("resolution") int resolution, @Param("refTime") long refTime);
+
+    @Delete("DELETE FROM tenants_rollup WHERE resolution=#{resolution} and time_stamp < #{refTime}")
+    void deleteTenants(@Param("resolution") int resolution, @Param("refTime") long refTime);
+}
@@ -30,6 +30,18 @@ public interface SubscriptionsStatsMapper {
     @Options(useGeneratedKeys=true, keyProperty="subscriptionStatsId", keyColumn="subscription_stats_id")
     void save(SubscriptionStatsEntity subscriptionStatsEntity);
 
+    @Insert("INSERT INTO subscriptions_stats(subscription_stats_id,topic_stats_id,subscription,msg_backlog," +
+            "msg_rate_expired,msg_rate_out,msg_throughput_out,msg_rate_redeliver," +
+            "number_of_entries_since_first_not_acked_message,total_non_contiguous_deleted_messages_range," +
+            "subscription_type,time_stamp) " +
+            "VALUES(#{subscriptionStatsId},#{topicStatsId},#{subscription},#{msgBacklog},#{msgRateExpired}," +
+            "#{msgRateOut},#{msgThroughputOut},#{msgRateRedeliver},#{numberOfEntriesSinceFirstNotAckedMessage}," +
+            "#{totalNonContiguousDeletedMessagesRange},#{subscriptionType},#{timestamp})")
+    void saveWithId(SubscriptionStatsEntity subscriptionStatsEntity);
+
+    @Select("SELECT MAX(subscription_stats_id) FROM subscriptions_stats")
+    Long findMaxId();
+
     @Select("SELECT subscription_stats_id as subscriptionStatsId,topic_stats_id as topicStatsId," +
             "subscription as subscription,msg_backlog as msgBacklog,msg_rate_expired as msgRateExpired," +
             "msg_rate_out as msgRateOut,msg_throughput_out as msgThroughputOut,msg_rate_redeliver as msgRateRedeliver," +
@@ -0,0 +1,99 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.pulsar.manager.entity.TopicDimensionEntity;
+import org.apache.pulsar.manager.entity.TopicHistoryEntity;
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+
+import java.util.List;
+
+@Mapper
+public interface TopicsHistoryMapper {
+
+    @Insert("INSERT INTO topics_dimension(topic_id,environment,cluster,tenant,namespace,persistent,topic) " +
+            "VALUES(#{topicId},#{environment},#{cluster},#{tenant},#{namespace},#{persistent},#{topic})")
+    void insertDimension(TopicDimensionEntity topicDimensionEntity);
+
+    @Select("SELECT topic_id as topicId,environment as environment,cluster as cluster,tenant as tenant," +
+            "namespace as namespace,persistent as persistent,topic as topic FROM topics_dimension")
+    List<TopicDimensionEntity> findAllDimensions();
+
+    @Select("SELECT topic_id FROM topics_dimension WHERE environment=#{environment} and cluster=#{cluster} " +
+            "and tenant=#{tenant} and namespace=#{namespace} and persistent=#{persistent} and topic=#{topic}")
+    Long findDimensionId(TopicDimensionEntity topicDimensionEntity);
+
+    @Select("SELECT MAX(topic_id) FROM topics_dimension")
+    Long findMaxTopicId();
+
+    @Delete("DELETE FROM topics_dimension WHERE topic_id = #{topicId}")
+    void deleteDimension(@Param("topicId") long topicId);
+
+    @Insert("INSERT INTO topics_history(topic_id,time_stamp,broker,bundle,producer_count,subscription_count," +
+            "msg_rate_in,msg_throughput_in,msg_rate_out,msg_throughput_out,average_msg_size,storage_size) " +
+            "VALUES(#{topicId},#{timestamp},#{broker},#{bundle},#{producerCount},#{subscriptionCount},#{msgRateIn}," +
+            "#{msgThroughputIn},#{msgRateOut},#{msgThroughputOut},#{averageMsgSize},#{storageSize})")
+    void insert(TopicHistoryEntity topicHistoryEntity);
+
+    /**
+     * Latest point of every topic id, read once when the dictionary is loaded.
+     */
+    @Select("SELECT topic_id as topicId,MAX(time_stamp) as time_stamp FROM topics_history GROUP BY topic_id")
+    List<TopicHistoryEntity> findLastTimestamps();
+
+    @Select("SELECT MAX(time_stamp) FROM topics_history WHERE topic_id = #{topicId}")
+    Long findLastTimestamp(@Param("topicId") long topicId);
+
+    /**
+     * Topic ids of the rollup rows, a dimension is kept as long as one references it.
+     */
+    @Select("SELECT topic_id FROM topics_rollup GROUP BY topic_id")
+    List<Long> findRollupTopicIds();
+
+    @Select("SELECT d.environment as environment,d.cluster as cluster,h.broker as broker,d.tenant as tenant," +
+            "d.namespace as namespace,h.bundle as bundle,d.persistent as persistent,d.topic as topic," +
+            "h.producer_count as producerCount,h.subscription_count as subscriptionCount," +
+            "h.msg_rate_in as msgRateIn,h.msg_throughput_in as msgThroughputIn,h.msg_rate_out as msgRateOut," +
+            "h.msg_throughput_out as msgThroughputOut,h.average_msg_size as averageMsgSize," +
+            "h.storage_size as storageSize,h.time_stamp as time_stamp " +
+            "FROM topics_history h JOIN topics_dimension d ON h.topic_id = d.topic_id " +
+            "WHERE d.environment=#{environment} and d.tenant=#{tenant} and d.namespace=#{namespace} " +
+            "and d.persistent=#{persistent} and d.topic=#{topic} " +
+            "and h.time_stamp>=#{startTime} and h.time_stamp<=#{endTime} ORDER BY h.time_stamp")
+    List<TopicStatsEntity> findByTopic(@Param("environment") String environment,
+                                       @Param("tenant") String tenant,
+                                       @Param("namespace") String namespace,
+                                       @Param("persistent") String persistent,
+                                       @Param("topic") String topic,
+                                       @Param("startTime") long startTime,
+                                       @Param("endTime") long endTime);
+
+    @Select("SELECT topic_id as topicId,producer_count as producerCount,subscription_count as subscriptionCount," +
+            "msg_rate_in as msgRateIn,msg_throughput_in as msgThroughputIn,msg_rate_out as msgRateOut," +
+            "msg_throughput_out as msgThroughputOut,average_msg_size as averageMsgSize," +
+            "storage_size as storageSize,time_stamp as time_stamp FROM topics_history " +
+            "WHERE time_stamp>=#{startTime} and time_stamp<#{endTime} ORDER BY time_stamp")
+    List<TopicHistoryEntity> findByTime(@Param("startTime") long startTime, @Param("endTime") long endTime);
+
+    @Select("SELECT MIN(time_stamp) FROM topics_history WHERE time_stamp >= #{startTime}")
+    Long findMinTime(@Param("startTime") long startTime);
+
+    @Delete("DELETE FROM topics_history WHERE time_stamp < #{refTime}")
+    void delete(@Param("refTime") long refTime);
+}
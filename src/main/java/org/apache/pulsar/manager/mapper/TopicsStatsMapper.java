@@ -31,6 +31,17 @@ public interface TopicsStatsMapper {
     @Options(useGeneratedKeys=true, keyProperty="topicStatsId", keyColumn="topic_stats_id")
     void insert(TopicStatsEntity topicStatsEntity);
 
+    @Insert("INSERT INTO topics_stats(topic_stats_id,environment,cluster,broker,tenant,namespace,bundle,persistent," +
+            "topic,producer_count,subscription_count,msg_rate_in,msg_throughput_in,msg_rate_out,msg_throughput_out," +
+            "average_msg_size,storage_size,time_stamp) " +
+            "VALUES(#{topicStatsId},#{environment},#{cluster},#{broker},#{tenant},#{namespace},#{bundle}," +
+            "#{persistent},#{topic},#{producerCount},#{subscriptionCount},#{msgRateIn},#{msgThroughputIn}," +
+            "#{msgRateOut},#{msgThroughputOut},#{averageMsgSize},#{storageSize},#{timestamp})")
+    void insertWithId(TopicStatsEntity topicStatsEntity);
+
+    @Select("SELECT MAX(topic_stats_id) FROM topics_stats")
+    Long findMaxId();
+
     @Select("SELECT topic_stats_id as topicStatsId,environment as environment,cluster as cluster,broker as broker," +
             "tenant as tenant,namespace as namespace,bundle as bundle,persistent as persistent," +
             "topic as topic,producer_count as producerCount,subscription_count as subscriptionCount," +
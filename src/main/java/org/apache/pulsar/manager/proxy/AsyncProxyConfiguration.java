@@ -0,0 +1,113 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.proxy;
+
+import io.netty.handler.ssl.SslContextBuilder;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.Dsl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.net.ssl.TrustManagerFactory;
+import javax.servlet.DispatcherType;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+
+/**
+ * Serves the /admin/** and /lookup/** routes with a non-blocking http client instead of zuul, enabled
+ * with proxy.engine=async. Requests the filter cannot route are left to zuul and its default routes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "proxy.engine", havingValue = "async")
+public class AsyncProxyConfiguration {
+
+    @Value("${proxy.async.max.connections:1024}")
+    private int maxConnections;
+
+    @Value("${proxy.async.max.connections.per.host:128}")
+    private int maxConnectionsPerHost;
+
+    @Value("${proxy.async.connect.timeout.ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${proxy.async.read.timeout.ms:60000}")
+    private int readTimeoutMs;
+
+    @Value("${proxy.async.request.timeout.ms:120000}")
+    private int requestTimeoutMs;
+
+    @Value("${proxy.async.pool.idle.timeout.ms:60000}")
+    private int pooledConnectionIdleTimeoutMs;
+
+    @Value("${zuul.sensitive-headers:Cookie,Set-Cookie}")
+    private String[] sensitiveHeaders;
+
+    @Value("${tls.enabled}")
+    private boolean tlsEnabled;
+
+    @Value("${tls.keystore}")
+    private String tlsKeystore;
+
+    @Value("${tls.keystore.password}")
+    private String tlsKeystorePassword;
+
+    @Value("${tls.hostname.verifier}")
+    private boolean tlsHostnameVerifier;
+
+    @Bean(destroyMethod = "close")
+    public AsyncHttpClient proxyHttpClient() throws Exception {
+        DefaultAsyncHttpClientConfig.Builder config = Dsl.config()
+                .setThreadPoolName("pulsar-manager-proxy")
+                .setMaxConnections(maxConnections)
+                .setMaxConnectionsPerHost(maxConnectionsPerHost)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setRequestTimeout(requestTimeoutMs)
+                .setPooledConnectionIdleTimeout(pooledConnectionIdleTimeoutMs)
+                .setKeepAlive(true)
+                // Broker redirects are rewritten and returned to the client, like zuul does
+                .setFollowRedirect(false);
+        if (tlsEnabled) {
+            KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            try (InputStream in = new FileInputStream(tlsKeystore)) {
+                trustStore.load(in, tlsKeystorePassword.toCharArray());
+            }
+            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(trustStore);
+            config.setSslContext(SslContextBuilder.forClient().trustManager(trustManagerFactory).build())
+                    .setDisableHttpsEndpointIdentificationAlgorithm(!tlsHostnameVerifier);
+        }
+        return Dsl.asyncHttpClient(config);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AsyncProxyFilter> asyncProxyFilter(
+            ProxyRouting proxyRouting, AsyncHttpClient proxyHttpClient) {
+        FilterRegistrationBean<AsyncProxyFilter> registration = new FilterRegistrationBean<>(
+                new AsyncProxyFilter(proxyRouting, proxyHttpClient, sensitiveHeaders, requestTimeoutMs));
+        registration.addUrlPatterns("/admin/*", "/lookup/*");
+        registration.setAsyncSupported(true);
+        // A response failing half way is failed again on an async dispatch, see AsyncProxyFilter
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        // After the security and request context filters, before zuul
+        registration.setOrder(0);
+        return registration;
+    }
+}
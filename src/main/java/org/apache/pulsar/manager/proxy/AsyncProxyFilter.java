@@ -0,0 +1,426 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.proxy;
+
+import com.google.common.collect.ImmutableSet;
+import io.netty.handler.codec.http.HttpHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.ListenableFuture;
+import org.asynchttpclient.handler.StreamedAsyncHandler;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Forwards the /admin/** and /lookup/** requests to the brokers without holding a servlet thread while
+ * the broker answers. The request body is read with a ReadListener and sent once complete, the response
+ * is streamed back one body part at a time, the next part is only read from the broker once the client
+ * connection accepted the previous one.
+ */
+@Slf4j
+public class AsyncProxyFilter implements Filter {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = ImmutableSet.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    private static final String HOST = "host";
+
+    private static final String LOCATION = "location";
+
+    // Set on the request when the broker response failed after part of it was sent to the client
+    private static final String FAILURE_ATTRIBUTE = AsyncProxyFilter.class.getName() + ".failure";
+
+    private final ProxyRouting proxyRouting;
+
+    private final AsyncHttpClient httpClient;
+
+    private final Set<String> sensitiveHeaders;
+
+    private final long timeoutMs;
+
+    public AsyncProxyFilter(
+            ProxyRouting proxyRouting, AsyncHttpClient httpClient, String[] sensitiveHeaders, long timeoutMs) {
+        this.proxyRouting = proxyRouting;
+        this.httpClient = httpClient;
+        this.sensitiveHeaders = Stream.of(sensitiveHeaders)
+                .map(header -> header.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            Throwable failure = (Throwable) request.getAttribute(FAILURE_ATTRIBUTE);
+            if (failure != null) {
+                // Failing on a container thread makes the container drop the connection, the client sees
+                // a truncated response instead of a complete one
+                throw new ServletException("Failed to forward request", failure);
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        String error = proxyRouting.checkPermission(request.getServletPath(), request.getHeader("token"));
+        if (error != null) {
+            // Same as the zuul engine, the error is returned in the body with the default status
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getWriter().write(error);
+            return;
+        }
+        String serviceUrl = proxyRouting.getServiceUrl(request);
+        if (serviceUrl == null) {
+            // Nothing to route on, zuul forwards it to its default route
+            chain.doFilter(request, response);
+            return;
+        }
+        Map<String, String> authHeader = proxyRouting.prepareForward(request, serviceUrl);
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String url = serviceUrl + path + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        BoundRequestBuilder upstream = httpClient.prepare(request.getMethod(), url);
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (isForwarded(name) && !HOST.equalsIgnoreCase(name)) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    upstream.addHeader(name, value);
+                }
+            }
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        upstream.setHeader("X-Forwarded-For", forwardedFor != null
+                ? forwardedFor + ", " + request.getRemoteAddr() : request.getRemoteAddr());
+        upstream.setHeader("X-Forwarded-Host", request.getHeader(HOST));
+        upstream.setHeader("X-Forwarded-Proto", request.getScheme());
+        upstream.setHeader("X-Forwarded-Port", String.valueOf(request.getServerPort()));
+        authHeader.forEach(upstream::setHeader);
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(timeoutMs);
+        ProxyResponse proxyResponse = new ProxyResponse(
+                asyncContext, response, url, request.getServletPath(), request.getMethod());
+        asyncContext.addListener(proxyResponse);
+        if (request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null) {
+            // Read as the client sends it, the broker request starts once the whole body is there
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new RequestBody(in, upstream, proxyResponse));
+        } else {
+            proxyResponse.start(upstream);
+        }
+    }
+
+    private boolean isForwarded(String header) {
+        String name = header.toLowerCase(Locale.ROOT);
+        return !HOP_BY_HOP_HEADERS.contains(name) && !sensitiveHeaders.contains(name);
+    }
+
+    /**
+     * Collects the request body without blocking, admin request bodies are small.
+     */
+    private static final class RequestBody implements ReadListener {
+
+        private final ServletInputStream in;
+
+        private final BoundRequestBuilder upstream;
+
+        private final ProxyResponse proxyResponse;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private final byte[] buffer = new byte[8192];
+
+        RequestBody(ServletInputStream in, BoundRequestBuilder upstream, ProxyResponse proxyResponse) {
+            this.in = in;
+            this.upstream = upstream;
+            this.proxyResponse = proxyResponse;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            while (in.isReady()) {
+                int read = in.read(buffer);
+                if (read < 0) {
+                    return;
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+
+        @Override
+        public void onAllDataRead() throws IOException {
+            upstream.setBody(body.toByteArray());
+            proxyResponse.start(upstream);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            proxyResponse.fail(t, true);
+        }
+    }
+
+    /**
+     * Copies the broker response to the client. Body parts are requested from the broker one at a time
+     * and only once the servlet output stream is ready, so a slow client does not make the proxy buffer
+     * the whole response.
+     */
+    private final class ProxyResponse implements StreamedAsyncHandler<Void>, Subscriber<HttpResponseBodyPart>,
+            WriteListener, AsyncListener {
+
+        private final AsyncContext asyncContext;
+
+        private final HttpServletResponse response;
+
+        private final ServletOutputStream out;
+
+        private final String url;
+
+        // Kept for the completion of the pulsar event, the request may be recycled by then
+        private final String path;
+
+        private final String method;
+
+        private final Deque<byte[]> pending = new ArrayDeque<>();
+
+        private volatile ListenableFuture<Void> upstream;
+
+        private Subscription subscription;
+
+        private boolean requested;
+
+        private boolean upstreamCompleted;
+
+        private boolean completed;
+
+        ProxyResponse(AsyncContext asyncContext, HttpServletResponse response, String url,
+                      String path, String method) throws IOException {
+            this.asyncContext = asyncContext;
+            this.response = response;
+            this.out = response.getOutputStream();
+            this.url = url;
+            this.path = path;
+            this.method = method;
+        }
+
+        void start(BoundRequestBuilder request) throws IOException {
+            out.setWriteListener(this);
+            upstream = request.execute(this);
+        }
+
+        @Override
+        public synchronized State onStatusReceived(HttpResponseStatus status) {
+            if (completed) {
+                return State.ABORT;
+            }
+            response.setStatus(status.getStatusCode());
+            return State.CONTINUE;
+        }
+
+        @Override
+        public synchronized State onHeadersReceived(HttpHeaders headers) {
+            if (completed) {
+                return State.ABORT;
+            }
+            boolean redirect = response.getStatus() >= 300 && response.getStatus() < 400;
+            for (Map.Entry<String, String> header : headers) {
+                if (!isForwarded(header.getKey())) {
+                    continue;
+                }
+                String value = header.getValue();
+                if (redirect && LOCATION.equalsIgnoreCase(header.getKey())) {
+                    value = proxyRouting.rewriteLocation(value);
+                }
+                response.addHeader(header.getKey(), value);
+            }
+            return State.CONTINUE;
+        }
+
+        @Override
+        public State onStream(Publisher<HttpResponseBodyPart> publisher) {
+            publisher.subscribe(this);
+            return State.CONTINUE;
+        }
+
+        @Override
+        public State onBodyPartReceived(HttpResponseBodyPart bodyPart) {
+            // Body parts are delivered to onNext once the stream is subscribed
+            return State.CONTINUE;
+        }
+
+        @Override
+        public void onThrowable(Throwable t) {
+            fail(t, false);
+        }
+
+        @Override
+        public Void onCompleted() {
+            // The response is complete once the body stream is drained, see onComplete
+            return null;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            synchronized (this) {
+                subscription = s;
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(HttpResponseBodyPart bodyPart) {
+            synchronized (this) {
+                requested = false;
+                pending.add(bodyPart.getBodyPartBytes());
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            fail(t, false);
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                upstreamCompleted = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onWritePossible() {
+            drain();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            fail(new TimeoutException("No response within " + timeoutMs + " ms"), false);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // The client connection failed, there is no one left to answer
+            fail(event.getThrowable(), true);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private synchronized void drain() {
+            if (completed) {
+                return;
+            }
+            try {
+                while (out.isReady()) {
+                    byte[] bodyPart = pending.poll();
+                    if (bodyPart == null) {
+                        if (upstreamCompleted) {
+                            int status = response.getStatus();
+                            complete();
+                            proxyRouting.completeForward(path, method, status);
+                        } else if (subscription != null && !requested) {
+                            requested = true;
+                            subscription.request(1);
+                        }
+                        return;
+                    }
+                    out.write(bodyPart);
+                }
+            } catch (IOException e) {
+                fail(e, true);
+            }
+        }
+
+        private synchronized void fail(Throwable t, boolean clientFailed) {
+            if (completed) {
+                return;
+            }
+            // Settled before cancelling, the subscription and the upstream may call back into fail or drain
+            completed = true;
+            pending.clear();
+            boolean committed = response.isCommitted();
+            log.error("Failed to forward request to {}: {}", url, t.getMessage());
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            if (upstream != null) {
+                upstream.abort(t);
+            }
+            if (clientFailed) {
+                asyncContext.complete();
+            } else if (!committed) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+                asyncContext.complete();
+            } else {
+                // Completing would end the body as if it was whole, fail the request on a container thread
+                asyncContext.getRequest().setAttribute(FAILURE_ATTRIBUTE, t);
+                asyncContext.dispatch();
+            }
+        }
+
+        private void complete() {
+            completed = true;
+            pending.clear();
+            asyncContext.complete();
+        }
+    }
+}
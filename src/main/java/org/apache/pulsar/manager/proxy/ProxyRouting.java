@@ -0,0 +1,170 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.proxy;
+
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pulsar.manager.service.EnvironmentCacheService;
+import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.service.PulsarEvent;
+import org.apache.pulsar.manager.service.RolesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Routing rules of the /admin/** and /lookup/** requests, shared by the zuul and the async proxy engines.
+ */
+@Component
+@Slf4j
+public class ProxyRouting {
+
+    private final EnvironmentCacheService environmentCacheService;
+
+    private final PulsarEvent pulsarEvent;
+
+    private final RolesService rolesService;
+
+    private final PulsarAdminService pulsarAdminService;
+
+    @Value("${redirect.scheme}")
+    private String scheme;
+
+    @Value("${redirect.host}")
+    private String host;
+
+    @Value("${redirect.port}")
+    private String port;
+
+    @Autowired
+    public ProxyRouting(
+            EnvironmentCacheService environmentCacheService, PulsarEvent pulsarEvent,
+            RolesService rolesService, PulsarAdminService pulsarAdminService) {
+        this.environmentCacheService = environmentCacheService;
+        this.pulsarEvent = pulsarEvent;
+        this.rolesService = rolesService;
+        this.pulsarAdminService = pulsarAdminService;
+    }
+
+    /**
+     * Check the user holding the token may send the request.
+     *
+     * @param requestUri path of the request
+     * @param token access token of the user
+     * @return the error message, null when the request is allowed.
+     */
+    public String checkPermission(String requestUri, String token) {
+        if (!rolesService.isSuperUser(token)) {
+            if (!pulsarEvent.validateRoutePermission(requestUri, token)) {
+                return "This operation does not have permission";
+            }
+            if (requestUri.startsWith("/admin/v2/tenants/")
+                    || requestUri.startsWith("/admin/v2/namespaces")
+                    || requestUri.startsWith("/admin/v2/persistent")
+                    || requestUri.startsWith("/admin/v2/non-persistent")) {
+                Map<String, String> result = pulsarEvent.validateTenantPermission(
+                        requestUri, token);
+                if (result.get("error") != null) {
+                    log.error("This operation does not have permission");
+                    return result.get("error");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the service url the request is forwarded to, from the redirect parameters, the
+     * x-pulsar-broker header or the environment and x-pulsar-cluster headers, in that order.
+     *
+     * @param request http request
+     * @return the service url, null when the request does not say where it should go.
+     */
+    public String getServiceUrl(HttpServletRequest request) {
+        String redirect = request.getParameter("redirect");
+        if (redirect != null && redirect.equals("true")) {
+            String redirectScheme = request.getParameter("redirect.scheme");
+            String redirectHost = request.getParameter("redirect.host");
+            String redirectPort = request.getParameter("redirect.port");
+            return redirectScheme + "://" + redirectHost + ":" + redirectPort;
+        }
+
+        String broker = request.getHeader("x-pulsar-broker");
+        if (StringUtils.isNotBlank(broker)) { // the request should be forward to a pulsar broker
+            // TODO: support https://
+            return "http://" + broker;
+        }
+
+        String environment = request.getHeader("environment");
+        if (StringUtils.isBlank(environment)) {
+            return null;
+        }
+        return environmentCacheService.getServiceUrl(request);
+    }
+
+    /**
+     * Record the pulsar event of a request about to be forwarded.
+     *
+     * @param request http request
+     * @param serviceUrl service url the request is forwarded to
+     * @return the auth headers to send along with the request.
+     */
+    public Map<String, String> prepareForward(HttpServletRequest request, String serviceUrl) {
+        Map<String, String> authHeader = pulsarAdminService.getAuthHeader(serviceUrl);
+        pulsarEvent.parsePulsarEvent(request.getServletPath(), request);
+        log.info("Forward request to {} @ path {}",
+                serviceUrl, request.getServletPath());
+        return authHeader;
+    }
+
+    /**
+     * Record the outcome of a forwarded request, once the broker response was fully sent to the client.
+     *
+     * @param path servlet path of the request
+     * @param method http method of the request
+     * @param statusCode status returned by the broker
+     */
+    public void completeForward(String path, String method, int statusCode) {
+        pulsarEvent.completePulsarEvent(path, method, statusCode);
+    }
+
+    /**
+     * Point the Location header of a broker redirect back at pulsar manager, the broker it redirects to
+     * is kept in the redirect parameters.
+     *
+     * @param location Location header returned by the broker
+     * @return the Location header returned to the client.
+     */
+    public String rewriteLocation(String location) {
+        UriComponentsBuilder redirectedUriBuilder = UriComponentsBuilder
+                .fromUriString(location);
+
+        UriComponents redirectedUriComps = redirectedUriBuilder.build();
+
+        return redirectedUriBuilder
+                .scheme(scheme)
+                .host(host)
+                .port(port).replacePath(redirectedUriComps.getPath())
+                .queryParam("redirect", true)
+                .queryParam("redirect.scheme", redirectedUriComps.getScheme())
+                .queryParam("redirect.host", redirectedUriComps.getHost())
+                .queryParam("redirect.port", redirectedUriComps.getPort())
+                .toUriString();
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service;
+
+import org.apache.pulsar.manager.entity.BookieStatsEntity;
+
+import java.util.List;
+
+public interface BookieStatsService {
+
+    /**
+     * Reads the disk usage, journal latency and ledger count of every bookie and saves them with unixTime.
+     */
+    void collectBookieStats(long unixTime);
+
+    List<BookieStatsEntity> findByBookie(String bookie, long startTime, long endTime);
+
+    void clearStats(long nowTime, long timeInterval);
+}
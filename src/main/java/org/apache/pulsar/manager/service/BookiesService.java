@@ -13,11 +13,24 @@
  */
 package org.apache.pulsar.manager.service;
 
+import java.util.List;
 import java.util.Map;
 
 public interface BookiesService {
 
     Map<String, Object> getBookiesList(Integer pageNum, Integer pageSize, String cluster);
 
+    /**
+     * Number of rw and ro bookies, read from the same short lived inventory as getBookiesList.
+     */
+    int getBookieCount();
+
+    /**
+     * The rw and ro bookies with their status and storage [free, total], empty if they cannot be listed.
+     */
+    List<Map<String, Object>> getBookieInventory();
+
+    void invalidateBookieInventory();
+
     String forwardBookiesHeartbeat(String bookie);
 }
@@ -39,4 +39,11 @@ public interface BrokerStatsService {
                                                 List<String> namespaceList,
                                                 long timestamp);
 
+    List<TopicStatsEntity> findByMultiTenant(String environment, List<String> tenantList, long timestamp);
+
+    List<TopicStatsEntity> findByMultiNamespace(String environment,
+                                                String tenant,
+                                                List<String> namespaceList,
+                                                long timestamp);
+
 }
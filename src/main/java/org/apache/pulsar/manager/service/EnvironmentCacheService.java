@@ -15,6 +15,7 @@ package org.apache.pulsar.manager.service;
 
 import org.apache.pulsar.manager.entity.EnvironmentEntity;
 import javax.servlet.http.HttpServletRequest;
+import java.util.Optional;
 
 public interface EnvironmentCacheService {
 
@@ -44,6 +45,21 @@ public interface EnvironmentCacheService {
      */
     String getServiceUrl(String environment, String cluster);
 
+    /**
+     * Return the environment of a given name, read from the database only when it is not cached yet.
+     *
+     * @param environment environment name
+     * @return the environment entity, empty if there is no such environment.
+     */
+    Optional<EnvironmentEntity> getEnvironment(String environment);
+
+    /**
+     * Remove the environment and its clusters from the cache.
+     *
+     * @param environment environment name
+     */
+    void invalidateEnvironment(String environment);
+
     /**
      * Refresh all the environments.
      */
@@ -13,6 +13,8 @@
  */
 package org.apache.pulsar.manager.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import org.apache.pulsar.client.admin.BrokerStats;
@@ -25,6 +27,7 @@ import org.apache.pulsar.client.admin.Topics;
 
 public interface PulsarAdminService {
     PulsarAdmin getPulsarAdmin(String url);
+    void closePulsarAdmin(String url);
     BrokerStats brokerStats(String url);
     Clusters clusters(String url);
     Brokers brokers(String url);
@@ -32,4 +35,5 @@ public interface PulsarAdminService {
     Namespaces namespaces(String url);
     Topics topics(String url);
     Map<String, String> getAuthHeader(String url);
+    InputStream brokerTopicsStats(String url) throws IOException;
 }
@@ -20,6 +20,15 @@ public interface PulsarEvent {
 
     void parsePulsarEvent(String path, HttpServletRequest httpRequest);
 
+    /**
+     * Apply the side effects of a forwarded request once the broker answered it.
+     *
+     * @param path path of the request
+     * @param method http method of the request
+     * @param statusCode status returned by the broker
+     */
+    void completePulsarEvent(String path, String method, int statusCode);
+
     Map<String, String> validateTenantPermission(String path, String token);
 
     boolean validateRoutePermission(String path, String token);
@@ -0,0 +1,51 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service;
+
+import org.apache.pulsar.manager.entity.StatsRollupEntity;
+
+import java.util.List;
+
+public interface StatsHistoryService {
+
+    int FIVE_MINUTES = 300;
+
+    int ONE_HOUR = 3600;
+
+    /**
+     * Rolls the points of topics_history up into the 5 minute buckets ended at unixTime, then those
+     * into the 1 hour buckets ended at unixTime. Buckets already rolled up are not read again.
+     */
+    void rollup(long unixTime);
+
+    /**
+     * Applies the retention of topics_history and of each rollup tier. Rows not rolled up into the next
+     * tier yet are kept.
+     */
+    void clearHistory(long nowTime);
+
+    /**
+     * The resolution read for a trend between startTime and endTime, 5 minutes up to a day, 1 hour beyond.
+     */
+    int selectResolution(long startTime, long endTime);
+
+    List<StatsRollupEntity> findByTopic(int resolution, String environment, String tenant, String namespace,
+                                        String persistent, String topic, long startTime, long endTime);
+
+    List<StatsRollupEntity> findByNamespace(int resolution, String environment, String tenant, String namespace,
+                                            long startTime, long endTime);
+
+    List<StatsRollupEntity> findByTenant(int resolution, String environment, String tenant,
+                                         long startTime, long endTime);
+}
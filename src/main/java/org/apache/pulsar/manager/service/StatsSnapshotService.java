@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service;
+
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
+
+import java.util.Optional;
+
+public interface StatsSnapshotService {
+
+    /**
+     * Return the stats of the latest collection cycle.
+     *
+     * @return the snapshot, empty when no cycle completed yet or when its stats were cleared from the
+     * database, in which case the database has to be queried.
+     */
+    Optional<TopicStatsSnapshot> getLatestSnapshot();
+
+    /**
+     * Replace the latest snapshot.
+     *
+     * @param snapshot stats of a completed collection cycle.
+     */
+    void publish(TopicStatsSnapshot snapshot);
+}
@@ -15,6 +15,7 @@ package org.apache.pulsar.manager.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface TopicsService {
 
@@ -26,6 +27,36 @@ public interface TopicsService {
             String tenant, String namespace,
             String env, String serviceUrl);
 
+    /**
+     * Number of topics of a namespace, a partitioned topic counts once.
+     */
+    CompletableFuture<Integer> getTopicCountAsync(String tenant, String namespace, String requestHost);
+
+    /**
+     * Drop the cached topic lists of a namespace, after a topic of the namespace was created, updated or deleted.
+     */
+    void invalidateTopicList(String tenant, String namespace);
+
+    /**
+     * Hit and miss counters of the topic listing caches.
+     */
+    Map<String, Object> getCacheStats();
+
+    /**
+     * One page of the topics of a namespace, sorted by name.
+     */
+    Map<String, Object> getTopicsPage(
+            Integer pageNum, Integer pageSize, String tenant, String namespace, String requestHost);
+
+    /**
+     * One page of the topic stats of a namespace, sorted by name, msgRateIn or storageSize.
+     */
+    Map<String, Object> getTopicStatsPage(
+            Integer pageNum, Integer pageSize,
+            String sort, String order,
+            String tenant, String namespace,
+            String env, String serviceUrl);
+
     List<Map<String, Object>> getTopicsStatsList(String env, String tenant, String namespace,
                                                  String persistent, List<Map<String, String>> topics);
 
@@ -0,0 +1,233 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
+import org.apache.pulsar.manager.entity.BookieStatsEntity;
+import org.apache.pulsar.manager.entity.BookiesStatsRepository;
+import org.apache.pulsar.manager.service.BookieStatsService;
+import org.apache.pulsar.manager.service.BookiesService;
+import org.apache.pulsar.manager.utils.HttpUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps a time series of the bookie capacity. Disk usage comes from list_bookie_info, through the inventory
+ * shared with the bookies page, the journal latency and the ledger count from the /metrics of each bookie.
+ */
+@Service
+@Slf4j
+public class BookieStatsServiceImpl implements BookieStatsService {
+
+    static final String JOURNAL_ADD_ENTRY = "bookie_journal_JOURNAL_ADD_ENTRY";
+
+    static final String LEDGERS_COUNT = "bookie_ledgers_count";
+
+    @Value("${bookie.enable}")
+    private Boolean bookieEnable;
+
+    @Value("${clear.stats.interval}")
+    private Long clearStatsInterval;
+
+    @Value("${bookie.stats.http.port:8000}")
+    private int bookieStatsHttpPort;
+
+    @Value("${bookie.stats.threads:8}")
+    private int bookieStatsThreads;
+
+    @Value("${bookie.stats.timeout.ms:20000}")
+    private long bookieStatsTimeoutMs;
+
+    private final BookiesService bookiesService;
+
+    private final BookiesStatsRepository bookiesStatsRepository;
+
+    private ExecutorService bookieStatsExecutor;
+
+    @Autowired
+    public BookieStatsServiceImpl(BookiesService bookiesService, BookiesStatsRepository bookiesStatsRepository) {
+        this.bookiesService = bookiesService;
+        this.bookiesStatsRepository = bookiesStatsRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        bookieStatsExecutor = Executors.newFixedThreadPool(Math.max(1, bookieStatsThreads),
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-bookie-stats-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        bookieStatsExecutor.shutdownNow();
+    }
+
+    @Scheduled(initialDelayString = "${init.delay.interval}", fixedDelayString = "${insert.stats.interval}")
+    private void scheduleCollectBookieStats() {
+        if (!bookieEnable) {
+            return;
+        }
+        long unixTime = System.currentTimeMillis() / 1000L;
+        collectBookieStats(unixTime);
+        clearStats(unixTime, clearStatsInterval / 1000);
+    }
+
+    public void collectBookieStats(long unixTime) {
+        List<Map<String, Object>> bookies = bookiesService.getBookieInventory();
+        List<CompletableFuture<BookieStatsEntity>> futures = new ArrayList<>();
+        for (Map<String, Object> bookie : bookies) {
+            futures.add(CompletableFuture.supplyAsync(() -> collectBookie(unixTime, bookie), bookieStatsExecutor)
+                .exceptionally((e) -> {
+                    log.error("Failed to collect stats from bookie {}", bookie.get("bookie"), e);
+                    return null;
+                }));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(bookieStatsTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.error("Collecting bookie stats timed out after {} ms, the slow bookies are skipped for this cycle",
+                bookieStatsTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            // Failures are handled per bookie
+        }
+        List<BookieStatsEntity> bookieStatsEntities = new ArrayList<>();
+        for (CompletableFuture<BookieStatsEntity> future : futures) {
+            BookieStatsEntity bookieStatsEntity = future.getNow(null);
+            if (bookieStatsEntity != null) {
+                bookieStatsEntities.add(bookieStatsEntity);
+            } else {
+                future.cancel(false);
+            }
+        }
+        bookiesStatsRepository.save(bookieStatsEntities);
+        log.info("Collected stats from {} of {} bookies", bookieStatsEntities.size(), bookies.size());
+    }
+
+    private BookieStatsEntity collectBookie(long unixTime, Map<String, Object> bookie) {
+        String bookieId = (String) bookie.get("bookie");
+        BookieStatsEntity bookieStatsEntity = new BookieStatsEntity();
+        bookieStatsEntity.setBookie(bookieId);
+        bookieStatsEntity.setStatus((String) bookie.get("status"));
+        List<String> storage = (List<String>) bookie.get("storage");
+        if (storage != null && storage.size() >= 2) {
+            bookieStatsEntity.setFreeDiskSpace(Long.parseLong(storage.get(0)));
+            bookieStatsEntity.setTotalDiskSpace(Long.parseLong(storage.get(1)));
+        }
+        bookieStatsEntity.setTime_stamp(unixTime);
+
+        // The bookie id is host:bookiePort, the metrics are served on the http port of the same host
+        String host = bookieId.contains(":") ? bookieId.substring(0, bookieId.lastIndexOf(':')) : bookieId;
+        String url = "http://" + host + ":" + bookieStatsHttpPort + "/metrics";
+        try (Reader reader = new InputStreamReader(
+                HttpUtil.doGetStream(url, Collections.emptyMap()), StandardCharsets.UTF_8)) {
+            parseMetrics(reader, bookieStatsEntity);
+        } catch (IOException e) {
+            PulsarAdminOperationException pulsarAdminOperationException
+                    = new PulsarAdminOperationException("Failed to get bookie metrics from " + url);
+            log.error(pulsarAdminOperationException.getMessage(), e);
+            throw pulsarAdminOperationException;
+        }
+        return bookieStatsEntity;
+    }
+
+    /**
+     * Reads the journal add latency quantiles, in milliseconds, and the ledger count of a bookie from its
+     * prometheus text exposition. The other metrics are skipped line by line.
+     */
+    static void parseMetrics(Reader reader, BookieStatsEntity bookieStatsEntity) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        long ledgerCount = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String name;
+            String labels;
+            int valueStart;
+            int labelsStart = line.indexOf('{');
+            int nameEnd = line.indexOf(' ');
+            if (labelsStart >= 0 && (nameEnd < 0 || labelsStart < nameEnd)) {
+                int labelsEnd = line.indexOf('}', labelsStart);
+                if (labelsEnd < 0) {
+                    continue;
+                }
+                name = line.substring(0, labelsStart);
+                labels = line.substring(labelsStart + 1, labelsEnd);
+                valueStart = labelsEnd + 1;
+            } else if (nameEnd >= 0) {
+                name = line.substring(0, nameEnd);
+                labels = "";
+                valueStart = nameEnd;
+            } else {
+                continue;
+            }
+            if (!name.equals(JOURNAL_ADD_ENTRY) && !name.equals(LEDGERS_COUNT)) {
+                continue;
+            }
+            double value = parseValue(line.substring(valueStart).trim());
+            if (name.equals(LEDGERS_COUNT)) {
+                // One sample per ledger storage, summed for the bookie
+                ledgerCount += (long) value;
+            } else if (labels.contains("success=\"true\"")) {
+                if (labels.contains("quantile=\"0.5\"")) {
+                    bookieStatsEntity.setJournalAddLatencyP50(value);
+                } else if (labels.contains("quantile=\"0.99\"")) {
+                    bookieStatsEntity.setJournalAddLatencyP99(value);
+                }
+            }
+        }
+        bookieStatsEntity.setLedgerCount(ledgerCount);
+    }
+
+    private static double parseValue(String sample) {
+        // The value can be followed by a timestamp
+        int end = sample.indexOf(' ');
+        double value = Double.parseDouble(end < 0 ? sample : sample.substring(0, end));
+        // NaN until the first sample of a quantile, not storable in every database
+        return Double.isNaN(value) || Double.isInfinite(value) ? 0 : value;
+    }
+
+    public List<BookieStatsEntity> findByBookie(String bookie, long startTime, long endTime) {
+        return bookiesStatsRepository.findByBookie(bookie, startTime, endTime);
+    }
+
+    public void clearStats(long nowTime, long timeInterval) {
+        bookiesStatsRepository.remove(nowTime, timeInterval);
+    }
+}
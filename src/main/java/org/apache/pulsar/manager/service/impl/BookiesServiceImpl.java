@@ -13,24 +13,40 @@
  */
 package org.apache.pulsar.manager.service.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
 import org.apache.pulsar.manager.service.BookiesService;
 import org.apache.pulsar.manager.utils.HttpUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
+@Slf4j
 public class BookiesServiceImpl implements BookiesService {
 
     @Value("${backend.directRequestBroker}")
@@ -52,49 +68,35 @@ public class BookiesServiceImpl implements BookiesService {
         put("Authorization", String.format("Bearer %s", pulsarJwtToken));
     }};
 
-    private final Pattern pattern = Pattern.compile(" \\d+");;
+    private static final Type BOOKIES_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+    private final Pattern pattern = Pattern.compile(" \\d+");
+
+    @Value("${bookie.inventory.cache.seconds:10}")
+    private long inventoryCacheSeconds;
+
+    private Cache<String, List<Map<String, Object>>> inventoryCache;
+
+    private ExecutorService inventoryExecutor;
+
+    @PostConstruct
+    public void init() {
+        inventoryCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(inventoryCacheSeconds, TimeUnit.SECONDS)
+                .build();
+        inventoryExecutor = Executors.newFixedThreadPool(3,
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-bookies-inventory-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        inventoryExecutor.shutdownNow();
+    }
+
     public Map<String, Object> getBookiesList(Integer pageNum, Integer pageSize, String cluster) {
         Map<String, Object> bookiesMap = Maps.newHashMap();
-        List<Map<String, Object>> bookiesArray = new ArrayList<>();
         if (bookieEnable) {
-            Gson gson = new Gson();
-            Map<String, String> header = Maps.newHashMap();
-            header.put("Content-Type", "application/json");
-            if (StringUtils.isNotBlank(pulsarJwtToken)) {
-                header.put("Authorization", String.format("Bearer %s", pulsarJwtToken));
-            }
-            String rwBookieList = HttpUtil.doGet(
-                    bookieHost + "/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header);
-            Map<String, String> rwBookies = gson.fromJson(
-                    rwBookieList, new TypeToken<Map<String, String>>() {}.getType());
-            String roBookieList = HttpUtil.doGet(
-                    bookieHost + "/api/v1/bookie/list_bookies?type=ro&print_hostnames=true", header);
-            Map<String, String> roBookies = gson.fromJson(
-                    roBookieList, new TypeToken<Map<String, String>>() {}.getType());
-            String listBookieInfo = HttpUtil.doGet(
-                    bookieHost + "/api/v1/bookie/list_bookie_info", header);
-            Map<String, String> listBookies = gson.fromJson(
-                    listBookieInfo, new TypeToken<Map<String, String>>() {}.getType());
-            for (String key: listBookies.keySet()) {
-                Map<String, Object> bookieEntity = Maps.newHashMap();
-                if (rwBookies != null && rwBookies.containsKey(key)) {
-                    bookieEntity.put("bookie", key);
-                    bookieEntity.put("status", "rw");
-                } else if (roBookies != null && roBookies.containsKey(key)) {
-                    bookieEntity.put("bookie", key);
-                    bookieEntity.put("status", "ro");
-                }
-                if ((rwBookies != null && rwBookies.containsKey(key)) || (roBookies != null && roBookies.containsKey(key))) {
-                    Matcher matcher = pattern.matcher(listBookies.get(key));
-                    List<String> storageSizeList = new ArrayList<>();
-                    while (matcher.find()) {
-                        String res = matcher.group();
-                        storageSizeList.add(res.trim());
-                    }
-                    bookieEntity.put("storage", storageSizeList);
-                    bookiesArray.add(bookieEntity);
-                }
-            }
+            List<Map<String, Object>> bookiesArray = getBookieInventory();
             bookiesMap.put("isPage", false);
             bookiesMap.put("total", bookiesArray.size());
             bookiesMap.put("data", bookiesArray);
@@ -107,6 +109,72 @@ public class BookiesServiceImpl implements BookiesService {
         return bookiesMap;
     }
 
+    public int getBookieCount() {
+        if (bookieEnable) {
+            return getBookieInventory().size();
+        }
+        return 0;
+    }
+
+    public void invalidateBookieInventory() {
+        inventoryCache.invalidateAll();
+    }
+
+    public List<Map<String, Object>> getBookieInventory() {
+        try {
+            // Concurrent callers wait for the same load
+            return inventoryCache.get(bookieHost, this::loadBookieInventory);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            log.error("Failed to list the bookies of {}: {}", bookieHost, e.getCause().getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private List<Map<String, Object>> loadBookieInventory() {
+        Map<String, String> header = Maps.newHashMap();
+        header.put("Content-Type", "application/json");
+        if (StringUtils.isNotBlank(pulsarJwtToken)) {
+            header.put("Authorization", String.format("Bearer %s", pulsarJwtToken));
+        }
+        CompletableFuture<Map<String, String>> rwBookiesFuture = CompletableFuture.supplyAsync(() -> HttpUtil.doGet(
+                bookieHost + "/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header, BOOKIES_TYPE),
+                inventoryExecutor);
+        CompletableFuture<Map<String, String>> roBookiesFuture = CompletableFuture.supplyAsync(() -> HttpUtil.doGet(
+                bookieHost + "/api/v1/bookie/list_bookies?type=ro&print_hostnames=true", header, BOOKIES_TYPE),
+                inventoryExecutor);
+        CompletableFuture<Map<String, String>> listBookiesFuture = CompletableFuture.supplyAsync(() -> HttpUtil.doGet(
+                bookieHost + "/api/v1/bookie/list_bookie_info", header, BOOKIES_TYPE),
+                inventoryExecutor);
+        Map<String, String> rwBookies = rwBookiesFuture.join();
+        Map<String, String> roBookies = roBookiesFuture.join();
+        Map<String, String> listBookies = listBookiesFuture.join();
+        if (listBookies == null) {
+            throw new PulsarAdminOperationException("Failed to get the bookie info from " + bookieHost);
+        }
+        List<Map<String, Object>> bookiesArray = new ArrayList<>();
+        for (String key: listBookies.keySet()) {
+            Map<String, Object> bookieEntity = Maps.newHashMap();
+            if (rwBookies != null && rwBookies.containsKey(key)) {
+                bookieEntity.put("bookie", key);
+                bookieEntity.put("status", "rw");
+            } else if (roBookies != null && roBookies.containsKey(key)) {
+                bookieEntity.put("bookie", key);
+                bookieEntity.put("status", "ro");
+            }
+            if ((rwBookies != null && rwBookies.containsKey(key)) || (roBookies != null && roBookies.containsKey(key))) {
+                Matcher matcher = pattern.matcher(listBookies.get(key));
+                List<String> storageSizeList = new ArrayList<>();
+                while (matcher.find()) {
+                    String res = matcher.group();
+                    storageSizeList.add(res.trim());
+                }
+                bookieEntity.put("storage", storageSizeList);
+                bookiesArray.add(bookieEntity);
+            }
+        }
+        return Collections.unmodifiableList(bookiesArray);
+    }
+
     public String forwardBookiesHeartbeat(String bookie) {
         bookie = checkBookie(bookie);
         return HttpUtil.doGet(bookie + "/heartbeat", header);
@@ -128,6 +196,7 @@ public class BookiesServiceImpl implements BookiesService {
             body.put("bookie_src", bookieSrc);
             body.put("bookie_dest", bookieDest);
             HttpUtil.doPut(bookieHost + "/api/v1/autorecovery/bookie/", header, gson.toJson(body));
+            invalidateBookieInventory();
         } catch (UnsupportedEncodingException e) {
 
         }
@@ -140,6 +209,7 @@ public class BookiesServiceImpl implements BookiesService {
         try {
             Gson gson = new Gson();
             HttpUtil.doPut(bookie + "/api/v1/autorecovery/decommission", header, gson.toJson(body));
+            invalidateBookieInventory();
         } catch (UnsupportedEncodingException e) {
 
         }
@@ -15,10 +15,15 @@ package org.apache.pulsar.manager.service.impl;
 
 import com.github.pagehelper.Page;
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.client.admin.Brokers;
@@ -28,6 +33,9 @@ import org.apache.pulsar.manager.service.BrokerStatsService;
 import org.apache.pulsar.manager.service.BrokersService;
 import org.apache.pulsar.manager.service.ClustersService;
 import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.service.StatsHistoryService;
+import org.apache.pulsar.manager.service.StatsSnapshotService;
+import org.apache.pulsar.manager.utils.NumberUtil;
 import org.apache.pulsar.manager.entity.ConsumerStatsEntity;
 import org.apache.pulsar.manager.entity.ConsumersStatsRepository;
 import org.apache.pulsar.manager.entity.EnvironmentEntity;
@@ -37,15 +45,30 @@ import org.apache.pulsar.manager.entity.PublishersStatsRepository;
 import org.apache.pulsar.manager.entity.PulsarManagerTopicStats;
 import org.apache.pulsar.manager.entity.ReplicationStatsEntity;
 import org.apache.pulsar.manager.entity.ReplicationsStatsRepository;
+import org.apache.pulsar.manager.entity.StatsBatch;
+import org.apache.pulsar.manager.entity.StatsBatchRepository;
 import org.apache.pulsar.manager.entity.SubscriptionStatsEntity;
 import org.apache.pulsar.manager.entity.SubscriptionsStatsRepository;
 import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
 import org.apache.pulsar.manager.entity.TopicsStatsRepository;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -67,6 +90,15 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
     @Value("${clear.stats.interval}")
     private Long clearStatsInterval;
 
+    @Value("${collect.stats.threads:8}")
+    private int collectStatsThreads;
+
+    @Value("${collect.stats.broker.timeout.ms:20000}")
+    private long collectStatsBrokerTimeoutMs;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
     private final EnvironmentsRepository environmentsRepository;
     private final ClustersService clustersService;
     private final BrokersService brokersService;
@@ -76,6 +108,12 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
     private final ReplicationsStatsRepository replicationsStatsRepository;
     private final ConsumersStatsRepository consumersStatsRepository;
     private final PulsarAdminService pulsarAdminService;
+    private final StatsBatchRepository statsBatchRepository;
+    private final StatsSnapshotService statsSnapshotService;
+    private final StatsHistoryService statsHistoryService;
+
+    private ExecutorService collectStatsExecutor;
+    private ScheduledExecutorService collectStatsWatchdog;
 
     @Autowired
     public BrokerStatsServiceImpl(
@@ -87,7 +125,10 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
             PublishersStatsRepository publishersStatsRepository,
             ReplicationsStatsRepository replicationsStatsRepository,
             ConsumersStatsRepository consumersStatsRepository,
-            PulsarAdminService pulsarAdminService) {
+            PulsarAdminService pulsarAdminService,
+            StatsBatchRepository statsBatchRepository,
+            StatsSnapshotService statsSnapshotService,
+            StatsHistoryService statsHistoryService) {
         this.environmentsRepository = environmentsRepository;
         this.clustersService = clustersService;
         this.brokersService = brokersService;
@@ -97,6 +138,9 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
         this.replicationsStatsRepository = replicationsStatsRepository;
         this.consumersStatsRepository = consumersStatsRepository;
         this.pulsarAdminService = pulsarAdminService;
+        this.statsBatchRepository = statsBatchRepository;
+        this.statsSnapshotService = statsSnapshotService;
+        this.statsHistoryService = statsHistoryService;
     }
 
     public String forwardBrokerStatsMetrics(String broker, String requestHost) {
@@ -111,174 +155,314 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
         }
     }
 
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, collectStatsThreads);
+        if (threads > 1 && datasourceUrl.startsWith("jdbc:sqlite:")) {
+            // SQLite allows one writer at a time. A snapshot transaction stays open while its broker is read,
+            // the snapshots of the other brokers would wait for the database lock and fail.
+            log.info("Collecting stats from one broker at a time, SQLite allows a single writer");
+            threads = 1;
+        }
+        collectStatsExecutor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-stats-collector-%d").setDaemon(true).build());
+        collectStatsWatchdog = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-stats-watchdog").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        collectStatsExecutor.shutdownNow();
+        collectStatsWatchdog.shutdownNow();
+    }
+
     @Scheduled(initialDelayString = "${init.delay.interval}", fixedDelayString = "${insert.stats.interval}")
     private void scheduleCollectStats() {
-        long unixTime = System.currentTimeMillis() / 1000L;
+        long startTime = System.currentTimeMillis();
+        long unixTime = startTime / 1000L;
         List<EnvironmentEntity> environmentEntities = environmentsRepository.getAllEnvironments();
-        Map<Pair<String, String>, String> collectStatsServiceUrls = new HashMap<>();
-        for (EnvironmentEntity env : environmentEntities) {
-            String serviceUrl = checkServiceUrl(null, env.getBroker());
-            Map<String, Object> clusterObject =
-                clustersService.getClustersList(0, 0, serviceUrl, (c) -> serviceUrl);
-            List<HashMap<String, Object>> clusterLists = (List<HashMap<String, Object>>) clusterObject.get("data");
-            clusterLists.forEach((clusterMap) -> {
-                String cluster = (String) clusterMap.get("cluster");
-                Pair<String, String> envCluster = Pair.of(env.getName(), cluster);
-                String webServiceUrl = (String) clusterMap.get("serviceUrl");
-                if (webServiceUrl.contains(",")) {
-                    String[] webServiceUrlList = webServiceUrl.split(",");
-                    for (String url : webServiceUrlList) {
-                        if (!url.contains("http://")) {
-                            url = "http://" + url;
-                        }
-                        try {
-                            Brokers brokers = pulsarAdminService.brokers(url);
-                            brokers.healthcheck();
-                            webServiceUrl = url;
-                            break;
-                        } catch (PulsarAdminException e) {
-                            log.error("This service {} is down, please check", url);
-                        }
-                    }
-                }
-                collectStatsServiceUrls.put(envCluster, webServiceUrl);
-            });
+        CollectStatsReport report = new CollectStatsReport();
+        TopicStatsSnapshot.Builder snapshot = new TopicStatsSnapshot.Builder(unixTime);
+        // Environments, clusters and brokers are all handled by the worker pool. Only this thread waits,
+        // so a task never blocks on another task queued behind it.
+        CompletableFuture<?>[] envFutures = environmentEntities.stream()
+            .map((env) -> CompletableFuture
+                .supplyAsync(() -> resolveClusterServiceUrls(env), collectStatsExecutor)
+                .thenCompose((serviceUrls) -> CompletableFuture.allOf(serviceUrls.entrySet().stream()
+                    .map((entry) -> collectClusterStats(
+                        unixTime, env.getName(), entry.getKey(), entry.getValue(), report, snapshot))
+                    .toArray(CompletableFuture[]::new)))
+                .exceptionally((e) -> {
+                    log.error("Failed to collect stats from environment {}", env.getName(), e);
+                    return null;
+                }))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(envFutures).join();
+        report.logSummary(System.currentTimeMillis() - startTime);
+        if (!snapshot.isEmpty()) {
+            statsSnapshotService.publish(snapshot.build());
         }
-        collectStatsServiceUrls.forEach((envCluster, serviceUrl) -> {
-            log.info("Start collecting stats from env {} / cluster {} @ {}",
-                envCluster.getLeft(), envCluster.getRight(), serviceUrl);
-            collectStatsToDB(unixTime, envCluster.getLeft(), envCluster.getRight(), serviceUrl);
-        });
+
+        statsHistoryService.rollup(unixTime);
 
         log.info("Start clearing stats from broker");
         clearStats(unixTime, clearStatsInterval / 1000);
     }
 
+    private Map<String, String> resolveClusterServiceUrls(EnvironmentEntity env) {
+        String serviceUrl = checkServiceUrl(null, env.getBroker());
+        Map<String, Object> clusterObject =
+            clustersService.getClustersList(0, 0, serviceUrl, (c) -> serviceUrl);
+        List<HashMap<String, Object>> clusterLists = (List<HashMap<String, Object>>) clusterObject.get("data");
+        Map<String, String> collectStatsServiceUrls = new HashMap<>();
+        clusterLists.forEach((clusterMap) -> {
+            String cluster = (String) clusterMap.get("cluster");
+            String webServiceUrl = (String) clusterMap.get("serviceUrl");
+            if (webServiceUrl.contains(",")) {
+                String[] webServiceUrlList = webServiceUrl.split(",");
+                for (String url : webServiceUrlList) {
+                    if (!url.contains("http://")) {
+                        url = "http://" + url;
+                    }
+                    try {
+                        Brokers brokers = pulsarAdminService.brokers(url);
+                        brokers.healthcheck();
+                        webServiceUrl = url;
+                        break;
+                    } catch (PulsarAdminException e) {
+                        log.error("This service {} is down, please check", url);
+                    }
+                }
+            }
+            collectStatsServiceUrls.put(cluster, webServiceUrl);
+        });
+        return collectStatsServiceUrls;
+    }
+
     public void collectStatsToDB(long unixTime, String env, String cluster, String serviceUrl) {
-        Map<String, Object> brokerObject = brokersService.getBrokersList(0, 0, cluster, serviceUrl);
-        List<HashMap<String, Object>> brokerLists = (List<HashMap<String, Object>>) brokerObject.get("data");
-        brokerLists.forEach((brokerMap) -> {
-            String tempBroker = (String) brokerMap.get("broker");
-            // TODO: handle other protocols
-            String broker = "http://" + tempBroker;
-            JsonObject result;
+        collectClusterStats(unixTime, env, cluster, serviceUrl,
+            new CollectStatsReport(), new TopicStatsSnapshot.Builder(unixTime)).join();
+    }
+
+    private CompletableFuture<Void> collectClusterStats(long unixTime, String env, String cluster,
+                                                        String serviceUrl, CollectStatsReport report,
+                                                        TopicStatsSnapshot.Builder snapshot) {
+        log.info("Start collecting stats from env {} / cluster {} @ {}", env, cluster, serviceUrl);
+        return CompletableFuture
+            .supplyAsync(() -> brokersService.getBrokersList(0, 0, cluster, serviceUrl), collectStatsExecutor)
+            .thenCompose((brokerObject) -> {
+                List<HashMap<String, Object>> brokerLists = (List<HashMap<String, Object>>) brokerObject.get("data");
+                return CompletableFuture.allOf(brokerLists.stream()
+                    .map((brokerMap) -> collectBrokerStats(
+                        unixTime, env, cluster, (String) brokerMap.get("broker"), report, snapshot))
+                    .toArray(CompletableFuture[]::new));
+            })
+            .exceptionally((e) -> {
+                log.error("Failed to collect stats from env {} / cluster {}", env, cluster, e);
+                return null;
+            });
+    }
+
+    private CompletableFuture<Void> collectBrokerStats(long unixTime, String env, String cluster, String broker,
+                                                       CollectStatsReport report, TopicStatsSnapshot.Builder snapshot) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        collectStatsExecutor.execute(() -> {
+            long startTime = System.currentTimeMillis();
+            BrokerStatsCollection collection = new BrokerStatsCollection();
+            // The timeout only starts once the task leaves the queue, waiting for a worker is not held against it
+            ScheduledFuture<?> watchdog = collectStatsWatchdog.schedule(
+                collection::timeout, collectStatsBrokerTimeoutMs, TimeUnit.MILLISECONDS);
             try {
-                result = pulsarAdminService.brokerStats(broker).getTopics();
-            } catch(PulsarAdminException e) {
-                log.error("Failed to get broker metrics.", e);
-                return;
+                collectBrokerStatsToDB(unixTime, env, cluster, broker, snapshot, collection);
+                long elapsed = System.currentTimeMillis() - startTime;
+                log.info("Collected stats from broker {} in {} ms", broker, elapsed);
+                report.succeeded(broker, elapsed);
+            } catch (Throwable e) {
+                long elapsed = System.currentTimeMillis() - startTime;
+                if (collection.isTimedOut()) {
+                    log.error("Collecting stats from broker {} timed out after {} ms", broker, elapsed);
+                } else {
+                    log.error("Failed to collect stats from broker {}", broker, e);
+                }
+                report.failed(broker, elapsed);
+            } finally {
+                watchdog.cancel(false);
+                // The cycle only moves on once this worker has stopped touching the database and the snapshot
+                result.complete(null);
             }
-            Gson gson = new Gson();
-            HashMap<String, HashMap<String, HashMap<String, HashMap<String, PulsarManagerTopicStats>>>> brokerStatsTopicEntity = gson.fromJson(result,
-                new TypeToken<HashMap<String, HashMap<String, HashMap<String, HashMap<String, PulsarManagerTopicStats>>>>>() {
-                }.getType());
-            brokerStatsTopicEntity.forEach((namespace, namespaceStats) -> {
-                namespaceStats.forEach((bundle, bundleStats) -> {
-                    bundleStats.forEach((persistent, persistentStats) -> {
-                        persistentStats.forEach((topic, topicStats) -> {
-                            DecimalFormat df = new DecimalFormat("#.##");
-                            TopicStatsEntity topicStatsEntity = new TopicStatsEntity();
-                            String[] topicPath = this.parseTopic(topic);
-                            topicStatsEntity.setEnvironment(env);
-                            topicStatsEntity.setCluster(cluster);
-                            topicStatsEntity.setBroker(tempBroker);
-                            topicStatsEntity.setTenant(topicPath[0]);
-                            topicStatsEntity.setNamespace(topicPath[1]);
-                            topicStatsEntity.setBundle(bundle);
-                            topicStatsEntity.setPersistent(persistent);
-                            topicStatsEntity.setTopic(topicPath[2]);
-                            topicStatsEntity.setMsgRateIn(Double.parseDouble(df.format(topicStats.getMsgRateIn())));
-                            topicStatsEntity.setMsgRateOut(Double.parseDouble(df.format(topicStats.getMsgRateOut())));
-                            topicStatsEntity.setMsgThroughputIn(Double.parseDouble(df.format(topicStats.getMsgThroughputIn())));
-                            topicStatsEntity.setMsgThroughputOut(Double.parseDouble(df.format(topicStats.getMsgThroughputOut())));
-                            topicStatsEntity.setAverageMsgSize(Double.parseDouble(df.format(topicStats.getAverageMsgSize())));
-                            topicStatsEntity.setStorageSize(Double.parseDouble(df.format(topicStats.getStorageSize())));
-                            topicStatsEntity.setSubscriptionCount(topicStats.getSubscriptions().size());
-                            topicStatsEntity.setProducerCount(topicStats.getPublishers().size());
-                            topicStatsEntity.setTime_stamp(unixTime);
-                            long topicStatsId = topicsStatsRepository.save(topicStatsEntity);
-                            if (topicStats.getSubscriptions() != null) {
-                                topicStats.getSubscriptions().forEach((subscription, subscriptionStats) -> {
-                                    SubscriptionStatsEntity subscriptionStatsEntity = new SubscriptionStatsEntity();
-                                    subscriptionStatsEntity.setTopicStatsId(topicStatsId);
-                                    subscriptionStatsEntity.setSubscription(subscription);
-                                    subscriptionStatsEntity.setMsgRateOut(Double.parseDouble(df.format(subscriptionStats.getMsgRateOut())));
-                                    subscriptionStatsEntity.setMsgThroughputOut(Double.parseDouble(df.format(subscriptionStats.getMsgThroughputOut())));
-                                    subscriptionStatsEntity.setMsgRateRedeliver(Double.parseDouble(df.format(subscriptionStats.getMsgRateRedeliver())));
-                                    subscriptionStatsEntity.setNumberOfEntriesSinceFirstNotAckedMessage(
-                                        subscriptionStats.getNumberOfEntriesSinceFirstNotAckedMessage());
-                                    subscriptionStatsEntity.setTotalNonContiguousDeletedMessagesRange(
-                                        subscriptionStats.getTotalNonContiguousDeletedMessagesRange());
-                                    subscriptionStatsEntity.setMsgBacklog(subscriptionStats.getMsgBacklog());
-                                    subscriptionStatsEntity.setSubscriptionType(String.valueOf(subscriptionStats.getType()));
-                                    subscriptionStatsEntity.setMsgRateExpired(Double.parseDouble(df.format(subscriptionStats.getMsgRateExpired())));
-                                    subscriptionStatsEntity.setReplicated(subscriptionStats.isReplicated());
-                                    subscriptionStatsEntity.setTime_stamp(unixTime);
-                                    long subscriptionStatsId = subscriptionsStatsRepository.save(subscriptionStatsEntity);
-                                    if (subscriptionStats.getConsumers() != null) {
-                                        subscriptionStats.getConsumers().forEach((consumerStats) -> {
-                                            ConsumerStatsEntity consumerStatsEntity = new ConsumerStatsEntity();
-                                            consumerStatsEntity.setSubscriptionStatsId(subscriptionStatsId);
-                                            consumerStatsEntity.setTopicStatsId(topicStatsId);
-                                            consumerStatsEntity.setReplicationStatsId(-1);
-                                            consumerStatsEntity.setConsumer(consumerStats.getConsumerName());
-                                            consumerStatsEntity.setMsgRateOut(Double.parseDouble(df.format(consumerStats.getMsgRateOut())));
-                                            consumerStatsEntity.setMsgThroughputOut(Double.parseDouble(df.format(consumerStats.getMsgThroughputOut())));
-                                            consumerStatsEntity.setMsgRateRedeliver(Double.parseDouble(df.format(consumerStats.getMsgRateRedeliver())));
-                                            consumerStatsEntity.setAvailablePermits(consumerStats.getAvailablePermits());
-                                            consumerStatsEntity.setAddress(consumerStats.getAddress());
-                                            consumerStatsEntity.setConnectedSince(consumerStats.getConnectedSince());
-                                            consumerStatsEntity.setClientVersion(consumerStats.getClientVersion());
-                                            consumerStatsEntity.setMetadata(gson.toJson(consumerStats.getMetadata()));
-                                            consumerStatsEntity.setTime_stamp(unixTime);
-                                            consumersStatsRepository.save(consumerStatsEntity);
-                                        });
-                                    }
-                                });
-                            }
-                            if (topicStats.getPublishers() != null) {
-                                topicStats.getPublishers().forEach((producer) -> {
-                                    PublisherStatsEntity publisherStatsEntity = new PublisherStatsEntity();
-                                    publisherStatsEntity.setTopicStatsId(topicStatsId);
-                                    publisherStatsEntity.setProducerId(producer.getProducerId());
-                                    publisherStatsEntity.setProducerName(producer.getProducerName());
-                                    publisherStatsEntity.setMsgRateIn(Double.parseDouble(df.format(producer.getMsgRateIn())));
-                                    publisherStatsEntity.setMsgThroughputIn(Double.parseDouble(df.format(producer.getMsgThroughputIn())));
-                                    publisherStatsEntity.setAverageMsgSize(Double.parseDouble(df.format(producer.getAverageMsgSize())));
-                                    publisherStatsEntity.setAddress(producer.getAddress());
-                                    publisherStatsEntity.setConnectedSince(producer.getConnectedSince());
-                                    publisherStatsEntity.setClientVersion(producer.getClientVersion());
-                                    publisherStatsEntity.setMetadata(gson.toJson(producer.getMetadata()));
-                                    publisherStatsEntity.setTime_stamp(unixTime);
-                                    publishersStatsRepository.save(publisherStatsEntity);
-                                });
-                            }
-                            if (topicStats.getReplication() != null) {
-                                topicStats.getReplication().forEach((replication, replicatorStats) -> {
-                                    ReplicationStatsEntity replicationStatsEntity = new ReplicationStatsEntity();
-                                    replicationStatsEntity.setCluster(replication);
-                                    replicationStatsEntity.setTopicStatsId(topicStatsId);
-                                    replicationStatsEntity.setMsgRateIn(Double.parseDouble(df.format(replicatorStats.getMsgRateIn())));
-                                    replicationStatsEntity.setMsgThroughputIn(Double.parseDouble(df.format(replicatorStats.getMsgThroughputIn())));
-                                    replicationStatsEntity.setMsgRateOut(Double.parseDouble(df.format(replicatorStats.getMsgRateOut())));
-                                    replicationStatsEntity.setMsgThroughputOut(Double.parseDouble(df.format(replicatorStats.getMsgThroughputOut())));
-                                    replicationStatsEntity.setMsgRateExpired(Double.parseDouble(df.format(replicatorStats.getMsgRateExpired())));
-                                    replicationStatsEntity.setReplicationBacklog(replicatorStats.getReplicationBacklog());
-                                    replicationStatsEntity.setConnected(replicatorStats.isConnected());
-                                    replicationStatsEntity.setReplicationDelayInSeconds(replicatorStats.getReplicationDelayInSeconds());
-                                    replicationStatsEntity.setInboundConnection(replicatorStats.getInboundConnection());
-                                    replicationStatsEntity.setInboundConnectedSince(replicatorStats.getInboundConnectedSince());
-                                    replicationStatsEntity.setOutboundConnection(replicatorStats.getOutboundConnection());
-                                    replicationStatsEntity.setOutboundConnectedSince(replicatorStats.getOutboundConnectedSince());
-                                    replicationStatsEntity.setTime_stamp(unixTime);
-                                    replicationsStatsRepository.save(replicationStatsEntity);
-                                });
-                            }
-                        });
+        });
+        return result;
+    }
+
+    private void collectBrokerStatsToDB(long unixTime, String env, String cluster, String tempBroker,
+                                        TopicStatsSnapshot.Builder snapshot, BrokerStatsCollection collection) {
+        // TODO: handle other protocols
+        String broker = "http://" + tempBroker;
+        Gson gson = new Gson();
+        // The document is read one topic at a time, it can be hundreds of MB for a broker serving many topics
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                collection.open(pulsarAdminService.brokerTopicsStats(broker)), StandardCharsets.UTF_8))) {
+            // One transaction per broker snapshot, rows are sent to the database as JDBC batches
+            List<TopicStatsEntity> topicStats = new ArrayList<>();
+            AtomicLong consumerCount = new AtomicLong();
+            statsBatchRepository.write((batch) -> {
+                try {
+                    writeTopicsStats(new RecordingStatsBatch(batch, topicStats, consumerCount),
+                        reader, gson, unixTime, env, cluster, tempBroker);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // Last chance to roll back, once committing the watchdog can no longer time the broker out
+                collection.commit(tempBroker);
+            });
+            // Only committed snapshots reach the in-memory index
+            snapshot.add(env, topicStats, consumerCount.get());
+        } catch (IOException | UncheckedIOException e) {
+            PulsarAdminOperationException pulsarAdminOperationException
+                    = new PulsarAdminOperationException("Failed to get broker metrics.");
+            if (!collection.isTimedOut()) {
+                log.error(pulsarAdminOperationException.getMessage(), e);
+            }
+            throw pulsarAdminOperationException;
+        }
+    }
+
+    /**
+     * Walk the namespace / bundle / domain / topic objects of a broker-stats/topics document,
+     * binding and saving one topic at a time.
+     */
+    static void writeTopicsStats(StatsBatch batch, JsonReader reader, Gson gson, long unixTime, String env,
+                                 String cluster, String tempBroker) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String bundle = reader.nextName();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String persistent = reader.nextName();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String topic = reader.nextName();
+                        PulsarManagerTopicStats topicStats = gson.fromJson(reader, PulsarManagerTopicStats.class);
+                        saveTopicStats(batch, gson, unixTime, env, cluster, tempBroker,
+                            bundle, persistent, topic, topicStats);
+                    }
+                    reader.endObject();
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        // Reading up to the end of the body lets the connection go back to the pool, a stream closed
+        // before its end is aborted
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new IOException("Unexpected content after the broker topics stats");
+        }
+    }
+
+    private static void saveTopicStats(StatsBatch batch, Gson gson, long unixTime, String env, String cluster,
+                                       String tempBroker, String bundle, String persistent, String topic,
+                                       PulsarManagerTopicStats topicStats) {
+        TopicStatsEntity topicStatsEntity = new TopicStatsEntity();
+        String[] topicPath = parseTopic(topic);
+        topicStatsEntity.setEnvironment(env);
+        topicStatsEntity.setCluster(cluster);
+        topicStatsEntity.setBroker(tempBroker);
+        topicStatsEntity.setTenant(topicPath[0]);
+        topicStatsEntity.setNamespace(topicPath[1]);
+        topicStatsEntity.setBundle(bundle);
+        topicStatsEntity.setPersistent(persistent);
+        topicStatsEntity.setTopic(topicPath[2]);
+        topicStatsEntity.setMsgRateIn(NumberUtil.round2(topicStats.getMsgRateIn()));
+        topicStatsEntity.setMsgRateOut(NumberUtil.round2(topicStats.getMsgRateOut()));
+        topicStatsEntity.setMsgThroughputIn(NumberUtil.round2(topicStats.getMsgThroughputIn()));
+        topicStatsEntity.setMsgThroughputOut(NumberUtil.round2(topicStats.getMsgThroughputOut()));
+        topicStatsEntity.setAverageMsgSize(NumberUtil.round2(topicStats.getAverageMsgSize()));
+        topicStatsEntity.setStorageSize(NumberUtil.round2(topicStats.getStorageSize()));
+        topicStatsEntity.setSubscriptionCount(topicStats.getSubscriptions().size());
+        topicStatsEntity.setProducerCount(topicStats.getPublishers().size());
+        topicStatsEntity.setTime_stamp(unixTime);
+        long topicStatsId = batch.addTopicStats(topicStatsEntity);
+        if (topicStats.getSubscriptions() != null) {
+            topicStats.getSubscriptions().forEach((subscription, subscriptionStats) -> {
+                SubscriptionStatsEntity subscriptionStatsEntity = new SubscriptionStatsEntity();
+                subscriptionStatsEntity.setTopicStatsId(topicStatsId);
+                subscriptionStatsEntity.setSubscription(subscription);
+                subscriptionStatsEntity.setMsgRateOut(NumberUtil.round2(subscriptionStats.getMsgRateOut()));
+                subscriptionStatsEntity.setMsgThroughputOut(NumberUtil.round2(subscriptionStats.getMsgThroughputOut()));
+                subscriptionStatsEntity.setMsgRateRedeliver(NumberUtil.round2(subscriptionStats.getMsgRateRedeliver()));
+                subscriptionStatsEntity.setNumberOfEntriesSinceFirstNotAckedMessage(
+                    subscriptionStats.getNumberOfEntriesSinceFirstNotAckedMessage());
+                subscriptionStatsEntity.setTotalNonContiguousDeletedMessagesRange(
+                    subscriptionStats.getTotalNonContiguousDeletedMessagesRange());
+                subscriptionStatsEntity.setMsgBacklog(subscriptionStats.getMsgBacklog());
+                subscriptionStatsEntity.setSubscriptionType(String.valueOf(subscriptionStats.getType()));
+                subscriptionStatsEntity.setMsgRateExpired(NumberUtil.round2(subscriptionStats.getMsgRateExpired()));
+                subscriptionStatsEntity.setReplicated(subscriptionStats.isReplicated());
+                subscriptionStatsEntity.setTime_stamp(unixTime);
+                long subscriptionStatsId = batch.addSubscriptionStats(subscriptionStatsEntity);
+                if (subscriptionStats.getConsumers() != null) {
+                    subscriptionStats.getConsumers().forEach((consumerStats) -> {
+                        ConsumerStatsEntity consumerStatsEntity = new ConsumerStatsEntity();
+                        consumerStatsEntity.setSubscriptionStatsId(subscriptionStatsId);
+                        consumerStatsEntity.setTopicStatsId(topicStatsId);
+                        consumerStatsEntity.setReplicationStatsId(-1);
+                        consumerStatsEntity.setConsumer(consumerStats.getConsumerName());
+                        consumerStatsEntity.setMsgRateOut(NumberUtil.round2(consumerStats.getMsgRateOut()));
+                        consumerStatsEntity.setMsgThroughputOut(NumberUtil.round2(consumerStats.getMsgThroughputOut()));
+                        consumerStatsEntity.setMsgRateRedeliver(NumberUtil.round2(consumerStats.getMsgRateRedeliver()));
+                        consumerStatsEntity.setAvailablePermits(consumerStats.getAvailablePermits());
+                        consumerStatsEntity.setAddress(consumerStats.getAddress());
+                        consumerStatsEntity.setConnectedSince(consumerStats.getConnectedSince());
+                        consumerStatsEntity.setClientVersion(consumerStats.getClientVersion());
+                        consumerStatsEntity.setMetadata(gson.toJson(consumerStats.getMetadata()));
+                        consumerStatsEntity.setTime_stamp(unixTime);
+                        batch.addConsumerStats(consumerStatsEntity);
                     });
-                });
+                }
             });
-        });
+        }
+        if (topicStats.getPublishers() != null) {
+            topicStats.getPublishers().forEach((producer) -> {
+                PublisherStatsEntity publisherStatsEntity = new PublisherStatsEntity();
+                publisherStatsEntity.setTopicStatsId(topicStatsId);
+                publisherStatsEntity.setProducerId(producer.getProducerId());
+                publisherStatsEntity.setProducerName(producer.getProducerName());
+                publisherStatsEntity.setMsgRateIn(NumberUtil.round2(producer.getMsgRateIn()));
+                publisherStatsEntity.setMsgThroughputIn(NumberUtil.round2(producer.getMsgThroughputIn()));
+                publisherStatsEntity.setAverageMsgSize(NumberUtil.round2(producer.getAverageMsgSize()));
+                publisherStatsEntity.setAddress(producer.getAddress());
+                publisherStatsEntity.setConnectedSince(producer.getConnectedSince());
+                publisherStatsEntity.setClientVersion(producer.getClientVersion());
+                publisherStatsEntity.setMetadata(gson.toJson(producer.getMetadata()));
+                publisherStatsEntity.setTime_stamp(unixTime);
+                batch.addPublisherStats(publisherStatsEntity);
+            });
+        }
+        if (topicStats.getReplication() != null) {
+            topicStats.getReplication().forEach((replication, replicatorStats) -> {
+                ReplicationStatsEntity replicationStatsEntity = new ReplicationStatsEntity();
+                replicationStatsEntity.setCluster(replication);
+                replicationStatsEntity.setTopicStatsId(topicStatsId);
+                replicationStatsEntity.setMsgRateIn(NumberUtil.round2(replicatorStats.getMsgRateIn()));
+                replicationStatsEntity.setMsgThroughputIn(NumberUtil.round2(replicatorStats.getMsgThroughputIn()));
+                replicationStatsEntity.setMsgRateOut(NumberUtil.round2(replicatorStats.getMsgRateOut()));
+                replicationStatsEntity.setMsgThroughputOut(NumberUtil.round2(replicatorStats.getMsgThroughputOut()));
+                replicationStatsEntity.setMsgRateExpired(NumberUtil.round2(replicatorStats.getMsgRateExpired()));
+                replicationStatsEntity.setReplicationBacklog(replicatorStats.getReplicationBacklog());
+                replicationStatsEntity.setConnected(replicatorStats.isConnected());
+                replicationStatsEntity.setReplicationDelayInSeconds(replicatorStats.getReplicationDelayInSeconds());
+                replicationStatsEntity.setInboundConnection(replicatorStats.getInboundConnection());
+                replicationStatsEntity.setInboundConnectedSince(replicatorStats.getInboundConnectedSince());
+                replicationStatsEntity.setOutboundConnection(replicatorStats.getOutboundConnection());
+                replicationStatsEntity.setOutboundConnectedSince(replicatorStats.getOutboundConnectedSince());
+                replicationStatsEntity.setTime_stamp(unixTime);
+                batch.addReplicationStats(replicationStatsEntity);
+            });
+        }
     }
 
     public void clearStats(long nowTime, long timeInterval) {
@@ -287,6 +471,8 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
         publishersStatsRepository.remove(nowTime, timeInterval);
         replicationsStatsRepository.remove(nowTime, timeInterval);
         topicsStatsRepository.remove(nowTime, timeInterval);
+        // The history and its rollups have retentions of their own
+        statsHistoryService.clearHistory(nowTime);
     }
 
     public static String checkServiceUrl(String serviceUrl, String requestHost) {
@@ -300,7 +486,7 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
         return serviceUrl;
     }
 
-    private String[] parseTopic(String topic) {
+    private static String[] parseTopic(String topic) {
         String tntPath = topic.split("://")[1];
         return tntPath.split("/");
     }
@@ -322,4 +508,129 @@ public class BrokerStatsServiceImpl implements BrokerStatsService {
         return topicsStatsRepository.findByMultiNamespace(
                 pageNum, pageSize, environment, tenant, namespaceList, timestamp);
     }
+
+    public List<TopicStatsEntity> findByMultiTenant(String environment, List<String> tenantList, long timestamp) {
+        return topicsStatsRepository.findByMultiTenant(environment, tenantList, timestamp);
+    }
+
+    public List<TopicStatsEntity> findByMultiNamespace(String environment,
+                                                       String tenant,
+                                                       List<String> namespaceList,
+                                                       long timestamp) {
+        return topicsStatsRepository.findByMultiNamespace(environment, tenant, namespaceList, timestamp);
+    }
+
+    /**
+     * State of the collection from one broker, shared with the watchdog. A timeout aborts the
+     * broker-stats request, which is the only way to unblock a read stuck on the socket.
+     */
+    private static class BrokerStatsCollection {
+
+        private static final int RUNNING = 0;
+        private static final int COMMITTING = 1;
+        private static final int TIMED_OUT = 2;
+
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private volatile InputStream stream;
+
+        InputStream open(InputStream stream) throws IOException {
+            this.stream = stream;
+            if (isTimedOut()) {
+                stream.close();
+                throw new IOException("Broker stats request aborted");
+            }
+            return stream;
+        }
+
+        void timeout() {
+            if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+                InputStream current = stream;
+                if (current != null) {
+                    try {
+                        current.close();
+                    } catch (IOException e) {
+                        log.warn("Failed to abort broker stats request: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+
+        void commit(String broker) {
+            if (!state.compareAndSet(RUNNING, COMMITTING)) {
+                throw new CancellationException("Collecting stats from broker " + broker + " timed out");
+            }
+        }
+
+        boolean isTimedOut() {
+            return state.get() == TIMED_OUT;
+        }
+    }
+
+    /**
+     * Time taken by every broker in one collection cycle.
+     */
+    private static class CollectStatsReport {
+
+        private final Map<String, Long> brokerDurations = new ConcurrentHashMap<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        void succeeded(String broker, long elapsed) {
+            brokerDurations.put(broker, elapsed);
+        }
+
+        void failed(String broker, long elapsed) {
+            brokerDurations.put(broker, elapsed);
+            failures.incrementAndGet();
+        }
+
+        void logSummary(long cycleTime) {
+            Map.Entry<String, Long> slowest = brokerDurations.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).orElse(null);
+            log.info("Collected stats from {} brokers in {} ms, {} failed, slowest broker {} took {} ms",
+                brokerDurations.size(), cycleTime, failures.get(),
+                slowest == null ? "-" : slowest.getKey(), slowest == null ? 0 : slowest.getValue());
+            if (log.isDebugEnabled()) {
+                log.debug("Stats collection time per broker: {}", brokerDurations);
+            }
+        }
+    }
+
+    /**
+     * Keeps the topic rows and counts the consumers written for a broker, for the in-memory snapshot.
+     */
+    private static class RecordingStatsBatch implements StatsBatch {
+
+        private final StatsBatch batch;
+        private final List<TopicStatsEntity> topicStats;
+        private final AtomicLong consumerCount;
+
+        RecordingStatsBatch(StatsBatch batch, List<TopicStatsEntity> topicStats, AtomicLong consumerCount) {
+            this.batch = batch;
+            this.topicStats = topicStats;
+            this.consumerCount = consumerCount;
+        }
+
+        public long addTopicStats(TopicStatsEntity topicStatsEntity) {
+            long topicStatsId = batch.addTopicStats(topicStatsEntity);
+            topicStats.add(topicStatsEntity);
+            return topicStatsId;
+        }
+
+        public long addSubscriptionStats(SubscriptionStatsEntity subscriptionStatsEntity) {
+            return batch.addSubscriptionStats(subscriptionStatsEntity);
+        }
+
+        public void addConsumerStats(ConsumerStatsEntity consumerStatsEntity) {
+            batch.addConsumerStats(consumerStatsEntity);
+            consumerCount.incrementAndGet();
+        }
+
+        public void addPublisherStats(PublisherStatsEntity publisherStatsEntity) {
+            batch.addPublisherStats(publisherStatsEntity);
+        }
+
+        public void addReplicationStats(ReplicationStatsEntity replicationStatsEntity) {
+            batch.addReplicationStats(replicationStatsEntity);
+        }
+    }
 }
@@ -19,6 +19,7 @@ import com.google.common.collect.Sets;
 import org.apache.pulsar.manager.entity.*;
 import org.apache.pulsar.manager.service.BookiesService;
 import org.apache.pulsar.manager.service.DashboardService;
+import org.apache.pulsar.manager.service.StatsSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -32,6 +33,7 @@ public class DashboardServiceImpl implements DashboardService {
     private final TenantsRepository tenantsRepository;
     private final NamespacesRepository namespacesRepository;
     private final BookiesService bookiesService;
+    private final StatsSnapshotService statsSnapshotService;
 
     @Autowired
     public DashboardServiceImpl(
@@ -39,12 +41,14 @@ public class DashboardServiceImpl implements DashboardService {
             ConsumersStatsRepository consumersStatsRepository,
             TenantsRepository tenantsRepository,
             NamespacesRepository namespacesRepository,
-            BookiesService bookiesService) {
+            BookiesService bookiesService,
+            StatsSnapshotService statsSnapshotService) {
         this.topicsStatsRepository = topicsStatsRepository;
         this.consumersStatsRepository = consumersStatsRepository;
         this.tenantsRepository = tenantsRepository;
         this.namespacesRepository = namespacesRepository;
         this.bookiesService = bookiesService;
+        this.statsSnapshotService = statsSnapshotService;
     }
 
     public Map<String, Object> getDashboardStats(List<String> environmentList) {
@@ -67,8 +71,23 @@ public class DashboardServiceImpl implements DashboardService {
         List<NamespaceEntity> namespaceEntities = namespacesRepository.findByMultiTenant(tenantList);
         totalNamespaceCount = namespaceEntities.size();
 
-        Optional<TopicStatsEntity> topicStatsEntity = topicsStatsRepository.findMaxTime();
-        if (topicStatsEntity.isPresent()) {
+        Optional<TopicStatsSnapshot> snapshot = statsSnapshotService.getLatestSnapshot();
+        Optional<TopicStatsEntity> topicStatsEntity = snapshot.isPresent()
+                ? Optional.empty() : topicsStatsRepository.findMaxTime();
+        if (snapshot.isPresent()) {
+            Set<String> clusterSet = Sets.newHashSet();
+            Set<String> brokerSet = Sets.newHashSet();
+            for (TopicStatsSnapshot.ClusterRollup clusterRollup : snapshot.get().findClusterRollups(environmentList)) {
+                clusterSet.add(clusterRollup.getStats().getCluster());
+                brokerSet.addAll(clusterRollup.getBrokers());
+                totalTopicCount += clusterRollup.getTopicCount();
+                totalProducerCount += clusterRollup.getStats().getProducerCount();
+            }
+            totalClusterCount = clusterSet.size();
+            // Same as the database path, a broker is counted once even if it appears in several clusters
+            totalBrokerCount = brokerSet.size();
+            totalConsumerCount = snapshot.get().getConsumerCount(environmentList);
+        } else if (topicStatsEntity.isPresent()) {
             Set<String> clusterSet = Sets.newHashSet();
             Set<String> brokerSet = Sets.newHashSet();
             TopicStatsEntity topicStats = topicStatsEntity.get();
@@ -88,9 +107,9 @@ public class DashboardServiceImpl implements DashboardService {
             List<ConsumerStatsEntity> consumerStatsEntities = consumersStatsRepository.findByMultiTopicStatsId(
                     topicStatsIdList, timestamp);
             totalConsumerCount = consumerStatsEntities.size();
-            totalBookieCount = (int) bookiesService.getBookiesList(
-                    1, 10, "").getOrDefault(
-                            "total", 0);
+        }
+        if (snapshot.isPresent() || topicStatsEntity.isPresent()) {
+            totalBookieCount = bookiesService.getBookieCount();
         }
         dashboardStatsMap.put("totalClusterCount", totalClusterCount);
         dashboardStatsMap.put("totalBrokerCount", totalBrokerCount);
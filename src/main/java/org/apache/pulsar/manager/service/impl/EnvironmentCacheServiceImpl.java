@@ -14,7 +14,10 @@
 package org.apache.pulsar.manager.service.impl;
 
 import com.github.pagehelper.Page;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.pulsar.client.admin.PulsarAdminException;
 import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
@@ -22,18 +25,30 @@ import org.apache.pulsar.manager.entity.EnvironmentEntity;
 import org.apache.pulsar.manager.entity.EnvironmentsRepository;
 import org.apache.pulsar.manager.service.EnvironmentCacheService;
 import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.utils.AsyncUtil;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pulsar.common.policies.data.ClusterData;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -48,13 +63,55 @@ public class EnvironmentCacheServiceImpl implements EnvironmentCacheService {
 
     private final Map<String, Map<String, ClusterData>> environments;
 
+    private final Map<String, EnvironmentEntity> environmentEntities;
+
     private final PulsarAdminService pulsarAdminService;
 
+    private final Map<String, CompletableFuture<Map<String, ClusterData>>> environmentReloads;
+
+    private final Map<String, CompletableFuture<ClusterData>> clusterLoads;
+
+    @Value("${cluster.cache.missing.ttl.ms:5000}")
+    private long missingClusterTtlMs;
+
+    private Cache<String, Boolean> missingClusters;
+
+    @Value("${cluster.cache.reload.threads:8}")
+    private int reloadThreads;
+
+    @Value("${cluster.cache.reload.timeout.ms:10000}")
+    private long reloadTimeoutMs;
+
+    private ExecutorService reloadExecutor;
+
+    // The clusters of an environment are loaded on their own pool, the reload pool waits for them
+    private ExecutorService clusterLoadExecutor;
+
     @Autowired
     public EnvironmentCacheServiceImpl(EnvironmentsRepository environmentsRepository, PulsarAdminService pulsarAdminService) {
         this.environmentsRepository = environmentsRepository;
         this.environments = new ConcurrentHashMap<>();
+        this.environmentEntities = new ConcurrentHashMap<>();
         this.pulsarAdminService = pulsarAdminService;
+        this.environmentReloads = new ConcurrentHashMap<>();
+        this.clusterLoads = new ConcurrentHashMap<>();
+    }
+
+    @PostConstruct
+    public void init() {
+        reloadExecutor = Executors.newFixedThreadPool(Math.max(1, reloadThreads),
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-cluster-reload-%d").setDaemon(true).build());
+        clusterLoadExecutor = Executors.newFixedThreadPool(Math.max(1, reloadThreads),
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-cluster-load-%d").setDaemon(true).build());
+        missingClusters = CacheBuilder.newBuilder()
+                .expireAfterWrite(missingClusterTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        reloadExecutor.shutdownNow();
+        clusterLoadExecutor.shutdownNow();
     }
 
     @Override
@@ -72,25 +129,43 @@ public class EnvironmentCacheServiceImpl implements EnvironmentCacheService {
     public String getServiceUrl(String environment, String cluster) {
         if (StringUtils.isBlank(cluster)) {
             // if there is no cluster is specified, forward the request to environment service url
-            Optional<EnvironmentEntity> environmentEntityOptional = environmentsRepository.findByName(environment);
+            Optional<EnvironmentEntity> environmentEntityOptional = getEnvironment(environment);
             EnvironmentEntity environmentEntity = environmentEntityOptional.get();
             return environmentEntity.getBroker();
         } else {
-            return getServiceUrl(environment, cluster, 0);
+            return getClusterServiceUrl(environment, cluster);
+        }
+    }
+
+    @Override
+    public Optional<EnvironmentEntity> getEnvironment(String environment) {
+        if (environment == null) {
+            return Optional.empty();
+        }
+        EnvironmentEntity environmentEntity = environmentEntities.get(environment);
+        if (environmentEntity != null) {
+            return Optional.of(environmentEntity);
         }
+        Optional<EnvironmentEntity> environmentEntityOptional = environmentsRepository.findByName(environment);
+        environmentEntityOptional.ifPresent(entity -> environmentEntities.put(environment, entity));
+        return environmentEntityOptional;
+    }
+
+    @Override
+    public void invalidateEnvironment(String environment) {
+        environmentEntities.remove(environment);
+        environments.remove(environment);
+        forgetMissingClusters(environment);
     }
 
-    private String getServiceUrl(String environment, String cluster, int numReloads) {
+    private String getClusterServiceUrl(String environment, String cluster) {
         // if there is a cluster specified, lookup the cluster.
-        Map<String, ClusterData> clusters = environments.get(environment);
-        ClusterData clusterData;
-        if (null == clusters) {
-            clusterData = reloadCluster(environment, cluster);
-        } else {
-            clusterData = clusters.get(cluster);
-            if (clusterData == null) {
-                clusterData = reloadCluster(environment, cluster);
-            }
+        ClusterData clusterData = getCachedCluster(environment, cluster);
+        if (clusterData == null) {
+            clusterData = awaitEnvironmentReload(environment, cluster);
+        }
+        if (clusterData == null) {
+            clusterData = loadClusterOnce(environment, cluster);
         }
 
         if (null == clusterData) {
@@ -108,22 +183,34 @@ public class EnvironmentCacheServiceImpl implements EnvironmentCacheService {
     public void reloadEnvironments() {
         int pageNum = 0;
         final int pageSize = 100;
-        Set<String> newEnvironments = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(reloadTimeoutMs);
+        Map<String, CompletableFuture<Map<String, ClusterData>>> reloads = new LinkedHashMap<>();
         Page<EnvironmentEntity> environmentPage = environmentsRepository.getEnvironmentsList(pageNum, pageSize);
         List<EnvironmentEntity> environmentList = environmentPage.getResult();
         while (!environmentList.isEmpty()) {
             environmentList.forEach(env -> {
-                try {
-                    reloadEnvironment(env);
-                } catch (PulsarAdminOperationException e) {
-                    log.error(e.getMessage(), e);
-                }
-                newEnvironments.add(env.getName());
+                environmentEntities.put(env.getName(), env);
+                reloads.put(env.getName(), reloadEnvironmentAsync(env));
             });
             ++pageNum;
             environmentPage = environmentsRepository.getEnvironmentsList(pageNum, pageSize);
             environmentList = environmentPage.getResult();
         }
+        // all the environments reload concurrently, each one gets reloadTimeoutMs from the start of the refresh
+        for (Map.Entry<String, CompletableFuture<Map<String, ClusterData>>> reload : reloads.entrySet()) {
+            try {
+                reload.getValue().get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Timed out reloading the clusters of environment {}, keeping the cached clusters.",
+                    reload.getKey());
+            } catch (ExecutionException e) {
+                log.error(e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        Set<String> newEnvironments = reloads.keySet();
         log.info("Successfully reloaded environments : {}", newEnvironments);
         Set<String> oldEnvironments = environments.keySet();
         Set<String> goneEnvironments = Sets.difference(oldEnvironments, newEnvironments);
@@ -131,15 +218,80 @@ public class EnvironmentCacheServiceImpl implements EnvironmentCacheService {
             environments.remove(env);
             log.info("Removed cached environment {} since it is already deleted.", env);
         }
+        environmentEntities.keySet().retainAll(newEnvironments);
     }
 
-    private void reloadEnvironment(String environment) {
-        // if there is no clusters, lookup the clusters
-        EnvironmentEntity entity = environmentsRepository.findByName(environment).get();
-        reloadEnvironment(entity);
+    public void reloadEnvironment(EnvironmentEntity environment) {
+        environmentEntities.put(environment.getName(), environment);
+        storeClusters(environment, loadClusters(environment));
     }
 
-    public void reloadEnvironment(EnvironmentEntity environment) {
+    /**
+     * Replace the cached clusters of an environment, unless the environment was deleted or moved to
+     * another broker while its clusters were loading.
+     */
+    private void storeClusters(EnvironmentEntity environment, Map<String, ClusterData> clusters) {
+        environments.compute(environment.getName(), (name, current) -> {
+            EnvironmentEntity entity = environmentEntities.get(name);
+            if (entity == null || !StringUtils.equals(entity.getBroker(), environment.getBroker())) {
+                log.info("Dropped the clusters loaded for environment {} @ {}, it changed in the meantime.",
+                    name, environment.getBroker());
+                return current;
+            }
+            return clusters;
+        });
+        forgetMissingClusters(environment.getName());
+    }
+
+    /**
+     * Reload the clusters of an environment on the reload executor. A reload already running for the
+     * environment is shared rather than started again, the result replaces the cached clusters at once.
+     */
+    private CompletableFuture<Map<String, ClusterData>> reloadEnvironmentAsync(EnvironmentEntity environment) {
+        CompletableFuture<Map<String, ClusterData>> reload = new CompletableFuture<>();
+        CompletableFuture<Map<String, ClusterData>> inFlight =
+            environmentReloads.putIfAbsent(environment.getName(), reload);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            reloadExecutor.execute(() -> {
+                try {
+                    Map<String, ClusterData> clusters = loadClusters(environment);
+                    storeClusters(environment, clusters);
+                    reload.complete(clusters);
+                } catch (Throwable e) {
+                    reload.completeExceptionally(e);
+                } finally {
+                    environmentReloads.remove(environment.getName(), reload);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            environmentReloads.remove(environment.getName(), reload);
+            reload.completeExceptionally(e);
+        }
+        return reload;
+    }
+
+    /**
+     * Wait for the reload of the environment in flight, if any, rather than loading the cluster separately.
+     */
+    private ClusterData awaitEnvironmentReload(String environment, String cluster) {
+        CompletableFuture<Map<String, ClusterData>> reload = environmentReloads.get(environment);
+        if (reload == null) {
+            return null;
+        }
+        try {
+            return reload.get(reloadTimeoutMs, TimeUnit.MILLISECONDS).get(cluster);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Reload of environment {} did not complete, loading cluster {} alone.", environment, cluster);
+        }
+        return null;
+    }
+
+    private Map<String, ClusterData> loadClusters(EnvironmentEntity environment) {
         List<String> clustersList;
         try {
             clustersList = pulsarAdminService.clusters(environment.getBroker()).getClusters();
@@ -149,41 +301,79 @@ public class EnvironmentCacheServiceImpl implements EnvironmentCacheService {
             log.error(pulsarAdminOperationException.getMessage(), e);
             throw pulsarAdminOperationException;
         }
-        log.info("Reload cluster list for environment {} : {}", environment.getName(), clustersList);
-        Set<String> newClusters = Sets.newHashSet(clustersList);
-        Map<String, ClusterData> clusterDataMap = environments.computeIfAbsent(
-            environment.getName(),
-            (e) -> new ConcurrentHashMap<>());
-        Set<String> oldClusters = clusterDataMap.keySet();
-        Set<String> goneClusters = Sets.difference(oldClusters, newClusters);
-        for (String cluster : goneClusters) {
-            log.info("Remove cluster {} from environment {}.", cluster, environment.getName());
-            clusterDataMap.remove(cluster);
+        Map<String, ClusterData> oldClusters = environments.getOrDefault(
+            environment.getName(), Collections.emptyMap());
+        List<ClusterData> loaded = AsyncUtil.join(AsyncUtil.mapAsync(clustersList, reloadThreads,
+            (cluster) -> CompletableFuture.supplyAsync(() -> loadCluster(environment, cluster), clusterLoadExecutor)));
+        Map<String, ClusterData> clusters = new ConcurrentHashMap<>();
+        for (int i = 0; i < clustersList.size(); i++) {
+            String cluster = clustersList.get(i);
+            ClusterData clusterData = loaded.get(i);
+            if (clusterData == null) {
+                // keep what was known about a cluster that is still listed
+                clusterData = oldClusters.get(cluster);
+            }
+            if (clusterData != null) {
+                clusters.put(cluster, clusterData);
+            }
+        }
+        log.info("Reloaded cluster data for environment {} : {}", environment.getName(), clusters);
+        return clusters;
+    }
+
+    /**
+     * Load a cluster missing from the cache. Concurrent misses of the same cluster share a single load,
+     * and a cluster the broker does not know is not looked up again for missingClusterTtlMs. Other
+     * failures are not cached, the next request tries again.
+     */
+    private ClusterData loadClusterOnce(String environment, String cluster) {
+        String key = environment + " " + cluster;
+        if (missingClusters.getIfPresent(key) != null) {
+            return null;
+        }
+        CompletableFuture<ClusterData> load = new CompletableFuture<>();
+        CompletableFuture<ClusterData> inFlight = clusterLoads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return AsyncUtil.join(inFlight);
         }
-        for (String cluster : clustersList) {
-            reloadCluster(environment, cluster);
+        try {
+            // the previous load may have completed between the cache miss and now
+            ClusterData clusterData = getCachedCluster(environment, cluster);
+            if (clusterData == null) {
+                clusterData = reloadCluster(environment, cluster);
+            }
+            load.complete(clusterData);
+            return clusterData;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            clusterLoads.remove(key, load);
         }
     }
 
+    private ClusterData getCachedCluster(String environment, String cluster) {
+        Map<String, ClusterData> clusters = environments.get(environment);
+        return null == clusters ? null : clusters.get(cluster);
+    }
+
+    private void forgetMissingClusters(String environment) {
+        String prefix = environment + " ";
+        missingClusters.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
     private ClusterData reloadCluster(String environment, String cluster) {
         // if there is no clusters, lookup the clusters
-        return environmentsRepository.findByName(environment).map(env ->
+        return getEnvironment(environment).map(env ->
             reloadCluster(env, cluster)
         ).orElse(null);
     }
 
     private ClusterData reloadCluster(EnvironmentEntity environment, String cluster) {
-        log.info("Reloading cluster data for cluster {} @ environment {} ...",
-            cluster, environment.getName());
-        ClusterData clusterData;
-        try {
-            clusterData = pulsarAdminService.clusters(environment.getBroker()).getCluster(cluster);
-        } catch(PulsarAdminException e) {
-            log.error("Failed to get cluster data.", e);
+        ClusterData clusterData = loadCluster(environment, cluster);
+        if (clusterData == null) {
             return null;
         }
-        log.info("Loaded cluster data for cluster {} @ environment {} : {}",
-            cluster, environment.getName(), clusterData.toString());
         Map<String, ClusterData> clusters = environments.computeIfAbsent(
             environment.getName(),
             (e) -> new ConcurrentHashMap<>());
@@ -193,4 +383,17 @@ public class EnvironmentCacheServiceImpl implements EnvironmentCacheService {
         return clusterData;
     }
 
+    private ClusterData loadCluster(EnvironmentEntity environment, String cluster) {
+        try {
+            return pulsarAdminService.clusters(environment.getBroker()).getCluster(cluster);
+        } catch (PulsarAdminException.NotFoundException e) {
+            log.warn("Cluster {} not found in environment {}.", cluster, environment.getName());
+            missingClusters.put(environment.getName() + " " + cluster, Boolean.TRUE);
+            return null;
+        } catch(PulsarAdminException e) {
+            log.error("Failed to get cluster data.", e);
+            return null;
+        }
+    }
+
 }
@@ -76,8 +76,8 @@ public class GithubLoginServiceImpl implements ThirdPartyLoginService {
         Gson gson = new Gson();
         try {
             // result example: access_token=your-token&token_type=bearer
-            String result = HttpUtil.doPost(githubAuthHost, header, gson.toJson(body));
-            GithubAuthEntity githubAuthEntity = gson.fromJson(result, GithubAuthEntity.class);
+            GithubAuthEntity githubAuthEntity = HttpUtil.doPost(
+                    githubAuthHost, header, gson.toJson(body), GithubAuthEntity.class);
             log.info("Success get access token from github");
             return githubAuthEntity.getAccessToken();
         } catch (UnsupportedEncodingException e) {
@@ -99,9 +99,8 @@ public class GithubLoginServiceImpl implements ThirdPartyLoginService {
             return null;
         }
         header.put("Authorization", "token " + authenticationMap.get("access_token"));
-        String result = HttpUtil.doGet(githubUserInfo, header);
-        Gson gson = new Gson();
-        GithubUserInfoEntity githubUserInfoEntity = gson.fromJson(result, GithubUserInfoEntity.class);
+        GithubUserInfoEntity githubUserInfoEntity = HttpUtil.doGet(
+                githubUserInfo, header, GithubUserInfoEntity.class);
         if (githubUserInfoEntity == null) {
             log.error("Get user information from github failed.");
             return null;
@@ -141,10 +140,9 @@ public class GithubLoginServiceImpl implements ThirdPartyLoginService {
         Map<String, String> header = Maps.newHashMap();
         header.put("Content-Type", "application/json");
         header.put("Authorization", "token " + access_token);
-        String result = HttpUtil.doGet(githubUserInfo + "/orgs", header);
+        JsonArray result = HttpUtil.doGet(githubUserInfo + "/orgs", header, JsonArray.class);
         List<String> organizations = new ArrayList<>();
-        Gson gson = new Gson();
-        for (JsonElement org : gson.fromJson(result, JsonArray.class).getAsJsonArray()) {
+        for (JsonElement org : result) {
             JsonObject organization = org.getAsJsonObject();
             organizations.add(organization.get("login").getAsString());
         }
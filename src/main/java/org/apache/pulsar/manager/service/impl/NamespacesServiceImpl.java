@@ -13,18 +13,20 @@
  */
 package org.apache.pulsar.manager.service.impl;
 
-import com.github.pagehelper.Page;
 import com.google.common.collect.Maps;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.client.admin.PulsarAdminException;
 import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
 import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
 import org.apache.pulsar.manager.entity.TopicsStatsRepository;
 import org.apache.pulsar.manager.service.BrokerStatsService;
 import org.apache.pulsar.manager.service.NamespacesService;
 import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.service.StatsSnapshotService;
 import org.apache.pulsar.manager.service.TopicsService;
+import org.apache.pulsar.manager.utils.AsyncUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -39,11 +41,15 @@ public class NamespacesServiceImpl implements NamespacesService {
     @Value("${backend.directRequestBroker}")
     private boolean directRequestBroker;
 
+    @Value("${admin.requests.max.in.flight:32}")
+    private int maxInFlightRequests;
+
     private final TopicsStatsRepository topicsStatsRepository;
     private final TopicsService topicsService;
     private final HttpServletRequest request;
     private final BrokerStatsService brokerStatsService;
     private final PulsarAdminService pulsarAdminService;
+    private final StatsSnapshotService statsSnapshotService;
 
     @Autowired
     public NamespacesServiceImpl(
@@ -51,12 +57,14 @@ public class NamespacesServiceImpl implements NamespacesService {
             TopicsService topicsService,
             HttpServletRequest request,
             BrokerStatsService brokerStatsService,
-            PulsarAdminService pulsarAdminService) {
+            PulsarAdminService pulsarAdminService,
+            StatsSnapshotService statsSnapshotService) {
         this.topicsStatsRepository = topicsStatsRepository;
         this.topicsService = topicsService;
         this.request = request;
         this.brokerStatsService = brokerStatsService;
         this.pulsarAdminService = pulsarAdminService;
+        this.statsSnapshotService = statsSnapshotService;
     }
 
     public Map<String, Object> getNamespaceList(Integer pageNum, Integer pageSize, String tenant, String requestHost) {
@@ -73,49 +81,49 @@ public class NamespacesServiceImpl implements NamespacesService {
                 throw pulsarAdminOperationException;
             }
             if (!namespacesList.isEmpty()) {
-                Optional<TopicStatsEntity> topicStatsEntityOptional = topicsStatsRepository.findMaxTime();
                 Map<String, TopicStatsEntity> topicStatsEntityMap = Maps.newHashMap();
-                if (topicStatsEntityOptional.isPresent()) {
-                    TopicStatsEntity topicStatsEntity = topicStatsEntityOptional.get();
-                    String environment = request.getHeader("environment");
-                    ArrayList<String> namespaceList = new ArrayList<>();
-                    for (String namespace : namespacesList) {
-                        String[] path = namespace.split("/");
-                        if (path.length > 1) {
-                            namespaceList.add(path[1]);
-                        }
+                String environment = request.getHeader("environment");
+                ArrayList<String> namespaceList = new ArrayList<>();
+                for (String namespace : namespacesList) {
+                    String[] path = namespace.split("/");
+                    if (path.length > 1) {
+                        namespaceList.add(path[1]);
                     }
-                    Page<TopicStatsEntity> namespaceCountPage = brokerStatsService.findByMultiNamespace(
-                            1, 1, environment, tenant,
-                            namespaceList, topicStatsEntity.getTimestamp());
-                    namespaceCountPage.count(true);
-                    Page<TopicStatsEntity> namespaceAllCountPage = brokerStatsService.findByMultiNamespace(
-                            1, (int)namespaceCountPage.getTotal(), environment, tenant,
-                            namespaceList, topicStatsEntity.getTimestamp());
-                    for (TopicStatsEntity statsEntity : namespaceAllCountPage) {
+                }
+                Optional<TopicStatsSnapshot> snapshot = statsSnapshotService.getLatestSnapshot();
+                Optional<TopicStatsEntity> topicStatsEntityOptional = snapshot.isPresent()
+                        ? Optional.empty() : topicsStatsRepository.findMaxTime();
+                if (snapshot.isPresent()) {
+                    for (TopicStatsEntity statsEntity : snapshot.get().findByMultiNamespace(
+                            environment, tenant, namespaceList)) {
+                        topicStatsEntityMap.put(statsEntity.getNamespace(), statsEntity);
+                    }
+                } else if (topicStatsEntityOptional.isPresent()) {
+                    TopicStatsEntity topicStatsEntity = topicStatsEntityOptional.get();
+                    List<TopicStatsEntity> namespaceStatsEntities = brokerStatsService.findByMultiNamespace(
+                            environment, tenant, namespaceList, topicStatsEntity.getTimestamp());
+                    for (TopicStatsEntity statsEntity : namespaceStatsEntities) {
                         topicStatsEntityMap.put(statsEntity.getNamespace(), statsEntity);
                     }
 
                 }
-                for (String tenantNamespace : namespacesList) {
-                    String[] path = tenantNamespace.split("/");
-                    if (path.length > 1) {
-                        String namespace = path[1];
-                        Map<String, Object> topicsEntity = Maps.newHashMap();
-                        Map<String, Object> topics = topicsService.getTopicsList(
-                                0, 0, tenant, namespace, requestHost);
-                        topicsEntity.put("topics", topics.get("total"));
-                        topicsEntity.put("namespace", namespace);
-                        if (topicStatsEntityMap.get(namespace) != null) {
-                            TopicStatsEntity topicStatsEntity = topicStatsEntityMap.get(namespace);
-                            topicsEntity.put("inMsg", topicStatsEntity.getMsgRateIn());
-                            topicsEntity.put("outMsg", topicStatsEntity.getMsgRateOut());
-                            topicsEntity.put("inBytes", topicStatsEntity.getMsgThroughputIn());
-                            topicsEntity.put("outBytes", topicStatsEntity.getMsgThroughputOut());
-                            topicsEntity.put("storageSize", topicStatsEntity.getStorageSize());
-                        }
-                        namespacesArray.add(topicsEntity);
+                // Topic counts only need the topic lists, fetched concurrently for all the namespaces
+                List<Integer> topicCounts = AsyncUtil.join(AsyncUtil.mapAsync(namespaceList, maxInFlightRequests,
+                        (namespace) -> topicsService.getTopicCountAsync(tenant, namespace, requestHost)));
+                for (int i = 0; i < namespaceList.size(); i++) {
+                    String namespace = namespaceList.get(i);
+                    Map<String, Object> topicsEntity = Maps.newHashMap();
+                    topicsEntity.put("topics", topicCounts.get(i));
+                    topicsEntity.put("namespace", namespace);
+                    if (topicStatsEntityMap.get(namespace) != null) {
+                        TopicStatsEntity topicStatsEntity = topicStatsEntityMap.get(namespace);
+                        topicsEntity.put("inMsg", topicStatsEntity.getMsgRateIn());
+                        topicsEntity.put("outMsg", topicStatsEntity.getMsgRateOut());
+                        topicsEntity.put("inBytes", topicStatsEntity.getMsgThroughputIn());
+                        topicsEntity.put("outBytes", topicStatsEntity.getMsgThroughputOut());
+                        topicsEntity.put("storageSize", topicStatsEntity.getStorageSize());
                     }
+                    namespacesArray.add(topicsEntity);
                 }
                 namespacesMap.put("isPage", false);
                 namespacesMap.put("total", namespacesList.size());
@@ -132,19 +140,23 @@ public class NamespacesServiceImpl implements NamespacesService {
             String namespace,
             String env) {
         Map<String, Object> namespaceStatsMap = Maps.newHashMap();
-        Optional<TopicStatsEntity> topicStatsEntity = topicsStatsRepository.findMaxTime();
-        if (topicStatsEntity.isPresent()) {
+        Optional<TopicStatsSnapshot> snapshot = statsSnapshotService.getLatestSnapshot();
+        Optional<TopicStatsEntity> topicStatsEntity = snapshot.isPresent()
+                ? Optional.empty() : topicsStatsRepository.findMaxTime();
+        if (snapshot.isPresent() || topicStatsEntity.isPresent()) {
             double msgRateIn = 0;
             double msgThroughputIn = 0;
             double msgRateOut = 0;
             double msgThroughputOut = 0;
-            TopicStatsEntity topicStats = topicStatsEntity.get();
-            Page<TopicStatsEntity> topicCountPage = topicsStatsRepository.findByNamespace(
-                    1, 1, env, tenant, namespace, topicStats.getTime_stamp());
-            topicCountPage.count(true);
-            Page<TopicStatsEntity> topicStatsEntities = topicsStatsRepository.findByNamespace(
-                    1, (int) topicCountPage.getTotal(), env, tenant, namespace, topicStats.getTime_stamp());
-            for (TopicStatsEntity statsEntity : topicStatsEntities.getResult()) {
+            List<TopicStatsEntity> namespaceTopics;
+            if (snapshot.isPresent()) {
+                namespaceTopics = snapshot.get().findByNamespace(env, tenant, namespace);
+            } else {
+                TopicStatsEntity topicStats = topicStatsEntity.get();
+                namespaceTopics = topicsStatsRepository.findByNamespace(
+                        env, tenant, namespace, topicStats.getTime_stamp());
+            }
+            for (TopicStatsEntity statsEntity : namespaceTopics) {
                 msgRateIn += statsEntity.getMsgRateIn();
                 msgRateOut += statsEntity.getMsgRateOut();
                 msgThroughputIn += statsEntity.getMsgThroughputIn();
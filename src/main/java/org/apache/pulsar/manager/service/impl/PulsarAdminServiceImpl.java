@@ -13,13 +13,30 @@
  */
 package org.apache.pulsar.manager.service.impl;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pulsar.client.admin.BrokerStats;
@@ -36,7 +53,9 @@ import org.apache.pulsar.client.api.AuthenticationFactory;
 import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
 import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.utils.HttpUtil;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -61,18 +80,90 @@ public class PulsarAdminServiceImpl implements PulsarAdminService {
     @Value("${backend.jwt.token:}")
     private String pulsarJwtToken;
 
-    private Map<String, PulsarAdmin> pulsarAdmins = new HashMap<>();
+    @Value("${pulsar.admin.idle.timeout.ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${pulsar.admin.retire.grace.ms:60000}")
+    private long retireGraceMs;
+
+    @Value("${pulsar.admin.auth.header.refresh.seconds:60}")
+    private long authHeaderRefreshSeconds;
+
+    private ConcurrentMap<String, PulsarAdminHolder> pulsarAdmins = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AuthHeaderHolder> authHeaders = new ConcurrentHashMap<>();
+
+    private ExecutorService authHeaderRefreshExecutor;
+
+    private ScheduledExecutorService retireExecutor;
+
+    @PostConstruct
+    public void init() {
+        authHeaderRefreshExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-auth-header-refresh").setDaemon(true).build());
+        retireExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("pulsar-manager-admin-retire").setDaemon(true).build());
+    }
 
     @PreDestroy
     public void destroy() {
-        pulsarAdmins.values().forEach(value -> value.close());
+        authHeaderRefreshExecutor.shutdownNow();
+        // Close the retired clients right away as well
+        retireExecutor.shutdownNow().forEach(Runnable::run);
+        pulsarAdmins.forEach((url, holder) -> {
+            if (pulsarAdmins.remove(url, holder)) {
+                holder.pulsarAdmin.close();
+            }
+        });
+    }
+
+    public PulsarAdmin getPulsarAdmin(String url) {
+        PulsarAdminHolder holder = pulsarAdmins.computeIfAbsent(
+                url, (key) -> new PulsarAdminHolder(this.createPulsarAdmin(key)));
+        holder.lastUsedNanos = System.nanoTime();
+        return holder.pulsarAdmin;
     }
 
-    public synchronized PulsarAdmin getPulsarAdmin(String url) {
-        if (!pulsarAdmins.containsKey(url)) {
-            pulsarAdmins.put(url, this.createPulsarAdmin(url));
+    /**
+     * Take the client of a service url out of use, after its environment was deleted or moved to another
+     * broker. The next call creates a new client, the old one is closed once the grace period is over so
+     * that the requests which already hold it are not cut off.
+     */
+    public void closePulsarAdmin(String url) {
+        PulsarAdminHolder holder = pulsarAdmins.remove(url);
+        authHeaders.remove(url);
+        if (holder != null) {
+            retire(url, holder);
         }
-        return pulsarAdmins.get(url);
+    }
+
+    private void retire(String url, PulsarAdminHolder holder) {
+        log.info("Retire Pulsar Admin instance, closing it in {} ms. url={}", retireGraceMs, url);
+        Runnable close = () -> {
+            log.info("Close Pulsar Admin instance. url={}", url);
+            holder.pulsarAdmin.close();
+        };
+        try {
+            retireExecutor.schedule(close, retireGraceMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            close.run();
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${pulsar.admin.idle.check.interval.ms:60000}",
+        fixedDelayString = "${pulsar.admin.idle.check.interval.ms:60000}")
+    public void closeIdlePulsarAdmins() {
+        long idleBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        pulsarAdmins.forEach((url, holder) -> {
+            // remove(key, value) leaves a client that was replaced in the meantime alone
+            if (holder.lastUsedNanos - idleBefore < 0 && pulsarAdmins.remove(url, holder)) {
+                authHeaders.remove(url);
+                // A caller may have taken the client just before it was removed
+                log.info("Idle Pulsar Admin instance. url={}", url);
+                retire(url, holder);
+            }
+        });
     }
 
     public BrokerStats brokerStats(String url) {
@@ -99,34 +190,99 @@ public class PulsarAdminServiceImpl implements PulsarAdminService {
         return getPulsarAdmin(url).topics();
     }
 
+    /**
+     * Same document as brokerStats(url).getTopics(), read as a stream instead of a JsonObject.
+     */
+    public InputStream brokerTopicsStats(String url) throws IOException {
+        return HttpUtil.doGetStream(url + "/admin/v2/broker-stats/topics", getAuthHeader(url));
+    }
+
+    /**
+     * Auth headers are cached per service url. A cached header past its refresh time is still returned
+     * while a new one is fetched in the background, a header past its expiry is fetched again inline.
+     */
     public Map<String, String> getAuthHeader(String url) {
-        Authentication authentication = getPulsarAdmin(url).getClientConfigData().getAuthentication();
-        Map<String, String> result = new HashMap<>();
+        long now = System.currentTimeMillis();
+        AuthHeaderHolder holder = authHeaders.get(url);
+        if (holder == null || now >= holder.expireAtMillis) {
+            try {
+                holder = loadAuthHeader(url);
+            } catch (Exception e) {
+                log.error("Failed to run getAuthHeader", e);
+                return new HashMap<>();
+            }
+            authHeaders.put(url, holder);
+        } else if (now >= holder.refreshAtMillis && holder.refreshing.compareAndSet(false, true)) {
+            refreshAuthHeader(url, holder);
+        }
+        return holder.headers;
+    }
 
+    private void refreshAuthHeader(String url, AuthHeaderHolder holder) {
         try {
+            authHeaderRefreshExecutor.execute(() -> {
+                try {
+                    authHeaders.replace(url, holder, loadAuthHeader(url));
+                } catch (Exception e) {
+                    log.error("Failed to refresh auth header of " + url, e);
+                } finally {
+                    holder.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            holder.refreshing.set(false);
+        }
+    }
+
+    private AuthHeaderHolder loadAuthHeader(String url) throws Exception {
+        Authentication authentication = getPulsarAdmin(url).getClientConfigData().getAuthentication();
+        Map<String, String> result = new HashMap<>();
+        AuthenticationDataProvider authData = authentication.getAuthData(new URL(url).getHost());
+        if (authData.hasDataForHttp()) {
             CompletableFuture<Map<String, String>> authFuture = new CompletableFuture<>();
-            AuthenticationDataProvider authData = authentication.getAuthData(new URL(url).getHost());
-            if (authData.hasDataForHttp()) {
-                authentication.authenticationStage(url, authData, null, authFuture);
-            } else {
-                return result;
+            authentication.authenticationStage(url, authData, null, authFuture);
+            Map<String, String> responseHeader = authFuture.get();
+            Set<Map.Entry<String, String>> headers =
+                    authentication.newRequestHeader(url, authData, responseHeader);
+            if (headers != null) {
+                headers.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
             }
+        }
 
-            try {
-                Map<String, String> responseHeader = authFuture.get();
-                Set<Map.Entry<String, String>> headers =
-                        authentication.newRequestHeader(url, authData, responseHeader);
-                if (headers != null) {
-                    headers.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
-                }
-            } catch (Exception e) {
-                log.error("Failed to get headers", e);
-            }
-        } catch (Exception e) {
-            log.error("Failed to run getAuthHeader", e);
+        long now = System.currentTimeMillis();
+        long refreshIntervalMillis = TimeUnit.SECONDS.toMillis(authHeaderRefreshSeconds);
+        long refreshAtMillis = now + refreshIntervalMillis;
+        long expireAtMillis = refreshAtMillis + refreshIntervalMillis;
+        Long tokenExpiryMillis = getTokenExpiryMillis(result.get("Authorization"));
+        if (tokenExpiryMillis != null) {
+            // refresh a token one interval before it expires and never serve it once expired
+            refreshAtMillis = Math.min(refreshAtMillis, tokenExpiryMillis - refreshIntervalMillis);
+            expireAtMillis = tokenExpiryMillis;
         }
+        return new AuthHeaderHolder(Collections.unmodifiableMap(result), refreshAtMillis, expireAtMillis);
+    }
 
-        return result;
+    /**
+     * Read the exp claim of a JWT bearer token, null when the header is not a JWT or has no expiry.
+     */
+    private static Long getTokenExpiryMillis(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String[] parts = authorization.substring("Bearer ".length()).split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            JsonElement exp = new JsonParser().parse(claims).getAsJsonObject().get("exp");
+            if (exp == null || exp.isJsonNull()) {
+                return null;
+            }
+            return TimeUnit.SECONDS.toMillis(exp.getAsLong());
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
 
     private PulsarAdmin createPulsarAdmin(String url) {
@@ -150,4 +306,27 @@ public class PulsarAdminServiceImpl implements PulsarAdminService {
             throw pulsarAdminOperationException;
         }
     }
+
+    private static class PulsarAdminHolder {
+        private final PulsarAdmin pulsarAdmin;
+        private volatile long lastUsedNanos;
+
+        private PulsarAdminHolder(PulsarAdmin pulsarAdmin) {
+            this.pulsarAdmin = pulsarAdmin;
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    private static class AuthHeaderHolder {
+        private final Map<String, String> headers;
+        private final long refreshAtMillis;
+        private final long expireAtMillis;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        private AuthHeaderHolder(Map<String, String> headers, long refreshAtMillis, long expireAtMillis) {
+            this.headers = headers;
+            this.refreshAtMillis = refreshAtMillis;
+            this.expireAtMillis = expireAtMillis;
+        }
+    }
 }
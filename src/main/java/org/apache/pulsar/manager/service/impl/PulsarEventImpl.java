@@ -18,6 +18,7 @@ import org.apache.pulsar.manager.entity.NamespaceEntity;
 import org.apache.pulsar.manager.entity.NamespacesRepository;
 import org.apache.pulsar.manager.service.PulsarEvent;
 import org.apache.pulsar.manager.service.RolesService;
+import org.apache.pulsar.manager.service.TopicsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +30,8 @@ public class PulsarEventImpl implements PulsarEvent {
 
     private static final String SEPARATOR = "/";
 
+    private static final String HTTP_GET = "GET";
+
     private static final String HTTP_PUT = "PUT";
 
     private static final String HTTP_DELETE = "DELETE";
@@ -61,6 +64,9 @@ public class PulsarEventImpl implements PulsarEvent {
     @Autowired
     private NamespacesRepository namespacesRepository;
 
+    @Autowired
+    private TopicsService topicsService;
+
     private boolean isNamespace(String path, HttpServletRequest request) {
         if (request.getMethod().equals(HTTP_PUT) && path.startsWith(NAMESPACES_PREFIX)) {
             return true;
@@ -68,6 +74,15 @@ public class PulsarEventImpl implements PulsarEvent {
         return false;
     }
 
+    private boolean isTopicUpdate(String path, String method) {
+        if (!method.equals(HTTP_GET)
+                && (path.startsWith(PERSISTENT_TOPIC_PREFIX) || path.startsWith(NON_PERSISTENT_TOPIC_PREFIX)
+                    || (method.equals(HTTP_DELETE) && path.startsWith(NAMESPACES_PREFIX)))) {
+            return true;
+        }
+        return false;
+    }
+
     private boolean isNamespace(String path) {
         if (path.startsWith(NAMESPACES_PREFIX) || path.startsWith(PULSAR_MANAGER_NAMESPACES_PREFIX)) {
             return true;
@@ -155,4 +170,14 @@ public class PulsarEventImpl implements PulsarEvent {
             namespacesRepository.save(namespaceEntity);
         }
     }
+
+    public void completePulsarEvent(String path, String method, int statusCode) {
+        // A rejected or failed request did not change the topics, keep the cached lists
+        if (statusCode >= 200 && statusCode < 300 && isTopicUpdate(path, method)) {
+            String[] tenantNamespace = path.split(SEPARATOR);
+            if (tenantNamespace.length > 5) {
+                topicsService.invalidateTopicList(tenantNamespace[4], tenantNamespace[5]);
+            }
+        }
+    }
 }
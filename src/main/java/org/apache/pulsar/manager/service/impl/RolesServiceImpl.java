@@ -13,6 +13,9 @@
  */
 package org.apache.pulsar.manager.service.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +46,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -51,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import static java.util.Objects.requireNonNull;
@@ -89,10 +94,26 @@ public class RolesServiceImpl implements RolesService {
     @Value("${user.management.enable}")
     private boolean userManagementEnabled;
 
+    @Value("${user.permissions.cache.seconds:10}")
+    private long permissionsCacheSeconds;
+
+    @Value("${user.permissions.cache.size:10000}")
+    private long permissionsCacheSize;
+
+    private Cache<String, TokenPermissions> permissionsCache;
+
     private final String VERBS_SEPARATOR = ",";
 
     private static final Pattern pattern = Pattern.compile("[A-Za-z0-9_]+");
 
+    @PostConstruct
+    public void init() {
+        permissionsCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(permissionsCacheSeconds, TimeUnit.SECONDS)
+                .maximumSize(permissionsCacheSize)
+                .build();
+    }
+
     public Map<String, String> validateRoleInfoEntity(RoleInfoEntity roleInfoEntity) {
         Map<String, String> validateResult = Maps.newHashMap();
 
@@ -203,6 +224,7 @@ public class RolesServiceImpl implements RolesService {
             Optional<UserInfoEntity> userInfoEntity = usersRepository.findByUserName(tenant);
             roleBindingEntity.setUserId(userInfoEntity.get().getUserId());
             roleBindingRepository.save(roleBindingEntity);
+            invalidatePermissions();
             result.put("message", "Create default success");
             return result;
         }
@@ -237,28 +259,12 @@ public class RolesServiceImpl implements RolesService {
             result.put("message", "Tenant validation succeeded");
             return result;
         }
-        Optional<UserInfoEntity> userInfoEntityOptional = usersRepository.findByAccessToken(token);
-        if (!userInfoEntityOptional.isPresent()) {
+        TokenPermissions permissions = getPermissions(token);
+        if (!permissions.userExists) {
             result.put("error", "User does not exist.");
             return result;
         }
-        UserInfoEntity userInfoEntity = userInfoEntityOptional.get();
-        List<RoleBindingEntity> roleBindingEntities = roleBindingRepository.findByUserId(userInfoEntity.getUserId());
-        List<Long> roleIdList = new ArrayList<>();
-        for (RoleBindingEntity roleBindingEntity : roleBindingEntities) {
-            roleIdList.add(roleBindingEntity.getRoleId());
-        }
-        List<RoleInfoEntity> roleInfoEntities = rolesRepository.findAllRolesByMultiId(roleIdList);
-        List<Long> resourceIdList = new ArrayList<>();
-        for (RoleInfoEntity infoEntity : roleInfoEntities) {
-            resourceIdList.add(infoEntity.getResourceId());
-        }
-        List<TenantEntity> tenantEntities = tenantsRepository.findByMultiId(resourceIdList);
-        Set<String> tenantNameList = Sets.newHashSet();
-        for (TenantEntity tenantEntity : tenantEntities) {
-            tenantNameList.add(tenantEntity.getTenant());
-        }
-        if (!tenantNameList.contains(tenant)) {
+        if (!permissions.tenants.contains(tenant)) {
             result.put("error", "This user does not include tenant " + tenant);
             return result;
         }
@@ -272,9 +278,29 @@ public class RolesServiceImpl implements RolesService {
             String serverToken = jwtService.getToken(request.getSession().getId());
             return StringUtils.equalsIgnoreCase(serverToken, token);
         }
+        return getPermissions(token).superUser;
+    }
+
+    public void invalidatePermissions() {
+        permissionsCache.invalidateAll();
+    }
+
+    private TokenPermissions getPermissions(String token) {
+        if (token == null) {
+            return loadPermissions(null);
+        }
+        TokenPermissions permissions = permissionsCache.getIfPresent(token);
+        if (permissions == null) {
+            permissions = loadPermissions(token);
+            permissionsCache.put(token, permissions);
+        }
+        return permissions;
+    }
+
+    private TokenPermissions loadPermissions(String token) {
         Optional<UserInfoEntity> userInfoEntityOptional = usersRepository.findByAccessToken(token);
         if (!userInfoEntityOptional.isPresent()) {
-            return false;
+            return TokenPermissions.UNKNOWN_USER;
         }
         UserInfoEntity userInfoEntity = userInfoEntityOptional.get();
         List<RoleBindingEntity> roleBindingEntities = roleBindingRepository.findByUserId(userInfoEntity.getUserId());
@@ -282,12 +308,41 @@ public class RolesServiceImpl implements RolesService {
         for (RoleBindingEntity roleBindingEntity : roleBindingEntities) {
             roleIdList.add(roleBindingEntity.getRoleId());
         }
+        if (roleIdList.isEmpty()) {
+            return new TokenPermissions(true, false, ImmutableSet.of());
+        }
         List<RoleInfoEntity> roleInfoEntities = rolesRepository.findAllRolesByMultiId(roleIdList);
-        for (RoleInfoEntity roleInfoEntity : roleInfoEntities) {
-            if (roleInfoEntity.getFlag() == 0) {
-                return true;
+        boolean superUser = false;
+        List<Long> resourceIdList = new ArrayList<>();
+        for (RoleInfoEntity infoEntity : roleInfoEntities) {
+            if (infoEntity.getFlag() == 0) {
+                superUser = true;
+            }
+            resourceIdList.add(infoEntity.getResourceId());
+        }
+        Set<String> tenantNameList = Sets.newHashSet();
+        if (!resourceIdList.isEmpty()) {
+            for (TenantEntity tenantEntity : tenantsRepository.findByMultiId(resourceIdList)) {
+                tenantNameList.add(tenantEntity.getTenant());
             }
         }
-        return false;
+        return new TokenPermissions(true, superUser, ImmutableSet.copyOf(tenantNameList));
+    }
+
+    /**
+     * What the user holding an access token may do, resolved from its role bindings.
+     */
+    private static class TokenPermissions {
+        private static final TokenPermissions UNKNOWN_USER = new TokenPermissions(false, false, ImmutableSet.of());
+
+        private final boolean userExists;
+        private final boolean superUser;
+        private final Set<String> tenants;
+
+        private TokenPermissions(boolean userExists, boolean superUser, Set<String> tenants) {
+            this.userExists = userExists;
+            this.superUser = superUser;
+            this.tenants = tenants;
+        }
     }
 }
@@ -0,0 +1,317 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service.impl;
+
+import com.google.common.base.Suppliers;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.manager.entity.StatsRollupEntity;
+import org.apache.pulsar.manager.entity.StatsRollupRepository;
+import org.apache.pulsar.manager.entity.TopicDimensionEntity;
+import org.apache.pulsar.manager.entity.TopicHistoryEntity;
+import org.apache.pulsar.manager.entity.TopicsHistoryRepository;
+import org.apache.pulsar.manager.service.StatsHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Downsamples the topic stats history. The 30 second points of topics_history are kept for a short window
+ * and rolled up, as they age, into 5 minute buckets, which are rolled up into 1 hour buckets. Each bucket
+ * holds the min, max, avg and last of a topic, and of the sum of the topics of a namespace and of a tenant,
+ * so trends over days are read from a few hundred rows. Every tier has a retention of its own.
+ */
+@Service
+@Slf4j
+public class StatsHistoryServiceImpl implements StatsHistoryService {
+
+    private static final long ONE_DAY = 86400;
+
+    @Value("${stats.history.enabled:true}")
+    private boolean historyEnabled;
+
+    @Value("${stats.history.retention.ms:21600000}")
+    private long historyRetentionMs;
+
+    @Value("${stats.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    @Value("${stats.rollup.5m.retention.ms:604800000}")
+    private long fiveMinutesRetentionMs;
+
+    @Value("${stats.rollup.1h.retention.ms:7776000000}")
+    private long oneHourRetentionMs;
+
+    private final TopicsHistoryRepository topicsHistoryRepository;
+
+    private final StatsRollupRepository statsRollupRepository;
+
+    @Autowired
+    public StatsHistoryServiceImpl(
+            TopicsHistoryRepository topicsHistoryRepository,
+            StatsRollupRepository statsRollupRepository) {
+        this.topicsHistoryRepository = topicsHistoryRepository;
+        this.statsRollupRepository = statsRollupRepository;
+    }
+
+    public synchronized void rollup(long unixTime) {
+        if (!historyEnabled || !rollupEnabled) {
+            return;
+        }
+        try {
+            // Read at most once per run, whatever the number of buckets rolled up
+            Supplier<Map<Long, TopicDimensionEntity>> dimensions = Suppliers.memoize(this::loadDimensions);
+            rollup(FIVE_MINUTES, unixTime, topicsHistoryRepository::findMinTime,
+                (startTime, endTime) -> rollupPoints(startTime, endTime, dimensions.get()));
+            // The 5 minute buckets ended at unixTime are all rolled up by now
+            rollup(ONE_HOUR, unixTime, (startTime) -> statsRollupRepository.findMinTime(FIVE_MINUTES, startTime),
+                this::rollupBuckets);
+        } catch (RuntimeException e) {
+            // Rolled up buckets are committed one by one, the next cycle resumes after the last one
+            log.error("Failed to roll up the stats history", e);
+        }
+    }
+
+    /**
+     * Rolls up the buckets of this resolution ended at endTime. The rollup tables hold the progress, the
+     * rollup resumes after the latest bucket saved, shared by all the managers using the database. Buckets
+     * without source rows are skipped, firstSource gives the time of the first source row at or after a time.
+     */
+    private void rollup(int resolution, long endTime, Function<Long, Optional<Long>> firstSource,
+                        BiConsumer<Long, Long> bucketRollup) {
+        long next = rolledUpEnd(resolution).orElse(0L);
+        while (true) {
+            Optional<Long> first = firstSource.apply(next);
+            if (!first.isPresent()) {
+                return;
+            }
+            long bucket = first.get() - Math.floorMod(first.get(), (long) resolution);
+            if (bucket + resolution > endTime) {
+                return;
+            }
+            bucketRollup.accept(bucket, bucket + resolution);
+            next = bucket + resolution;
+        }
+    }
+
+    /**
+     * End of the latest bucket rolled up at this resolution, the source rows before it were rolled up.
+     */
+    private Optional<Long> rolledUpEnd(int resolution) {
+        return statsRollupRepository.findMaxTime(resolution).map((time) -> time + resolution);
+    }
+
+    private Map<Long, TopicDimensionEntity> loadDimensions() {
+        Map<Long, TopicDimensionEntity> dimensions = new HashMap<>();
+        topicsHistoryRepository.findAllDimensions().forEach((dimension) ->
+            dimensions.put(dimension.getTopicId(), dimension));
+        return dimensions;
+    }
+
+    private void rollupPoints(long startTime, long endTime, Map<Long, TopicDimensionEntity> dimensions) {
+        List<TopicHistoryEntity> points = topicsHistoryRepository.findByTime(startTime, endTime);
+        if (points.isEmpty()) {
+            return;
+        }
+        Map<Long, Aggregate> topics = new HashMap<>();
+        Map<List<String>, Aggregate> namespaces = new HashMap<>();
+        Map<List<String>, Aggregate> tenants = new HashMap<>();
+        int i = 0;
+        while (i < points.size()) {
+            // Namespaces and tenants aggregate the sum of their topics at each collection
+            long timestamp = points.get(i).getTimestamp();
+            Map<List<String>, double[]> namespaceSums = new HashMap<>();
+            Map<List<String>, double[]> tenantSums = new HashMap<>();
+            for (; i < points.size() && points.get(i).getTimestamp() == timestamp; i++) {
+                TopicHistoryEntity point = points.get(i);
+                double[] values = {point.getMsgRateIn(), point.getMsgRateOut(), point.getMsgThroughputIn(),
+                    point.getMsgThroughputOut(), point.getStorageSize()};
+                topics.computeIfAbsent(point.getTopicId(), (id) -> new Aggregate()).add(timestamp, values);
+                TopicDimensionEntity dimension = dimensions.get(point.getTopicId());
+                if (dimension == null) {
+                    continue;
+                }
+                sum(namespaceSums.computeIfAbsent(Arrays.asList(dimension.getEnvironment(),
+                    dimension.getTenant(), dimension.getNamespace()), (key) -> new double[StatsRollupEntity.METRICS]),
+                    values);
+                sum(tenantSums.computeIfAbsent(Arrays.asList(dimension.getEnvironment(), dimension.getTenant()),
+                    (key) -> new double[StatsRollupEntity.METRICS]), values);
+            }
+            namespaceSums.forEach((key, sums) ->
+                namespaces.computeIfAbsent(key, (k) -> new Aggregate()).add(timestamp, sums));
+            tenantSums.forEach((key, sums) ->
+                tenants.computeIfAbsent(key, (k) -> new Aggregate()).add(timestamp, sums));
+        }
+        save(FIVE_MINUTES, startTime, topics, namespaces, tenants);
+    }
+
+    private void rollupBuckets(long startTime, long endTime) {
+        Map<Long, Aggregate> topics = new HashMap<>();
+        Map<List<String>, Aggregate> namespaces = new HashMap<>();
+        Map<List<String>, Aggregate> tenants = new HashMap<>();
+        statsRollupRepository.findTopicsByTime(FIVE_MINUTES, startTime, endTime).forEach((row) ->
+            topics.computeIfAbsent(row.getTopicId(), (id) -> new Aggregate()).merge(row));
+        statsRollupRepository.findNamespacesByTime(FIVE_MINUTES, startTime, endTime).forEach((row) ->
+            namespaces.computeIfAbsent(Arrays.asList(row.getEnvironment(), row.getTenant(), row.getNamespace()),
+                (key) -> new Aggregate()).merge(row));
+        statsRollupRepository.findTenantsByTime(FIVE_MINUTES, startTime, endTime).forEach((row) ->
+            tenants.computeIfAbsent(Arrays.asList(row.getEnvironment(), row.getTenant()),
+                (key) -> new Aggregate()).merge(row));
+        if (topics.isEmpty() && namespaces.isEmpty() && tenants.isEmpty()) {
+            return;
+        }
+        save(ONE_HOUR, startTime, topics, namespaces, tenants);
+    }
+
+    private void save(int resolution, long bucket, Map<Long, Aggregate> topics,
+                      Map<List<String>, Aggregate> namespaces, Map<List<String>, Aggregate> tenants) {
+        List<StatsRollupEntity> topicRows = new ArrayList<>(topics.size());
+        topics.forEach((topicId, aggregate) -> {
+            StatsRollupEntity row = aggregate.toEntity(resolution, bucket);
+            row.setTopicId(topicId);
+            topicRows.add(row);
+        });
+        List<StatsRollupEntity> namespaceRows = new ArrayList<>(namespaces.size());
+        namespaces.forEach((key, aggregate) -> {
+            StatsRollupEntity row = aggregate.toEntity(resolution, bucket);
+            row.setEnvironment(key.get(0));
+            row.setTenant(key.get(1));
+            row.setNamespace(key.get(2));
+            namespaceRows.add(row);
+        });
+        List<StatsRollupEntity> tenantRows = new ArrayList<>(tenants.size());
+        tenants.forEach((key, aggregate) -> {
+            StatsRollupEntity row = aggregate.toEntity(resolution, bucket);
+            row.setEnvironment(key.get(0));
+            row.setTenant(key.get(1));
+            tenantRows.add(row);
+        });
+        statsRollupRepository.save(topicRows, namespaceRows, tenantRows);
+        log.info("Rolled up {} topics, {} namespaces and {} tenants into the {}s bucket {}",
+            topicRows.size(), namespaceRows.size(), tenantRows.size(), resolution, bucket);
+    }
+
+    private static void sum(double[] sums, double[] values) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += values[i];
+        }
+    }
+
+    public void clearHistory(long nowTime) {
+        long historyRefTime = nowTime - historyRetentionMs / 1000;
+        long fiveMinutesRefTime = nowTime - fiveMinutesRetentionMs / 1000;
+        if (historyEnabled && rollupEnabled) {
+            // Rows are only removed once rolled up into the next tier, a late rollup keeps them longer
+            historyRefTime = Math.min(historyRefTime, rolledUpEnd(FIVE_MINUTES).orElse(Long.MIN_VALUE));
+            fiveMinutesRefTime = Math.min(fiveMinutesRefTime, rolledUpEnd(ONE_HOUR).orElse(Long.MIN_VALUE));
+        }
+        topicsHistoryRepository.remove(historyRefTime, 0);
+        statsRollupRepository.remove(FIVE_MINUTES, fiveMinutesRefTime, 0);
+        statsRollupRepository.remove(ONE_HOUR, nowTime, oneHourRetentionMs / 1000);
+        // The rollups reference the topic ids, their dimensions are kept as long as the longest tier
+        long dimensionRetentionMs = historyRetentionMs;
+        if (rollupEnabled) {
+            dimensionRetentionMs = Math.max(dimensionRetentionMs,
+                Math.max(fiveMinutesRetentionMs, oneHourRetentionMs));
+        }
+        topicsHistoryRepository.removeDimensions(nowTime, dimensionRetentionMs / 1000);
+    }
+
+    public int selectResolution(long startTime, long endTime) {
+        return endTime - startTime <= ONE_DAY ? FIVE_MINUTES : ONE_HOUR;
+    }
+
+    public List<StatsRollupEntity> findByTopic(int resolution, String environment, String tenant, String namespace,
+                                               String persistent, String topic, long startTime, long endTime) {
+        return statsRollupRepository.findByTopic(
+            resolution, environment, tenant, namespace, persistent, topic, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findByNamespace(int resolution, String environment, String tenant,
+                                                   String namespace, long startTime, long endTime) {
+        return statsRollupRepository.findByNamespace(resolution, environment, tenant, namespace, startTime, endTime);
+    }
+
+    public List<StatsRollupEntity> findByTenant(int resolution, String environment, String tenant,
+                                                long startTime, long endTime) {
+        return statsRollupRepository.findByTenant(resolution, environment, tenant, startTime, endTime);
+    }
+
+    /**
+     * Min, max, average and last value of each metric over the samples of a bucket. A merged row counts
+     * for as many samples as it aggregates.
+     */
+    private static final class Aggregate {
+
+        private final double[] min = new double[StatsRollupEntity.METRICS];
+
+        private final double[] max = new double[StatsRollupEntity.METRICS];
+
+        private final double[] sum = new double[StatsRollupEntity.METRICS];
+
+        private double[] last;
+
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        private int samples = 0;
+
+        Aggregate() {
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(long timestamp, double[] values) {
+            accumulate(timestamp, 1, values, values, values, values);
+        }
+
+        void merge(StatsRollupEntity row) {
+            accumulate(row.getTimestamp(), row.getSamples(), row.mins(), row.maxs(), row.avgs(), row.lasts());
+        }
+
+        private void accumulate(long timestamp, int count, double[] mins, double[] maxs, double[] avgs,
+                                double[] lasts) {
+            for (int i = 0; i < StatsRollupEntity.METRICS; i++) {
+                min[i] = Math.min(min[i], mins[i]);
+                max[i] = Math.max(max[i], maxs[i]);
+                sum[i] += avgs[i] * count;
+            }
+            samples += count;
+            if (timestamp >= lastTimestamp) {
+                lastTimestamp = timestamp;
+                last = lasts;
+            }
+        }
+
+        StatsRollupEntity toEntity(int resolution, long bucket) {
+            double[] avg = new double[StatsRollupEntity.METRICS];
+            for (int i = 0; i < StatsRollupEntity.METRICS; i++) {
+                avg[i] = samples > 0 ? sum[i] / samples : 0;
+            }
+            StatsRollupEntity row = new StatsRollupEntity();
+            row.setResolution(resolution);
+            row.setTime_stamp(bucket);
+            row.aggregate(samples, min, max, avg, last);
+            return row;
+        }
+    }
+}
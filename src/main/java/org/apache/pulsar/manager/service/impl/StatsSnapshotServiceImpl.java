@@ -0,0 +1,56 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
+import org.apache.pulsar.manager.service.StatsSnapshotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@Slf4j
+public class StatsSnapshotServiceImpl implements StatsSnapshotService {
+
+    @Value("${clear.stats.interval}")
+    private Long clearStatsInterval;
+
+    private final AtomicReference<TopicStatsSnapshot> latestSnapshot = new AtomicReference<>();
+
+    public Optional<TopicStatsSnapshot> getLatestSnapshot() {
+        TopicStatsSnapshot snapshot = latestSnapshot.get();
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        // Past this age the rows of the snapshot are gone from the database as well
+        long now = System.currentTimeMillis() / 1000L;
+        if (snapshot.getTimestamp() < now - clearStatsInterval / 1000) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot);
+    }
+
+    public void publish(TopicStatsSnapshot snapshot) {
+        // Brokers which time out keep running, never let a late cycle replace a newer one
+        TopicStatsSnapshot previous = latestSnapshot.getAndAccumulate(snapshot,
+            (current, next) -> current == null || next.getTimestamp() >= current.getTimestamp() ? next : current);
+        if (previous != null && previous.getTimestamp() > snapshot.getTimestamp()) {
+            log.warn("Ignored stats snapshot of {}, a newer snapshot of {} is already published",
+                snapshot.getTimestamp(), previous.getTimestamp());
+        }
+    }
+}
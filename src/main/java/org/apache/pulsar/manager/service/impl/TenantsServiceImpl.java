@@ -13,18 +13,23 @@
  */
 package org.apache.pulsar.manager.service.impl;
 
-import com.github.pagehelper.Page;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.Namespaces;
 import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.apache.pulsar.client.admin.Tenants;
 import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
 import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
 import org.apache.pulsar.manager.entity.TopicsStatsRepository;
 import org.apache.pulsar.manager.service.BrokerStatsService;
 import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.service.StatsSnapshotService;
 import org.apache.pulsar.manager.service.TenantsService;
+import org.apache.pulsar.manager.utils.AdminOperationUtil;
+import org.apache.pulsar.manager.utils.AsyncUtil;
 import org.apache.pulsar.common.policies.data.TenantInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -43,6 +48,9 @@ public class TenantsServiceImpl implements TenantsService {
     @Value("${backend.directRequestBroker}")
     private boolean directRequestBroker;
 
+    @Value("${admin.requests.max.in.flight:32}")
+    private int maxInFlightRequests;
+
     private final BrokerStatsService brokerStatsService;
 
     private final TopicsStatsRepository topicsStatsRepository;
@@ -51,12 +59,15 @@ public class TenantsServiceImpl implements TenantsService {
 
     private final HttpServletRequest request;
 
+    private final StatsSnapshotService statsSnapshotService;
+
     @Autowired
-    public TenantsServiceImpl(BrokerStatsService brokerStatsService, TopicsStatsRepository topicsStatsRepository, PulsarAdminService pulsarAdminService, HttpServletRequest request) {
+    public TenantsServiceImpl(BrokerStatsService brokerStatsService, TopicsStatsRepository topicsStatsRepository, PulsarAdminService pulsarAdminService, HttpServletRequest request, StatsSnapshotService statsSnapshotService) {
         this.brokerStatsService = brokerStatsService;
         this.topicsStatsRepository = topicsStatsRepository;
         this.pulsarAdminService = pulsarAdminService;
         this.request = request;
+        this.statsSnapshotService = statsSnapshotService;
     }
 
     public Map<String, Object> getTenantsList(Integer pageNum, Integer pageSize, String requestHost) {
@@ -74,54 +85,37 @@ public class TenantsServiceImpl implements TenantsService {
             }
 
             if (!tenantsList.isEmpty()) {
-                Optional<TopicStatsEntity> topicStatsEntityOptional = topicsStatsRepository.findMaxTime();
                 Map<String, TopicStatsEntity> topicStatsEntityMap = Maps.newHashMap();
-                if (topicStatsEntityOptional.isPresent()) {
-                    TopicStatsEntity topicStatsEntity = topicStatsEntityOptional.get();
-                    String environment = request.getHeader("environment");
-                    Page<TopicStatsEntity> tenantCountPage = brokerStatsService.findByMultiTenant(
-                            1, 1, environment, tenantsList, topicStatsEntity.getTimestamp());
-                    tenantCountPage.count(true);
-                    Page<TopicStatsEntity> tenantAllCountPage = brokerStatsService.findByMultiTenant(1,
-                            (int)tenantCountPage.getTotal(), environment, tenantsList, topicStatsEntity.getTimestamp());
-                    for (TopicStatsEntity statsEntity : tenantAllCountPage) {
+                String environment = request.getHeader("environment");
+                Optional<TopicStatsSnapshot> snapshot = statsSnapshotService.getLatestSnapshot();
+                Optional<TopicStatsEntity> topicStatsEntityOptional = snapshot.isPresent()
+                        ? Optional.empty() : topicsStatsRepository.findMaxTime();
+                if (snapshot.isPresent()) {
+                    for (TopicStatsEntity statsEntity : snapshot.get().findByMultiTenant(environment, tenantsList)) {
                         topicStatsEntityMap.put(statsEntity.getTenant(), statsEntity);
                     }
-                }
-                for (String tenant : tenantsList) {
-                    TenantInfo tenantInfo;
-                    try {
-                        tenantInfo = pulsarAdminService.tenants(requestHost).getTenantInfo(tenant);
-                    } catch (PulsarAdminException e) {
-                        PulsarAdminOperationException pulsarAdminOperationException
-                                = new PulsarAdminOperationException("Failed to get tenant info.");
-                        log.error(pulsarAdminOperationException.getMessage(), e);
-                        throw pulsarAdminOperationException;
-                    }
-                    Map<String, Object> tenantEntity = Maps.newHashMap();
-                    tenantEntity.put("tenant", tenant);
-                    tenantEntity.put("adminRoles", String.join(",", tenantInfo.getAdminRoles()));
-                    tenantEntity.put("allowedClusters", String.join(",",  tenantInfo.getAllowedClusters()));
-                    List<String> namespacesList;
-                    try {
-                        namespacesList = pulsarAdminService.namespaces(requestHost).getNamespaces(tenant);
-                    } catch (PulsarAdminException e) {
-                        PulsarAdminOperationException pulsarAdminOperationException
-                                = new PulsarAdminOperationException("Failed to get namespaces list.");
-                        log.error(pulsarAdminOperationException.getMessage(), e);
-                        throw pulsarAdminOperationException;
-                    }
-                    tenantEntity.put("namespaces", namespacesList.size());
-                    if (topicStatsEntityMap.get(tenant) != null ) {
-                        TopicStatsEntity topicStatsEntity = topicStatsEntityMap.get(tenant);
-                        tenantEntity.put("inMsg", topicStatsEntity.getMsgRateIn());
-                        tenantEntity.put("outMsg", topicStatsEntity.getMsgRateOut());
-                        tenantEntity.put("inBytes", topicStatsEntity.getMsgThroughputIn());
-                        tenantEntity.put("outBytes", topicStatsEntity.getMsgThroughputOut());
-                        tenantEntity.put("storageSize", topicStatsEntity.getStorageSize());
+                } else if (topicStatsEntityOptional.isPresent()) {
+                    TopicStatsEntity topicStatsEntity = topicStatsEntityOptional.get();
+                    List<TopicStatsEntity> tenantStatsEntities = brokerStatsService.findByMultiTenant(
+                            environment, tenantsList, topicStatsEntity.getTimestamp());
+                    for (TopicStatsEntity statsEntity : tenantStatsEntities) {
+                        topicStatsEntityMap.put(statsEntity.getTenant(), statsEntity);
                     }
-                    tenantsArray.add(tenantEntity);
                 }
+                // Two admin calls per tenant, issued concurrently with a bound on the requests in flight
+                Tenants tenants = pulsarAdminService.tenants(requestHost);
+                Namespaces namespaces = pulsarAdminService.namespaces(requestHost);
+                tenantsArray.addAll(AsyncUtil.join(AsyncUtil.mapAsync(tenantsList, maxInFlightRequests, (tenant) ->
+                    tenants.getTenantInfoAsync(tenant)
+                        .exceptionally((e) -> {
+                            throw AdminOperationUtil.operationFailure("Failed to get tenant info.", e);
+                        })
+                        .thenCombine(namespaces.getNamespacesAsync(tenant)
+                            .exceptionally((e) -> {
+                                throw AdminOperationUtil.operationFailure("Failed to get namespaces list.", e);
+                            }),
+                            (tenantInfo, namespacesList) -> buildTenantEntity(
+                                tenant, tenantInfo, namespacesList, topicStatsEntityMap.get(tenant))))));
                 tenantsMap.put("isPage", false);
                 tenantsMap.put("total", tenantsList.size());
                 tenantsMap.put("data", tenantsArray);
@@ -134,6 +128,25 @@ public class TenantsServiceImpl implements TenantsService {
         return tenantsMap;
     }
 
+    private static Map<String, Object> buildTenantEntity(String tenant,
+                                                         TenantInfo tenantInfo,
+                                                         List<String> namespacesList,
+                                                         TopicStatsEntity topicStatsEntity) {
+        Map<String, Object> tenantEntity = Maps.newHashMap();
+        tenantEntity.put("tenant", tenant);
+        tenantEntity.put("adminRoles", String.join(",", tenantInfo.getAdminRoles()));
+        tenantEntity.put("allowedClusters", String.join(",",  tenantInfo.getAllowedClusters()));
+        tenantEntity.put("namespaces", namespacesList.size());
+        if (topicStatsEntity != null) {
+            tenantEntity.put("inMsg", topicStatsEntity.getMsgRateIn());
+            tenantEntity.put("outMsg", topicStatsEntity.getMsgRateOut());
+            tenantEntity.put("inBytes", topicStatsEntity.getMsgThroughputIn());
+            tenantEntity.put("outBytes", topicStatsEntity.getMsgThroughputOut());
+            tenantEntity.put("storageSize", topicStatsEntity.getStorageSize());
+        }
+        return tenantEntity;
+    }
+
     public Map<String, String> createTenant(String tenant, String role, String cluster, String requestHost) {
         TenantInfo tenantInfo = new TenantInfo(Sets.newHashSet(role), Sets.newHashSet(cluster));
         Map<String, String> result = Maps.newHashMap();
@@ -13,13 +13,19 @@
  */
 package org.apache.pulsar.manager.service.impl;
 
-import com.github.pagehelper.Page;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.client.admin.PulsarAdmin;
 import org.apache.pulsar.client.admin.PulsarAdminBuilder;
 import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.apache.pulsar.client.admin.Topics;
 import org.apache.pulsar.client.api.AuthenticationFactory;
 import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.PulsarClientException;
@@ -31,14 +37,22 @@ import org.apache.pulsar.common.partition.PartitionedTopicMetadata;
 import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
 import org.apache.pulsar.manager.entity.TopicStatsEntity;
 import org.apache.pulsar.manager.entity.TopicStatsEntity.TopicStatsSummary;
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
 import org.apache.pulsar.manager.entity.TopicsStatsRepository;
 import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.service.StatsSnapshotService;
 import org.apache.pulsar.manager.service.TopicsService;
+import org.apache.pulsar.manager.utils.AdminOperationUtil;
+import org.apache.pulsar.manager.utils.AsyncUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 
 @Service
 @Slf4j
@@ -46,20 +60,67 @@ public class TopicsServiceImpl implements TopicsService {
 
     public static final String PARTITIONED_TOPIC_SUFFIX = "-partition-";
 
+    private static final String SORT_BY_NAME = "name";
+
+    // sort parameter -> key of the topic stats entry
+    private static final Map<String, String> SORT_KEYS = ImmutableMap.of(
+            "msgRateIn", "inMsg",
+            "storageSize", "storageSize");
+
     @Value("${backend.directRequestBroker}")
     private boolean directRequestBroker;
 
+    @Value("${admin.requests.max.in.flight:32}")
+    private int maxInFlightRequests;
+
     private final TopicsStatsRepository topicsStatsRepository;
 
     private final PulsarAdminService pulsarAdminService;
 
+    private final StatsSnapshotService statsSnapshotService;
+
+    @Value("${partitioned.metadata.cache.seconds:60}")
+    private long partitionedMetadataCacheSeconds;
+
+    @Value("${partitioned.metadata.cache.size:100000}")
+    private long partitionedMetadataCacheSize;
+
+    // service url + partitioned topic -> number of partitions
+    private Cache<String, Integer> partitionedTopicMetadataCache;
+
+    @Value("${topics.list.cache.seconds:30}")
+    private long topicListCacheSeconds;
+
+    @Value("${topics.list.cache.size:10000}")
+    private long topicListCacheSize;
+
+    // service url + tenant/namespace -> topic lists of the namespace
+    private Cache<String, NamespaceTopicLists> topicListCache;
+
     @Autowired
-    public TopicsServiceImpl(TopicsStatsRepository topicsStatsRepository, PulsarAdminService pulsarAdminService) {
+    public TopicsServiceImpl(TopicsStatsRepository topicsStatsRepository,
+                             PulsarAdminService pulsarAdminService,
+                             StatsSnapshotService statsSnapshotService) {
         this.topicsStatsRepository = topicsStatsRepository;
         this.pulsarAdminService = pulsarAdminService;
+        this.statsSnapshotService = statsSnapshotService;
     }
 
-    private boolean isPartitionedTopic(List<String> topics, String topic) {
+    @PostConstruct
+    public void init() {
+        partitionedTopicMetadataCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(partitionedMetadataCacheSeconds, TimeUnit.SECONDS)
+                .maximumSize(partitionedMetadataCacheSize)
+                .recordStats()
+                .build();
+        topicListCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(topicListCacheSeconds, TimeUnit.SECONDS)
+                .maximumSize(topicListCacheSize)
+                .recordStats()
+                .build();
+    }
+
+    private boolean isPartitionedTopic(Collection<String> topics, String topic) {
         if (topic.contains(PARTITIONED_TOPIC_SUFFIX)) {
             String[] t = topic.split(PARTITIONED_TOPIC_SUFFIX);
             if (topics != null && topics.contains(t[0])) {
@@ -86,41 +147,83 @@ public class TopicsServiceImpl implements TopicsService {
         return topicsMap;
     }
 
+    public Map<String, Object> getTopicStatsPage(
+            Integer pageNum,
+            Integer pageSize,
+            String sort,
+            String order,
+            String tenant,
+            String namespace,
+            String env,
+            String serviceUrl) {
+        List<Map<String, String>> allTopics = this.getTopicsList(tenant, namespace, serviceUrl);
+        boolean descending = "desc".equals(order);
+        Comparator<Map<String, ?>> comparator = topicComparator(sort, descending);
+        List<Map<String, Object>> topicsPage;
+        if (SORT_BY_NAME.equals(sort)) {
+            // The cached listing is already sorted by name, only the topics of the page need their stats
+            topicsPage = this.getTopicsStatsList(env, tenant, namespace,
+                    pageOf(descending ? Lists.reverse(allTopics) : allTopics, pageNum, pageSize));
+            topicsPage.sort(comparator);
+        } else {
+            List<Map<String, Object>> allTopicsStats = this.getTopicsStatsList(env, tenant, namespace, allTopics);
+            allTopicsStats.sort(comparator);
+            topicsPage = pageOf(allTopicsStats, pageNum, pageSize);
+        }
+        return buildTopicsPage(topicsPage, allTopics.size(), pageNum, pageSize);
+    }
+
     private List<Map<String, Object>> getTopicStats(
             String env, String tenant, String namespace, String requestHost) {
+        return this.getTopicsStatsList(env, tenant, namespace, this.getTopicsList(tenant, namespace, requestHost));
+    }
+
+    private List<Map<String, Object>> getTopicsStatsList(String env,
+                                                         String tenant,
+                                                         String namespace,
+                                                         List<Map<String, String>> topics) {
         List<Map<String, Object>> result = new ArrayList<>();
+        for (TopicDomain domain : new TopicDomain[] { TopicDomain.persistent, TopicDomain.non_persistent }) {
+            String persistent = domain.toString();
+            List<Map<String, String>> domainTopics = new ArrayList<>();
+            for (Map<String, String> topic : topics) {
+                if (persistent.equals(topic.get("persistent"))) {
+                    domainTopics.add(topic);
+                }
+            }
+            result.addAll(this.getTopicsStatsList(env, tenant, namespace, persistent, domainTopics));
+        }
+        return result;
+    }
 
-        Map<String, List<String>> allTopics
-                = this.getTopicListByPulsarAdmin(tenant, namespace, requestHost);
-        Map<String, List<String>> allPartitionedTopics
-                = this.getPartitionedTopicListByPulsarAdmin(tenant, namespace, requestHost);
+    private static Comparator<Map<String, ?>> topicComparator(String sort, boolean descending) {
+        Comparator<Map<String, ?>> byName = Comparator
+                .comparing((Map<String, ?> topic) -> String.valueOf(topic.get("topic")))
+                .thenComparing((topic) -> String.valueOf(topic.get("persistent")));
+        Comparator<Map<String, ?>> comparator = byName;
+        String statsKey = SORT_KEYS.get(sort);
+        if (statsKey != null) {
+            comparator = Comparator
+                    .comparingDouble((Map<String, ?> topic) -> ((Number) topic.get(statsKey)).doubleValue())
+                    .thenComparing(byName);
+        }
+        return descending ? comparator.reversed() : comparator;
+    }
 
-        result.addAll(this.getTopicsStatsList(
-                env,
-                tenant,
-                namespace,
-                TopicDomain.persistent.toString(),
-                this.convertTopicList(
-                        allTopics.get(TopicDomain.persistent.toString()),
-                        allPartitionedTopics.get(TopicDomain.persistent.toString()),
-                        TopicDomain.persistent.toString(),
-                        requestHost
-                )
-        ));
-        result.addAll(this.getTopicsStatsList(
-                env,
-                tenant,
-                namespace,
-                TopicDomain.non_persistent.toString(),
-                this.convertTopicList(
-                        allTopics.get(TopicDomain.non_persistent.toString()),
-                        allPartitionedTopics.get(TopicDomain.non_persistent.toString()),
-                        TopicDomain.non_persistent.toString(),
-                        requestHost
-                )
-        ));
+    private static <T> List<T> pageOf(List<T> items, int pageNum, int pageSize) {
+        int from = (int) Math.min((long) (pageNum - 1) * pageSize, items.size());
+        int to = Math.min(from + pageSize, items.size());
+        return new ArrayList<>(items.subList(from, to));
+    }
 
-        return result;
+    private static Map<String, Object> buildTopicsPage(List<?> topics, int total, int pageNum, int pageSize) {
+        Map<String, Object> topicsMap = Maps.newHashMap();
+        topicsMap.put("topics", topics);
+        topicsMap.put("isPage", true);
+        topicsMap.put("total", total);
+        topicsMap.put("pageNum", pageNum);
+        topicsMap.put("pageSize", pageSize);
+        return topicsMap;
     }
 
     public List<Map<String, Object>> getTopicsStatsList(String env,
@@ -144,19 +247,27 @@ public class TopicsServiceImpl implements TopicsService {
                 topicList.add(topicName);
             }
         }
-        Optional<TopicStatsEntity> topicStatsEntity = topicsStatsRepository.findMaxTime();
         Map<String, Map<String, TopicStatsEntity>> tempTopicsMap = new HashMap<>();
-        if (topicStatsEntity.isPresent()) {
-            TopicStatsEntity topicStats = topicStatsEntity.get();
-            Page<TopicStatsEntity> topicCountPage = topicsStatsRepository.findByMultiTopic(
-                    1, 1, env, tenant, namespace, persistent, topicList, topicStats.getTime_stamp());
-            topicCountPage.count(true);
-            Page<TopicStatsEntity> topicStatsEntities = topicsStatsRepository.findByMultiTopic(
-                    0, (int) topicCountPage.getTotal(), env, tenant, namespace, persistent, topicList, topicStats.getTime_stamp());
-            topicStatsEntities.getResult().forEach((t) -> {
-                tempTopicsMap.computeIfAbsent(t.getTopic(), (ignored) -> new HashMap<>())
-                    .put(t.getCluster(), t);
-            });
+        Optional<TopicStatsSnapshot> snapshot = statsSnapshotService.getLatestSnapshot();
+        if (snapshot.isPresent()) {
+            for (String topicName : topicList) {
+                Map<String, TopicStatsEntity> clusters = snapshot.get().findByTopic(
+                        env, tenant, namespace, persistent, topicName);
+                if (clusters != null) {
+                    tempTopicsMap.put(topicName, clusters);
+                }
+            }
+        } else {
+            Optional<TopicStatsEntity> topicStatsEntity = topicsStatsRepository.findMaxTime();
+            if (topicStatsEntity.isPresent()) {
+                TopicStatsEntity topicStats = topicStatsEntity.get();
+                List<TopicStatsEntity> topicStatsEntities = topicsStatsRepository.findByMultiTopic(
+                        env, tenant, namespace, persistent, topicList, topicStats.getTime_stamp());
+                topicStatsEntities.forEach((t) -> {
+                    tempTopicsMap.computeIfAbsent(t.getTopic(), (ignored) -> new HashMap<>())
+                        .put(t.getCluster(), t);
+                });
+            }
         }
         for (Map<String, String> topic: topics) {
             String topicName = topic.get("topic");
@@ -227,6 +338,80 @@ public class TopicsServiceImpl implements TopicsService {
         return topicsMap;
     }
 
+    public CompletableFuture<Integer> getTopicCountAsync(String tenant, String namespace, String requestHost) {
+        String cacheKey = topicListCacheKey(requestHost, tenant, namespace);
+        NamespaceTopicLists cached = topicListCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.countTopics());
+        }
+        Topics topics = pulsarAdminService.topics(requestHost);
+        CompletableFuture<List<String>> topicList = topics.getListAsync(tenant + "/" + namespace)
+                .exceptionally((e) -> {
+                    throw AdminOperationUtil.operationFailure("Failed to get topic list.", e);
+                });
+        CompletableFuture<List<String>> partitionedTopicList = topics.getPartitionedTopicListAsync(
+                tenant + "/" + namespace)
+                .exceptionally((e) -> {
+                    throw AdminOperationUtil.operationFailure("Failed to get partitioned topic list.", e);
+                });
+        return topicList.thenCombine(partitionedTopicList, (allTopics, partitionedTopics) -> {
+            NamespaceTopicLists topicLists = new NamespaceTopicLists(allTopics, partitionedTopics);
+            topicListCache.put(cacheKey, topicLists);
+            return topicLists.countTopics();
+        });
+    }
+
+    public void invalidateTopicList(String tenant, String namespace) {
+        String namespaceKey = " " + tenant + "/" + namespace;
+        topicListCache.asMap().keySet().removeIf((key) -> key.endsWith(namespaceKey));
+        String topicPrefix = "://" + tenant + "/" + namespace + "/";
+        partitionedTopicMetadataCache.asMap().keySet().removeIf((key) -> key.contains(topicPrefix));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> cacheStats = Maps.newHashMap();
+        cacheStats.put("topicList", toMap(topicListCache));
+        cacheStats.put("partitionedTopicMetadata", toMap(partitionedTopicMetadataCache));
+        return cacheStats;
+    }
+
+    private static Map<String, Object> toMap(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> statsMap = Maps.newHashMap();
+        statsMap.put("size", cache.size());
+        statsMap.put("hitCount", stats.hitCount());
+        statsMap.put("missCount", stats.missCount());
+        statsMap.put("hitRate", stats.hitRate());
+        statsMap.put("evictionCount", stats.evictionCount());
+        return statsMap;
+    }
+
+    private static String topicListCacheKey(String requestHost, String tenant, String namespace) {
+        return requestHost + " " + tenant + "/" + namespace;
+    }
+
+    private NamespaceTopicLists getNamespaceTopicLists(String tenant, String namespace, String requestHost) {
+        try {
+            return topicListCache.get(topicListCacheKey(requestHost, tenant, namespace), () -> new NamespaceTopicLists(
+                    this.getTopicListByPulsarAdmin(tenant, namespace, requestHost),
+                    this.getPartitionedTopicListByPulsarAdmin(tenant, namespace, requestHost)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            PulsarAdminOperationException pulsarAdminOperationException
+                    = new PulsarAdminOperationException("Failed to get topic list.");
+            log.error(pulsarAdminOperationException.getMessage(), e);
+            throw pulsarAdminOperationException;
+        }
+    }
+
+    public Map<String, Object> getTopicsPage(
+            Integer pageNum, Integer pageSize, String tenant, String namespace, String requestHost) {
+        List<Map<String, String>> allTopics = this.getTopicsList(tenant, namespace, requestHost);
+        return buildTopicsPage(pageOf(allTopics, pageNum, pageSize), allTopics.size(), pageNum, pageSize);
+    }
+
     @Override
     public List<Map<String, Object>> peekMessages(String persistent,
                                                   String tenant,
@@ -269,14 +454,19 @@ public class TopicsServiceImpl implements TopicsService {
         return mapList;
     }
 
+    /**
+     * Topics of a namespace sorted by name, built once per cached topic list and shared by the requests.
+     */
     private List<Map<String, String>> getTopicsList(
             String tenant, String namespace, String requestHost) {
+        return this.getNamespaceTopicLists(tenant, namespace, requestHost).sortedTopics(requestHost);
+    }
+
+    private List<Map<String, String>> convertTopicLists(NamespaceTopicLists topicLists, String requestHost) {
         List<Map<String, String>> result = new ArrayList<>();
 
-        Map<String, List<String>> allTopics
-                = this.getTopicListByPulsarAdmin(tenant, namespace, requestHost);
-        Map<String, List<String>> allPartitionedTopics
-                = this.getPartitionedTopicListByPulsarAdmin(tenant, namespace, requestHost);
+        Map<String, List<String>> allTopics = parseTopics(topicLists.topics);
+        Map<String, List<String>> allPartitionedTopics = parseTopics(topicLists.partitionedTopics);
 
         result.addAll(this.convertTopicList(
                 allTopics.get(TopicDomain.persistent.toString()),
@@ -298,62 +488,83 @@ public class TopicsServiceImpl implements TopicsService {
             List<String> topics, List<String> partitionedTopics, String persistent, String requestHost) {
         List<Map<String, String>> topicsArray = new ArrayList<>();
 
-        Map<String, List<String>> partitionedMap = Maps.newHashMap();
+        Set<String> partitionedSet = new HashSet<>();
+        List<String> domainPartitionedTopics = new ArrayList<>();
         for (String p : partitionedTopics) {
             if (p.startsWith(persistent)) {
-                partitionedMap.put(this.getTopicName(p), new ArrayList<>());
+                partitionedSet.add(p);
+                domainPartitionedTopics.add(p);
             }
         }
 
         for (String topic: topics) {
-            if (topic.startsWith(persistent)) {
-                String topicName = this.getTopicName(topic);
+            // Partitions are reported through their partitioned topic
+            if (topic.startsWith(persistent) && !isPartitionedTopic(partitionedSet, topic)) {
                 Map<String, String> topicEntity = Maps.newHashMap();
-                if (isPartitionedTopic(partitionedTopics, topic)) {
-                    String[] name = topicName.split(PARTITIONED_TOPIC_SUFFIX);
-                    partitionedMap.get(name[0]).add(topicName);
-                } else {
-                    topicEntity.put("topic", topicName);
-                    topicEntity.put("partitions", "0");
-                    topicEntity.put("persistent", persistent);
-                    topicsArray.add(topicEntity);
-                }
+                topicEntity.put("topic", this.getTopicName(topic));
+                topicEntity.put("partitions", "0");
+                topicEntity.put("persistent", persistent);
+                topicsArray.add(topicEntity);
             }
         }
 
-        for (String s : partitionedTopics) {
-            String topicName = this.getTopicName(s);
+        // Partitions are created lazily, the topic list can miss some of them: the metadata is authoritative
+        Map<String, Integer> partitionedTopicMetadata = this.getPartitionedTopicMetadata(
+                domainPartitionedTopics, requestHost);
+
+        for (String s : domainPartitionedTopics) {
             Map<String, String> topicEntity = Maps.newHashMap();
-            List<String> partitionedTopicList = partitionedMap.get(s);
-            if (partitionedTopicList != null && partitionedTopicList.size() > 0) {
-                topicEntity.put("topic", topicName);
-                topicEntity.put("partitions", String.valueOf(partitionedTopicList.size()));
-                topicEntity.put("persistent", persistent);
-            } else {
-                topicEntity.put("topic", topicName);
-                PartitionedTopicMetadata partitionedTopicMetadata
-                        = this.getPartitionedTopicMetadataByPulsarAdmin(s, requestHost);
-                topicEntity.put("partitions", String.valueOf(partitionedTopicMetadata.partitions));
-                topicEntity.put("persistent", persistent);
-            }
+            topicEntity.put("topic", this.getTopicName(s));
+            topicEntity.put("partitions", String.valueOf(partitionedTopicMetadata.get(s)));
+            topicEntity.put("persistent", persistent);
             topicsArray.add(topicEntity);
         }
         return topicsArray;
     }
 
+    /**
+     * Number of partitions of partitioned topics, from the cache or from concurrent admin calls.
+     */
+    private Map<String, Integer> getPartitionedTopicMetadata(List<String> partitionedTopics, String requestHost) {
+        Map<String, Integer> result = Maps.newHashMap();
+        List<String> missing = new ArrayList<>();
+        for (String topic : partitionedTopics) {
+            Integer partitions = partitionedTopicMetadataCache.getIfPresent(requestHost + " " + topic);
+            if (partitions != null) {
+                result.put(topic, partitions);
+            } else {
+                missing.add(topic);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Topics topics = pulsarAdminService.topics(requestHost);
+        List<PartitionedTopicMetadata> metadataList = AsyncUtil.join(AsyncUtil.mapAsync(missing, maxInFlightRequests,
+                (topic) -> topics.getPartitionedTopicMetadataAsync(topic)
+                        .exceptionally((e) -> {
+                            throw AdminOperationUtil.operationFailure("Failed to get partitioned topic metadata.", e);
+                        })));
+        for (int i = 0; i < missing.size(); i++) {
+            String topic = missing.get(i);
+            int partitions = metadataList.get(i).partitions;
+            partitionedTopicMetadataCache.put(requestHost + " " + topic, partitions);
+            result.put(topic, partitions);
+        }
+        return result;
+    }
+
     private String getTopicName(String topic) {
         String tntPath = topic.split("://")[1];
         String topicName = tntPath.split("/")[2];
         return topicName;
     }
 
-    private Map<String, List<String>> getTopicListByPulsarAdmin(
+    private List<String> getTopicListByPulsarAdmin(
             String tenant, String namespace, String requestHost) {
         try {
-            return parseTopics(
-                    pulsarAdminService.topics(requestHost).
-                            getList(tenant + "/" + namespace)
-            );
+            return pulsarAdminService.topics(requestHost).
+                    getList(tenant + "/" + namespace);
         } catch (PulsarAdminException e) {
             PulsarAdminOperationException pulsarAdminOperationException
                     = new PulsarAdminOperationException("Failed to get topic list.");
@@ -362,29 +573,14 @@ public class TopicsServiceImpl implements TopicsService {
         }
     }
 
-    private Map<String, List<String>> getPartitionedTopicListByPulsarAdmin(
+    private List<String> getPartitionedTopicListByPulsarAdmin(
             String tenant, String namespace, String requestHost) {
-        try {
-            return parseTopics(
-                    pulsarAdminService.topics(requestHost).
-                            getPartitionedTopicList(tenant + "/" + namespace)
-            );
-        } catch (PulsarAdminException e) {
-            PulsarAdminOperationException pulsarAdminOperationException
-                    = new PulsarAdminOperationException("Failed to get partitioned topic list.");
-            log.error(pulsarAdminOperationException.getMessage(), e);
-            throw pulsarAdminOperationException;
-        }
-    }
-
-    private PartitionedTopicMetadata getPartitionedTopicMetadataByPulsarAdmin(
-            String topic, String requestHost) {
         try {
             return pulsarAdminService.topics(requestHost).
-                    getPartitionedTopicMetadata(topic);
+                    getPartitionedTopicList(tenant + "/" + namespace);
         } catch (PulsarAdminException e) {
             PulsarAdminOperationException pulsarAdminOperationException
-                    = new PulsarAdminOperationException("Failed to get partitioned topic metadata.");
+                    = new PulsarAdminOperationException("Failed to get partitioned topic list.");
             log.error(pulsarAdminOperationException.getMessage(), e);
             throw pulsarAdminOperationException;
         }
@@ -408,4 +604,52 @@ public class TopicsServiceImpl implements TopicsService {
         result.put(TopicDomain.non_persistent.toString(), nonPersistentTopics);
         return result;
     }
+
+    /**
+     * Topic lists of a namespace as returned by the broker, shared by the listing and the counting of topics.
+     */
+    private final class NamespaceTopicLists {
+
+        private final List<String> topics;
+        private final List<String> partitionedTopics;
+
+        // Converted and sorted by name on first use, read only
+        private volatile List<Map<String, String>> sortedTopics;
+
+        private NamespaceTopicLists(List<String> topics, List<String> partitionedTopics) {
+            this.topics = topics;
+            this.partitionedTopics = partitionedTopics;
+        }
+
+        private List<Map<String, String>> sortedTopics(String requestHost) {
+            List<Map<String, String>> result = sortedTopics;
+            if (result == null) {
+                synchronized (this) {
+                    result = sortedTopics;
+                    if (result == null) {
+                        List<Map<String, String>> converted = convertTopicLists(this, requestHost);
+                        converted.sort(topicComparator(SORT_BY_NAME, false));
+                        List<Map<String, String>> readOnly = new ArrayList<>(converted.size());
+                        for (Map<String, String> topic : converted) {
+                            readOnly.add(Collections.unmodifiableMap(topic));
+                        }
+                        result = Collections.unmodifiableList(readOnly);
+                        sortedTopics = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int countTopics() {
+            Set<String> partitionedTopicSet = new HashSet<>(partitionedTopics);
+            int count = partitionedTopicSet.size();
+            for (String topic : topics) {
+                if (!isPartitionedTopic(partitionedTopicSet, topic)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
 }
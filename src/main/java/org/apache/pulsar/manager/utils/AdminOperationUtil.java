@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
+
+/**
+ * Helpers to report failed admin calls, mostly from the callbacks of asynchronous calls.
+ */
+@Slf4j
+public final class AdminOperationUtil {
+
+    private AdminOperationUtil() {
+    }
+
+    /**
+     * Log the cause of a failed admin call and build the exception returned to the caller.
+     */
+    public static PulsarAdminOperationException operationFailure(String message, Throwable e) {
+        PulsarAdminOperationException pulsarAdminOperationException = new PulsarAdminOperationException(message);
+        log.error(pulsarAdminOperationException.getMessage(), e);
+        return pulsarAdminOperationException;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Helpers to fan out asynchronous admin calls.
+ */
+public final class AsyncUtil {
+
+    private AsyncUtil() {
+    }
+
+    /**
+     * Apply an asynchronous call to every item, with at most maxInFlight calls running at the same time.
+     * The results keep the order of the items, the first failure fails the returned future.
+     */
+    public static <T, R> CompletableFuture<List<R>> mapAsync(List<T> items,
+                                                             int maxInFlight,
+                                                             Function<? super T, CompletableFuture<R>> call) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        BoundedFanOut<T, R> fanOut = new BoundedFanOut<>(items, call);
+        int lanes = Math.min(Math.max(1, maxInFlight), items.size());
+        for (int i = 0; i < lanes; i++) {
+            fanOut.startNext();
+        }
+        return fanOut.result;
+    }
+
+    /**
+     * Wait for a future, rethrowing the runtime exception it failed with instead of a CompletionException.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class BoundedFanOut<T, R> {
+
+        private final List<T> items;
+        private final Function<? super T, CompletableFuture<R>> call;
+        private final AtomicReferenceArray<R> values;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+
+        private BoundedFanOut(List<T> items, Function<? super T, CompletableFuture<R>> call) {
+            this.items = items;
+            this.call = call;
+            this.values = new AtomicReferenceArray<>(items.size());
+            this.remaining = new AtomicInteger(items.size());
+        }
+
+        private void startNext() {
+            // Calls which complete right away are handled in this loop rather than by recursion
+            while (!result.isDone()) {
+                int index = next.getAndIncrement();
+                if (index >= items.size()) {
+                    return;
+                }
+                CompletableFuture<R> future;
+                try {
+                    future = call.apply(items.get(index));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                    return;
+                }
+                if (!future.isDone()) {
+                    future.whenComplete((value, e) -> {
+                        if (complete(index, value, e)) {
+                            startNext();
+                        }
+                    });
+                    return;
+                }
+                R value = null;
+                Throwable failure = null;
+                try {
+                    value = future.join();
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                if (!complete(index, value, failure)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean complete(int index, R value, Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+                return false;
+            }
+            values.set(index, value);
+            if (remaining.decrementAndGet() == 0) {
+                List<R> list = new ArrayList<>(values.length());
+                for (int i = 0; i < values.length(); i++) {
+                    list.add(values.get(i));
+                }
+                result.complete(list);
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -13,7 +13,11 @@
  */
 package org.apache.pulsar.manager.utils;
 
+import com.google.common.collect.Maps;
+import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -26,23 +30,37 @@ import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContexts;
-import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * http client class, to get info from pulsar broker
@@ -51,6 +69,8 @@ import java.util.Map;
 @Slf4j
 public class HttpUtil {
 
+    private static final Gson GSON = new Gson();
+
     private static boolean tlsEnabled;
 
     private static String tlsKeystore;
@@ -59,14 +79,34 @@ public class HttpUtil {
 
     private static boolean tlsHostnameVerifier;
 
-    private static CloseableHttpClient httpClient;
+    private static volatile CloseableHttpClient httpClient;
+
+    private static int maxTotal = 100;
+
+    private static int maxPerRoute = 10;
+
+    private static int connectTimeoutMs = 5 * 1000;
+
+    private static int socketTimeoutMs = 28 * 1000;
+
+    private static int connectionRequestTimeoutMs = 5 * 1000;
+
+    private static long idleTimeoutMs = 30 * 1000;
 
-    private static int CONNECTION_TIMEOUT = 28 * 1000;
+    private static long keepAliveMs = 30 * 1000;
 
-    private static int SO_TIMEOUT = 28 * 1000;
+    private static int validateAfterInactivityMs = 2 * 1000;
 
     public static PoolingHttpClientConnectionManager cm = null;
 
+    /**
+     * Reads the body of a successful response.
+     */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(Reader reader) throws IOException;
+    }
+
     @Value("${tls.enabled}")
     public void setTlsEnabled(boolean tlsEnabled) {
         HttpUtil.tlsEnabled = tlsEnabled;
@@ -87,8 +127,62 @@ public class HttpUtil {
         HttpUtil.tlsHostnameVerifier = tlsHostnameVerifier;
     }
 
-    public static void initHttpClient() {
+    @Value("${http.client.max.total:100}")
+    public void setMaxTotal(int maxTotal) {
+        HttpUtil.maxTotal = maxTotal;
+    }
+
+    @Value("${http.client.max.per.route:10}")
+    public void setMaxPerRoute(int maxPerRoute) {
+        HttpUtil.maxPerRoute = maxPerRoute;
+    }
+
+    @Value("${http.client.connect.timeout.ms:5000}")
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        HttpUtil.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    @Value("${http.client.socket.timeout.ms:28000}")
+    public void setSocketTimeoutMs(int socketTimeoutMs) {
+        HttpUtil.socketTimeoutMs = socketTimeoutMs;
+    }
+
+    @Value("${http.client.connection.request.timeout.ms:5000}")
+    public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) {
+        HttpUtil.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+    }
+
+    @Value("${http.client.idle.timeout.ms:30000}")
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        HttpUtil.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @Value("${http.client.keep.alive.ms:30000}")
+    public void setKeepAliveMs(long keepAliveMs) {
+        HttpUtil.keepAliveMs = keepAliveMs;
+    }
+
+    @Value("${http.client.validate.after.inactivity.ms:2000}")
+    public void setValidateAfterInactivityMs(int validateAfterInactivityMs) {
+        HttpUtil.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        initHttpClient();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        closeHttpClient();
+    }
+
+    public static synchronized void initHttpClient() {
+        if (httpClient != null) {
+            return;
+        }
         try {
+            PoolingHttpClientConnectionManager connectionManager;
             if (tlsEnabled) {
                 Resource resource = new FileSystemResource(tlsKeystore);
                 File trustStoreFile = resource.getFile();
@@ -110,31 +204,130 @@ public class HttpUtil {
                         .build();
 
                 SSLConnectionSocketFactory sslsf = new SSLConnectionSocketFactory(sslcontext, hostnameVerifier);
-                cm = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
                         .register("http", PlainConnectionSocketFactory.getSocketFactory())
                         .register("https", sslsf)
                         .build());
             } else {
-                cm = new PoolingHttpClientConnectionManager();
+                connectionManager = new PoolingHttpClientConnectionManager();
             }
 
-            cm.setDefaultMaxPerRoute(10);
-            cm.setMaxTotal(100);
-            RequestConfig config = RequestConfig.custom().setConnectTimeout(CONNECTION_TIMEOUT)
-                    .setSocketTimeout(SO_TIMEOUT).build();
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setMaxTotal(maxTotal);
+            // Connections unused for a while are checked before being leased, the bookie may have closed them
+            connectionManager.setValidateAfterInactivity(validateAfterInactivityMs);
+            RequestConfig config = RequestConfig.custom()
+                    .setConnectTimeout(connectTimeoutMs)
+                    .setSocketTimeout(socketTimeoutMs)
+                    .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                    .build();
+            cm = connectionManager;
             httpClient = HttpClients.custom()
-                    .setConnectionManager(cm).setDefaultRequestConfig(config).build();
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(config)
+                    .setKeepAliveStrategy((response, context) -> {
+                        long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                                .getKeepAliveDuration(response, context);
+                        return keepAlive > 0 ? Math.min(keepAlive, keepAliveMs) : keepAliveMs;
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                    .build();
 
         } catch (Exception e) {
             log.error("Failed init http client error message: {}, error stack trace: {}", e.getMessage(), e.getCause());
         }
     }
 
+    public static synchronized void closeHttpClient() {
+        if (httpClient == null) {
+            return;
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.error("Failed close http client error message: {}", e.getMessage());
+        }
+        httpClient = null;
+        cm = null;
+    }
+
+    private static CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            initHttpClient();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Usage of the connection pool.
+     * @return leased, pending, available and max connections, in total and per route
+     */
+    public static Map<String, Object> getPoolStats() {
+        Map<String, Object> poolStats = Maps.newHashMap();
+        PoolingHttpClientConnectionManager connectionManager = cm;
+        if (connectionManager == null) {
+            return poolStats;
+        }
+        poolStats.put("total", toMap(connectionManager.getTotalStats()));
+        Map<String, Object> routeStats = Maps.newHashMap();
+        connectionManager.getRoutes().forEach(route ->
+                routeStats.put(route.getTargetHost().toURI(), toMap(connectionManager.getStats(route))));
+        poolStats.put("routes", routeStats);
+        return poolStats;
+    }
+
+    private static Map<String, Object> toMap(PoolStats stats) {
+        Map<String, Object> statsMap = Maps.newHashMap();
+        statsMap.put("leased", stats.getLeased());
+        statsMap.put("pending", stats.getPending());
+        statsMap.put("available", stats.getAvailable());
+        statsMap.put("max", stats.getMax());
+        return statsMap;
+    }
+
     public static String doGet(String url, Map<String, String> header){
         HttpGet request = new HttpGet(url);
         return httpRequest(request, header);
     }
 
+    /**
+     * HTTP get method which parses the JSON response body while it is read from the connection.
+     * @param url Destination host
+     * @param header Header information
+     * @param type Type of the response body
+     * @return HTTP response body, null if the request fails
+     */
+    public static <T> T doGet(String url, Map<String, String> header, Type type) {
+        HttpGet request = new HttpGet(url);
+        return httpRequest(request, header, type);
+    }
+
+    /**
+     * HTTP get method which hands the response body over as a stream, so that large documents
+     * never have to be held in memory. Closing the stream after the end of the body releases the
+     * connection to the pool; closing it earlier aborts the request and drops the connection
+     * instead of draining the rest of the body. The stream may be closed from another thread to
+     * abort a read that is blocked on the socket.
+     * @param url Destination host
+     * @param header Header information
+     * @return HTTP response body
+     * @throws IOException if the request fails or the response status is not 200
+     */
+    public static InputStream doGetStream(String url, Map<String, String> header) throws IOException {
+        HttpGet request = new HttpGet(url);
+        for (Map.Entry<String, String> entry: header.entrySet()) {
+            request.setHeader(entry.getKey(), entry.getValue());
+        }
+        CloseableHttpResponse response = getHttpClient().execute(request);
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode != HttpStatus.SC_OK || response.getEntity() == null) {
+            response.close();
+            throw new IOException("Unexpected response status " + statusCode + " from " + url);
+        }
+        return new AbortOnCloseInputStream(response.getEntity().getContent(), request, response);
+    }
+
     /**
      * HTTP post method.
      * @param url Destination host
@@ -150,6 +343,22 @@ public class HttpUtil {
         return httpRequest(request, header);
     }
 
+    /**
+     * HTTP post method which parses the JSON response body while it is read from the connection.
+     * @param url Destination host
+     * @param header Header information
+     * @param body Body information
+     * @param type Type of the response body
+     * @return HTTP response body, null if the request fails
+     * @throws UnsupportedEncodingException
+     */
+    public static <T> T doPost(String url, Map<String, String> header, String body, Type type)
+            throws UnsupportedEncodingException {
+        HttpPost request = new HttpPost(url);
+        request.setEntity(new StringEntity(body));
+        return httpRequest(request, header, type);
+    }
+
     public static String doPut(String url, Map<String, String> header, String body)
             throws UnsupportedEncodingException {
         HttpPut request = new HttpPut(url);
@@ -158,20 +367,28 @@ public class HttpUtil {
     }
 
     public static String httpRequest(HttpUriRequest request, Map<String, String> header) {
+        return execute(request, header, CharStreams::toString);
+    }
+
+    public static <T> T httpRequest(HttpUriRequest request, Map<String, String> header, Type type) {
+        return execute(request, header, reader -> GSON.fromJson(reader, type));
+    }
+
+    private static <T> T execute(HttpUriRequest request, Map<String, String> header, BodyReader<T> bodyReader) {
         CloseableHttpResponse response = null;
         try {
             for (Map.Entry<String, String> entry: header.entrySet()) {
                 request.setHeader(entry.getKey(), entry.getValue());
             }
-            if (httpClient == null ) {
-                initHttpClient();
-            }
-            response = httpClient.execute(request);
+            response = getHttpClient().execute(request);
 
-            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
-                String strResult = EntityUtils.toString(response.getEntity());
-                response.close();
-                return strResult;
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK && entity != null) {
+                Charset charset = ContentType.getOrDefault(entity).getCharset();
+                try (Reader reader = new InputStreamReader(
+                        entity.getContent(), charset != null ? charset : StandardCharsets.UTF_8)) {
+                    return bodyReader.read(reader);
+                }
             } else {
                 request.abort();
             }
@@ -191,4 +408,55 @@ public class HttpUtil {
 
         return null;
     }
+
+    private static final class AbortOnCloseInputStream extends FilterInputStream {
+
+        private final HttpGet request;
+        private final CloseableHttpResponse response;
+        private volatile boolean eof;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private AbortOnCloseInputStream(InputStream in, HttpGet request, CloseableHttpResponse response) {
+            super(in);
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                eof = true;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+                eof = true;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (eof) {
+                try {
+                    super.close();
+                } finally {
+                    response.close();
+                }
+                return;
+            }
+            // Closing the entity content would read the remaining body to keep the connection,
+            // abort instead so that the socket is shut down without draining it
+            request.abort();
+            response.close();
+        }
+    }
 }
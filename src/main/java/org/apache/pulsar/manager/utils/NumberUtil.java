@@ -0,0 +1,34 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+/**
+ * Numeric helpers for stats ingestion.
+ */
+public final class NumberUtil {
+
+    private NumberUtil() {
+    }
+
+    /**
+     * Round to two decimal places, as DecimalFormat("#.##") does, without going through a String.
+     * NaN and infinite values are returned unchanged.
+     */
+    public static double round2(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        return Math.rint(value * 100) / 100;
+    }
+}
@@ -22,11 +22,7 @@ import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.pulsar.manager.service.EnvironmentCacheService;
-import org.apache.pulsar.manager.service.PulsarAdminService;
-import org.apache.pulsar.manager.service.PulsarEvent;
-import org.apache.pulsar.manager.service.RolesService;
+import org.apache.pulsar.manager.proxy.ProxyRouting;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
 import org.springframework.stereotype.Component;
@@ -41,22 +37,11 @@ import static org.springframework.cloud.netflix.zuul.filters.support.FilterConst
 @Slf4j
 public class EnvironmentForward extends ZuulFilter {
 
-    private final EnvironmentCacheService environmentCacheService;
-
-    private final PulsarEvent pulsarEvent;
-
-    private final RolesService rolesService;
-
-    private final PulsarAdminService pulsarAdminService;
+    private final ProxyRouting proxyRouting;
 
     @Autowired
-    public EnvironmentForward(
-            EnvironmentCacheService environmentCacheService, PulsarEvent pulsarEvent,
-            RolesService rolesService, PulsarAdminService pulsarAdminService) {
-        this.environmentCacheService = environmentCacheService;
-        this.pulsarEvent = pulsarEvent;
-        this.rolesService = rolesService;
-        this.pulsarAdminService = pulsarAdminService;
+    public EnvironmentForward(ProxyRouting proxyRouting) {
+        this.proxyRouting = proxyRouting;
     }
 
     @Override
@@ -79,63 +64,29 @@ public class EnvironmentForward extends ZuulFilter {
 
         RequestContext ctx = RequestContext.getCurrentContext();
         HttpServletRequest request = ctx.getRequest();
-        String redirect = request.getParameter("redirect");
 
         String requestUri = request.getServletPath();
-        request.getServletPath();
         String token = request.getHeader("token");
 
-        if (!rolesService.isSuperUser(token)) {
-            if (!pulsarEvent.validateRoutePermission(requestUri, token)) {
-                ctx.setResponseBody("This operation does not have permission");
-                return null;
-            }
-            if (requestUri.startsWith("/admin/v2/tenants/")
-                    || requestUri.startsWith("/admin/v2/namespaces")
-                    || requestUri.startsWith("/admin/v2/persistent")
-                    || requestUri.startsWith("/admin/v2/non-persistent")) {
-                Map<String, String> result = pulsarEvent.validateTenantPermission(
-                        requestUri, token);
-                if (result.get("error") != null) {
-                    log.error("This operation does not have permission");
-                    ctx.setResponseBody(result.get("error"));
-                    return null;
-                }
-            }
-        }
-
-        if (redirect != null && redirect.equals("true")) {
-            String redirectScheme = request.getParameter("redirect.scheme");
-            String redirectHost = request.getParameter("redirect.host");
-            String redirectPort = request.getParameter("redirect.port");
-            String url = redirectScheme + "://" + redirectHost + ":" + redirectPort;
-            return forwardRequest(ctx, request, url);
-        }
-
-        String broker = request.getHeader("x-pulsar-broker");
-        if (StringUtils.isNotBlank(broker)) { // the request should be forward to a pulsar broker
-            // TODO: support https://
-            String serviceUrl = "http://" + broker;
-            return forwardRequest(ctx, request, serviceUrl);
+        String error = proxyRouting.checkPermission(requestUri, token);
+        if (error != null) {
+            ctx.setResponseBody(error);
+            return null;
         }
 
-        String environment = request.getHeader("environment");
-        if (StringUtils.isBlank(environment)) {
+        String serviceUrl = proxyRouting.getServiceUrl(request);
+        if (serviceUrl == null) {
             return null;
         }
-        String serviceUrl = environmentCacheService.getServiceUrl(request);
         return forwardRequest(ctx, request, serviceUrl);
     }
 
     private Object forwardRequest(RequestContext ctx, HttpServletRequest request, String serviceUrl) {
         ctx.put(REQUEST_URI_KEY, request.getServletPath());
         try {
-            Map<String, String> authHeader = pulsarAdminService.getAuthHeader(serviceUrl);
-            authHeader.entrySet().forEach(entry -> ctx.addZuulRequestHeader(entry.getKey(), entry.getValue()));
             ctx.setRouteHost(new URL(serviceUrl));
-            pulsarEvent.parsePulsarEvent(request.getServletPath(), request);
-            log.info("Forward request to {} @ path {}",
-                    serviceUrl, request.getServletPath());
+            Map<String, String> authHeader = proxyRouting.prepareForward(request, serviceUrl);
+            authHeader.entrySet().forEach(entry -> ctx.addZuulRequestHeader(entry.getKey(), entry.getValue()));
         } catch (MalformedURLException e) {
             log.error("Route forward to {} path {} error: {}",
                     serviceUrl, request.getServletPath(), e.getMessage());
@@ -16,19 +16,14 @@ package org.apache.pulsar.manager.zuul;
 import com.netflix.util.Pair;
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.context.RequestContext;
+import org.apache.pulsar.manager.proxy.ProxyRouting;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.netflix.zuul.filters.Route;
 import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.UriComponents;
-import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.web.util.UrlPathHelper;
 
-import java.net.URI;
-
 import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.*;
 
 /**
@@ -39,20 +34,14 @@ public class LocationHeaderRewritingFilter extends ZuulFilter {
 
     private final UrlPathHelper urlPathHelper = new UrlPathHelper();
 
-    @Value("${redirect.scheme}")
-    private String scheme;
-
-    @Value("${redirect.host}")
-    private String host;
-
-    @Value("${redirect.port}")
-    private String port;
-
     private final RouteLocator routeLocator;
 
+    private final ProxyRouting proxyRouting;
+
     @Autowired
-    public LocationHeaderRewritingFilter(RouteLocator routeLocator) {
+    public LocationHeaderRewritingFilter(RouteLocator routeLocator, ProxyRouting proxyRouting) {
         this.routeLocator = routeLocator;
+        this.proxyRouting = proxyRouting;
     }
 
     @Override
@@ -83,25 +72,7 @@ public class LocationHeaderRewritingFilter extends ZuulFilter {
         if (route != null) {
             Pair<String, String> lh = locationHeader(ctx);
             if (lh != null) {
-                String location = lh.second();
-                URI originalRequestUri = UriComponentsBuilder
-                        .fromHttpRequest(new ServletServerHttpRequest(ctx.getRequest()))
-                        .build().toUri();
-                UriComponentsBuilder redirectedUriBuilder = UriComponentsBuilder
-                        .fromUriString(location);
-
-                UriComponents redirectedUriComps = redirectedUriBuilder.build();
-
-                String modifiedLocation = redirectedUriBuilder
-                        .scheme(scheme)
-                        .host(host)
-                        .port(port).replacePath(redirectedUriComps.getPath())
-                        .queryParam("redirect", true)
-                        .queryParam("redirect.scheme", redirectedUriComps.getScheme())
-                        .queryParam("redirect.host", redirectedUriComps.getHost())
-                        .queryParam("redirect.port", redirectedUriComps.getPort())
-                        .toUriString();
-                lh.setSecond(modifiedLocation);
+                lh.setSecond(proxyRouting.rewriteLocation(lh.second()));
             }
         }
         return null;
@@ -18,6 +18,8 @@ CREATE TABLE IF NOT EXISTS environments (
   broker varchar(1024) NOT NULL
 );
 
+-- The secondary indexes of the stats tables are created on startup by StatsIndexMigration,
+-- HerdDB has no CREATE INDEX IF NOT EXISTS and this script runs on every start.
 CREATE TABLE IF NOT EXISTS topics_stats (
   topic_stats_id LONG PRIMARY KEY AUTO_INCREMENT,
   environment varchar(255) NOT NULL,
@@ -107,6 +109,136 @@ CREATE TABLE IF NOT EXISTS consumers_stats (
   metadata text
 );
 
+CREATE TABLE IF NOT EXISTS bookies_stats (
+  bookie_stats_id LONG PRIMARY KEY AUTO_INCREMENT,
+  bookie varchar(255) NOT NULL,
+  status varchar(8),
+  free_disk_space BIGINT,
+  total_disk_space BIGINT,
+  journal_add_latency_p50 double,
+  journal_add_latency_p99 double,
+  ledger_count BIGINT,
+  time_stamp BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS stats_ids (
+  id_name varchar(255) PRIMARY KEY,
+  next_id BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS topics_dimension (
+  topic_id LONG PRIMARY KEY,
+  environment varchar(255) NOT NULL,
+  cluster varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  persistent varchar(36) NOT NULL,
+  topic varchar(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS topics_history (
+  topic_id BIGINT NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  broker varchar(255),
+  bundle varchar(255),
+  producer_count INT,
+  subscription_count INT,
+  msg_rate_in double,
+  msg_throughput_in double,
+  msg_rate_out double,
+  msg_throughput_out double,
+  average_msg_size double,
+  storage_size double,
+  PRIMARY KEY (topic_id, time_stamp)
+);
+
+CREATE TABLE IF NOT EXISTS topics_rollup (
+  resolution INT NOT NULL,
+  topic_id BIGINT NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, topic_id, time_stamp)
+);
+
+CREATE TABLE IF NOT EXISTS namespaces_rollup (
+  resolution INT NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, environment, tenant, namespace, time_stamp)
+);
+
+CREATE TABLE IF NOT EXISTS tenants_rollup (
+  resolution INT NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, environment, tenant, time_stamp)
+);
+
 CREATE TABLE IF NOT EXISTS tokens (
   token_id LONG PRIMARY KEY AUTO_INCREMENT,
   role varchar(256) NOT NULL,
@@ -41,7 +41,10 @@ CREATE TABLE IF NOT EXISTS topics_stats (
   msg_throughput_out double,
   average_msg_size double,
   storage_size double,
-  time_stamp BIGINT
+  time_stamp BIGINT,
+  INDEX idx_topics_stats_time_stamp (time_stamp),
+  INDEX idx_topics_stats_namespace (environment, time_stamp, tenant, namespace),
+  INDEX idx_topics_stats_broker (environment, time_stamp, cluster, broker)
 )ENGINE=InnoDB CHARACTER SET utf8;
 
 CREATE TABLE IF NOT EXISTS publishers_stats (
@@ -57,7 +60,9 @@ CREATE TABLE IF NOT EXISTS publishers_stats (
   client_version varchar(36),
   metadata text,
   time_stamp BIGINT,
-  CONSTRAINT FK_publishers_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
+  CONSTRAINT FK_publishers_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id),
+  INDEX idx_publishers_stats_topic (topic_stats_id, time_stamp),
+  INDEX idx_publishers_stats_time_stamp (time_stamp)
 )ENGINE=InnoDB CHARACTER SET utf8;
 
 CREATE TABLE IF NOT EXISTS replications_stats (
@@ -78,7 +83,9 @@ CREATE TABLE IF NOT EXISTS replications_stats (
   outbound_connection varchar(255),
   outbound_connected_since varchar(255),
   time_stamp BIGINT,
-  CONSTRAINT FK_replications_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
+  CONSTRAINT FK_replications_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id),
+  INDEX idx_replications_stats_topic (topic_stats_id, time_stamp),
+  INDEX idx_replications_stats_time_stamp (time_stamp)
 )ENGINE=InnoDB CHARACTER SET utf8;
 
 CREATE TABLE IF NOT EXISTS subscriptions_stats (
@@ -96,7 +103,9 @@ CREATE TABLE IF NOT EXISTS subscriptions_stats (
   blocked_subscription_on_unacked_msgs BOOLEAN,
   time_stamp BIGINT,
   UNIQUE (topic_stats_id, subscription),
-  CONSTRAINT FK_subscriptions_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
+  CONSTRAINT FK_subscriptions_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id),
+  INDEX idx_subscriptions_stats_topic (topic_stats_id, time_stamp),
+  INDEX idx_subscriptions_stats_time_stamp (time_stamp)
 )ENGINE=InnoDB CHARACTER SET utf8;
 
 CREATE TABLE IF NOT EXISTS consumers_stats (
@@ -113,7 +122,147 @@ CREATE TABLE IF NOT EXISTS consumers_stats (
   msg_rate_redeliver double,
   client_version varchar(36),
   time_stamp BIGINT,
-  metadata text
+  metadata text,
+  INDEX idx_consumers_stats_topic (topic_stats_id, time_stamp),
+  INDEX idx_consumers_stats_subscription (subscription_stats_id, time_stamp),
+  INDEX idx_consumers_stats_time_stamp (time_stamp)
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS bookies_stats (
+  bookie_stats_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  bookie varchar(255) NOT NULL,
+  status varchar(8),
+  free_disk_space BIGINT,
+  total_disk_space BIGINT,
+  journal_add_latency_p50 double,
+  journal_add_latency_p99 double,
+  ledger_count BIGINT,
+  time_stamp BIGINT,
+  INDEX idx_bookies_stats_bookie (bookie, time_stamp),
+  INDEX idx_bookies_stats_time_stamp (time_stamp)
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS stats_ids (
+  id_name varchar(255) PRIMARY KEY,
+  next_id BIGINT NOT NULL
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS topics_dimension (
+  topic_id BIGINT PRIMARY KEY,
+  environment varchar(255) NOT NULL,
+  cluster varchar(255) CHARACTER SET ascii NOT NULL,
+  tenant varchar(255) CHARACTER SET ascii NOT NULL,
+  namespace varchar(255) CHARACTER SET ascii NOT NULL,
+  persistent varchar(36) CHARACTER SET ascii NOT NULL,
+  topic varchar(255) NOT NULL,
+  UNIQUE (environment, cluster, tenant, namespace, persistent, topic)
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS topics_history (
+  topic_id BIGINT NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  broker varchar(255),
+  bundle varchar(255),
+  producer_count INT,
+  subscription_count INT,
+  msg_rate_in double,
+  msg_throughput_in double,
+  msg_rate_out double,
+  msg_throughput_out double,
+  average_msg_size double,
+  storage_size double,
+  PRIMARY KEY (topic_id, time_stamp),
+  INDEX idx_topics_history_time_stamp (time_stamp)
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS topics_rollup (
+  resolution INT NOT NULL,
+  topic_id BIGINT NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, topic_id, time_stamp),
+  INDEX idx_topics_rollup_time_stamp (resolution, time_stamp)
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS namespaces_rollup (
+  resolution INT NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, environment, tenant, namespace, time_stamp),
+  INDEX idx_namespaces_rollup_time_stamp (resolution, time_stamp)
+)ENGINE=InnoDB CHARACTER SET utf8;
+
+CREATE TABLE IF NOT EXISTS tenants_rollup (
+  resolution INT NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  time_stamp BIGINT NOT NULL,
+  samples INT,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, environment, tenant, time_stamp),
+  INDEX idx_tenants_rollup_time_stamp (resolution, time_stamp)
 )ENGINE=InnoDB CHARACTER SET utf8;
 
 CREATE TABLE IF NOT EXISTS tokens (
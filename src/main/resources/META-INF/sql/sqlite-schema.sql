@@ -39,6 +39,9 @@ CREATE TABLE IF NOT EXISTS topics_stats (
   storage_size double,
   time_stamp integer
 );
+CREATE INDEX IF NOT EXISTS idx_topics_stats_time_stamp ON topics_stats (time_stamp);
+CREATE INDEX IF NOT EXISTS idx_topics_stats_namespace ON topics_stats (environment, time_stamp, tenant, namespace);
+CREATE INDEX IF NOT EXISTS idx_topics_stats_broker ON topics_stats (environment, time_stamp, cluster, broker);
 
 CREATE TABLE IF NOT EXISTS publishers_stats (
   publisher_stats_id  INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -55,6 +58,8 @@ CREATE TABLE IF NOT EXISTS publishers_stats (
   time_stamp integer,
   CONSTRAINT FK_publishers_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
 );
+CREATE INDEX IF NOT EXISTS idx_publishers_stats_topic ON publishers_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_publishers_stats_time_stamp ON publishers_stats (time_stamp);
 
 CREATE TABLE IF NOT EXISTS replications_stats (
   replication_stats_id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -76,6 +81,8 @@ CREATE TABLE IF NOT EXISTS replications_stats (
   time_stamp integer,
   CONSTRAINT FK_replications_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
 );
+CREATE INDEX IF NOT EXISTS idx_replications_stats_topic ON replications_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_replications_stats_time_stamp ON replications_stats (time_stamp);
 
 CREATE TABLE IF NOT EXISTS subscriptions_stats (
   subscription_stats_id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -94,6 +101,8 @@ CREATE TABLE IF NOT EXISTS subscriptions_stats (
   UNIQUE (topic_stats_id, subscription),
   CONSTRAINT FK_subscriptions_stats_topic_stats_id FOREIGN KEY (topic_stats_id) References topics_stats(topic_stats_id)
 );
+CREATE INDEX IF NOT EXISTS idx_subscriptions_stats_topic ON subscriptions_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_subscriptions_stats_time_stamp ON subscriptions_stats (time_stamp);
 
 CREATE TABLE IF NOT EXISTS consumers_stats (
   consumer_stats_id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -111,6 +120,146 @@ CREATE TABLE IF NOT EXISTS consumers_stats (
   time_stamp integer,
   metadata text
 );
+CREATE INDEX IF NOT EXISTS idx_consumers_stats_topic ON consumers_stats (topic_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_consumers_stats_subscription ON consumers_stats (subscription_stats_id, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_consumers_stats_time_stamp ON consumers_stats (time_stamp);
+
+CREATE TABLE IF NOT EXISTS bookies_stats (
+  bookie_stats_id INTEGER PRIMARY KEY AUTOINCREMENT,
+  bookie varchar(255) NOT NULL,
+  status varchar(8),
+  free_disk_space integer,
+  total_disk_space integer,
+  journal_add_latency_p50 double,
+  journal_add_latency_p99 double,
+  ledger_count integer,
+  time_stamp integer
+);
+CREATE INDEX IF NOT EXISTS idx_bookies_stats_bookie ON bookies_stats (bookie, time_stamp);
+CREATE INDEX IF NOT EXISTS idx_bookies_stats_time_stamp ON bookies_stats (time_stamp);
+
+CREATE TABLE IF NOT EXISTS stats_ids (
+  id_name varchar(255) PRIMARY KEY,
+  next_id integer NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS topics_dimension (
+  topic_id integer PRIMARY KEY,
+  environment varchar(255) NOT NULL,
+  cluster varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  persistent varchar(36) NOT NULL,
+  topic varchar(255) NOT NULL,
+  UNIQUE (environment, cluster, tenant, namespace, persistent, topic)
+);
+
+CREATE TABLE IF NOT EXISTS topics_history (
+  topic_id integer NOT NULL,
+  time_stamp integer NOT NULL,
+  broker varchar(255),
+  bundle varchar(255),
+  producer_count integer,
+  subscription_count integer,
+  msg_rate_in double,
+  msg_throughput_in double,
+  msg_rate_out double,
+  msg_throughput_out double,
+  average_msg_size double,
+  storage_size double,
+  PRIMARY KEY (topic_id, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_topics_history_time_stamp ON topics_history (time_stamp);
+
+CREATE TABLE IF NOT EXISTS topics_rollup (
+  resolution integer NOT NULL,
+  topic_id integer NOT NULL,
+  time_stamp integer NOT NULL,
+  samples integer,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, topic_id, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_topics_rollup_time_stamp ON topics_rollup (resolution, time_stamp);
+
+CREATE TABLE IF NOT EXISTS namespaces_rollup (
+  resolution integer NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  namespace varchar(255) NOT NULL,
+  time_stamp integer NOT NULL,
+  samples integer,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, environment, tenant, namespace, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_namespaces_rollup_time_stamp ON namespaces_rollup (resolution, time_stamp);
+
+CREATE TABLE IF NOT EXISTS tenants_rollup (
+  resolution integer NOT NULL,
+  environment varchar(255) NOT NULL,
+  tenant varchar(255) NOT NULL,
+  time_stamp integer NOT NULL,
+  samples integer,
+  msg_rate_in_min double,
+  msg_rate_in_max double,
+  msg_rate_in_avg double,
+  msg_rate_in_last double,
+  msg_rate_out_min double,
+  msg_rate_out_max double,
+  msg_rate_out_avg double,
+  msg_rate_out_last double,
+  msg_throughput_in_min double,
+  msg_throughput_in_max double,
+  msg_throughput_in_avg double,
+  msg_throughput_in_last double,
+  msg_throughput_out_min double,
+  msg_throughput_out_max double,
+  msg_throughput_out_avg double,
+  msg_throughput_out_last double,
+  storage_size_min double,
+  storage_size_max double,
+  storage_size_avg double,
+  storage_size_last double,
+  PRIMARY KEY (resolution, environment, tenant, time_stamp)
+);
+CREATE INDEX IF NOT EXISTS idx_tenants_rollup_time_stamp ON tenants_rollup (resolution, time_stamp);
 
 CREATE TABLE IF NOT EXISTS tokens (
   token_id integer PRIMARY KEY AUTOINCREMENT,
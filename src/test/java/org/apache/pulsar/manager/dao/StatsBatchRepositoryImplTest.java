@@ -0,0 +1,94 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.dao;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.pulsar.manager.PulsarManagerApplication;
+import org.apache.pulsar.manager.entity.StatsIdsRepository;
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicsHistoryRepository;
+import org.apache.pulsar.manager.entity.TopicsStatsRepository;
+import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+        classes = {
+                PulsarManagerApplication.class,
+                HerdDBTestProfile.class
+        }
+)
+@ActiveProfiles("test")
+public class StatsBatchRepositoryImplTest {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TopicsHistoryRepository topicsHistoryRepository;
+
+    @Autowired
+    private StatsIdsRepository statsIdsRepository;
+
+    @Autowired
+    private TopicsStatsRepository topicsStatsRepository;
+
+    @Test
+    public void concurrentSnapshotsExhaustingTheIdBlockTest() throws Exception {
+        // A block of 2 ids runs out in the middle of every snapshot
+        StatsBatchRepositoryImpl statsBatchRepository = new StatsBatchRepositoryImpl(
+                sqlSessionFactory, transactionManager, 1000, topicsHistoryRepository, false, statsIdsRepository, 2);
+        long timestamp = 1500000000L;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int snapshot = 0; snapshot < 4; snapshot++) {
+            String broker = "broker-" + snapshot;
+            futures.add(CompletableFuture.runAsync(() -> statsBatchRepository.write((batch) -> {
+                for (int topic = 0; topic < 10; topic++) {
+                    TopicStatsEntity topicStatsEntity = new TopicStatsEntity();
+                    topicStatsEntity.setEnvironment("batch-ids");
+                    topicStatsEntity.setCluster("standalone");
+                    topicStatsEntity.setBroker(broker);
+                    topicStatsEntity.setTenant("public");
+                    topicStatsEntity.setNamespace("default");
+                    topicStatsEntity.setBundle("0x00000000_0xffffffff");
+                    topicStatsEntity.setPersistent("persistent");
+                    topicStatsEntity.setTopic("topic-" + topic);
+                    topicStatsEntity.setTime_stamp(timestamp);
+                    Assert.assertTrue(ids.add(batch.addTopicStats(topicStatsEntity)));
+                }
+            })));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        Assert.assertEquals(40, ids.size());
+        topicsStatsRepository.remove(timestamp + 1, 0);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.entity;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class TopicStatsSnapshotTest {
+
+    private static TopicStatsEntity topicStats(String cluster, String broker, String tenant, String namespace,
+                                               String topic, double msgRateIn, double averageMsgSize) {
+        TopicStatsEntity topicStatsEntity = new TopicStatsEntity();
+        topicStatsEntity.setEnvironment("test-env");
+        topicStatsEntity.setCluster(cluster);
+        topicStatsEntity.setBroker(broker);
+        topicStatsEntity.setTenant(tenant);
+        topicStatsEntity.setNamespace(namespace);
+        topicStatsEntity.setPersistent("persistent");
+        topicStatsEntity.setTopic(topic);
+        topicStatsEntity.setProducerCount(1);
+        topicStatsEntity.setMsgRateIn(msgRateIn);
+        topicStatsEntity.setAverageMsgSize(averageMsgSize);
+        return topicStatsEntity;
+    }
+
+    private static TopicStatsSnapshot buildSnapshot() {
+        TopicStatsSnapshot.Builder builder = new TopicStatsSnapshot.Builder(100L);
+        builder.add("test-env", Arrays.asList(
+            topicStats("cluster0", "broker0", "tenant0", "ns0", "topic0", 1.0, 10.0),
+            topicStats("cluster0", "broker0", "tenant0", "ns0", "topic1", 2.0, 20.0)), 3);
+        builder.add("test-env", Arrays.asList(
+            topicStats("cluster1", "broker1", "tenant0", "ns1", "topic2", 4.0, 60.0),
+            topicStats("cluster1", "broker1", "tenant1", "ns0", "topic0", 8.0, 0.0)), 2);
+        return builder.build();
+    }
+
+    @Test
+    public void findByTopicTest() {
+        TopicStatsSnapshot snapshot = buildSnapshot();
+        Assert.assertEquals(100L, snapshot.getTimestamp());
+        Assert.assertEquals(2, snapshot.findByNamespace("test-env", "tenant0", "ns0").size());
+        Map<String, TopicStatsEntity> clusters = snapshot.findByTopic(
+            "test-env", "tenant0", "ns1", "persistent", "topic2");
+        Assert.assertEquals(4.0, clusters.get("cluster1").getMsgRateIn(), 0);
+        Assert.assertNull(snapshot.findByTopic("test-env", "tenant0", "ns1", "non-persistent", "topic2"));
+        Assert.assertTrue(snapshot.findByNamespace("other-env", "tenant0", "ns0").isEmpty());
+        Assert.assertEquals(5L, snapshot.getConsumerCount(Collections.singletonList("test-env")));
+    }
+
+    @Test
+    public void rollupTest() {
+        TopicStatsSnapshot snapshot = buildSnapshot();
+
+        List<TopicStatsEntity> tenants = snapshot.findByMultiTenant("test-env", Arrays.asList("tenant0", "tenant2"));
+        Assert.assertEquals(1, tenants.size());
+        Assert.assertEquals("tenant0", tenants.get(0).getTenant());
+        Assert.assertEquals(3, tenants.get(0).getProducerCount());
+        Assert.assertEquals(7.0, tenants.get(0).getMsgRateIn(), 0);
+        Assert.assertEquals(30.0, tenants.get(0).getAverageMsgSize(), 0);
+
+        List<TopicStatsEntity> namespaces = snapshot.findByMultiNamespace(
+            "test-env", "tenant0", Arrays.asList("ns0", "ns1"));
+        Assert.assertEquals(2, namespaces.size());
+        Assert.assertEquals("ns0", namespaces.get(0).getNamespace());
+        Assert.assertEquals(3.0, namespaces.get(0).getMsgRateIn(), 0);
+        Assert.assertEquals(15.0, namespaces.get(0).getAverageMsgSize(), 0);
+
+        List<TopicStatsSnapshot.ClusterRollup> clusters = snapshot.findClusterRollups(
+            Collections.singletonList("test-env"));
+        Assert.assertEquals(2, clusters.size());
+        for (TopicStatsSnapshot.ClusterRollup cluster : clusters) {
+            Assert.assertEquals(2, cluster.getTopicCount());
+            Assert.assertEquals(1, cluster.getBrokerCount());
+            Assert.assertEquals(1, cluster.getBrokers().size());
+            Assert.assertEquals(2, cluster.getStats().getProducerCount());
+        }
+    }
+
+    @Test
+    public void returnedStatsAreCopiesTest() {
+        TopicStatsEntity added = topicStats("cluster0", "broker0", "tenant0", "ns0", "topic0", 1.0, 10.0);
+        TopicStatsSnapshot.Builder builder = new TopicStatsSnapshot.Builder(100L);
+        builder.add("test-env", Collections.singletonList(added), 0);
+        TopicStatsSnapshot snapshot = builder.build();
+        // Neither the collector nor a reader can change the published rows
+        added.setMsgRateIn(100.0);
+        snapshot.findByNamespace("test-env", "tenant0", "ns0").get(0).setMsgRateIn(200.0);
+        snapshot.findByTopic("test-env", "tenant0", "ns0", "persistent", "topic0").get("cluster0")
+            .setMsgRateIn(300.0);
+        snapshot.findByMultiTenant("test-env", Collections.singletonList("tenant0")).get(0).setMsgRateIn(400.0);
+        snapshot.findClusterRollups(Collections.singletonList("test-env")).get(0).getStats().setMsgRateIn(500.0);
+        Assert.assertEquals(1.0, snapshot.findByNamespace("test-env", "tenant0", "ns0").get(0).getMsgRateIn(), 0);
+        Assert.assertEquals(1.0, snapshot.findByTopic("test-env", "tenant0", "ns0", "persistent", "topic0")
+            .get("cluster0").getMsgRateIn(), 0);
+        Assert.assertEquals(1.0, snapshot.findByMultiTenant("test-env", Collections.singletonList("tenant0"))
+            .get(0).getMsgRateIn(), 0);
+        Assert.assertEquals(1.0, snapshot.findClusterRollups(Collections.singletonList("test-env"))
+            .get(0).getStats().getMsgRateIn(), 0);
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.proxy;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.pulsar.manager.service.EnvironmentCacheService;
+import org.apache.pulsar.manager.service.PulsarAdminService;
+import org.apache.pulsar.manager.service.PulsarEvent;
+import org.apache.pulsar.manager.service.RolesService;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.Dsl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AsyncProxyFilterTest {
+
+    private static final int STREAM_BODY_SIZE = 8 * 1024 * 1024;
+
+    private static final long ENDLESS_BODY_SIZE = 1024L * 1024 * 1024;
+
+    private static final long TIMEOUT_MS = 3000;
+
+    private final CountDownLatch slowBrokerReleased = new CountDownLatch(1);
+
+    private final CountDownLatch endlessBrokerFinished = new CountDownLatch(1);
+
+    private final AtomicLong endlessBytesWritten = new AtomicLong();
+
+    private HttpServer broker;
+
+    private ExecutorService brokerExecutor;
+
+    private String brokerAddress;
+
+    private Tomcat tomcat;
+
+    private String managerUrl;
+
+    private AsyncHttpClient httpClient;
+
+    private RolesService rolesService;
+
+    private PulsarEvent pulsarEvent;
+
+    @Before
+    public void setup() throws Exception {
+        broker = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        broker.createContext("/admin/v2/stream", exchange -> {
+            byte[] chunk = new byte[64 * 1024];
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int written = 0; written < STREAM_BODY_SIZE; written += chunk.length) {
+                    out.write(chunk);
+                }
+            }
+        });
+        broker.createContext("/admin/v2/slow", exchange -> {
+            try {
+                slowBrokerReleased.await(2 * TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        broker.createContext("/admin/v2/endless", exchange -> {
+            byte[] chunk = new byte[64 * 1024];
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (endlessBytesWritten.get() < ENDLESS_BODY_SIZE) {
+                    out.write(chunk);
+                    endlessBytesWritten.addAndGet(chunk.length);
+                }
+            } catch (IOException e) {
+                // The proxy went away
+            } finally {
+                endlessBrokerFinished.countDown();
+            }
+        });
+        broker.createContext("/admin/v2/echo", exchange -> {
+            byte[] body = ByteStreams.toByteArray(exchange.getRequestBody());
+            exchange.getResponseHeaders().add("X-Pulsar-Test", "echo");
+            exchange.getResponseHeaders().add("X-Authorization",
+                    String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        broker.createContext("/admin/v2/lookup", exchange -> {
+            exchange.getResponseHeaders().add("Location", "http://10.0.0.2:8081/admin/v2/lookup?x=1");
+            exchange.sendResponseHeaders(307, -1);
+            exchange.close();
+        });
+        // The slow broker must not hold up the other requests
+        brokerExecutor = Executors.newCachedThreadPool();
+        broker.setExecutor(brokerExecutor);
+        broker.start();
+        brokerAddress = "127.0.0.1:" + broker.getAddress().getPort();
+
+        rolesService = Mockito.mock(RolesService.class);
+        Mockito.when(rolesService.isSuperUser(Mockito.anyString())).thenReturn(true);
+        pulsarEvent = Mockito.mock(PulsarEvent.class);
+        PulsarAdminService pulsarAdminService = Mockito.mock(PulsarAdminService.class);
+        Map<String, String> authHeader = Maps.newHashMap();
+        authHeader.put("Authorization", "Bearer test");
+        Mockito.when(pulsarAdminService.getAuthHeader(Mockito.anyString())).thenReturn(authHeader);
+        ProxyRouting proxyRouting = new ProxyRouting(
+                Mockito.mock(EnvironmentCacheService.class), pulsarEvent, rolesService, pulsarAdminService);
+        ReflectionTestUtils.setField(proxyRouting, "scheme", "http");
+        ReflectionTestUtils.setField(proxyRouting, "host", "manager");
+        ReflectionTestUtils.setField(proxyRouting, "port", "7750");
+
+        httpClient = Dsl.asyncHttpClient(Dsl.config().setFollowRedirect(false));
+        AsyncProxyFilter filter = new AsyncProxyFilter(
+                proxyRouting, httpClient, new String[] {"Cookie", "Set-Cookie"}, TIMEOUT_MS);
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("async-proxy").toString());
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "default", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }).setAsyncSupported(true);
+        context.addServletMappingDecoded("/", "default");
+        FilterDef filterDef = new FilterDef();
+        filterDef.setFilterName("asyncProxyFilter");
+        filterDef.setFilter(filter);
+        filterDef.setAsyncSupported("true");
+        context.addFilterDef(filterDef);
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName("asyncProxyFilter");
+        filterMap.addURLPattern("/admin/*");
+        filterMap.setDispatcher("REQUEST");
+        filterMap.setDispatcher("ASYNC");
+        context.addFilterMap(filterMap);
+        tomcat.getConnector();
+        tomcat.start();
+        managerUrl = "http://127.0.0.1:" + tomcat.getConnector().getLocalPort();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+        httpClient.close();
+        slowBrokerReleased.countDown();
+        broker.stop(0);
+        brokerExecutor.shutdownNow();
+    }
+
+    private HttpURLConnection open(String path, String brokerAddress) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(managerUrl + path).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestProperty("token", "test");
+        connection.setRequestProperty("x-pulsar-broker", brokerAddress);
+        return connection;
+    }
+
+    @Test
+    public void streamResponseTest() throws IOException {
+        HttpURLConnection connection = open("/admin/v2/stream", brokerAddress);
+        Assert.assertEquals(200, connection.getResponseCode());
+        long read = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = connection.getInputStream()) {
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                read += n;
+            }
+        }
+        Assert.assertEquals(STREAM_BODY_SIZE, read);
+        Mockito.verify(pulsarEvent, Mockito.timeout(5000))
+                .completePulsarEvent("/admin/v2/stream", "GET", 200);
+    }
+
+    @Test
+    public void forwardRequestBodyAndHeadersTest() throws IOException {
+        byte[] body = new byte[256 * 1024];
+        new Random(0).nextBytes(body);
+        HttpURLConnection connection = open("/admin/v2/echo", brokerAddress);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(8 * 1024);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("echo", connection.getHeaderField("X-Pulsar-Test"));
+        Assert.assertEquals("Bearer test", connection.getHeaderField("X-Authorization"));
+        try (InputStream in = connection.getInputStream()) {
+            Assert.assertArrayEquals(body, ByteStreams.toByteArray(in));
+        }
+        Mockito.verify(pulsarEvent).parsePulsarEvent(Mockito.eq("/admin/v2/echo"), Mockito.any());
+        Mockito.verify(pulsarEvent, Mockito.timeout(5000))
+                .completePulsarEvent("/admin/v2/echo", "POST", 200);
+    }
+
+    @Test
+    public void rewriteRedirectLocationTest() throws IOException {
+        HttpURLConnection connection = open("/admin/v2/lookup", brokerAddress);
+        Assert.assertEquals(307, connection.getResponseCode());
+        Assert.assertEquals("http://manager:7750/admin/v2/lookup?x=1&redirect=true"
+                        + "&redirect.scheme=http&redirect.host=10.0.0.2&redirect.port=8081",
+                connection.getHeaderField("Location"));
+    }
+
+    @Test
+    public void permissionDeniedTest() throws IOException {
+        Mockito.when(rolesService.isSuperUser(Mockito.anyString())).thenReturn(false);
+        Mockito.when(pulsarEvent.validateRoutePermission(Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(false);
+        HttpURLConnection connection = open("/admin/v2/echo", brokerAddress);
+        Assert.assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            Assert.assertEquals("This operation does not have permission",
+                    new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+        }
+        Mockito.verify(pulsarEvent, Mockito.never()).parsePulsarEvent(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    public void upstreamUnavailableTest() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        HttpURLConnection connection = open("/admin/v2/stream", "127.0.0.1:" + port);
+        Assert.assertEquals(502, connection.getResponseCode());
+        Mockito.verify(pulsarEvent, Mockito.never())
+                .completePulsarEvent(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    public void upstreamFailureAfterCommitTest() throws Exception {
+        try (ServerSocket failingBroker = new ServerSocket(0, 1, null)) {
+            Thread brokerThread = new Thread(() -> {
+                try (Socket socket = failingBroker.accept()) {
+                    OutputStream out = socket.getOutputStream();
+                    out.write(("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                            + Integer.toHexString(64 * 1024) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                    out.write(new byte[64 * 1024]);
+                    out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    Thread.sleep(500);
+                } catch (Exception e) {
+                    // The broker goes away in the middle of the response
+                }
+            });
+            brokerThread.start();
+            HttpURLConnection connection = open(
+                    "/admin/v2/stream", "127.0.0.1:" + failingBroker.getLocalPort());
+            Assert.assertEquals(200, connection.getResponseCode());
+            try (InputStream in = connection.getInputStream()) {
+                ByteStreams.toByteArray(in);
+                Assert.fail("The truncated response should not end cleanly");
+            } catch (IOException e) {
+                // Expected, the proxy dropped the connection
+            }
+            brokerThread.join();
+        }
+        Mockito.verify(pulsarEvent, Mockito.never())
+                .completePulsarEvent(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    public void upstreamTimeoutTest() throws IOException {
+        long startTime = System.currentTimeMillis();
+        HttpURLConnection connection = open("/admin/v2/slow", brokerAddress);
+        Assert.assertEquals(502, connection.getResponseCode());
+        // Answered by the async timeout, not once the broker finally responds
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 2 * TIMEOUT_MS);
+        Mockito.verify(pulsarEvent, Mockito.never())
+                .completePulsarEvent(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    public void clientDisconnectTest() throws Exception {
+        try (Socket client = new Socket("127.0.0.1", tomcat.getConnector().getLocalPort())) {
+            OutputStream out = client.getOutputStream();
+            out.write(("GET /admin/v2/endless HTTP/1.1\r\nHost: 127.0.0.1\r\ntoken: test\r\n"
+                    + "x-pulsar-broker: " + brokerAddress + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = client.getInputStream();
+            byte[] buffer = new byte[64 * 1024];
+            Assert.assertTrue(in.read(buffer) > 0);
+        }
+        // The client went away in the middle of the body, the request to the broker is aborted
+        Assert.assertTrue(endlessBrokerFinished.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(endlessBytesWritten.get() < ENDLESS_BODY_SIZE);
+        Mockito.verify(pulsarEvent, Mockito.never())
+                .completePulsarEvent(Mockito.anyString(), Mockito.anyString(), Mockito.anyInt());
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service;
+
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pulsar.manager.PulsarManagerApplication;
+import org.apache.pulsar.manager.entity.BookieStatsEntity;
+import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
+import org.apache.pulsar.manager.utils.HttpUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.modules.junit4.PowerMockRunnerDelegate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(PowerMockRunner.class)
+@PowerMockRunnerDelegate(SpringRunner.class)
+@PowerMockIgnore( {"javax.*", "sun.*", "com.sun.*", "org.xml.*", "org.w3c.*"})
+@PrepareForTest(HttpUtil.class)
+@TestPropertySource(locations= "classpath:test-bookie.properties")
+@SpringBootTest(
+    classes = {
+        PulsarManagerApplication.class,
+        HerdDBTestProfile.class
+    }
+)
+@ActiveProfiles("test")
+public class BookieStatsServiceImplTest {
+
+    @Autowired
+    private BookiesService bookiesService;
+
+    @Autowired
+    private BookieStatsService bookieStatsService;
+
+    @Value("${backend.jwt.token}")
+    private static String pulsarJwtToken;
+
+    @Test
+    public void collectBookieStatsTest() throws IOException {
+        PowerMockito.mockStatic(HttpUtil.class);
+        Map<String, String> header = Maps.newHashMap();
+        header.put("Content-Type", "application/json");
+        if (StringUtils.isNotBlank(pulsarJwtToken)) {
+            header.put("Authorization", String.format("Bearer %s", pulsarJwtToken));
+        }
+        Gson gson = new Gson();
+        Type bookiesType = new TypeToken<Map<String, String>>() {}.getType();
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \"192.168.2.116\"}", bookiesType));
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=ro&print_hostnames=true", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.117:3181\" : \"192.168.2.117\"}", bookiesType));
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookie_info", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \": {Free: 100(100B), Total: 200(200B)}\"," +
+                        "\"192.168.2.117:3181\" : \": {Free: 300(300B), Total: 400(400B)}\" }", bookiesType));
+        String metrics = "# TYPE bookie_journal_JOURNAL_ADD_ENTRY summary\n" +
+                "bookie_journal_JOURNAL_ADD_ENTRY{success=\"false\",quantile=\"0.5\",} NaN\n" +
+                "bookie_journal_JOURNAL_ADD_ENTRY{success=\"true\",quantile=\"0.5\",} 1.5\n" +
+                "bookie_journal_JOURNAL_ADD_ENTRY{success=\"true\",quantile=\"0.99\",} 12.25\n" +
+                "bookie_journal_JOURNAL_ADD_ENTRY_count{success=\"true\",} 1000.0\n" +
+                "# TYPE bookie_ledgers_count gauge\n" +
+                "bookie_ledgers_count 42.0\n";
+        PowerMockito.when(HttpUtil.doGetStream(
+                ArgumentMatchers.eq("http://192.168.2.116:8000/metrics"), ArgumentMatchers.anyMap()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(metrics.getBytes(StandardCharsets.UTF_8)));
+        PowerMockito.when(HttpUtil.doGetStream(
+                ArgumentMatchers.eq("http://192.168.2.117:8000/metrics"), ArgumentMatchers.anyMap()))
+                .thenThrow(new IOException("Connection refused"));
+        bookiesService.invalidateBookieInventory();
+
+        // Ahead of the scheduled collection and out of reach of its cleanup
+        long unixTime = System.currentTimeMillis() / 1000L + 3600;
+        bookieStatsService.collectBookieStats(unixTime);
+
+        List<BookieStatsEntity> stats = bookieStatsService.findByBookie("192.168.2.116:3181", unixTime, unixTime);
+        Assert.assertEquals(1, stats.size());
+        BookieStatsEntity bookieStatsEntity = stats.get(0);
+        Assert.assertEquals("rw", bookieStatsEntity.getStatus());
+        Assert.assertEquals(100, bookieStatsEntity.getFreeDiskSpace());
+        Assert.assertEquals(200, bookieStatsEntity.getTotalDiskSpace());
+        Assert.assertEquals(1.5, bookieStatsEntity.getJournalAddLatencyP50(), 0.0);
+        Assert.assertEquals(12.25, bookieStatsEntity.getJournalAddLatencyP99(), 0.0);
+        Assert.assertEquals(42, bookieStatsEntity.getLedgerCount());
+        Assert.assertEquals(unixTime, bookieStatsEntity.getTimestamp());
+        // A bookie whose metrics cannot be read is skipped for the cycle
+        Assert.assertTrue(bookieStatsService.findByBookie("192.168.2.117:3181", unixTime, unixTime).isEmpty());
+
+        bookieStatsService.clearStats(unixTime + 1, 0);
+        Assert.assertTrue(bookieStatsService.findByBookie("192.168.2.116:3181", unixTime, unixTime).isEmpty());
+    }
+}
@@ -14,6 +14,8 @@
 package org.apache.pulsar.manager.service;
 
 import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
 import org.apache.pulsar.manager.PulsarManagerApplication;
 import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
 import org.apache.pulsar.manager.utils.HttpUtil;
@@ -33,7 +35,9 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(PowerMockRunner.class)
 @PowerMockRunnerDelegate(SpringRunner.class)
@@ -63,16 +67,51 @@ public class BookiesServiceImplTest {
         if (StringUtils.isNotBlank(pulsarJwtToken)) {
             header.put("Authorization", String.format("Bearer %s", pulsarJwtToken));
         }
-        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header))
-                .thenReturn("{\"192.168.2.116:3181\" : \"192.168.2.116\"}");
+        Gson gson = new Gson();
+        Type bookiesType = new TypeToken<Map<String, String>>() {}.getType();
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \"192.168.2.116\"}", bookiesType));
         PowerMockito.when(HttpUtil.doGet("http://localhost:8080/admin/v2/brokers/standalone", header))
                 .thenReturn("{ }");
-        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookie_info", header))
-                .thenReturn("{\"192.168.2.116:3181\" : \": {Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}," +
-                        "\",\"ClusterInfo: \" : \"{Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}\" }");
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookie_info", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \": {Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}," +
+                        "\",\"ClusterInfo: \" : \"{Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}\" }", bookiesType));
+        bookiesService.invalidateBookieInventory();
         Map<String, Object> result = bookiesService.getBookiesList(1, 1, "standalone");
         Assert.assertEquals(1, result.get("total"));
         Assert.assertEquals("[{storage=[48920571904, 250790436864], bookie=192.168.2.116:3181, status=rw}]", result.get("data").toString());
         Assert.assertEquals(1, result.get("pageSize"));
     }
+
+    @Test
+    public void bookieInventoryCacheTest() {
+        PowerMockito.mockStatic(HttpUtil.class);
+        Map<String, String> header = Maps.newHashMap();
+        header.put("Content-Type", "application/json");
+        if (StringUtils.isNotBlank(pulsarJwtToken)) {
+            header.put("Authorization", String.format("Bearer %s", pulsarJwtToken));
+        }
+        Gson gson = new Gson();
+        Type bookiesType = new TypeToken<Map<String, String>>() {}.getType();
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \"192.168.2.116\"}", bookiesType));
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=ro&print_hostnames=true", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.117:3181\" : \"192.168.2.117\"}", bookiesType));
+        AtomicInteger listBookieInfoCalls = new AtomicInteger();
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookie_info", header, bookiesType))
+                .thenAnswer(invocation -> {
+                    listBookieInfoCalls.incrementAndGet();
+                    return gson.fromJson("{\"192.168.2.116:3181\" : \": {Free: 100(100B), Total: 200(200B)}\"," +
+                            "\"192.168.2.117:3181\" : \": {Free: 300(300B), Total: 400(400B)}\" }", bookiesType);
+                });
+        bookiesService.invalidateBookieInventory();
+        Map<String, Object> result = bookiesService.getBookiesList(1, 1, "standalone");
+        Assert.assertEquals(2, result.get("total"));
+        Assert.assertEquals(2, bookiesService.getBookieCount());
+        Assert.assertEquals(1, listBookieInfoCalls.get());
+
+        bookiesService.invalidateBookieInventory();
+        Assert.assertEquals(2, bookiesService.getBookieCount());
+        Assert.assertEquals(2, listBookieInfoCalls.get());
+    }
 }
@@ -15,9 +15,7 @@ package org.apache.pulsar.manager.service;
 
 import com.github.pagehelper.Page;
 import com.google.common.collect.Maps;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import org.apache.pulsar.client.admin.BrokerStats;
+import com.sun.net.httpserver.HttpServer;
 import org.apache.pulsar.manager.PulsarManagerApplication;
 import org.apache.pulsar.manager.entity.ConsumerStatsEntity;
 import org.apache.pulsar.manager.entity.ConsumersStatsRepository;
@@ -28,12 +26,13 @@ import org.apache.pulsar.manager.entity.SubscriptionStatsEntity;
 import org.apache.pulsar.manager.entity.SubscriptionsStatsRepository;
 import org.apache.pulsar.manager.entity.ReplicationStatsEntity;
 import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicsHistoryRepository;
 import org.apache.pulsar.manager.entity.TopicsStatsRepository;
 import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
+import org.apache.pulsar.manager.utils.HttpUtil;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -41,6 +40,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -65,9 +68,6 @@ public class BrokerStatsServiceImplTest {
     @MockBean
     private BrokersService brokersService;
 
-    @Mock
-    private BrokerStats stats;
-
     @Autowired
     private TopicsStatsRepository topicsStatsRepository;
 
@@ -83,6 +83,9 @@ public class BrokerStatsServiceImplTest {
     @Autowired
     private ConsumersStatsRepository consumersStatsRepository;
 
+    @Autowired
+    private TopicsHistoryRepository topicsHistoryRepository;
+
     public static String testData = "{\n" +
             "\t\"public/functions\": {\n" +
             "\t\t\"0x40000000_0x80000000\": {\n" +
@@ -234,10 +237,8 @@ public class BrokerStatsServiceImplTest {
         brokersMap.put("data", brokersArray);
         Mockito.when(brokersService.getBrokersList(0,0, cluster, serviceUrl))
                 .thenReturn(brokersMap);
-        Mockito.when(pulsarAdminService.brokerStats(serviceUrl)).thenReturn(stats);
-        JsonObject data = new Gson().fromJson(testData, JsonObject.class);
-        Mockito.when(stats.getTopics())
-                .thenReturn(data);
+        Mockito.when(pulsarAdminService.brokerTopicsStats(serviceUrl))
+                .thenReturn(new ByteArrayInputStream(testData.getBytes(StandardCharsets.UTF_8)));
 
         brokerStatsService.collectStatsToDB(
             System.currentTimeMillis() / 1000,
@@ -310,10 +311,8 @@ public class BrokerStatsServiceImplTest {
         brokersMap.put("data", brokersArray);
         Mockito.when(brokersService.getBrokersList(0,0, cluster, serviceUrl))
                 .thenReturn(brokersMap);
-        Mockito.when(pulsarAdminService.brokerStats(serviceUrl)).thenReturn(stats);
-        JsonObject data = new Gson().fromJson(testData, JsonObject.class);
-        Mockito.when(stats.getTopics())
-                .thenReturn(data);
+        Mockito.when(pulsarAdminService.brokerTopicsStats(serviceUrl))
+                .thenReturn(new ByteArrayInputStream(testData.getBytes(StandardCharsets.UTF_8)));
 
         brokerStatsService.collectStatsToDB(
                 System.currentTimeMillis() / 1000,
@@ -341,6 +340,10 @@ public class BrokerStatsServiceImplTest {
             Assert.assertEquals(0, result.getStorageSize(), 0);
         });
 
+        List<TopicStatsEntity> tenantStatsEntities = brokerStatsService.findByMultiTenant(
+                environment, tenantList, topicStatsEntity1.getTimestamp());
+        Assert.assertEquals(tenantCountPage.getTotal(), tenantStatsEntities.size());
+
         ArrayList<String> namespaceList = new ArrayList<>();
         namespaceList.add(topicStatsEntity1.getNamespace());
         Page<TopicStatsEntity> namespaceCountPage = brokerStatsService.findByMultiNamespace(
@@ -361,7 +364,155 @@ public class BrokerStatsServiceImplTest {
             Assert.assertEquals(0, result.getStorageSize(), 0);
         });
 
+        List<TopicStatsEntity> namespaceStatsEntities = brokerStatsService.findByMultiNamespace(
+                environment, topicStatsEntity1.getTenant(), namespaceList, topicStatsEntity1.getTimestamp());
+        Assert.assertEquals(namespaceCountPage.getTotal(), namespaceStatsEntities.size());
+
         long unixTime = System.currentTimeMillis() / 1000L;
         brokerStatsService.clearStats(unixTime, 0);
     }
+
+    @Test
+    public void topicsHistoryTest() throws Exception {
+        String environment = "history";
+        String cluster = "standalone";
+        String serviceUrl = "http://localhost:8080";
+
+        Map<String, Object> brokersMap = new HashMap<>();
+        List<Map<String, Object>> brokersArray = new ArrayList<>();
+        Map<String, Object> brokerEntity = Maps.newHashMap();
+        brokerEntity.put("broker", "localhost:8080");
+        brokersArray.add(brokerEntity);
+        brokersMap.put("data", brokersArray);
+        Mockito.when(brokersService.getBrokersList(0,0, cluster, serviceUrl))
+                .thenReturn(brokersMap);
+        Mockito.when(pulsarAdminService.brokerTopicsStats(serviceUrl))
+                .thenAnswer((invocation) -> new ByteArrayInputStream(testData.getBytes(StandardCharsets.UTF_8)));
+
+        long unixTime = System.currentTimeMillis() / 1000L;
+        brokerStatsService.collectStatsToDB(unixTime, environment, cluster, serviceUrl);
+        // A topic has at most one point per timestamp
+        brokerStatsService.collectStatsToDB(unixTime, environment, cluster, serviceUrl);
+        brokerStatsService.collectStatsToDB(unixTime + 30, environment, cluster, serviceUrl);
+
+        List<TopicStatsEntity> history = topicsHistoryRepository.findByTopic(
+                environment, "public", "functions", "persistent", "metadata", unixTime, unixTime + 30);
+        Assert.assertEquals(2, history.size());
+        Assert.assertEquals(unixTime, history.get(0).getTimestamp());
+        Assert.assertEquals(unixTime + 30, history.get(1).getTimestamp());
+        history.forEach((point) -> {
+            Assert.assertEquals(environment, point.getEnvironment());
+            checkTopicStatsResult(point);
+        });
+
+        topicsHistoryRepository.remove(unixTime + 30, 0);
+        history = topicsHistoryRepository.findByTopic(
+                environment, "public", "functions", "persistent", "metadata", unixTime, unixTime + 30);
+        Assert.assertEquals(1, history.size());
+        Assert.assertEquals(unixTime + 30, history.get(0).getTimestamp());
+
+        // The dimension is added again once it is removed
+        topicsHistoryRepository.remove(unixTime + 31, 0);
+        topicsHistoryRepository.removeDimensions(unixTime + 31, 0);
+        brokerStatsService.collectStatsToDB(unixTime + 60, environment, cluster, serviceUrl);
+        history = topicsHistoryRepository.findByTopic(
+                environment, "public", "functions", "persistent", "metadata", unixTime, unixTime + 60);
+        Assert.assertEquals(1, history.size());
+
+        brokerStatsService.clearStats(unixTime + 61, 0);
+        topicsHistoryRepository.remove(unixTime + 61, 0);
+        topicsHistoryRepository.removeDimensions(unixTime + 61, 0);
+    }
+
+    @Test
+    public void topicsHistoryMovedTopicTest() throws Exception {
+        String environment = "history-moved";
+        String cluster = "standalone";
+        String serviceUrl = "http://localhost:8080";
+
+        List<Map<String, Object>> brokers = new ArrayList<>();
+        for (String broker : new String[] {"localhost:8080", "localhost:8081"}) {
+            Map<String, Object> brokersMap = new HashMap<>();
+            List<Map<String, Object>> brokersArray = new ArrayList<>();
+            Map<String, Object> brokerEntity = Maps.newHashMap();
+            brokerEntity.put("broker", broker);
+            brokersArray.add(brokerEntity);
+            brokersMap.put("data", brokersArray);
+            brokers.add(brokersMap);
+        }
+        Mockito.when(brokersService.getBrokersList(0,0, cluster, serviceUrl))
+                .thenReturn(brokers.get(0), brokers.get(1));
+        Mockito.when(pulsarAdminService.brokerTopicsStats(Mockito.anyString()))
+                .thenAnswer((invocation) -> new ByteArrayInputStream(testData.getBytes(StandardCharsets.UTF_8)));
+
+        // The topic moves to another broker between the two collections
+        long unixTime = System.currentTimeMillis() / 1000L;
+        brokerStatsService.collectStatsToDB(unixTime, environment, cluster, serviceUrl);
+        brokerStatsService.collectStatsToDB(unixTime + 30, environment, cluster, serviceUrl);
+
+        List<TopicStatsEntity> history = topicsHistoryRepository.findByTopic(
+                environment, "public", "functions", "persistent", "metadata", unixTime, unixTime + 30);
+        Assert.assertEquals(2, history.size());
+        Assert.assertEquals("localhost:8080", history.get(0).getBroker());
+        Assert.assertEquals("localhost:8081", history.get(1).getBroker());
+        Assert.assertEquals("0x40000000_0x80000000", history.get(1).getBundle());
+        // Both points belong to the same dimension
+        Assert.assertEquals(1, topicsHistoryRepository.findAllDimensions().stream()
+                .filter((dimension) -> environment.equals(dimension.getEnvironment())
+                        && "metadata".equals(dimension.getTopic()))
+                .count());
+
+        brokerStatsService.clearStats(unixTime + 31, 0);
+        topicsHistoryRepository.remove(unixTime + 31, 0);
+        topicsHistoryRepository.removeDimensions(unixTime + 31, 0);
+    }
+
+    @Test
+    public void collectStatsReleasesConnectionTest() throws Exception {
+        String environment = "pool";
+        String cluster = "standalone";
+        String serviceUrl = "http://localhost:8080";
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/admin/v2/broker-stats/topics", exchange -> {
+            byte[] body = testData.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            String broker = "127.0.0.1:" + server.getAddress().getPort();
+            Map<String, Object> brokersMap = new HashMap<>();
+            List<Map<String, Object>> brokersArray = new ArrayList<>();
+            Map<String, Object> brokerEntity = Maps.newHashMap();
+            brokerEntity.put("broker", broker);
+            brokersArray.add(brokerEntity);
+            brokersMap.put("data", brokersArray);
+            Mockito.when(brokersService.getBrokersList(0,0, cluster, serviceUrl))
+                    .thenReturn(brokersMap);
+            Mockito.when(pulsarAdminService.brokerTopicsStats("http://" + broker))
+                    .thenAnswer((invocation) -> HttpUtil.doGetStream(
+                            "http://" + broker + "/admin/v2/broker-stats/topics", Maps.newHashMap()));
+
+            long unixTime = System.currentTimeMillis() / 1000L;
+            brokerStatsService.collectStatsToDB(unixTime, environment, cluster, serviceUrl);
+            Assert.assertFalse(topicsStatsRepository.findByClusterBroker(
+                    1, 10, environment, cluster, broker, unixTime).getResult().isEmpty());
+
+            // The whole body was read, the connection went back to the pool instead of being aborted
+            Map<String, Object> routeStats = (Map<String, Object>) ((Map<String, Object>)
+                    HttpUtil.getPoolStats().get("routes")).get("http://" + broker);
+            Assert.assertEquals(0, routeStats.get("leased"));
+            Assert.assertEquals(1, routeStats.get("available"));
+
+            brokerStatsService.clearStats(unixTime + 1, 0);
+            topicsHistoryRepository.remove(unixTime + 1, 0);
+            topicsHistoryRepository.removeDimensions(unixTime + 1, 0);
+        } finally {
+            server.stop(0);
+        }
+    }
 }
@@ -14,6 +14,8 @@
 package org.apache.pulsar.manager.service;
 
 import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pulsar.manager.PulsarManagerApplication;
 import org.apache.pulsar.manager.entity.*;
@@ -34,6 +36,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +70,9 @@ public class DashboardServiceImplTest {
     @Autowired
     NamespacesRepository namespacesRepository;
 
+    @Autowired
+    BookiesService bookiesService;
+
     @Value("${backend.jwt.token}")
     private static String pulsarJwtToken;
 
@@ -87,13 +93,15 @@ public class DashboardServiceImplTest {
         if (StringUtils.isNotBlank(pulsarJwtToken)) {
             header.put("Authorization", String.format("Bearer %s", pulsarJwtToken));
         }
-        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header))
-                .thenReturn("{\"192.168.2.116:3181\" : \"192.168.2.116\"}");
+        Gson gson = new Gson();
+        Type bookiesType = new TypeToken<Map<String, String>>() {}.getType();
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookies?type=rw&print_hostnames=true", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \"192.168.2.116\"}", bookiesType));
         PowerMockito.when(HttpUtil.doGet("http://localhost:8080/admin/v2/brokers/standalone", header))
                 .thenReturn("{ }");
-        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookie_info", header))
-                .thenReturn("{\"192.168.2.116:3181\" : \": {Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}," +
-                        "\",\"ClusterInfo: \" : \"{Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}\" }");
+        PowerMockito.when(HttpUtil.doGet("http://localhost:8050/api/v1/bookie/list_bookie_info", header, bookiesType))
+                .thenReturn(gson.fromJson("{\"192.168.2.116:3181\" : \": {Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}," +
+                        "\",\"ClusterInfo: \" : \"{Free: 48920571904(48.92GB), Total: 250790436864(250.79GB)}\" }", bookiesType));
 
         long topicStatsId = 0L;
         for (String tenant: tenantList) {
@@ -138,6 +146,7 @@ public class DashboardServiceImplTest {
         }
 
         long topicCount = clusterList.size() * brokerList.size();
+        bookiesService.invalidateBookieInventory();
         Map<String, Object> dashboardStats = dashboardService.getDashboardStats(Arrays.asList(environmentList.get(0)));
         Assert.assertEquals(clusterList.size(), dashboardStats.get("totalClusterCount"));
         Assert.assertEquals(brokerList.size(), dashboardStats.get("totalBrokerCount"));
@@ -14,6 +14,8 @@
 package org.apache.pulsar.manager.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.apache.pulsar.client.admin.Clusters;
@@ -23,8 +25,13 @@ import org.apache.pulsar.manager.entity.EnvironmentEntity;
 import org.apache.pulsar.manager.entity.EnvironmentsRepository;
 import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.pulsar.common.policies.data.ClusterData;
 import org.junit.After;
@@ -38,6 +45,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /**
  * Unit test {@link EnvironmentCacheService}.
@@ -121,6 +129,9 @@ public class EnvironmentCacheServiceImplTest {
         environmentsRepository.remove(environment1.getName());
         environmentsRepository.remove(environment2.getName());
         environmentsRepository.remove(emptyEnvironment.getName());
+        environmentCacheService.invalidateEnvironment(environment1.getName());
+        environmentCacheService.invalidateEnvironment(environment2.getName());
+        environmentCacheService.invalidateEnvironment(emptyEnvironment.getName());
     }
 
     @Test
@@ -154,6 +165,25 @@ public class EnvironmentCacheServiceImplTest {
         }
     }
 
+    @Test
+    public void testGetEnvironmentFromCache() {
+        environmentsRepository.save(environment1);
+        assertEquals(environment1.getBroker(),
+            environmentCacheService.getEnvironment(environment1.getName()).get().getBroker());
+
+        // served from the cache until the environments are reloaded
+        environmentsRepository.remove(environment1.getName());
+        assertTrue(environmentCacheService.getEnvironment(environment1.getName()).isPresent());
+        environmentCacheService.reloadEnvironments();
+        assertFalse(environmentCacheService.getEnvironment(environment1.getName()).isPresent());
+
+        environmentsRepository.save(environment1);
+        assertTrue(environmentCacheService.getEnvironment(environment1.getName()).isPresent());
+        environmentsRepository.remove(environment1.getName());
+        environmentCacheService.invalidateEnvironment(environment1.getName());
+        assertFalse(environmentCacheService.getEnvironment(environment1.getName()).isPresent());
+    }
+
     @Test
     public void testReloadEnvironments() {
         environmentsRepository.save(emptyEnvironment);
@@ -205,6 +235,139 @@ public class EnvironmentCacheServiceImplTest {
         }
     }
 
+    @Test
+    public void testReloadEnvironmentsDoesNotWaitForSlowEnvironment() throws PulsarAdminException {
+        environmentsRepository.save(environment1);
+        environmentsRepository.save(environment2);
+        Mockito.when(cluster1Clusters.getClusters()).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return Arrays.asList(cluster1_0_name);
+        });
+        long reloadTimeoutMs = (long) ReflectionTestUtils.getField(environmentCacheService, "reloadTimeoutMs");
+        ReflectionTestUtils.setField(environmentCacheService, "reloadTimeoutMs", 200L);
+        try {
+            long start = System.currentTimeMillis();
+            environmentCacheService.reloadEnvironments();
+            assertTrue(System.currentTimeMillis() - start < 2000);
+        } finally {
+            ReflectionTestUtils.setField(environmentCacheService, "reloadTimeoutMs", reloadTimeoutMs);
+        }
+        assertEquals(cluster2_1.getServiceUrl(),
+            environmentCacheService.getServiceUrl(environment2.getName(), cluster2_1_name));
+    }
+
+    @Test
+    public void testReloadLoadsClustersConcurrently() throws PulsarAdminException {
+        environmentsRepository.save(environment2);
+        Mockito.when(cluster2Clusters.getCluster(cluster2_0_name)).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return cluster2_0;
+        });
+        Mockito.when(cluster2Clusters.getCluster(cluster2_1_name)).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return cluster2_1;
+        });
+        long start = System.currentTimeMillis();
+        environmentCacheService.reloadEnvironments();
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(cluster2_0.getServiceUrl(),
+            environmentCacheService.getServiceUrl(environment2.getName(), cluster2_0_name));
+        assertEquals(cluster2_1.getServiceUrl(),
+            environmentCacheService.getServiceUrl(environment2.getName(), cluster2_1_name));
+    }
+
+    @Test
+    public void testLateReloadOfDeletedEnvironmentIsDropped() throws Exception {
+        environmentsRepository.save(environment1);
+        Mockito.when(cluster1Clusters.getClusters()).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return Arrays.asList(cluster1_0_name);
+        });
+        long reloadTimeoutMs = (long) ReflectionTestUtils.getField(environmentCacheService, "reloadTimeoutMs");
+        ReflectionTestUtils.setField(environmentCacheService, "reloadTimeoutMs", 200L);
+        try {
+            environmentCacheService.reloadEnvironments();
+        } finally {
+            ReflectionTestUtils.setField(environmentCacheService, "reloadTimeoutMs", reloadTimeoutMs);
+        }
+        // deleted while its reload is still running
+        environmentsRepository.remove(environment1.getName());
+        environmentCacheService.invalidateEnvironment(environment1.getName());
+        Thread.sleep(1500);
+        try {
+            environmentCacheService.getServiceUrl(environment1.getName(), cluster1_0_name);
+            fail("Should fail to get service url of a deleted environment");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneClusterLoad() throws Exception {
+        environmentsRepository.save(environment2);
+        Mockito.when(cluster2Clusters.getCluster(cluster2_1_name)).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return cluster2_1;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> serviceUrls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                serviceUrls.add(executor.submit(
+                    () -> environmentCacheService.getServiceUrl(environment2.getName(), cluster2_1_name)));
+            }
+            for (Future<String> serviceUrl : serviceUrls) {
+                assertEquals(cluster2_1.getServiceUrl(), serviceUrl.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Mockito.verify(cluster2Clusters, Mockito.times(1)).getCluster(cluster2_1_name);
+    }
+
+    @Test
+    public void testMissingClusterIsCachedUntilEnvironmentReload() throws PulsarAdminException {
+        environmentsRepository.save(environment2);
+        String missingCluster = "missing_cluster";
+        Mockito.when(cluster2Clusters.getCluster(missingCluster))
+            .thenThrow(Mockito.mock(PulsarAdminException.NotFoundException.class));
+        for (int i = 0; i < 3; i++) {
+            try {
+                environmentCacheService.getServiceUrl(environment2.getName(), missingCluster);
+                fail("Should fail to get service url if cluster is not found");
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+        Mockito.verify(cluster2Clusters, Mockito.times(1)).getCluster(missingCluster);
+
+        environmentCacheService.reloadEnvironments();
+        try {
+            environmentCacheService.getServiceUrl(environment2.getName(), missingCluster);
+            fail("Should fail to get service url if cluster is not found");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Mockito.verify(cluster2Clusters, Mockito.times(2)).getCluster(missingCluster);
+    }
+
+    @Test
+    public void testClusterLoadFailureIsNotCached() throws PulsarAdminException {
+        environmentsRepository.save(environment2);
+        String unreachableCluster = "unreachable_cluster";
+        Mockito.when(cluster2Clusters.getCluster(unreachableCluster))
+            .thenThrow(new PulsarAdminException("Connection refused"));
+        for (int i = 0; i < 3; i++) {
+            try {
+                environmentCacheService.getServiceUrl(environment2.getName(), unreachableCluster);
+                fail("Should fail to get service url if cluster cannot be loaded");
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+        Mockito.verify(cluster2Clusters, Mockito.times(3)).getCluster(unreachableCluster);
+    }
+
     @Test
     public void testReloadEnvironmentsAddNewClusterAndRemoveOldCluster() throws PulsarAdminException {
         environmentsRepository.save(environment2);
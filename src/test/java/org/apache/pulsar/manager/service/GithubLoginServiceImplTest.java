@@ -16,6 +16,8 @@ package org.apache.pulsar.manager.service;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import org.apache.pulsar.manager.PulsarManagerApplication;
+import org.apache.pulsar.manager.entity.GithubAuthEntity;
+import org.apache.pulsar.manager.entity.GithubUserInfoEntity;
 import org.apache.pulsar.manager.entity.UserInfoEntity;
 import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
 import org.apache.pulsar.manager.utils.HttpUtil;
@@ -83,12 +85,12 @@ public class GithubLoginServiceImplTest {
         body.put("code", parameters.get("code"));
         body.put("client_id", githubClientId);
         body.put("client_secret", githubClientSecret);
-        PowerMockito.when(HttpUtil.doPost(githubAuthHost, header, gson.toJson(body)))
-                .thenReturn("{" +
+        PowerMockito.when(HttpUtil.doPost(githubAuthHost, header, gson.toJson(body), GithubAuthEntity.class))
+                .thenReturn(gson.fromJson("{" +
                     "\"access_token\": \"e72e16c7e42f292c6912e7710c838347ae178b4a\"," +
                     "\"scope\": \"repo,gist\"," +
                     "\"token_type\": \"bearer\"" +
-                "}");
+                "}", GithubAuthEntity.class));
         String withCodeResult = thirdPartyLoginService.getAuthToken(parameters);
         Assert.assertEquals("e72e16c7e42f292c6912e7710c838347ae178b4a", withCodeResult);
     }
@@ -106,18 +108,18 @@ public class GithubLoginServiceImplTest {
         Map<String, String> header = Maps.newHashMap();
         header.put("Content-Type", "application/json");
         header.put("Authorization", "token test-user-token");
-        PowerMockito.when(HttpUtil.doGet(githubUserInfo, header))
+        PowerMockito.when(HttpUtil.doGet(githubUserInfo, header, GithubUserInfoEntity.class))
                 .thenReturn(null);
         UserInfoEntity withTokenNullUserInfoEntity = thirdPartyLoginService.getUserInfo(authenticationMap);
         Assert.assertNull(withTokenNullUserInfoEntity);
-        PowerMockito.when(HttpUtil.doGet(githubUserInfo, header))
-                .thenReturn("{\n" +
+        PowerMockito.when(HttpUtil.doGet(githubUserInfo, header, GithubUserInfoEntity.class))
+                .thenReturn(new Gson().fromJson("{\n" +
                         "\t\"login\": \"test1\",\n" +
                         "\t\"company\": bj,\n" +
                         "\t\"location\": \"nw\",\n" +
                         "\t\"email\": \"test@apache.org\",\n" +
                         "\t\"bio\": \"this is description\"" +
-                        "}");
+                        "}", GithubUserInfoEntity.class));
         UserInfoEntity withTokenUserInfoEntity = thirdPartyLoginService.getUserInfo(authenticationMap);
         Assert.assertEquals("test@apache.org", withTokenUserInfoEntity.getEmail());
         Assert.assertEquals("test1", withTokenUserInfoEntity.getName());
@@ -13,7 +13,6 @@
  */
 package org.apache.pulsar.manager.service;
 
-import com.google.common.collect.Maps;
 import org.apache.pulsar.client.admin.BrokerStats;
 import org.apache.pulsar.client.admin.Namespaces;
 import org.apache.pulsar.client.admin.PulsarAdminException;
@@ -34,6 +33,7 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(
@@ -64,10 +64,8 @@ public class NamespacesServiceImplTest {
     public void namespaceServiceImplTest() throws PulsarAdminException {
         Mockito.when(pulsarAdminService.namespaces("http://localhost:8080")).thenReturn(namespaces);
         Mockito.when(namespaces.getNamespaces("public")).thenReturn(Arrays.asList("public/default"));
-        Map<String, Object> topics = Maps.newHashMap();
-        topics.put("total", 1);
-        Mockito.when(topicsService.getTopicsList(0, 0, "public", "default", "http://localhost:8080"))
-                .thenReturn(topics);
+        Mockito.when(topicsService.getTopicCountAsync("public", "default", "http://localhost:8080"))
+                .thenReturn(CompletableFuture.completedFuture(1));
 
         Map<String, Object> result = namespacesService.getNamespaceList(1, 1, "public", "http://localhost:8080");
         Assert.assertEquals(1, result.get("total"));
@@ -13,9 +13,11 @@
  */
 package org.apache.pulsar.manager.service;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
 
+import org.apache.pulsar.client.admin.PulsarAdmin;
 import org.apache.pulsar.manager.PulsarManagerApplication;
 import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
 import org.apache.pulsar.manager.service.impl.PulsarAdminServiceImpl;
@@ -44,8 +46,7 @@ public class PulsarAdminServiceImplTest {
 
     @After
     public void teardown() {
-        ((PulsarAdminServiceImpl) pulsarAdminService).destroy();
-        ReflectionTestUtils.setField(pulsarAdminService, "pulsarAdmins", new HashMap<>());
+        pulsarAdminService.closePulsarAdmin("http://localhost:8080");
     }
 
     @Test
@@ -54,11 +55,50 @@ public class PulsarAdminServiceImplTest {
         Assert.assertEquals("http://localhost:8080", serviceUrl);
     }
 
+    @Test
+    public void closePulsarAdminTest() {
+        PulsarAdmin pulsarAdmin = pulsarAdminService.getPulsarAdmin("http://localhost:8080");
+        Assert.assertSame(pulsarAdmin, pulsarAdminService.getPulsarAdmin("http://localhost:8080"));
+        pulsarAdminService.closePulsarAdmin("http://localhost:8080");
+        Assert.assertNotSame(pulsarAdmin, pulsarAdminService.getPulsarAdmin("http://localhost:8080"));
+    }
+
+    @Test
+    public void closeIdlePulsarAdminsTest() {
+        PulsarAdmin pulsarAdmin = pulsarAdminService.getPulsarAdmin("http://localhost:8080");
+        PulsarAdminServiceImpl pulsarAdminServiceImpl = (PulsarAdminServiceImpl) pulsarAdminService;
+        pulsarAdminServiceImpl.closeIdlePulsarAdmins();
+        Assert.assertSame(pulsarAdmin, pulsarAdminService.getPulsarAdmin("http://localhost:8080"));
+        long idleTimeoutMs = (long) ReflectionTestUtils.getField(pulsarAdminService, "idleTimeoutMs");
+        ReflectionTestUtils.setField(pulsarAdminService, "idleTimeoutMs", -1L);
+        try {
+            pulsarAdminServiceImpl.closeIdlePulsarAdmins();
+        } finally {
+            ReflectionTestUtils.setField(pulsarAdminService, "idleTimeoutMs", idleTimeoutMs);
+        }
+        Assert.assertNotSame(pulsarAdmin, pulsarAdminService.getPulsarAdmin("http://localhost:8080"));
+    }
+
     @Test
     public void getAuthHeaderTest() {
         ReflectionTestUtils.setField(pulsarAdminService, "authPlugin", "org.apache.pulsar.client.impl.auth.AuthenticationToken");
         ReflectionTestUtils.setField(pulsarAdminService, "authParams", "test");
         Map<String, String> authHeader = pulsarAdminService.getAuthHeader("http://localhost:8080");
         Assert.assertEquals("Bearer test", authHeader.get("Authorization"));
+        Assert.assertSame(authHeader, pulsarAdminService.getAuthHeader("http://localhost:8080"));
+    }
+
+    @Test
+    public void getAuthHeaderExpiredTokenTest() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString("{\"sub\":\"test\",\"exp\":1}".getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+        ReflectionTestUtils.setField(pulsarAdminService, "authPlugin", "org.apache.pulsar.client.impl.auth.AuthenticationToken");
+        ReflectionTestUtils.setField(pulsarAdminService, "authParams", token);
+        Map<String, String> authHeader = pulsarAdminService.getAuthHeader("http://localhost:8080");
+        Assert.assertEquals("Bearer " + token, authHeader.get("Authorization"));
+        // the token expired long ago, so the header is not served from the cache
+        Assert.assertNotSame(authHeader, pulsarAdminService.getAuthHeader("http://localhost:8080"));
     }
 }
@@ -32,11 +32,13 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.modules.junit4.PowerMockRunnerDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -75,6 +77,9 @@ public class PulsarEventImplTest {
     @Autowired
     private NamespacesRepository namespacesRepository;
 
+    @MockBean
+    private TopicsService topicsService;
+
     private long superUserId, superRoleId, adminUserId, adminRoleId;
 
     @Before
@@ -189,4 +194,25 @@ public class PulsarEventImplTest {
                 "adminTenant", "default");
         Assert.assertTrue(namespaceEntity.isPresent());
     }
+
+    @Test
+    public void completePulsarEventInvalidatesTopicList() {
+        pulsarEvent.completePulsarEvent("/admin/v2/persistent/adminTenant/default/test-topic/stats", "GET", 200);
+        Mockito.verify(topicsService, Mockito.never()).invalidateTopicList("adminTenant", "default");
+
+        // The topic list does not change before the broker accepted the request
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setMethod("DELETE");
+        pulsarEvent.parsePulsarEvent("/admin/v2/persistent/adminTenant/default/test-topic", request);
+        Mockito.verify(topicsService, Mockito.never()).invalidateTopicList("adminTenant", "default");
+
+        pulsarEvent.completePulsarEvent("/admin/v2/persistent/adminTenant/default/test-topic", "DELETE", 404);
+        Mockito.verify(topicsService, Mockito.never()).invalidateTopicList("adminTenant", "default");
+
+        pulsarEvent.completePulsarEvent("/admin/v2/persistent/adminTenant/default/test-topic", "DELETE", 204);
+        Mockito.verify(topicsService).invalidateTopicList("adminTenant", "default");
+
+        pulsarEvent.completePulsarEvent("/admin/v2/non-persistent/adminTenant/other/test-topic/partitions", "PUT", 204);
+        Mockito.verify(topicsService).invalidateTopicList("adminTenant", "other");
+    }
 }
@@ -200,6 +200,37 @@ public class RolesServiceImplTest {
         Assert.assertEquals(currentTenantValidateSuccess.get("message"), "Validate tenant success");
     }
 
+    @Test
+    public void isSuperUserCachedUntilInvalidatedTest() {
+        UserInfoEntity userInfoEntity = new UserInfoEntity();
+        userInfoEntity.setName("cached-user");
+        userInfoEntity.setAccessToken("cached-access-token");
+        long userId = usersRepository.save(userInfoEntity);
+        RoleInfoEntity roleInfoEntity = new RoleInfoEntity();
+        roleInfoEntity.setRoleName("cached-super-role");
+        roleInfoEntity.setRoleSource("cached-tenant");
+        roleInfoEntity.setFlag(0);
+        roleInfoEntity.setResourceName("cached-resource");
+        roleInfoEntity.setResourceType(ResourceType.ALL.name());
+        roleInfoEntity.setResourceVerbs(ResourceVerbs.SUPER_USER.name());
+        long roleId = rolesRepository.save(roleInfoEntity);
+        RoleBindingEntity roleBindingEntity = new RoleBindingEntity();
+        roleBindingEntity.setName("cached-role-binding");
+        roleBindingEntity.setUserId(userId);
+        roleBindingEntity.setRoleId(roleId);
+        roleBindingRepository.save(roleBindingEntity);
+        rolesService.invalidatePermissions();
+
+        assertTrue(rolesService.isSuperUser("cached-access-token"));
+        roleBindingRepository.delete(roleId, userId);
+        assertTrue(rolesService.isSuperUser("cached-access-token"));
+        rolesService.invalidatePermissions();
+        assertFalse(rolesService.isSuperUser("cached-access-token"));
+
+        usersRepository.delete("cached-user");
+        rolesRepository.delete("cached-super-role", "cached-tenant");
+    }
+
     @Test
     public void isSuperUser_Permits_ifUserManagementIsOff_andDefaultUserIsUsed() {
         ReflectionTestUtils.setField(rolesService, "userManagementEnabled", false);
@@ -0,0 +1,249 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service;
+
+import org.apache.pulsar.manager.PulsarManagerApplication;
+import org.apache.pulsar.manager.entity.StatsBatchRepository;
+import org.apache.pulsar.manager.entity.StatsRollupEntity;
+import org.apache.pulsar.manager.entity.StatsRollupRepository;
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicsHistoryRepository;
+import org.apache.pulsar.manager.entity.TopicsStatsRepository;
+import org.apache.pulsar.manager.profiles.HerdDBTestProfile;
+import org.apache.pulsar.manager.service.impl.StatsHistoryServiceImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+        classes = {
+                PulsarManagerApplication.class,
+                HerdDBTestProfile.class
+        }
+)
+@ActiveProfiles("test")
+public class StatsHistoryServiceImplTest {
+
+    private static final String ENVIRONMENT = "rollup";
+
+    private static final String TENANT = "rollup-tenant";
+
+    // Start of an hour, 2017-07-14T02:00:00Z
+    private static final long BASE = 1499997600L;
+
+    // Keeps the scheduled stats collection away from the history tables during the test
+    @MockBean
+    private StatsHistoryService scheduledStatsHistoryService;
+
+    @Autowired
+    private StatsBatchRepository statsBatchRepository;
+
+    @Autowired
+    private StatsRollupRepository statsRollupRepository;
+
+    @Autowired
+    private TopicsHistoryRepository topicsHistoryRepository;
+
+    @Autowired
+    private TopicsStatsRepository topicsStatsRepository;
+
+    private TopicsHistoryRepository topicsHistory;
+
+    private StatsHistoryServiceImpl statsHistoryService;
+
+    @Before
+    public void setup() {
+        clear();
+        topicsHistory = Mockito.mock(TopicsHistoryRepository.class,
+            AdditionalAnswers.delegatesTo(topicsHistoryRepository));
+        statsHistoryService = newStatsHistoryService();
+    }
+
+    @After
+    public void teardown() {
+        clear();
+    }
+
+    private void clear() {
+        topicsStatsRepository.remove(Long.MAX_VALUE, 0);
+        statsRollupRepository.remove(StatsHistoryService.FIVE_MINUTES, Long.MAX_VALUE, 0);
+        statsRollupRepository.remove(StatsHistoryService.ONE_HOUR, Long.MAX_VALUE, 0);
+        topicsHistoryRepository.remove(Long.MAX_VALUE, 0);
+        topicsHistoryRepository.removeDimensions(Long.MAX_VALUE, 0);
+    }
+
+    private StatsHistoryServiceImpl newStatsHistoryService() {
+        StatsHistoryServiceImpl service = new StatsHistoryServiceImpl(topicsHistory, statsRollupRepository);
+        ReflectionTestUtils.setField(service, "historyEnabled", true);
+        ReflectionTestUtils.setField(service, "historyRetentionMs", 21600000L);
+        ReflectionTestUtils.setField(service, "rollupEnabled", true);
+        ReflectionTestUtils.setField(service, "fiveMinutesRetentionMs", 604800000L);
+        ReflectionTestUtils.setField(service, "oneHourRetentionMs", 7776000000L);
+        return service;
+    }
+
+    private static TopicStatsEntity point(String broker, String namespace, String topic, double msgRateIn,
+                                          long timestamp) {
+        TopicStatsEntity topicStatsEntity = new TopicStatsEntity();
+        topicStatsEntity.setEnvironment(ENVIRONMENT);
+        topicStatsEntity.setCluster("standalone");
+        topicStatsEntity.setBroker(broker);
+        topicStatsEntity.setTenant(TENANT);
+        topicStatsEntity.setNamespace(namespace);
+        topicStatsEntity.setBundle("0x00000000_0xffffffff");
+        topicStatsEntity.setPersistent("persistent");
+        topicStatsEntity.setTopic(topic);
+        topicStatsEntity.setMsgRateIn(msgRateIn);
+        topicStatsEntity.setStorageSize(100);
+        topicStatsEntity.setTime_stamp(timestamp);
+        return topicStatsEntity;
+    }
+
+    private void collect(long timestamp, String brokerOfA, double a, double b, double c) {
+        statsBatchRepository.write((batch) -> {
+            batch.addTopicStats(point(brokerOfA, "ns1", "a", a, timestamp));
+            batch.addTopicStats(point("localhost:8080", "ns1", "b", b, timestamp));
+            batch.addTopicStats(point("localhost:8080", "ns2", "c", c, timestamp));
+        });
+    }
+
+    private static void checkRollup(StatsRollupEntity rollup, long timestamp, int samples,
+                                    double min, double max, double avg, double last) {
+        Assert.assertEquals(timestamp, rollup.getTimestamp());
+        Assert.assertEquals(samples, rollup.getSamples());
+        Assert.assertEquals(min, rollup.getMsgRateInMin(), 0.0001);
+        Assert.assertEquals(max, rollup.getMsgRateInMax(), 0.0001);
+        Assert.assertEquals(avg, rollup.getMsgRateInAvg(), 0.0001);
+        Assert.assertEquals(last, rollup.getMsgRateInLast(), 0.0001);
+    }
+
+    @Test
+    public void rollupTest() {
+        collect(BASE, "localhost:8080", 1, 2, 4);
+        // Topic a moved to another broker, it is still one topic
+        collect(BASE + 30, "localhost:8081", 3, 2, 4);
+        collect(BASE + 300, "localhost:8081", 5, 6, 4);
+
+        // The second 5 minute bucket is not complete yet
+        statsHistoryService.rollup(BASE + 599);
+        List<StatsRollupEntity> topic = statsHistoryService.findByTopic(StatsHistoryService.FIVE_MINUTES,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 3600);
+        Assert.assertEquals(1, topic.size());
+        checkRollup(topic.get(0), BASE, 2, 1, 3, 2, 3);
+
+        statsHistoryService.rollup(BASE + 3600);
+        topic = statsHistoryService.findByTopic(StatsHistoryService.FIVE_MINUTES,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 3600);
+        Assert.assertEquals(2, topic.size());
+        checkRollup(topic.get(1), BASE + 300, 1, 5, 5, 5, 5);
+        Assert.assertEquals(100, topic.get(1).getStorageSizeLast(), 0);
+        // The dimensions are read once per run
+        Mockito.verify(topicsHistory, Mockito.times(2)).findAllDimensions();
+
+        // Namespaces and tenants aggregate the sum of their topics at each collection
+        List<StatsRollupEntity> namespace = statsHistoryService.findByNamespace(StatsHistoryService.FIVE_MINUTES,
+            ENVIRONMENT, TENANT, "ns1", BASE, BASE + 3600);
+        Assert.assertEquals(2, namespace.size());
+        checkRollup(namespace.get(0), BASE, 2, 3, 5, 4, 5);
+        checkRollup(namespace.get(1), BASE + 300, 1, 11, 11, 11, 11);
+        Assert.assertEquals(200, namespace.get(1).getStorageSizeAvg(), 0);
+
+        // The 1 hour buckets merge the 5 minute ones, the average is weighted by their samples
+        topic = statsHistoryService.findByTopic(StatsHistoryService.ONE_HOUR,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 3600);
+        Assert.assertEquals(1, topic.size());
+        checkRollup(topic.get(0), BASE, 3, 1, 5, 3, 5);
+        namespace = statsHistoryService.findByNamespace(StatsHistoryService.ONE_HOUR,
+            ENVIRONMENT, TENANT, "ns1", BASE, BASE + 3600);
+        Assert.assertEquals(1, namespace.size());
+        checkRollup(namespace.get(0), BASE, 3, 3, 11, 19.0 / 3, 11);
+        List<StatsRollupEntity> tenant = statsHistoryService.findByTenant(StatsHistoryService.ONE_HOUR,
+            ENVIRONMENT, TENANT, BASE, BASE + 3600);
+        Assert.assertEquals(1, tenant.size());
+        checkRollup(tenant.get(0), BASE, 3, 7, 15, 31.0 / 3, 15);
+
+        // Buckets are rolled up once
+        statsHistoryService.rollup(BASE + 3600);
+        Assert.assertEquals(1, statsHistoryService.findByTenant(StatsHistoryService.ONE_HOUR,
+            ENVIRONMENT, TENANT, BASE, BASE + 3600).size());
+
+        Assert.assertEquals(StatsHistoryService.FIVE_MINUTES, statsHistoryService.selectResolution(BASE, BASE + 86400));
+        Assert.assertEquals(StatsHistoryService.ONE_HOUR, statsHistoryService.selectResolution(BASE, BASE + 86401));
+    }
+
+    @Test
+    public void rollupProgressTest() {
+        collect(BASE, "localhost:8080", 1, 2, 4);
+        collect(BASE + 3630, "localhost:8080", 3, 2, 4);
+        collect(BASE + 3930, "localhost:8080", 5, 6, 4);
+        statsHistoryService.rollup(BASE + 3900);
+
+        // The progress is read from the rollup tables, another instance carries on after the buckets saved
+        StatsHistoryServiceImpl restarted = newStatsHistoryService();
+        restarted.rollup(BASE + 3900);
+        List<StatsRollupEntity> topic = restarted.findByTopic(StatsHistoryService.FIVE_MINUTES,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 7200);
+        Assert.assertEquals(2, topic.size());
+        checkRollup(topic.get(0), BASE, 1, 1, 1, 1, 1);
+        checkRollup(topic.get(1), BASE + 3600, 1, 3, 3, 3, 3);
+
+        // Past their retention, rows are only removed once rolled up into the next tier
+        restarted.clearHistory(BASE + 8 * 86400);
+        List<TopicStatsEntity> points = topicsHistoryRepository.findByTopic(
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 7200);
+        Assert.assertEquals(1, points.size());
+        Assert.assertEquals(BASE + 3930, points.get(0).getTimestamp());
+        topic = restarted.findByTopic(StatsHistoryService.FIVE_MINUTES,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 7200);
+        Assert.assertEquals(1, topic.size());
+        Assert.assertEquals(BASE + 3600, topic.get(0).getTimestamp());
+        Assert.assertEquals(1, restarted.findByTopic(StatsHistoryService.ONE_HOUR,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 7200).size());
+    }
+
+    @Test
+    public void rollupDimensionsTest() {
+        collect(BASE, "localhost:8080", 1, 2, 4);
+        statsHistoryService.rollup(BASE + 3600);
+
+        // The points are gone, the rollups still reference the dimensions
+        topicsHistoryRepository.remove(Long.MAX_VALUE, 0);
+        topicsHistoryRepository.removeDimensions(Long.MAX_VALUE, 0);
+        Assert.assertEquals(3, topicsHistoryRepository.findAllDimensions().stream()
+            .filter((dimension) -> ENVIRONMENT.equals(dimension.getEnvironment()))
+            .count());
+        Assert.assertEquals(1, statsHistoryService.findByTopic(StatsHistoryService.ONE_HOUR,
+            ENVIRONMENT, TENANT, "ns1", "persistent", "a", BASE, BASE + 3600).size());
+
+        statsRollupRepository.remove(StatsHistoryService.FIVE_MINUTES, Long.MAX_VALUE, 0);
+        statsRollupRepository.remove(StatsHistoryService.ONE_HOUR, Long.MAX_VALUE, 0);
+        topicsHistoryRepository.removeDimensions(Long.MAX_VALUE, 0);
+        Assert.assertEquals(0, topicsHistoryRepository.findAllDimensions().stream()
+            .filter((dimension) -> ENVIRONMENT.equals(dimension.getEnvironment()))
+            .count());
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.service;
+
+import org.apache.pulsar.manager.entity.TopicStatsEntity;
+import org.apache.pulsar.manager.entity.TopicStatsSnapshot;
+import org.apache.pulsar.manager.service.impl.StatsSnapshotServiceImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+public class StatsSnapshotServiceImplTest {
+
+    private StatsSnapshotServiceImpl statsSnapshotService;
+
+    @Before
+    public void setup() {
+        statsSnapshotService = new StatsSnapshotServiceImpl();
+        ReflectionTestUtils.setField(statsSnapshotService, "clearStatsInterval", 300000L);
+    }
+
+    private static TopicStatsSnapshot snapshot(long timestamp, double msgRateIn) {
+        TopicStatsEntity topicStatsEntity = new TopicStatsEntity();
+        topicStatsEntity.setEnvironment("test-env");
+        topicStatsEntity.setCluster("cluster0");
+        topicStatsEntity.setBroker("broker0");
+        topicStatsEntity.setTenant("tenant0");
+        topicStatsEntity.setNamespace("ns0");
+        topicStatsEntity.setPersistent("persistent");
+        topicStatsEntity.setTopic("topic0");
+        topicStatsEntity.setMsgRateIn(msgRateIn);
+        TopicStatsSnapshot.Builder builder = new TopicStatsSnapshot.Builder(timestamp);
+        builder.add("test-env", Collections.singletonList(topicStatsEntity), 0);
+        return builder.build();
+    }
+
+    private double latestMsgRateIn() {
+        return statsSnapshotService.getLatestSnapshot().get()
+            .findByTopic("test-env", "tenant0", "ns0", "persistent", "topic0").get("cluster0").getMsgRateIn();
+    }
+
+    @Test
+    public void publishReplacesOlderSnapshotTest() {
+        long now = System.currentTimeMillis() / 1000L;
+        Assert.assertFalse(statsSnapshotService.getLatestSnapshot().isPresent());
+        statsSnapshotService.publish(snapshot(now - 60, 1.0));
+        Assert.assertEquals(1.0, latestMsgRateIn(), 0);
+        statsSnapshotService.publish(snapshot(now, 2.0));
+        Assert.assertEquals(now, statsSnapshotService.getLatestSnapshot().get().getTimestamp());
+        Assert.assertEquals(2.0, latestMsgRateIn(), 0);
+        // A late cycle never replaces a newer snapshot
+        statsSnapshotService.publish(snapshot(now - 30, 3.0));
+        Assert.assertEquals(now, statsSnapshotService.getLatestSnapshot().get().getTimestamp());
+        Assert.assertEquals(2.0, latestMsgRateIn(), 0);
+    }
+
+    @Test
+    public void expiredSnapshotTest() {
+        long now = System.currentTimeMillis() / 1000L;
+        statsSnapshotService.publish(snapshot(now - 600, 1.0));
+        Assert.assertFalse(statsSnapshotService.getLatestSnapshot().isPresent());
+    }
+}
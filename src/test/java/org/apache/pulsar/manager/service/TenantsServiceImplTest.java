@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @RunWith(SpringRunner.class)
@@ -66,9 +67,10 @@ public class TenantsServiceImplTest {
         Mockito.when(pulsarAdminService.tenants("http://localhost:8080")).thenReturn(tenants);
         Mockito.when(tenants.getTenants()).thenReturn(Arrays.asList("public"));
         TenantInfo tenantInfo = new TenantInfo(Sets.newHashSet("admin"), Sets.newHashSet("standalone"));
-        Mockito.when(tenants.getTenantInfo("public")).thenReturn(tenantInfo);
+        Mockito.when(tenants.getTenantInfoAsync("public")).thenReturn(CompletableFuture.completedFuture(tenantInfo));
         Mockito.when(pulsarAdminService.namespaces("http://localhost:8080")).thenReturn(namespaces);
-        Mockito.when(namespaces.getNamespaces("public")).thenReturn(Arrays.asList("public/default"));
+        Mockito.when(namespaces.getNamespacesAsync("public")).thenReturn(
+                CompletableFuture.completedFuture(Arrays.asList("public/default")));
 
         Map<String, Object> objectMap = tenantsService.getTenantsList(1, 2, "http://localhost:8080");
         Assert.assertEquals(1, objectMap.get("total"));
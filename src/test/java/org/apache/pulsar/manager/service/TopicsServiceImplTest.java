@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.apache.pulsar.common.api.proto.PulsarApi;
 
 @RunWith(SpringRunner.class)
@@ -79,8 +80,8 @@ public class TopicsServiceImplTest {
                         "persistent://public/default/test900"
                 )
         );
-        Mockito.when(topics.getPartitionedTopicMetadata("persistent://public/default/test900")).thenReturn(
-                new PartitionedTopicMetadata(3)
+        Mockito.when(topics.getPartitionedTopicMetadataAsync("persistent://public/default/test900")).thenReturn(
+                CompletableFuture.completedFuture(new PartitionedTopicMetadata(3))
         );
         Map<String, Object> topicsMap = topicsService.getTopicsList(
                 1, 1, "public", "default", "http://localhost:8080");
@@ -89,6 +90,103 @@ public class TopicsServiceImplTest {
         Assert.assertEquals("[{partitions=0, topic=test789, persistent=persistent}, {partitions=3, topic=test900, persistent=persistent}]", topicsMap.get("topics").toString());
     }
 
+    @Test
+    public void getTopicCountAsyncTest() {
+        Mockito.when(pulsarAdminService.topics("http://localhost:8080")).thenReturn(topics);
+        Mockito.when(topics.getListAsync("public/counted")).thenReturn(CompletableFuture.completedFuture(
+                Arrays.asList(
+                        "persistent://public/counted/test789",
+                        "persistent://public/counted/test900-partition-0",
+                        "persistent://public/counted/test900-partition-1",
+                        "non-persistent://public/counted/test100"
+                )
+        ));
+        Mockito.when(topics.getPartitionedTopicListAsync("public/counted")).thenReturn(
+                CompletableFuture.completedFuture(Arrays.asList("persistent://public/counted/test900")));
+        Assert.assertEquals(3, (int) topicsService.getTopicCountAsync(
+                "public", "counted", "http://localhost:8080").join());
+    }
+
+    @Test
+    public void getTopicsPageTest() throws PulsarAdminException {
+        Mockito.when(pulsarAdminService.topics("http://localhost:8080")).thenReturn(topics);
+        Mockito.when(topics.getList("public/paged")).thenReturn(
+                Arrays.asList(
+                        "persistent://public/paged/test900-partition-0",
+                        "persistent://public/paged/test900-partition-1",
+                        "persistent://public/paged/test789",
+                        "non-persistent://public/paged/test100"
+                )
+        );
+        Mockito.when(topics.getPartitionedTopicList("public/paged")).thenReturn(
+                Arrays.asList(
+                        "persistent://public/paged/test900"
+                )
+        );
+        // The third partition is created lazily and is not in the topic list yet
+        Mockito.when(topics.getPartitionedTopicMetadataAsync("persistent://public/paged/test900")).thenReturn(
+                CompletableFuture.completedFuture(new PartitionedTopicMetadata(3)));
+        Map<String, Object> topicsMap = topicsService.getTopicsPage(
+                1, 2, "public", "paged", "http://localhost:8080");
+        Assert.assertEquals(3, topicsMap.get("total"));
+        Assert.assertTrue((Boolean) topicsMap.get("isPage"));
+        Assert.assertEquals(2, topicsMap.get("pageSize"));
+        List<Map<String, String>> topicsPage = (List<Map<String, String>>) topicsMap.get("topics");
+        Assert.assertEquals(2, topicsPage.size());
+        Assert.assertEquals("test100", topicsPage.get(0).get("topic"));
+        Assert.assertEquals("test789", topicsPage.get(1).get("topic"));
+
+        topicsMap = topicsService.getTopicsPage(
+                2, 2, "public", "paged", "http://localhost:8080");
+        topicsPage = (List<Map<String, String>>) topicsMap.get("topics");
+        Assert.assertEquals(1, topicsPage.size());
+        Assert.assertEquals("test900", topicsPage.get(0).get("topic"));
+        Assert.assertEquals("3", topicsPage.get(0).get("partitions"));
+    }
+
+    @Test
+    public void partitionedTopicMetadataCacheTest() throws PulsarAdminException {
+        Mockito.when(pulsarAdminService.topics("http://localhost:8080")).thenReturn(topics);
+        Mockito.when(topics.getList("public/cached")).thenReturn(
+                Arrays.asList("persistent://public/cached/test100"));
+        Mockito.when(topics.getPartitionedTopicList("public/cached")).thenReturn(
+                Arrays.asList("persistent://public/cached/test950"));
+        Mockito.when(topics.getPartitionedTopicMetadataAsync("persistent://public/cached/test950")).thenReturn(
+                CompletableFuture.completedFuture(new PartitionedTopicMetadata(4)));
+        for (int i = 0; i < 2; i++) {
+            Map<String, Object> topicsMap = topicsService.getTopicsList(
+                    0, 0, "public", "cached", "http://localhost:8080");
+            Assert.assertEquals("[{partitions=0, topic=test100, persistent=persistent}, {partitions=4, topic=test950, persistent=persistent}]", topicsMap.get("topics").toString());
+        }
+        Mockito.verify(topics, Mockito.times(1))
+                .getPartitionedTopicMetadataAsync("persistent://public/cached/test950");
+    }
+
+    @Test
+    public void topicListCacheTest() throws PulsarAdminException {
+        Mockito.when(pulsarAdminService.topics("http://localhost:8080")).thenReturn(topics);
+        Mockito.when(topics.getList("public/listed")).thenReturn(
+                Arrays.asList("persistent://public/listed/test100"));
+        Mockito.when(topics.getPartitionedTopicList("public/listed")).thenReturn(new ArrayList<>());
+        Map<String, Object> firstMap = topicsService.getTopicsList(0, 0, "public", "listed", "http://localhost:8080");
+        Map<String, Object> topicsMap = topicsService.getTopicsList(0, 0, "public", "listed", "http://localhost:8080");
+        Assert.assertEquals(1, topicsMap.get("total"));
+        // The sorted listing is built once per cached topic list
+        Assert.assertSame(firstMap.get("topics"), topicsMap.get("topics"));
+        Mockito.verify(topics, Mockito.times(1)).getList("public/listed");
+
+        Mockito.when(topics.getList("public/listed")).thenReturn(
+                Arrays.asList("persistent://public/listed/test100", "persistent://public/listed/test200"));
+        topicsService.invalidateTopicList("public", "listed");
+        topicsMap = topicsService.getTopicsList(0, 0, "public", "listed", "http://localhost:8080");
+        Assert.assertEquals(2, topicsMap.get("total"));
+        Mockito.verify(topics, Mockito.times(2)).getList("public/listed");
+
+        Map<String, Object> topicListStats = (Map<String, Object>) topicsService.getCacheStats().get("topicList");
+        Assert.assertTrue((Long) topicListStats.get("hitCount") >= 1);
+        Assert.assertTrue((Long) topicListStats.get("missCount") >= 2);
+    }
+
     @Test
     public void getTopicsStatsImplTest() throws Exception {
         String environment = "staging";
@@ -0,0 +1,65 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+import org.apache.pulsar.manager.controller.exception.PulsarAdminOperationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class AsyncUtilTest {
+
+    @Test
+    public void mapAsyncBoundsInFlightCallsTest() {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CompletableFuture<List<Integer>> result = AsyncUtil.mapAsync(items, 4, (item) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            pending.add(future);
+            return future.whenComplete((value, e) -> inFlight.decrementAndGet());
+        });
+        // Complete the calls in the order they were issued, each completion issues the next call
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).complete(i * 2);
+        }
+        Assert.assertEquals(4, maxInFlight.get());
+        Assert.assertEquals(items.stream().map((i) -> i * 2).collect(Collectors.toList()), result.join());
+    }
+
+    @Test
+    public void mapAsyncCompletedCallsTest() {
+        List<Integer> items = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+        List<Integer> result = AsyncUtil.join(AsyncUtil.mapAsync(items, 2, CompletableFuture::completedFuture));
+        Assert.assertEquals(items, result);
+    }
+
+    @Test(expected = PulsarAdminOperationException.class)
+    public void joinRethrowsCauseTest() {
+        AsyncUtil.join(AsyncUtil.mapAsync(Arrays.asList("a", "b"), 2, (item) -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new PulsarAdminOperationException("Failed " + item));
+            return future;
+        }));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HttpUtilTest {
+
+    private HttpServer server;
+
+    private String url;
+
+    private static final long STREAM_BODY_SIZE = 256L * 1024 * 1024;
+
+    private final AtomicLong streamBytesWritten = new AtomicLong();
+
+    private final CountDownLatch streamFinished = new CountDownLatch(1);
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/bookie/list_bookies", exchange -> {
+            byte[] body = "{\"127.0.0.1:3181\" : \"localhost\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/admin/v2/broker-stats/topics", exchange -> {
+            byte[] chunk = new byte[64 * 1024];
+            exchange.sendResponseHeaders(200, STREAM_BODY_SIZE);
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (streamBytesWritten.get() < STREAM_BODY_SIZE) {
+                    out.write(chunk);
+                    streamBytesWritten.addAndGet(chunk.length);
+                }
+            } catch (IOException e) {
+                // The client went away
+            } finally {
+                streamFinished.countDown();
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void teardown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void doGetParsesResponseBodyTest() {
+        Map<String, String> bookies = HttpUtil.doGet(url + "/api/v1/bookie/list_bookies", Maps.newHashMap(),
+                new TypeToken<Map<String, String>>() {}.getType());
+        Assert.assertEquals("localhost", bookies.get("127.0.0.1:3181"));
+        Assert.assertEquals("{\"127.0.0.1:3181\" : \"localhost\"}",
+                HttpUtil.doGet(url + "/api/v1/bookie/list_bookies", Maps.newHashMap()));
+        Assert.assertNull(HttpUtil.doGet(url + "/api/v1/bookie/missing", Maps.newHashMap()));
+    }
+
+    @Test
+    public void poolStatsTest() {
+        HttpUtil.doGet(url + "/api/v1/bookie/list_bookies", Maps.newHashMap());
+        Map<String, Object> poolStats = HttpUtil.getPoolStats();
+        Map<String, Object> totalStats = (Map<String, Object>) poolStats.get("total");
+        Assert.assertEquals(0, totalStats.get("leased"));
+        Assert.assertEquals(0, totalStats.get("pending"));
+        Map<String, Object> routeStats = (Map<String, Object>) ((Map<String, Object>) poolStats.get("routes")).get(url);
+        // The connection went back to the pool once the response was read
+        Assert.assertEquals(1, routeStats.get("available"));
+    }
+
+    @Test
+    public void doGetStreamClosedEarlyDropsConnectionTest() throws Exception {
+        try (InputStream in = HttpUtil.doGetStream(url + "/admin/v2/broker-stats/topics", Maps.newHashMap())) {
+            byte[] buffer = new byte[1024];
+            Assert.assertTrue(in.read(buffer) > 0);
+        }
+        // The rest of the body was not drained, the server saw the connection drop
+        Assert.assertTrue(streamFinished.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(streamBytesWritten.get() < STREAM_BODY_SIZE);
+        Map<String, Object> poolStats = HttpUtil.getPoolStats();
+        Map<String, Object> totalStats = (Map<String, Object>) poolStats.get("total");
+        Assert.assertEquals(0, totalStats.get("leased"));
+        Map<String, Object> routeStats = (Map<String, Object>) ((Map<String, Object>) poolStats.get("routes")).get(url);
+        if (routeStats != null) {
+            Assert.assertEquals(0, routeStats.get("available"));
+        }
+    }
+
+    @Test
+    public void doGetStreamReadToEndReusesConnectionTest() throws Exception {
+        try (InputStream in = HttpUtil.doGetStream(url + "/api/v1/bookie/list_bookies", Maps.newHashMap())) {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) != -1) {
+                // Read the whole body
+            }
+        }
+        Map<String, Object> poolStats = HttpUtil.getPoolStats();
+        Map<String, Object> routeStats = (Map<String, Object>) ((Map<String, Object>) poolStats.get("routes")).get(url);
+        Assert.assertEquals(1, routeStats.get("available"));
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pulsar.manager.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+
+public class NumberUtilTest {
+
+    @Test
+    public void round2Test() {
+        Assert.assertEquals(0.0, NumberUtil.round2(0.0), 0);
+        Assert.assertEquals(1.23, NumberUtil.round2(1.234), 0);
+        Assert.assertEquals(1.24, NumberUtil.round2(1.236), 0);
+        Assert.assertEquals(-1.24, NumberUtil.round2(-1.236), 0);
+        Assert.assertEquals(123456789.12, NumberUtil.round2(123456789.1234), 0);
+        Assert.assertTrue(Double.isNaN(NumberUtil.round2(Double.NaN)));
+        Assert.assertEquals(Double.POSITIVE_INFINITY, NumberUtil.round2(Double.POSITIVE_INFINITY), 0);
+    }
+
+    @Test
+    public void round2MatchesDecimalFormatTest() {
+        DecimalFormat df = new DecimalFormat("#.##");
+        double[] values = {0.001, 0.004, 0.126, 3.14159, 99.999, 1024.5, 65536.789, 1.0E9 / 7};
+        for (double value : values) {
+            Assert.assertEquals(Double.parseDouble(df.format(value)), NumberUtil.round2(value), 0);
+        }
+    }
+}